@@ -0,0 +1,349 @@
+package io.github.keufcp;
+
+import eu.midnightdust.lib.config.MidnightConfig;
+import io.github.keufcp.utils.AlertEngine;
+import io.github.keufcp.utils.EntityPopulationCounter;
+import io.github.keufcp.utils.JfrTickEvents;
+import io.github.keufcp.utils.MetricsHistory;
+import io.github.keufcp.utils.MetricsSnapshotPublisher;
+import io.github.keufcp.utils.MobHotspotScanner;
+import io.github.keufcp.utils.StallWatchdog;
+import io.github.keufcp.utils.TickCostProfiler;
+import io.github.keufcp.utils.TickPhaseProfiler;
+import io.github.keufcp.utils.TickTimeUtil;
+import io.github.keufcp.utils.WebhookSender;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * 設定差分リロードクラス．
+ *
+ * <p>{@link ServerUtilsMidnightConfig} の全 {@code @Entry} 値を前回適用時と比較し，値が変化した項目に関係する機能のみ再設定．
+ * Tick計測値・Webhook配送キュー・変更の無い定期送信スケジュールは維持． {@link ServerUtilsMidnightConfig#watchConfigFile}
+ * 有効時は設定ファイルを監視し，変更をサーバースレッド上で自動適用．
+ */
+public class ConfigReloader {
+
+  /** 変更検出後，連続した書込みをまとめるための待機時間（ミリ秒） */
+  private static final long WATCH_DEBOUNCE_MILLIS = 500;
+
+  /** 設定ファイル */
+  private static final Path CONFIG_FILE =
+      FabricLoader.getInstance().getConfigDir().resolve(ServerUtils.MOD_ID + ".json");
+
+  /** 前回適用時の設定値（フィールド名→値） */
+  private static Map<String, Object> applied = Map.of();
+
+  /** 前回読込時の設定ファイル内容．自身の書込みによる監視イベントの無視に使用 */
+  private static volatile byte[] lastFileContent;
+
+  /** 設定ファイル監視スレッド */
+  private static Thread watcherThread;
+
+  /** 設定ファイル監視サービス */
+  private static WatchService watchService;
+
+  /** 現在の設定値を適用済みとして記録． 起動時の初期化後に呼出． */
+  public static synchronized void markApplied() {
+    applied = capture();
+    lastFileContent = readConfigFile();
+  }
+
+  /**
+   * 設定再読込と差分適用． サーバースレッドから呼出．
+   *
+   * @param server 実行中サーバー
+   * @return 値が変化した設定項目名
+   */
+  public static synchronized Set<String> reload(MinecraftServer server) {
+    MidnightConfig.init(ServerUtils.MOD_ID, ServerUtilsMidnightConfig.class);
+    ServerUtilsMidnightConfig.validateAll();
+    lastFileContent = readConfigFile();
+
+    Map<String, Object> current = capture();
+    Set<String> changed = new LinkedHashSet<>();
+    for (Map.Entry<String, Object> entry : current.entrySet()) {
+      if (!Objects.equals(entry.getValue(), applied.get(entry.getKey()))) {
+        changed.add(entry.getKey());
+      }
+    }
+    applied = current;
+
+    if (!changed.isEmpty()) {
+      ServerUtils.LOGGER.info("Applying changed config values: {}", changed);
+      apply(changed, server);
+    }
+    return changed;
+  }
+
+  /**
+   * 変化した設定項目の適用．
+   *
+   * @param changed 値が変化した設定項目名
+   * @param server 実行中サーバー
+   */
+  private static void apply(Set<String> changed, MinecraftServer server) {
+    if (changed.contains("locale")) {
+      String localeCode = ServerUtilsMidnightConfig.locale;
+      // アンダースコア区切り言語コード(en_US)のハイフン区切り(en-US)への変換
+      ServerUtils.LOCALE = Locale.forLanguageTag(localeCode.replace('_', '-'));
+      ServerUtils.LANG = new LangManager(localeCode);
+    }
+
+    // Tickサンプル数（既存サンプルは引き継ぎ）・フェーズ計測・スナップショット・アラート
+    if (changed.contains("tickSampleWindow")) {
+      TickTimeUtil.setSampleWindow(ServerUtilsMidnightConfig.tickSampleWindow);
+    }
+    if (changed.contains("enableTickBreakdown")) {
+      TickPhaseProfiler.setEnabled(ServerUtilsMidnightConfig.enableTickBreakdown);
+    }
+    if (containsAny(changed, "enableTickCost", "tickCostSampleInterval", "tickCostBudgetMicros")) {
+      TickCostProfiler.configure(
+          ServerUtilsMidnightConfig.enableTickCost,
+          ServerUtilsMidnightConfig.tickCostSampleInterval,
+          ServerUtilsMidnightConfig.tickCostBudgetMicros);
+    }
+    if (changed.contains("snapshotIntervalTicks")) {
+      MetricsSnapshotPublisher.setInterval(ServerUtilsMidnightConfig.snapshotIntervalTicks);
+    }
+    if (changed.contains("enableAlerts")) {
+      AlertEngine.setEnabled(ServerUtilsMidnightConfig.enableAlerts);
+    }
+
+    if (containsAny(
+        changed,
+        "enableJfrEvents",
+        "enableJfrSlowTickDump",
+        "jfrSlowTickThresholdMillis",
+        "jfrDumpCooldownSeconds")) {
+      JfrTickEvents.configure(
+          ServerUtilsMidnightConfig.enableJfrEvents,
+          ServerUtilsMidnightConfig.enableJfrSlowTickDump,
+          ServerUtilsMidnightConfig.jfrSlowTickThresholdMillis,
+          ServerUtilsMidnightConfig.jfrDumpCooldownSeconds);
+    }
+
+    // ストール監視設定
+    if (changed.contains("stallWatchdogThresholdMillis")) {
+      StallWatchdog.setThreshold(ServerUtilsMidnightConfig.stallWatchdogThresholdMillis);
+    }
+    if (changed.contains("enableStallWatchdog")) {
+      if (ServerUtilsMidnightConfig.enableStallWatchdog) {
+        StallWatchdog.start(server.getThread());
+      } else {
+        StallWatchdog.stop();
+      }
+    }
+
+    // Webhook送信先・スケジュール（変更の無い送信先・スケジュールは維持）
+    if (containsAny(
+        changed, "enableSendWebhook", "webhookUrl", "webhookCronExpression", "webhookTargets")) {
+      WebhookSender.initialize();
+    }
+
+    // メトリクス履歴
+    if (containsAny(
+        changed,
+        "historyRawRetentionHours",
+        "historyMinuteRetentionDays",
+        "historyRetentionDays")) {
+      MetricsHistory.setRetention(
+          ServerUtilsMidnightConfig.historyRawRetentionHours,
+          ServerUtilsMidnightConfig.historyMinuteRetentionDays,
+          ServerUtilsMidnightConfig.historyRetentionDays);
+    }
+    if (changed.contains("enableHistory")) {
+      if (ServerUtilsMidnightConfig.enableHistory) {
+        MetricsHistory.start(
+            ServerUtilsMidnightConfig.historyRawRetentionHours,
+            ServerUtilsMidnightConfig.historyMinuteRetentionDays,
+            ServerUtilsMidnightConfig.historyRetentionDays);
+      } else {
+        MetricsHistory.stop();
+      }
+    }
+
+    // Mob密集箇所走査（走査中の巡回・前回結果は維持）
+    if (containsAny(
+        changed, "hotspotScanBudgetMicros", "hotspotScanBudgets", "hotspotScanIntervalSeconds")) {
+      MobHotspotScanner.configure(
+          ServerUtilsMidnightConfig.hotspotScanBudgetMicros,
+          ServerUtilsMidnightConfig.hotspotScanBudgets,
+          ServerUtilsMidnightConfig.hotspotScanIntervalSeconds);
+    }
+
+    // エンティティ数再集計（計数値は維持）
+    if (changed.contains("entityReconcileIntervalSeconds")) {
+      EntityPopulationCounter.setReconcileInterval(
+          ServerUtilsMidnightConfig.entityReconcileIntervalSeconds);
+    }
+
+    if (changed.contains("watchConfigFile")) {
+      if (ServerUtilsMidnightConfig.watchConfigFile) {
+        startWatching(server);
+      } else {
+        stopWatching();
+      }
+    }
+  }
+
+  /**
+   * 設定ファイル監視開始． 既に監視中の場合は何もしない．
+   *
+   * @param server 実行中サーバー（変更適用はこのサーバースレッド上で実行）
+   */
+  public static synchronized void startWatching(MinecraftServer server) {
+    if (watcherThread != null) {
+      return;
+    }
+    try {
+      watchService = CONFIG_FILE.getFileSystem().newWatchService();
+      CONFIG_FILE
+          .getParent()
+          .register(
+              watchService,
+              StandardWatchEventKinds.ENTRY_CREATE,
+              StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException e) {
+      ServerUtils.LOGGER.error("Failed to watch config file {}", CONFIG_FILE, e);
+      return;
+    }
+
+    WatchService service = watchService;
+    Thread thread = new Thread(() -> watch(service, server), "ServerUtils-ConfigWatcher");
+    thread.setDaemon(true);
+    watcherThread = thread;
+    thread.start();
+    ServerUtils.LOGGER.info("Watching config file {}", CONFIG_FILE);
+  }
+
+  /** 設定ファイル監視停止． */
+  public static synchronized void stopWatching() {
+    if (watcherThread == null) {
+      return;
+    }
+    watcherThread = null;
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      ServerUtils.LOGGER.warn("Failed to close config watcher", e);
+    }
+    watchService = null;
+    ServerUtils.LOGGER.info("Stopped watching config file");
+  }
+
+  /**
+   * 監視スレッド処理． 設定ファイルの変更を検出後，一定時間イベントをまとめてから内容を比較し，変化していればサーバースレッドで再読込．
+   *
+   * @param service 監視サービス
+   * @param server 実行中サーバー
+   */
+  private static void watch(WatchService service, MinecraftServer server) {
+    try {
+      while (true) {
+        WatchKey key = service.take();
+        boolean touched = pollEvents(key);
+        // エディタ等による連続書込みをまとめる
+        WatchKey next;
+        while ((next = service.poll(WATCH_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+          touched |= pollEvents(next);
+        }
+        if (!touched) {
+          continue;
+        }
+
+        byte[] content = readConfigFile();
+        if (content == null || Arrays.equals(content, lastFileContent)) {
+          continue; // 自身の書込み・内容変化無し
+        }
+        server.execute(
+            () -> {
+              try {
+                Set<String> changed = reload(server);
+                ServerUtils.LOGGER.info("Config file changed, {} value(s) applied", changed.size());
+              } catch (RuntimeException e) {
+                ServerUtils.LOGGER.error("Failed to apply config file change", e);
+              }
+            });
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // 監視停止
+    }
+  }
+
+  /**
+   * 監視イベント取出し．
+   *
+   * @param key 監視キー
+   * @return 設定ファイルに関するイベントを含む場合true
+   */
+  private static boolean pollEvents(WatchKey key) {
+    boolean touched = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.context() instanceof Path path
+          && path.getFileName().equals(CONFIG_FILE.getFileName())) {
+        touched = true;
+      }
+    }
+    key.reset();
+    return touched;
+  }
+
+  private static byte[] readConfigFile() {
+    try {
+      return Files.readAllBytes(CONFIG_FILE);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * 全設定値の取得． 可変値（リスト）は複製．
+   *
+   * @return フィールド名→値
+   */
+  private static Map<String, Object> capture() {
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (Field field : ServerUtilsMidnightConfig.class.getDeclaredFields()) {
+      if (!Modifier.isStatic(field.getModifiers())
+          || !field.isAnnotationPresent(MidnightConfig.Entry.class)) {
+        continue;
+      }
+      try {
+        Object value = field.get(null);
+        values.put(field.getName(), value instanceof List<?> list ? List.copyOf(list) : value);
+      } catch (IllegalAccessException e) {
+        ServerUtils.LOGGER.warn("Cannot read config field {}", field.getName(), e);
+      }
+    }
+    return values;
+  }
+
+  private static boolean containsAny(Set<String> changed, String... names) {
+    for (String name : names) {
+      if (changed.contains(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -1,14 +1,33 @@
 package io.github.keufcp;
 
 import eu.midnightdust.lib.config.MidnightConfig;
+import io.github.keufcp.commands.ServerUtilsEntitiesCommand;
+import io.github.keufcp.commands.ServerUtilsHistoryCommand;
+import io.github.keufcp.commands.ServerUtilsLagCommand;
 import io.github.keufcp.commands.ServerUtilsMobCapCommand;
 import io.github.keufcp.commands.ServerUtilsMsptCommand;
+import io.github.keufcp.commands.ServerUtilsProfileCommand;
 import io.github.keufcp.commands.ServerUtilsReloadCommand;
+import io.github.keufcp.commands.ServerUtilsTickCostCommand;
 import io.github.keufcp.commands.ServerUtilsTpsCommand;
+import io.github.keufcp.commands.ServerUtilsWebhookCommand;
 import io.github.keufcp.commands.UptimeCommand;
+import io.github.keufcp.utils.AlertEngine;
+import io.github.keufcp.utils.EntityPopulationCounter;
+import io.github.keufcp.utils.JfrTickEvents;
+import io.github.keufcp.utils.LocalMobCapTracker;
+import io.github.keufcp.utils.MetricsHistory;
+import io.github.keufcp.utils.MetricsSnapshotPublisher;
+import io.github.keufcp.utils.MobHotspotScanner;
+import io.github.keufcp.utils.ServerThreadProfiler;
+import io.github.keufcp.utils.StallWatchdog;
+import io.github.keufcp.utils.TickCostProfiler;
+import io.github.keufcp.utils.TickPhaseProfiler;
+import io.github.keufcp.utils.TickTimeUtil;
 import io.github.keufcp.utils.WebhookSender;
 import java.util.Locale;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,21 +69,82 @@ public class ServerUtils implements ModInitializer {
     String localeCode = ServerUtilsMidnightConfig.locale;
     LOCALE = Locale.forLanguageTag(localeCode);
     LANG = new LangManager(localeCode);
+    TickTimeUtil.setSampleWindow(ServerUtilsMidnightConfig.tickSampleWindow);
+    TickPhaseProfiler.setEnabled(ServerUtilsMidnightConfig.enableTickBreakdown);
+    TickCostProfiler.configure(
+        ServerUtilsMidnightConfig.enableTickCost,
+        ServerUtilsMidnightConfig.tickCostSampleInterval,
+        ServerUtilsMidnightConfig.tickCostBudgetMicros);
+    MetricsSnapshotPublisher.setInterval(ServerUtilsMidnightConfig.snapshotIntervalTicks);
+    AlertEngine.setEnabled(ServerUtilsMidnightConfig.enableAlerts);
+    JfrTickEvents.configure(
+        ServerUtilsMidnightConfig.enableJfrEvents,
+        ServerUtilsMidnightConfig.enableJfrSlowTickDump,
+        ServerUtilsMidnightConfig.jfrSlowTickThresholdMillis,
+        ServerUtilsMidnightConfig.jfrDumpCooldownSeconds);
+    StallWatchdog.setThreshold(ServerUtilsMidnightConfig.stallWatchdogThresholdMillis);
+    MobHotspotScanner.configure(
+        ServerUtilsMidnightConfig.hotspotScanBudgetMicros,
+        ServerUtilsMidnightConfig.hotspotScanBudgets,
+        ServerUtilsMidnightConfig.hotspotScanIntervalSeconds);
+    EntityPopulationCounter.setReconcileInterval(
+        ServerUtilsMidnightConfig.entityReconcileIntervalSeconds);
     UptimeCommand.register();
     ServerUtilsTpsCommand.register();
     ServerUtilsReloadCommand.register();
     ServerUtilsMsptCommand.register();
     ServerUtilsMobCapCommand.register();
+    ServerUtilsProfileCommand.register();
+    ServerUtilsLagCommand.register();
+    ServerUtilsWebhookCommand.register();
+    ServerUtilsHistoryCommand.register();
+    ServerUtilsEntitiesCommand.register();
+    ServerUtilsTickCostCommand.register();
 
-    if (ServerUtilsMidnightConfig.enableSendWebhook) {
-      WebhookSender.initialize();
-    }
+    // エンティティ数の計数
+    ServerEntityEvents.ENTITY_LOAD.register(EntityPopulationCounter::onLoad);
+    ServerEntityEvents.ENTITY_UNLOAD.register(EntityPopulationCounter::onUnload);
 
-    // サーバーシャットダウン時，WebhookSenderシャットダウンメソッド呼び出し
+    // 送信先はアラート通知でも使用するため常に初期化（定期送信は設定で判定）
+    WebhookSender.initialize();
+
+    // リロード時の差分比較基準として記録
+    ConfigReloader.markApplied();
+
+    // サーバー起動時，ストール監視・設定ファイル監視・メトリクス履歴記録開始
+    ServerLifecycleEvents.SERVER_STARTED.register(
+        server -> {
+          if (ServerUtilsMidnightConfig.enableStallWatchdog) {
+            StallWatchdog.start(server.getThread());
+          }
+          if (ServerUtilsMidnightConfig.watchConfigFile) {
+            ConfigReloader.startWatching(server);
+          }
+          if (ServerUtilsMidnightConfig.enableHistory) {
+            MetricsHistory.start(
+                ServerUtilsMidnightConfig.historyRawRetentionHours,
+                ServerUtilsMidnightConfig.historyMinuteRetentionDays,
+                ServerUtilsMidnightConfig.historyRetentionDays);
+          }
+        });
+
+    // サーバーシャットダウン時，設定ファイル監視・WebhookSender・プロファイラ・JFR記録・メトリクス履歴・ストール監視停止，
+    // スナップショット・ローカルMobCapインデックス・ホットスポット走査結果・エンティティ数・Tickコスト破棄
     ServerLifecycleEvents.SERVER_STOPPING.register(
         server -> {
           LOGGER.info("Server is stopping, shutting down webhook sender...");
+          ConfigReloader.stopWatching();
           WebhookSender.shutdown();
+          WebhookSender.shutdownDelivery();
+          ServerThreadProfiler.stop();
+          JfrTickEvents.shutdown();
+          MetricsHistory.stop();
+          StallWatchdog.stop();
+          MetricsSnapshotPublisher.clear();
+          LocalMobCapTracker.clear();
+          MobHotspotScanner.clear();
+          EntityPopulationCounter.clear();
+          TickCostProfiler.clear();
         });
   }
 }
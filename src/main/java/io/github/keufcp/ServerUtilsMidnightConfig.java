@@ -1,6 +1,12 @@
 package io.github.keufcp;
 
 import eu.midnightdust.lib.config.MidnightConfig;
+import io.github.keufcp.utils.CronExpression;
+import io.github.keufcp.utils.MobHotspotScanner;
+import io.github.keufcp.utils.TickTimeUtil;
+import io.github.keufcp.utils.WebhookTarget;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * ServerUtils設定クラス．
@@ -14,6 +20,39 @@ import eu.midnightdust.lib.config.MidnightConfig;
  *   <li>enableSendWebhook: Webhook送信有効化
  *   <li>webhookUrl: Webhook送信先URL
  *   <li>webhookCronExpression: Webhook送信間隔（cron式）
+ *   <li>webhookTargets: 追加のWebhook送信先
+ *   <li>enableWebhookChart: 定期レポートへの履歴グラフ添付
+ *   <li>tickSampleWindow: MSPT平均算出用Tickサンプル数
+ *   <li>enableTickBreakdown: Tick内フェーズ別処理時間計測有効化
+ *   <li>profilerSampleIntervalMillis: プロファイラのサンプリング間隔
+ *   <li>profilerSlowTickThresholdMillis: プロファイラの対象Tick閾値
+ *   <li>profilerMaxNodes: プロファイラ集計ノード数上限
+ *   <li>enableJfrEvents: JFRカスタムイベント発行有効化
+ *   <li>enableJfrSlowTickDump: 低速Tick時のJFR記録ダンプ有効化
+ *   <li>jfrSlowTickThresholdMillis: JFRダンプ対象Tick閾値
+ *   <li>jfrDumpCooldownSeconds: JFRダンプ間隔下限
+ *   <li>enableStallWatchdog: サーバースレッドのストール監視有効化
+ *   <li>stallWatchdogThresholdMillis: ストール検出閾値
+ *   <li>snapshotIntervalTicks: メトリクススナップショット公開間隔
+ *   <li>enableAlerts: 閾値アラート有効化
+ *   <li>alertTpsThreshold: 低TPSアラート閾値
+ *   <li>alertTpsSeconds: 低TPSアラート発火までの継続時間
+ *   <li>alertMsptP99Millis: 高MSPTアラート閾値（p99）
+ *   <li>alertMsptSeconds: 高MSPTアラート発火までの継続時間
+ *   <li>alertMobCapSeconds: MobCap飽和アラート発火までの継続時間
+ *   <li>alertResolveSeconds: アラート解消までの継続時間
+ *   <li>watchConfigFile: 設定ファイル変更の自動適用
+ *   <li>enableHistory: メトリクス履歴記録有効化
+ *   <li>historyRawRetentionHours: 1秒毎のメトリクス履歴保持時間
+ *   <li>historyMinuteRetentionDays: 1分集約のメトリクス履歴保持日数
+ *   <li>historyRetentionDays: 1時間集約のメトリクス履歴保持日数
+ *   <li>hotspotScanBudgetMicros: Mob密集箇所走査のTick毎時間予算
+ *   <li>hotspotScanBudgets: ディメンション毎のMob密集箇所走査時間予算
+ *   <li>hotspotScanIntervalSeconds: Mob密集箇所走査の開始間隔
+ *   <li>entityReconcileIntervalSeconds: エンティティ数再集計間隔
+ *   <li>enableTickCost: エンティティ・ブロックエンティティのTickコスト計測有効化
+ *   <li>tickCostSampleInterval: Tickコスト計測間隔
+ *   <li>tickCostBudgetMicros: Tickコスト計測のTick毎コスト予算
  * </ul>
  */
 public class ServerUtilsMidnightConfig extends MidnightConfig {
@@ -62,9 +101,134 @@ public class ServerUtilsMidnightConfig extends MidnightConfig {
   /** Webhook送信間隔（cron式）． デフォルトは毎日午前0時（"0 0 0 * * ?"）． */
   @Entry public static String webhookCronExpression = "0 0 0 * * ?";
 
+  /**
+   * 追加のWebhook送信先． 各要素は {@code 名前|URL|トリガー|形式}．
+   *
+   * <p>トリガーは {@code cron:<cron式>} または {@code alerts}，形式は {@code embed}（省略時）または {@code json}．
+   */
+  @Entry public static List<String> webhookTargets = new ArrayList<>();
+
+  /** 定期レポートへの履歴グラフ添付フラグ． 埋め込み形式の送信先へレポート間隔分のMSPT・TPS・プレイヤー数のグラフを添付（要 {@link #enableHistory}）． */
+  @Entry public static boolean enableWebhookChart = true;
+
   /** 色付きテキスト出力有効化フラグ */
   @Entry public static boolean enableColoredOutput = true;
 
+  /** MSPT平均算出用Tickサンプル数． 記録コストはサンプル数に依らず一定（デフォルト100，最大72000 = 1時間分）． */
+  @Entry(min = 1, max = TickTimeUtil.MAX_TICK_TIME_SAMPLES)
+  public static int tickSampleWindow = 100;
+
+  /** Tick内フェーズ別処理時間計測有効化フラグ． {@code /suMspt breakdown on|off} でも切替可能． */
+  @Entry public static boolean enableTickBreakdown = false;
+
+  /** プロファイラのサンプリング間隔（ミリ秒）． デフォルト10ms． */
+  @Entry(min = 1, max = 1000)
+  public static int profilerSampleIntervalMillis = 10;
+
+  /** プロファイラの対象Tick閾値（ミリ秒）． 実行中Tickがこの時間を超えている間のみサンプリング．0で常時． */
+  @Entry(min = 0, max = 60000)
+  public static int profilerSlowTickThresholdMillis = 0;
+
+  /** プロファイラ集計ノード数上限． メモリ使用量の上限を決定． */
+  @Entry(min = 1000, max = 5000000)
+  public static int profilerMaxNodes = 200000;
+
+  /** JFRカスタムイベント（Tick・MobCap）発行有効化フラグ */
+  @Entry public static boolean enableJfrEvents = false;
+
+  /** 低速Tick時のJFR継続記録ダンプ有効化フラグ */
+  @Entry public static boolean enableJfrSlowTickDump = false;
+
+  /** JFRダンプ対象Tick閾値（ミリ秒）． デフォルト200ms． */
+  @Entry(min = 1, max = 60000)
+  public static int jfrSlowTickThresholdMillis = 200;
+
+  /** JFRダンプ間隔下限（秒）． 連続した低速Tickによるダンプ多発防止． */
+  @Entry(min = 1, max = 86400)
+  public static int jfrDumpCooldownSeconds = 60;
+
+  /** サーバースレッドのストール監視有効化フラグ */
+  @Entry public static boolean enableStallWatchdog = true;
+
+  /** ストール検出閾値（ミリ秒）． 実行中Tickがこの時間を超えた時点でスタックを取得． デフォルト2000ms． */
+  @Entry(min = 100, max = 600000)
+  public static int stallWatchdogThresholdMillis = 2000;
+
+  /** メトリクススナップショット公開間隔（Tick）． Webhook・コマンドが参照する値の更新間隔． デフォルト20Tick． */
+  @Entry(min = 1, max = 1200)
+  public static int snapshotIntervalTicks = 20;
+
+  /** 閾値アラート有効化フラグ． 発火・解消時に {@link #webhookUrl} へ通知． */
+  @Entry public static boolean enableAlerts = false;
+
+  /** 低TPSアラート閾値． 5秒窓TPSがこの値未満で発火条件成立． */
+  @Entry(min = 0, max = 1000)
+  public static double alertTpsThreshold = 15.0;
+
+  /** 低TPSアラート発火までの継続時間（秒）． 0で無効． */
+  @Entry(min = 0, max = 86400)
+  public static int alertTpsSeconds = 30;
+
+  /** 高MSPTアラート閾値（ミリ秒）． 1分窓p99 Tick時間がこの値超過で発火条件成立． */
+  @Entry(min = 1, max = 60000)
+  public static int alertMsptP99Millis = 100;
+
+  /** 高MSPTアラート発火までの継続時間（秒）． 0で無効． */
+  @Entry(min = 0, max = 86400)
+  public static int alertMsptSeconds = 30;
+
+  /** MobCap飽和アラート発火までの継続時間（秒）． 0で無効． */
+  @Entry(min = 0, max = 86400)
+  public static int alertMobCapSeconds = 300;
+
+  /** アラート解消までの継続時間（秒）． 解消条件がこの時間継続した時点で解消通知． */
+  @Entry(min = 0, max = 86400)
+  public static int alertResolveSeconds = 30;
+
+  /** 設定ファイル変更の自動適用フラグ． 有効時はファイル保存で {@code /suReload} と同じ差分適用を実行． */
+  @Entry public static boolean watchConfigFile = false;
+
+  /** メトリクス履歴記録有効化フラグ． 1秒毎のTPS・MSPT・プレイヤー数・MobCapを {@code serverutils/history} へ記録． */
+  @Entry public static boolean enableHistory = true;
+
+  /** 1秒毎のメトリクス履歴保持時間． 1時間あたり約370KB． デフォルト48時間． */
+  @Entry(min = 1, max = 720)
+  public static int historyRawRetentionHours = 48;
+
+  /** 1分集約のメトリクス履歴保持日数． デフォルト14日． */
+  @Entry(min = 1, max = 365)
+  public static int historyMinuteRetentionDays = 14;
+
+  /** 1時間集約のメトリクス履歴保持日数． デフォルト90日． */
+  @Entry(min = 1, max = 365)
+  public static int historyRetentionDays = 90;
+
+  /** Mob密集箇所走査のTick毎時間予算（マイクロ秒）． ディメンション毎に適用． 0で無効． デフォルト200マイクロ秒． */
+  @Entry(min = 0, max = 50000)
+  public static int hotspotScanBudgetMicros = 200;
+
+  /** ディメンション毎のMob密集箇所走査時間予算． 各要素は {@code ディメンションID=マイクロ秒}． 指定の無いディメンションは既定予算． */
+  @Entry public static List<String> hotspotScanBudgets = new ArrayList<>();
+
+  /** Mob密集箇所走査の開始間隔（秒）． デフォルト60秒． */
+  @Entry(min = 10, max = 86400)
+  public static int hotspotScanIntervalSeconds = 60;
+
+  /** エンティティ数再集計間隔（秒）． 読込・破棄イベントによる計数値の誤差を補正． 0で無効． デフォルト300秒． */
+  @Entry(min = 0, max = 86400)
+  public static int entityReconcileIntervalSeconds = 300;
+
+  /** エンティティ・ブロックエンティティのTickコスト計測有効化フラグ． {@code /suTickCost on|off} でも切替可能． */
+  @Entry public static boolean enableTickCost = false;
+
+  /** Tickコスト計測間隔（Tick）． 計測コストが予算を超える場合は自動で延長． デフォルト20Tick． */
+  @Entry(min = 1, max = 1200)
+  public static int tickCostSampleInterval = 20;
+
+  /** Tickコスト計測のTick毎コスト予算（マイクロ秒，計測間隔で平均）． 0で無制限． デフォルト100マイクロ秒． */
+  @Entry(min = 0, max = 50000)
+  public static int tickCostBudgetMicros = 100;
+
   /**
    * 全バリデーション実行．
    *
@@ -75,9 +239,20 @@ public class ServerUtilsMidnightConfig extends MidnightConfig {
     validateLocale();
     validateUptimePermissionLevel();
     validateMobcapPermissionLevel();
+    validateWebhookTargets();
     validateEnableSendWebhook();
     validateWebhookUrl();
     validateWebhookCronExpression();
+    validateTickSampleWindow();
+    validateProfilerSettings();
+    validateJfrSettings();
+    validateStallWatchdogThreshold();
+    validateSnapshotInterval();
+    validateAlertSettings();
+    validateHistorySettings();
+    validateHotspotSettings();
+    validateEntityReconcileInterval();
+    validateTickCostSettings();
 
     // バリデーション後，変更有無に関わらず設定ファイルへ書き込み
     ServerUtils.LOGGER.info("Writing configuration values to file after validation.");
@@ -136,10 +311,11 @@ public class ServerUtilsMidnightConfig extends MidnightConfig {
   /**
    * Webhook有効化設定バリデーション．
    *
-   * <p>Webhook URL設定との整合性確保．有効だがURL空時は無効化．
+   * <p>Webhook URL設定との整合性確保．有効だがURL・追加送信先共に空の時は無効化．
    */
   public static void validateEnableSendWebhook() {
-    if (enableSendWebhook && (webhookUrl == null || webhookUrl.isEmpty())) {
+    boolean hasTargets = webhookTargets != null && !webhookTargets.isEmpty();
+    if (enableSendWebhook && (webhookUrl == null || webhookUrl.isEmpty()) && !hasTargets) {
       enableSendWebhook = false;
       ServerUtils.LOGGER.warn("Webhook is enabled but URL is empty. Disabled webhook sending.");
     }
@@ -173,15 +349,216 @@ public class ServerUtilsMidnightConfig extends MidnightConfig {
       webhookCronExpression = "0 0 0 * * ?"; // デフォルト値：毎日午前0時
       ServerUtils.LOGGER.warn(
           "Empty cron expression. Reset to default: 0 0 0 * * ? (daily at midnight)");
-    } else {
-      // 基本的cron式フォーマットチェック
-      String[] parts = webhookCronExpression.trim().split("\\s+");
-      if (parts.length < 6) {
-        webhookCronExpression = "0 0 0 * * ?"; // デフォルト値へリセット
-        ServerUtils.LOGGER.warn(
-            "Invalid cron expression format. Reset to default: 0 0 0 * * ? (daily at"
-                + " midnight)");
-      }
+    } else if (!CronExpression.isValid(webhookCronExpression)) {
+      webhookCronExpression = "0 0 0 * * ?"; // デフォルト値へリセット
+      ServerUtils.LOGGER.warn(
+          "Invalid cron expression format. Reset to default: 0 0 0 * * ? (daily at midnight)");
+    }
+  }
+
+  /**
+   * Tickサンプル数バリデーション．
+   *
+   * <p>1〜{@value TickTimeUtil#MAX_TICK_TIME_SAMPLES} 範囲外の場合，デフォルト値100へリセット．
+   */
+  public static void validateTickSampleWindow() {
+    if (tickSampleWindow < 1 || tickSampleWindow > TickTimeUtil.MAX_TICK_TIME_SAMPLES) {
+      tickSampleWindow = 100;
+      ServerUtils.LOGGER.warn("Invalid tick sample window. Reset to default: 100");
+    }
+  }
+
+  /**
+   * プロファイラ設定バリデーション．
+   *
+   * <p>各値が範囲外の場合，デフォルト値へリセット．
+   */
+  public static void validateProfilerSettings() {
+    if (profilerSampleIntervalMillis < 1 || profilerSampleIntervalMillis > 1000) {
+      profilerSampleIntervalMillis = 10;
+      ServerUtils.LOGGER.warn("Invalid profiler sample interval. Reset to default: 10 ms");
+    }
+    if (profilerSlowTickThresholdMillis < 0 || profilerSlowTickThresholdMillis > 60000) {
+      profilerSlowTickThresholdMillis = 0;
+      ServerUtils.LOGGER.warn("Invalid profiler slow tick threshold. Reset to default: 0 ms");
+    }
+    if (profilerMaxNodes < 1000 || profilerMaxNodes > 5000000) {
+      profilerMaxNodes = 200000;
+      ServerUtils.LOGGER.warn("Invalid profiler max nodes. Reset to default: 200000");
+    }
+  }
+
+  /**
+   * JFR設定バリデーション．
+   *
+   * <p>各値が範囲外の場合，デフォルト値へリセット．
+   */
+  public static void validateJfrSettings() {
+    if (jfrSlowTickThresholdMillis < 1 || jfrSlowTickThresholdMillis > 60000) {
+      jfrSlowTickThresholdMillis = 200;
+      ServerUtils.LOGGER.warn("Invalid JFR slow tick threshold. Reset to default: 200 ms");
+    }
+    if (jfrDumpCooldownSeconds < 1 || jfrDumpCooldownSeconds > 86400) {
+      jfrDumpCooldownSeconds = 60;
+      ServerUtils.LOGGER.warn("Invalid JFR dump cooldown. Reset to default: 60 s");
+    }
+  }
+
+  /**
+   * ストール検出閾値バリデーション．
+   *
+   * <p>100〜600000ms範囲外の場合，デフォルト値2000msへリセット．
+   */
+  public static void validateStallWatchdogThreshold() {
+    if (stallWatchdogThresholdMillis < 100 || stallWatchdogThresholdMillis > 600000) {
+      stallWatchdogThresholdMillis = 2000;
+      ServerUtils.LOGGER.warn("Invalid stall watchdog threshold. Reset to default: 2000 ms");
+    }
+  }
+
+  /**
+   * メトリクススナップショット公開間隔バリデーション．
+   *
+   * <p>1〜1200Tick範囲外の場合，デフォルト値20Tickへリセット．
+   */
+  public static void validateSnapshotInterval() {
+    if (snapshotIntervalTicks < 1 || snapshotIntervalTicks > 1200) {
+      snapshotIntervalTicks = 20;
+      ServerUtils.LOGGER.warn("Invalid snapshot interval. Reset to default: 20 ticks");
+    }
+  }
+
+  /**
+   * アラート設定バリデーション．
+   *
+   * <p>各値が範囲外の場合，デフォルト値へリセット．
+   */
+  public static void validateAlertSettings() {
+    if (Double.isNaN(alertTpsThreshold) || alertTpsThreshold < 0 || alertTpsThreshold > 1000) {
+      alertTpsThreshold = 15.0;
+      ServerUtils.LOGGER.warn("Invalid alert TPS threshold. Reset to default: 15.0");
+    }
+    if (alertTpsSeconds < 0 || alertTpsSeconds > 86400) {
+      alertTpsSeconds = 30;
+      ServerUtils.LOGGER.warn("Invalid alert TPS duration. Reset to default: 30 s");
+    }
+    if (alertMsptP99Millis < 1 || alertMsptP99Millis > 60000) {
+      alertMsptP99Millis = 100;
+      ServerUtils.LOGGER.warn("Invalid alert MSPT threshold. Reset to default: 100 ms");
+    }
+    if (alertMsptSeconds < 0 || alertMsptSeconds > 86400) {
+      alertMsptSeconds = 30;
+      ServerUtils.LOGGER.warn("Invalid alert MSPT duration. Reset to default: 30 s");
+    }
+    if (alertMobCapSeconds < 0 || alertMobCapSeconds > 86400) {
+      alertMobCapSeconds = 300;
+      ServerUtils.LOGGER.warn("Invalid alert mob cap duration. Reset to default: 300 s");
+    }
+    if (alertResolveSeconds < 0 || alertResolveSeconds > 86400) {
+      alertResolveSeconds = 30;
+      ServerUtils.LOGGER.warn("Invalid alert resolve duration. Reset to default: 30 s");
+    }
+  }
+
+  /**
+   * メトリクス履歴設定バリデーション．
+   *
+   * <p>1秒毎の保持時間が1〜720範囲外の場合デフォルト値48，1分・1時間集約の保持日数が1〜365範囲外の場合デフォルト値14・90へリセット．
+   */
+  public static void validateHistorySettings() {
+    if (historyRawRetentionHours < 1 || historyRawRetentionHours > 720) {
+      historyRawRetentionHours = 48;
+      ServerUtils.LOGGER.warn("Invalid raw history retention. Reset to default: 48 hours");
+    }
+    if (historyMinuteRetentionDays < 1 || historyMinuteRetentionDays > 365) {
+      historyMinuteRetentionDays = 14;
+      ServerUtils.LOGGER.warn("Invalid minute history retention. Reset to default: 14 days");
+    }
+    if (historyRetentionDays < 1 || historyRetentionDays > 365) {
+      historyRetentionDays = 90;
+      ServerUtils.LOGGER.warn("Invalid history retention. Reset to default: 90 days");
+    }
+  }
+
+  /**
+   * Mob密集箇所走査設定バリデーション．
+   *
+   * <p>時間予算が0〜50000範囲外の場合デフォルト値200，開始間隔が10〜86400範囲外の場合デフォルト値60へリセット． ディメンション毎の予算は書式不正の要素を除外．
+   */
+  public static void validateHotspotSettings() {
+    if (hotspotScanBudgetMicros < 0 || hotspotScanBudgetMicros > 50000) {
+      hotspotScanBudgetMicros = 200;
+      ServerUtils.LOGGER.warn("Invalid hotspot scan budget. Reset to default: 200 us");
+    }
+    if (hotspotScanIntervalSeconds < 10 || hotspotScanIntervalSeconds > 86400) {
+      hotspotScanIntervalSeconds = 60;
+      ServerUtils.LOGGER.warn("Invalid hotspot scan interval. Reset to default: 60 seconds");
+    }
+    if (hotspotScanBudgets == null) {
+      hotspotScanBudgets = new ArrayList<>();
+      return;
+    }
+    hotspotScanBudgets.removeIf(
+        value -> {
+          try {
+            MobHotspotScanner.BudgetOverride.parse(value);
+            return false;
+          } catch (IllegalArgumentException e) {
+            ServerUtils.LOGGER.warn(
+                "Invalid hotspot scan budget '{}' removed: {}", value, e.getMessage());
+            return true;
+          }
+        });
+  }
+
+  /**
+   * エンティティ数再集計間隔バリデーション．
+   *
+   * <p>0〜86400範囲外の場合デフォルト値300へリセット．
+   */
+  public static void validateEntityReconcileInterval() {
+    if (entityReconcileIntervalSeconds < 0 || entityReconcileIntervalSeconds > 86400) {
+      entityReconcileIntervalSeconds = 300;
+      ServerUtils.LOGGER.warn("Invalid entity reconcile interval. Reset to default: 300 seconds");
+    }
+  }
+
+  /**
+   * Tickコスト計測設定バリデーション．
+   *
+   * <p>計測間隔が1〜1200範囲外の場合デフォルト値20，コスト予算が0〜50000範囲外の場合デフォルト値100へリセット．
+   */
+  public static void validateTickCostSettings() {
+    if (tickCostSampleInterval < 1 || tickCostSampleInterval > 1200) {
+      tickCostSampleInterval = 20;
+      ServerUtils.LOGGER.warn("Invalid tick cost sample interval. Reset to default: 20 ticks");
+    }
+    if (tickCostBudgetMicros < 0 || tickCostBudgetMicros > 50000) {
+      tickCostBudgetMicros = 100;
+      ServerUtils.LOGGER.warn("Invalid tick cost budget. Reset to default: 100 us");
+    }
+  }
+
+  /**
+   * 追加Webhook送信先バリデーション．
+   *
+   * <p>書式不正の要素を除外．
+   */
+  public static void validateWebhookTargets() {
+    if (webhookTargets == null) {
+      webhookTargets = new ArrayList<>();
+      return;
     }
+    webhookTargets.removeIf(
+        value -> {
+          try {
+            WebhookTarget.parse(value);
+            return false;
+          } catch (IllegalArgumentException e) {
+            ServerUtils.LOGGER.warn(
+                "Invalid webhook target '{}' removed: {}", value, e.getMessage());
+            return true;
+          }
+        });
   }
 }
@@ -0,0 +1,211 @@
+package io.github.keufcp.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import io.github.keufcp.ServerUtils;
+import io.github.keufcp.utils.DimensionResolver;
+import io.github.keufcp.utils.EntityPopulationCounter;
+import io.github.keufcp.utils.MobCapProcessor;
+import java.util.Arrays;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.command.CommandSource;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+
+/**
+ * エンティティ数表示コマンドクラス．
+ *
+ * <p>/suEntities コマンド登録・実行処理担当． {@link EntityPopulationCounter} が計数しているディメンション・エンティティタイプ別の
+ * エンティティ数を表示し，{@code reconcile} で即時に数え直す．
+ */
+public class ServerUtilsEntitiesCommand {
+
+  /** 既定の表示タイプ数 */
+  private static final int DEFAULT_TYPE_COUNT = 15;
+
+  /** 最大表示タイプ数 */
+  private static final int MAX_TYPE_COUNT = 100;
+
+  /** ディメンション候補を提供するSuggestionProvider. */
+  private static final SuggestionProvider<ServerCommandSource> DIMENSION_SUGGESTIONS =
+      (context, builder) ->
+          CommandSource.suggestMatching(
+              DimensionResolver.getSuggestions(context.getSource()), builder);
+
+  /** /suEntities コマンドのコマンドディスパッチャへの登録． */
+  public static void register() {
+    CommandRegistrationCallback.EVENT.register(
+        (dispatcher, registryAccess, environment) ->
+            dispatcher.register(
+                CommandManager.literal("suEntities")
+                    .requires(source -> source.hasPermissionLevel(2)) // OP権限レベル2以上要
+                    .executes(context -> runAllCommand(context.getSource(), DEFAULT_TYPE_COUNT))
+                    .then(
+                        CommandManager.literal("top")
+                            .then(
+                                CommandManager.argument(
+                                        "count", IntegerArgumentType.integer(1, MAX_TYPE_COUNT))
+                                    .executes(
+                                        context ->
+                                            runAllCommand(
+                                                context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "count")))))
+                    .then(
+                        CommandManager.literal("reconcile")
+                            .executes(context -> runReconcileCommand(context.getSource())))
+                    .then(
+                        CommandManager.argument(
+                                "dimension_alias_or_id", StringArgumentType.string())
+                            .suggests(DIMENSION_SUGGESTIONS)
+                            .executes(
+                                context ->
+                                    runDimensionCommand(
+                                        context.getSource(),
+                                        StringArgumentType.getString(
+                                            context, "dimension_alias_or_id"),
+                                        DEFAULT_TYPE_COUNT))
+                            .then(
+                                CommandManager.argument(
+                                        "count", IntegerArgumentType.integer(1, MAX_TYPE_COUNT))
+                                    .executes(
+                                        context ->
+                                            runDimensionCommand(
+                                                context.getSource(),
+                                                StringArgumentType.getString(
+                                                    context, "dimension_alias_or_id"),
+                                                IntegerArgumentType.getInteger(
+                                                    context, "count")))))));
+  }
+
+  /**
+   * 全ディメンション合計のエンティティ数表示．
+   *
+   * @param source コマンドソース
+   * @param limit 表示タイプ数
+   * @return コマンド結果
+   */
+  private static int runAllCommand(ServerCommandSource source, int limit) {
+    int[] totals = new int[0];
+    StringBuilder dimensions = new StringBuilder();
+    int total = 0;
+    for (ServerWorld world : source.getServer().getWorlds()) {
+      int[] counts = EntityPopulationCounter.getCounts(world.getRegistryKey());
+      if (counts.length > totals.length) {
+        totals = Arrays.copyOf(totals, counts.length);
+      }
+      int worldTotal = 0;
+      for (int rawId = 0; rawId < counts.length; rawId++) {
+        totals[rawId] += counts[rawId];
+        worldTotal += counts[rawId];
+      }
+      total += worldTotal;
+      if (dimensions.length() > 0) {
+        dimensions.append(" / ");
+      }
+      dimensions.append(
+          ServerUtils.LANG.get(
+              "entities.dimension", MobCapProcessor.getDisplayDimensionName(world), worldTotal));
+    }
+
+    StringBuilder response = new StringBuilder(ServerUtils.LANG.get("entities.title.all", total));
+    response.append("\n").append(dimensions);
+    appendTypes(response, totals, limit);
+    appendReconcileStatus(response);
+
+    source.sendFeedback(() -> Text.literal(response.toString()), false);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * 単一ディメンションのエンティティ数表示．
+   *
+   * @param source コマンドソース
+   * @param dimensionString ディメンション指定文字列
+   * @param limit 表示タイプ数
+   * @return コマンド結果
+   */
+  private static int runDimensionCommand(
+      ServerCommandSource source, String dimensionString, int limit) throws CommandSyntaxException {
+    ServerWorld world = DimensionResolver.resolve(source, dimensionString);
+    if (world == null) {
+      throw new SimpleCommandExceptionType(
+              Text.literal(ServerUtils.LANG.get("mobcap.error.invalid_dimension")))
+          .create();
+    }
+
+    int[] counts = EntityPopulationCounter.getCounts(world.getRegistryKey());
+    int total = 0;
+    for (int count : counts) {
+      total += count;
+    }
+
+    StringBuilder response =
+        new StringBuilder(
+            ServerUtils.LANG.get(
+                "entities.title.single", MobCapProcessor.getDisplayDimensionName(world), total));
+    appendTypes(response, counts, limit);
+    appendReconcileStatus(response);
+
+    source.sendFeedback(() -> Text.literal(response.toString()), false);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * 計数値の即時再集計．
+   *
+   * @param source コマンドソース
+   * @return コマンド結果
+   */
+  private static int runReconcileCommand(ServerCommandSource source) {
+    EntityPopulationCounter.reconcile(source.getServer());
+    source.sendFeedback(
+        () ->
+            Text.literal(
+                ServerUtils.LANG.get(
+                    "entities.reconciled",
+                    EntityPopulationCounter.getLastDrift(),
+                    String.format(
+                        "%.2f", EntityPopulationCounter.getLastReconcileNanos() / 1_000_000.0))),
+        true);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static void appendTypes(StringBuilder response, int[] counts, int limit) {
+    int[] top = EntityPopulationCounter.getTopTypes(counts, limit);
+    if (top.length == 0) {
+      response.append("\n").append(ServerUtils.LANG.get("entities.none"));
+      return;
+    }
+    for (int i = 0; i < top.length; i++) {
+      response
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "entities.entry",
+                  i + 1,
+                  EntityPopulationCounter.getDisplayTypeName(top[i]),
+                  counts[top[i]]));
+    }
+  }
+
+  private static void appendReconcileStatus(StringBuilder response) {
+    long lastReconcileMillis = EntityPopulationCounter.getLastReconcileMillis();
+    response.append("\n");
+    if (lastReconcileMillis == 0) {
+      response.append(ServerUtils.LANG.get("entities.reconcile.never"));
+      return;
+    }
+    response.append(
+        ServerUtils.LANG.get(
+            "entities.reconcile",
+            (System.currentTimeMillis() - lastReconcileMillis) / 1000,
+            EntityPopulationCounter.getLastDrift(),
+            String.format("%.2f", EntityPopulationCounter.getLastReconcileNanos() / 1_000_000.0)));
+  }
+}
@@ -0,0 +1,283 @@
+package io.github.keufcp.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import io.github.keufcp.ServerUtils;
+import io.github.keufcp.utils.DimensionResolver;
+import io.github.keufcp.utils.HistoryMetric;
+import io.github.keufcp.utils.HistorySeries;
+import io.github.keufcp.utils.HistoryStore;
+import io.github.keufcp.utils.MetricsHistory;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.command.CommandSource;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+
+/**
+ * メトリクス履歴表示コマンドクラス．
+ *
+ * <p>/suHistory コマンド登録・実行処理担当． {@link HistoryStore} のセグメント読込は別スレッドで行い，完了後にサーバースレッドで結果表示．
+ * 期間に応じて1秒・1分・1時間のいずれかの段から集計．
+ */
+public class ServerUtilsHistoryCommand {
+
+  /** スパークラインのバケット数 */
+  private static final int SPARKLINE_BUCKETS = 48;
+
+  /** スパークライン文字（低→高） */
+  private static final char[] SPARK_CHARS = {'▁', '▂', '▃', '▄', '▅', '▆', '▇', '█'};
+
+  /** 期間指定書式（例: 30m, 6h, 7d） */
+  private static final Pattern RANGE_PATTERN = Pattern.compile("(\\d+)([smhd])");
+
+  /** 期間上限（秒） */
+  private static final long MAX_RANGE_SECONDS = TimeUnit.DAYS.toSeconds(365);
+
+  /** メトリクス候補を提供するSuggestionProvider. */
+  private static final SuggestionProvider<ServerCommandSource> METRIC_SUGGESTIONS =
+      (context, builder) ->
+          CommandSource.suggestMatching(
+              Arrays.stream(HistoryMetric.values()).map(HistoryMetric::getId), builder);
+
+  /** 期間候補を提供するSuggestionProvider. */
+  private static final SuggestionProvider<ServerCommandSource> RANGE_SUGGESTIONS =
+      (context, builder) ->
+          CommandSource.suggestMatching(List.of("10m", "1h", "6h", "24h", "7d"), builder);
+
+  /** ディメンション候補を提供するSuggestionProvider. */
+  private static final SuggestionProvider<ServerCommandSource> DIMENSION_SUGGESTIONS =
+      (context, builder) ->
+          CommandSource.suggestMatching(
+              DimensionResolver.getSuggestions(context.getSource()), builder);
+
+  /** /suHistory コマンドのコマンドディスパッチャへの登録． */
+  public static void register() {
+    CommandRegistrationCallback.EVENT.register(
+        (dispatcher, registryAccess, environment) ->
+            dispatcher.register(
+                CommandManager.literal("suHistory")
+                    .requires(source -> source.hasPermissionLevel(2)) // OP権限レベル2以上要
+                    .then(
+                        CommandManager.argument("metric", StringArgumentType.word())
+                            .suggests(METRIC_SUGGESTIONS)
+                            .then(
+                                CommandManager.argument("range", StringArgumentType.word())
+                                    .suggests(RANGE_SUGGESTIONS)
+                                    .executes(
+                                        context ->
+                                            runQueryCommand(
+                                                context.getSource(),
+                                                StringArgumentType.getString(context, "metric"),
+                                                StringArgumentType.getString(context, "range"),
+                                                null))
+                                    .then(
+                                        CommandManager.argument(
+                                                "dimension_alias_or_id",
+                                                StringArgumentType.string())
+                                            .suggests(DIMENSION_SUGGESTIONS)
+                                            .executes(
+                                                context ->
+                                                    runQueryCommand(
+                                                        context.getSource(),
+                                                        StringArgumentType.getString(
+                                                            context, "metric"),
+                                                        StringArgumentType.getString(
+                                                            context, "range"),
+                                                        StringArgumentType.getString(
+                                                            context,
+                                                            "dimension_alias_or_id"))))))));
+  }
+
+  /**
+   * 履歴クエリ実行． セグメント読込は別スレッドで実行．
+   *
+   * @param source コマンドソース
+   * @param metricId メトリクスID
+   * @param rangeString 期間指定
+   * @param dimensionString ディメンション指定（無い場合null）
+   * @return コマンド結果
+   * @throws CommandSyntaxException 引数不正時
+   */
+  private static int runQueryCommand(
+      ServerCommandSource source, String metricId, String rangeString, String dimensionString)
+      throws CommandSyntaxException {
+    HistoryStore store = MetricsHistory.getStore();
+    if (store == null) {
+      source.sendError(Text.literal(ServerUtils.LANG.get("history.disabled")));
+      return 0;
+    }
+
+    HistoryMetric metric = HistoryMetric.byId(metricId);
+    if (metric == null) {
+      throw error("history.error.invalid_metric");
+    }
+    long rangeSeconds = parseRange(rangeString);
+    if (rangeSeconds <= 0) {
+      throw error("history.error.invalid_range");
+    }
+
+    String dimensionId = null;
+    String label = metric.getId();
+    if (dimensionString != null) {
+      if (!metric.isPerDimension()) {
+        throw error("history.error.not_per_dimension");
+      }
+      ServerWorld world = DimensionResolver.resolve(source, dimensionString);
+      if (world == null) {
+        throw error("mobcap.error.invalid_dimension");
+      }
+      dimensionId = world.getRegistryKey().getValue().toString();
+      label += " (" + dimensionId + ")";
+    }
+
+    long to = System.currentTimeMillis() / 1000L - 1; // 集計中の秒は含めない
+    long from = to - rangeSeconds + 1;
+    String queryDimension = dimensionId;
+    String title = label;
+    MinecraftServer server = source.getServer();
+
+    Thread.ofVirtual()
+        .name("ServerUtils-HistoryQuery")
+        .start(
+            () -> {
+              String message;
+              try {
+                HistorySeries series =
+                    store.query(metric, queryDimension, from, to, SPARKLINE_BUCKETS);
+                message = format(series, title, rangeString);
+              } catch (IOException | RuntimeException e) {
+                ServerUtils.LOGGER.error("Failed to query metrics history", e);
+                message = ServerUtils.LANG.get("history.error.read_failed", e.getMessage());
+              }
+              String feedback = message;
+              server.execute(
+                  () ->
+                      source.sendFeedback(
+                          () -> Text.literal(ServerUtils.LANG.get("serverutils.prefix") + feedback),
+                          false));
+            });
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * クエリ結果の表示用文字列作成．
+   *
+   * @param series クエリ結果
+   * @param title メトリクス表示名
+   * @param rangeString 期間指定
+   * @return 表示用文字列
+   */
+  private static String format(HistorySeries series, String title, String rangeString) {
+    if (series.getSampleCount() == 0) {
+      return ServerUtils.LANG.get("history.no_data", title, rangeString);
+    }
+    HistoryMetric metric = series.getMetric();
+    return ServerUtils.LANG.get(
+            "history.title",
+            title,
+            rangeString,
+            series.getSampleCount(),
+            formatResolution(series.getResolutionSeconds()))
+        + "\n"
+        + ServerUtils.LANG.get(
+            "history.summary",
+            metric.format(series.getMin()),
+            metric.format(series.getAverage()),
+            metric.format(series.getMax()),
+            metric.format(series.getP99()))
+        + "\n"
+        + sparkline(series);
+  }
+
+  /**
+   * 解像度の表示用文字列作成．
+   *
+   * @param seconds 1点あたりの秒数
+   * @return 表示用文字列（例: 1s, 1m, 1h）
+   */
+  private static String formatResolution(int seconds) {
+    if (seconds % 3600 == 0) {
+      return seconds / 3600 + "h";
+    }
+    if (seconds % 60 == 0) {
+      return seconds / 60 + "m";
+    }
+    return seconds + "s";
+  }
+
+  /**
+   * バケット平均値のスパークライン作成． サンプルの無いバケットは {@code ·}．
+   *
+   * @param series クエリ結果
+   * @return スパークライン
+   */
+  private static String sparkline(HistorySeries series) {
+    double low = Double.POSITIVE_INFINITY;
+    double high = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < series.getBucketCount(); i++) {
+      double value = series.getBucketAverage(i);
+      if (!Double.isNaN(value)) {
+        low = Math.min(low, value);
+        high = Math.max(high, value);
+      }
+    }
+
+    StringBuilder line = new StringBuilder(series.getBucketCount());
+    for (int i = 0; i < series.getBucketCount(); i++) {
+      double value = series.getBucketAverage(i);
+      if (Double.isNaN(value)) {
+        line.append('·');
+      } else if (high <= low) {
+        line.append(SPARK_CHARS[SPARK_CHARS.length / 2]);
+      } else {
+        int index = (int) ((value - low) / (high - low) * (SPARK_CHARS.length - 1) + 0.5);
+        line.append(SPARK_CHARS[index]);
+      }
+    }
+    return line.toString();
+  }
+
+  /**
+   * 期間指定の解析．
+   *
+   * @param rangeString 期間指定（例: 30m, 6h, 7d）
+   * @return 秒数．不正な場合-1
+   */
+  private static long parseRange(String rangeString) {
+    Matcher matcher = RANGE_PATTERN.matcher(rangeString);
+    if (!matcher.matches()) {
+      return -1;
+    }
+    long amount;
+    try {
+      amount = Long.parseLong(matcher.group(1));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+    TimeUnit unit =
+        switch (matcher.group(2)) {
+          case "s" -> TimeUnit.SECONDS;
+          case "m" -> TimeUnit.MINUTES;
+          case "h" -> TimeUnit.HOURS;
+          default -> TimeUnit.DAYS;
+        };
+    long seconds = unit.toSeconds(amount);
+    return seconds > MAX_RANGE_SECONDS ? -1 : seconds;
+  }
+
+  private static CommandSyntaxException error(String key) {
+    return new SimpleCommandExceptionType(Text.literal(ServerUtils.LANG.get(key))).create();
+  }
+}
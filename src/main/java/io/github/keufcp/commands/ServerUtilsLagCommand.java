@@ -0,0 +1,124 @@
+package io.github.keufcp.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import io.github.keufcp.ServerUtils;
+import io.github.keufcp.utils.StallWatchdog;
+import java.util.List;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+/**
+ * サーバースレッドのストール記録表示コマンドクラス．
+ *
+ * <p>/suLag コマンド登録・実行処理担当． {@link StallWatchdog} が検出したストールの一覧・詳細表示と記録消去．
+ */
+public class ServerUtilsLagCommand {
+
+  /** /suLag コマンドのコマンドディスパッチャへの登録． */
+  public static void register() {
+    CommandRegistrationCallback.EVENT.register(
+        (dispatcher, registryAccess, environment) ->
+            dispatcher.register(
+                CommandManager.literal("suLag")
+                    .requires(source -> source.hasPermissionLevel(2)) // OP権限レベル2以上要
+                    .executes(context -> runListCommand(context.getSource()))
+                    .then(
+                        CommandManager.literal("clear")
+                            .executes(context -> runClearCommand(context.getSource())))
+                    .then(
+                        CommandManager.argument("index", IntegerArgumentType.integer(1))
+                            .executes(
+                                context ->
+                                    runDetailCommand(
+                                        context.getSource(),
+                                        IntegerArgumentType.getInteger(context, "index"))))));
+  }
+
+  /**
+   * ストール一覧表示．
+   *
+   * @param source コマンドソース
+   * @return コマンド結果
+   */
+  private static int runListCommand(ServerCommandSource source) {
+    List<StallWatchdog.StallRecord> records = StallWatchdog.getRecords();
+
+    StringBuilder response = new StringBuilder();
+    if (!StallWatchdog.isRunning()) {
+      response.append(ServerUtils.LANG.get("lag.disabled")).append("\n");
+    }
+    if (records.isEmpty()) {
+      response.append(ServerUtils.LANG.get("lag.none"));
+    } else {
+      response.append(ServerUtils.LANG.get("lag.title", records.size()));
+      long now = System.currentTimeMillis();
+      for (int i = 0; i < records.size(); i++) {
+        StallWatchdog.StallRecord record = records.get(i);
+        response
+            .append("\n")
+            .append(
+                ServerUtils.LANG.get(
+                    "lag.entry",
+                    i + 1,
+                    record.getMaxStallMillis(),
+                    record.getCount(),
+                    (now - record.getLastSeenMillis()) / 1000,
+                    record.getTopFrame()));
+      }
+    }
+
+    source.sendMessage(Text.of(response.toString()));
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * ストール詳細表示．
+   *
+   * @param source コマンドソース
+   * @param index 一覧上の番号（1始まり）
+   * @return コマンド結果
+   * @throws CommandSyntaxException 無効な番号指定時
+   */
+  private static int runDetailCommand(ServerCommandSource source, int index)
+      throws CommandSyntaxException {
+    List<StallWatchdog.StallRecord> records = StallWatchdog.getRecords();
+    if (index > records.size()) {
+      throw new SimpleCommandExceptionType(
+              Text.literal(ServerUtils.LANG.get("lag.error.invalid_index")))
+          .create();
+    }
+
+    StallWatchdog.StallRecord record = records.get(index - 1);
+    StringBuilder response =
+        new StringBuilder(
+            ServerUtils.LANG.get(
+                "lag.detail.title", index, record.getMaxStallMillis(), record.getCount()));
+    for (String line : record.getDetails()) {
+      response.append("\n").append(line);
+    }
+
+    source.sendMessage(Text.of(response.toString()));
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * ストール記録消去．
+   *
+   * @param source コマンドソース
+   * @return コマンド結果
+   */
+  private static int runClearCommand(ServerCommandSource source) {
+    StallWatchdog.clearRecords();
+    source.sendFeedback(
+        () ->
+            Text.literal(
+                ServerUtils.LANG.get("serverutils.prefix") + ServerUtils.LANG.get("lag.cleared")),
+        true);
+    return Command.SINGLE_SUCCESS;
+  }
+}
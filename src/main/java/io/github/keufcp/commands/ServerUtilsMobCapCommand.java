@@ -1,7 +1,10 @@
 package io.github.keufcp.commands;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
 import com.mojang.brigadier.suggestion.SuggestionProvider;
@@ -9,29 +12,55 @@ import io.github.keufcp.ServerUtils;
 import io.github.keufcp.ServerUtilsMidnightConfig;
 import io.github.keufcp.utils.ColoredTextBuilder;
 import io.github.keufcp.utils.DimensionResolver;
+import io.github.keufcp.utils.LocalMobCapTracker;
+import io.github.keufcp.utils.MetricsSnapshot;
+import io.github.keufcp.utils.MetricsSnapshotPublisher;
 import io.github.keufcp.utils.MobCapFormatter;
 import io.github.keufcp.utils.MobCapProcessor;
+import io.github.keufcp.utils.MobHotspotScanner;
+import java.util.ArrayList;
+import java.util.List;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.command.CommandSource;
+import net.minecraft.command.argument.EntityArgumentType;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
+import net.minecraft.world.World;
 
 /**
  * ServerUtils MobCap情報表示コマンドクラス．
  *
- * <p>/suMobCap コマンドの登録・実行処理を担当し，サーバー内の各ディメンションのモンスターキャップ情報を表示する．
+ * <p>/suMobCap コマンドの登録・実行処理を担当し，サーバー内の各ディメンションのスポーングループ毎のMobCap情報を表示する． {@code group <スポーングループ>}
+ * で表示対象のグループを絞り込める． 表示内容は {@link MetricsSnapshotPublisher} が公開したスナップショットに基づく． {@code player} /
+ * {@code players} はプレイヤー毎のローカルMobCapを {@link LocalMobCapTracker} で算出し，{@code hotspots} は {@link
+ * MobHotspotScanner} の走査結果を表示する．
  */
 public class ServerUtilsMobCapCommand {
 
+  /** 飽和度上位プレイヤー一覧の既定表示件数 */
+  private static final int DEFAULT_PLAYER_COUNT = 10;
+
+  /** 飽和度上位プレイヤー一覧の最大表示件数 */
+  private static final int MAX_PLAYER_COUNT = 50;
+
   /** ディメンション候補を提供するSuggestionProvider. */
   private static final SuggestionProvider<ServerCommandSource> DIMENSION_SUGGESTIONS =
       (context, builder) ->
           CommandSource.suggestMatching(
               DimensionResolver.getSuggestions(context.getSource()), builder);
 
+  /** スポーングループ候補を提供するSuggestionProvider. */
+  private static final SuggestionProvider<ServerCommandSource> GROUP_SUGGESTIONS =
+      (context, builder) ->
+          CommandSource.suggestMatching(
+              MobCapProcessor.getCappedGroups().stream().map(SpawnGroup::getName), builder);
+
   /** /suMobCap コマンドのコマンドディスパッチャへの登録． */
   public static void register() {
     CommandRegistrationCallback.EVENT.register(ServerUtilsMobCapCommand::registerCommand);
@@ -47,37 +76,124 @@ public class ServerUtilsMobCapCommand {
             .requires(
                 source ->
                     source.hasPermissionLevel(ServerUtilsMidnightConfig.mobcapPermissionLevel))
-            .executes(context -> executeAllDimensionsCommand(context.getSource(), false))
+            .executes(context -> executeAllDimensionsCommand(context.getSource(), null, false))
             .then(
                 CommandManager.literal("debug")
-                    .executes(context -> executeAllDimensionsCommand(context.getSource(), true)))
+                    .executes(
+                        context -> executeAllDimensionsCommand(context.getSource(), null, true)))
+            .then(
+                groupFilter(
+                    (context, group, debug) ->
+                        executeAllDimensionsCommand(context.getSource(), group, debug)))
+            .then(
+                CommandManager.literal("hotspots")
+                    .executes(context -> executeHotspotsCommand(context.getSource(), null, null))
+                    .then(
+                        hotspotGroupFilter(
+                            (context, group, debug) ->
+                                executeHotspotsCommand(context.getSource(), null, group)))
+                    .then(
+                        CommandManager.argument(
+                                "dimension_alias_or_id", StringArgumentType.string())
+                            .suggests(DIMENSION_SUGGESTIONS)
+                            .executes(
+                                context ->
+                                    executeHotspotsCommand(
+                                        context.getSource(), getDimension(context), null))
+                            .then(
+                                hotspotGroupFilter(
+                                    (context, group, debug) ->
+                                        executeHotspotsCommand(
+                                            context.getSource(), getDimension(context), group)))))
+            .then(
+                CommandManager.literal("player")
+                    .then(
+                        CommandManager.argument("player", EntityArgumentType.player())
+                            .executes(
+                                context ->
+                                    executePlayerCommand(
+                                        context.getSource(),
+                                        EntityArgumentType.getPlayer(context, "player")))))
+            .then(
+                CommandManager.literal("players")
+                    .executes(
+                        context -> executePlayersCommand(context.getSource(), DEFAULT_PLAYER_COUNT))
+                    .then(
+                        CommandManager.argument(
+                                "count", IntegerArgumentType.integer(1, MAX_PLAYER_COUNT))
+                            .executes(
+                                context ->
+                                    executePlayersCommand(
+                                        context.getSource(),
+                                        IntegerArgumentType.getInteger(context, "count")))))
             .then(
                 CommandManager.argument("dimension_alias_or_id", StringArgumentType.string())
                     .suggests(DIMENSION_SUGGESTIONS)
                     .executes(
                         context ->
                             executeSpecificDimensionCommand(
-                                context.getSource(),
-                                StringArgumentType.getString(context, "dimension_alias_or_id"),
-                                false))
+                                context.getSource(), getDimension(context), null, false))
                     .then(
                         CommandManager.literal("debug")
                             .executes(
                                 context ->
                                     executeSpecificDimensionCommand(
-                                        context.getSource(),
-                                        StringArgumentType.getString(
-                                            context, "dimension_alias_or_id"),
-                                        true)))));
+                                        context.getSource(), getDimension(context), null, true)))
+                    .then(
+                        groupFilter(
+                            (context, group, debug) ->
+                                executeSpecificDimensionCommand(
+                                    context.getSource(), getDimension(context), group, debug)))));
+  }
+
+  /** {@code group <スポーングループ> [debug]} 部分のコマンドツリーを作成する． */
+  private static ArgumentBuilder<ServerCommandSource, ?> groupFilter(GroupExecutor executor) {
+    return CommandManager.literal("group")
+        .then(
+            CommandManager.argument("spawn_group", StringArgumentType.word())
+                .suggests(GROUP_SUGGESTIONS)
+                .executes(context -> executor.execute(context, getSpawnGroup(context), false))
+                .then(
+                    CommandManager.literal("debug")
+                        .executes(
+                            context -> executor.execute(context, getSpawnGroup(context), true))));
+  }
+
+  /** {@code group <スポーングループ>} 部分のコマンドツリーを作成する（debug指定無し）． */
+  private static ArgumentBuilder<ServerCommandSource, ?> hotspotGroupFilter(
+      GroupExecutor executor) {
+    return CommandManager.literal("group")
+        .then(
+            CommandManager.argument("spawn_group", StringArgumentType.word())
+                .suggests(GROUP_SUGGESTIONS)
+                .executes(context -> executor.execute(context, getSpawnGroup(context), false)));
+  }
+
+  private static String getDimension(CommandContext<ServerCommandSource> context) {
+    return StringArgumentType.getString(context, "dimension_alias_or_id");
+  }
+
+  /** 引数からスポーングループを解決する． */
+  private static SpawnGroup getSpawnGroup(CommandContext<ServerCommandSource> context)
+      throws CommandSyntaxException {
+    SpawnGroup group =
+        MobCapProcessor.resolveSpawnGroup(StringArgumentType.getString(context, "spawn_group"));
+    if (group == null) {
+      throw createInvalidGroupException().create();
+    }
+    return group;
   }
 
   /** 全ディメンションコマンドの実行． */
-  private static int executeAllDimensionsCommand(ServerCommandSource source, boolean debug) {
+  private static int executeAllDimensionsCommand(
+      ServerCommandSource source, SpawnGroup group, boolean debug) {
+    MetricsSnapshot snapshot = MetricsSnapshotPublisher.getOrCapture(source.getServer());
+
     Text output;
     if (ColoredTextBuilder.shouldUseColoredText(source)) {
-      output = MobCapFormatter.createColoredAllDimensionsOutput(source, debug);
+      output = MobCapFormatter.createColoredAllDimensionsOutput(snapshot, group, debug);
     } else {
-      output = Text.literal(MobCapFormatter.createPlainAllDimensionsOutput(source, debug));
+      output = Text.literal(MobCapFormatter.createPlainAllDimensionsOutput(snapshot, group, debug));
     }
 
     source.sendFeedback(() -> output, false);
@@ -86,7 +202,7 @@ public class ServerUtilsMobCapCommand {
 
   /** 単一ディメンションコマンドの実行． */
   private static int executeSpecificDimensionCommand(
-      ServerCommandSource source, String dimensionString, boolean debug)
+      ServerCommandSource source, String dimensionString, SpawnGroup group, boolean debug)
       throws CommandSyntaxException {
     ServerWorld world = DimensionResolver.resolve(source, dimensionString);
 
@@ -94,25 +210,94 @@ public class ServerUtilsMobCapCommand {
       throw createInvalidDimensionException().create();
     }
 
-    String dimensionDisplayName = MobCapProcessor.getDisplayDimensionName(world);
+    MetricsSnapshot.DimensionSnapshot dimension =
+        MetricsSnapshotPublisher.getOrCapture(source.getServer())
+            .getDimension(world.getRegistryKey());
+    if (dimension == null) {
+      // 前回公開以降に読み込まれたディメンション
+      throw createInvalidDimensionException().create();
+    }
+
+    String dimensionDisplayName = dimension.getDisplayName();
 
     Text output;
     if (ColoredTextBuilder.shouldUseColoredText(source)) {
       output =
-          MobCapFormatter.createColoredSingleDimensionOutput(world, dimensionDisplayName, debug);
+          MobCapFormatter.createColoredSingleDimensionOutput(
+              dimension, dimensionDisplayName, group, debug);
     } else {
       output =
           Text.literal(
-              MobCapFormatter.createPlainSingleDimensionOutput(world, dimensionDisplayName, debug));
+              MobCapFormatter.createPlainSingleDimensionOutput(
+                  dimension, dimensionDisplayName, group, debug));
     }
 
     source.sendFeedback(() -> output, false);
     return 1;
   }
 
+  /** Mob密集箇所コマンドの実行． ディメンション未指定時は全ディメンションの上位チャンクのみ表示． */
+  private static int executeHotspotsCommand(
+      ServerCommandSource source, String dimensionString, SpawnGroup group)
+      throws CommandSyntaxException {
+    List<RegistryKey<World>> worlds = new ArrayList<>();
+    if (dimensionString == null) {
+      for (ServerWorld world : source.getServer().getWorlds()) {
+        worlds.add(world.getRegistryKey());
+      }
+    } else {
+      ServerWorld world = DimensionResolver.resolve(source, dimensionString);
+      if (world == null) {
+        throw createInvalidDimensionException().create();
+      }
+      worlds.add(world.getRegistryKey());
+    }
+
+    boolean detailed = dimensionString != null;
+    ColoredTextBuilder.sendFormattedFeedback(
+        source,
+        MobCapFormatter.createColoredHotspotOutput(worlds, group, detailed),
+        MobCapFormatter.createPlainHotspotOutput(worlds, group, detailed));
+    return 1;
+  }
+
+  /** プレイヤー毎ローカルMobCapコマンドの実行． */
+  private static int executePlayerCommand(ServerCommandSource source, ServerPlayerEntity player) {
+    LocalMobCapTracker.PlayerMobCap info = LocalMobCapTracker.compute(player);
+    ColoredTextBuilder.sendFormattedFeedback(
+        source,
+        MobCapFormatter.createColoredPlayerOutput(info),
+        MobCapFormatter.createPlainPlayerOutput(info));
+    return 1;
+  }
+
+  /** ローカルMobCap飽和度上位プレイヤー一覧コマンドの実行． */
+  private static int executePlayersCommand(ServerCommandSource source, int count) {
+    List<LocalMobCapTracker.PlayerMobCap> players =
+        LocalMobCapTracker.getMostSaturated(source.getServer(), count);
+    ColoredTextBuilder.sendFormattedFeedback(
+        source,
+        MobCapFormatter.createColoredPlayerRankingOutput(players),
+        MobCapFormatter.createPlainPlayerRankingOutput(players));
+    return players.size();
+  }
+
   /** 無効なディメンション例外を作成する． */
   private static SimpleCommandExceptionType createInvalidDimensionException() {
     return new SimpleCommandExceptionType(
         Text.literal(ServerUtils.LANG.get("mobcap.error.invalid_dimension")));
   }
+
+  /** 無効なスポーングループ例外を作成する． */
+  private static SimpleCommandExceptionType createInvalidGroupException() {
+    return new SimpleCommandExceptionType(
+        Text.literal(ServerUtils.LANG.get("mobcap.error.invalid_group")));
+  }
+
+  /** スポーングループ指定付きコマンドの実行処理． */
+  @FunctionalInterface
+  private interface GroupExecutor {
+    int execute(CommandContext<ServerCommandSource> context, SpawnGroup group, boolean debug)
+        throws CommandSyntaxException;
+  }
 }
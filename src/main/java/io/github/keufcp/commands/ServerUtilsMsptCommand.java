@@ -1,12 +1,27 @@
 package io.github.keufcp.commands;
 
 import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import eu.midnightdust.lib.config.MidnightConfig;
 import io.github.keufcp.ServerUtils;
+import io.github.keufcp.ServerUtilsMidnightConfig;
+import io.github.keufcp.utils.DimensionResolver;
+import io.github.keufcp.utils.MetricsSnapshot;
+import io.github.keufcp.utils.MetricsSnapshotPublisher;
+import io.github.keufcp.utils.TickHistogram;
+import io.github.keufcp.utils.TickPhase;
+import io.github.keufcp.utils.TickPhaseProfiler;
 import io.github.keufcp.utils.TickTimeUtil;
+import io.github.keufcp.utils.TickWindow;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.command.CommandSource;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 
 /**
@@ -16,6 +31,12 @@ import net.minecraft.text.Text;
  */
 public class ServerUtilsMsptCommand {
 
+  /** ディメンション候補を提供するSuggestionProvider. */
+  private static final SuggestionProvider<ServerCommandSource> DIMENSION_SUGGESTIONS =
+      (context, builder) ->
+          CommandSource.suggestMatching(
+              DimensionResolver.getSuggestions(context.getSource()), builder);
+
   /** /suMspt コマンドのコマンドディスパッチャへの登録． */
   public static void register() {
     CommandRegistrationCallback.EVENT.register(
@@ -24,7 +45,27 @@ public class ServerUtilsMsptCommand {
               CommandManager.literal("suMspt")
                   .executes(ServerUtilsMsptCommand::runMsptCommand)
                   .requires(source -> source.hasPermissionLevel(2)) // OP権限レベル2以上要
-              );
+                  .then(
+                      CommandManager.literal("percentiles")
+                          .executes(ServerUtilsMsptCommand::runPercentilesCommand))
+                  .then(
+                      CommandManager.literal("breakdown")
+                          .executes(ServerUtilsMsptCommand::runBreakdownCommand)
+                          .then(
+                              CommandManager.literal("on")
+                                  .executes(context -> runBreakdownToggleCommand(context, true)))
+                          .then(
+                              CommandManager.literal("off")
+                                  .executes(context -> runBreakdownToggleCommand(context, false))))
+                  .then(
+                      CommandManager.argument("dimension_alias_or_id", StringArgumentType.string())
+                          .suggests(DIMENSION_SUGGESTIONS)
+                          .executes(
+                              context ->
+                                  runDimensionCommand(
+                                      context.getSource(),
+                                      StringArgumentType.getString(
+                                          context, "dimension_alias_or_id")))));
         });
   }
 
@@ -36,13 +77,178 @@ public class ServerUtilsMsptCommand {
    */
   private static int runMsptCommand(CommandContext<ServerCommandSource> context) {
     ServerCommandSource source = context.getSource();
+    MetricsSnapshot snapshot = MetricsSnapshotPublisher.getOrCapture(source.getServer());
 
-    double mspt = TickTimeUtil.getMeanTickTime();
+    double mspt = snapshot.getMspt();
 
     String label = ServerUtils.LANG.get("mspt.result", String.format("%.2f", mspt));
+    String windowLabel =
+        ServerUtils.LANG.get(
+            "mspt.windows", TickWindow.joinLabels(), TickWindow.joinValues(snapshot::getMspt));
+
+    double budget = 1000.0 / snapshot.getTargetTickRate();
+    String budgetLabel =
+        ServerUtils.LANG.get(
+            "mspt.budget",
+            String.format("%.2f", budget),
+            String.format("%.1f", mspt / budget * 100.0));
+
+    source.sendMessage(Text.of(label + "\n" + budgetLabel + "\n" + windowLabel));
+
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * ディメンション別MSPTコマンド実行ハンドラ． 指定ディメンションのワールドTick時間・レートを集計窓毎に表示．
+   *
+   * @param source コマンドソース
+   * @param dimensionString ディメンション指定文字列
+   * @return コマンド結果
+   * @throws CommandSyntaxException 無効なディメンション指定時
+   */
+  private static int runDimensionCommand(ServerCommandSource source, String dimensionString)
+      throws CommandSyntaxException {
+    ServerWorld world = DimensionResolver.resolve(source, dimensionString);
+
+    if (world == null) {
+      throw new SimpleCommandExceptionType(
+              Text.literal(ServerUtils.LANG.get("mobcap.error.invalid_dimension")))
+          .create();
+    }
+
+    MetricsSnapshot.DimensionSnapshot stats =
+        MetricsSnapshotPublisher.getOrCapture(source.getServer())
+            .getDimension(world.getRegistryKey());
+    if (stats == null) {
+      // 前回公開以降に読み込まれたディメンション
+      throw new SimpleCommandExceptionType(
+              Text.literal(ServerUtils.LANG.get("mobcap.error.invalid_dimension")))
+          .create();
+    }
+
+    StringBuilder response =
+        new StringBuilder(ServerUtils.LANG.get("mspt.dimension.title", stats.getDisplayName()));
+    if (!stats.hasTickData()) {
+      response.append("\n").append(ServerUtils.LANG.get("mspt.dimension.no_data"));
+    } else {
+      response
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "mspt.windows", TickWindow.joinLabels(), TickWindow.joinValues(stats::getMspt)))
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "mspt.dimension.tps",
+                  TickWindow.joinLabels(),
+                  TickWindow.joinValues(stats::getTps)));
+    }
+
+    source.sendMessage(Text.of(response.toString()));
+
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * MSPTパーセンタイルコマンド実行ハンドラ． 集計窓毎のp50/p95/p99/p99.9/最大値を表示．
+   *
+   * @param context コマンドコンテキスト
+   * @return コマンド結果
+   */
+  private static int runPercentilesCommand(CommandContext<ServerCommandSource> context) {
+    ServerCommandSource source = context.getSource();
+
+    StringBuilder response = new StringBuilder(ServerUtils.LANG.get("mspt.percentiles.title"));
+    for (TickWindow window : TickWindow.values()) {
+      TickHistogram histogram = TickTimeUtil.getTickTimeHistogram(window);
+      response.append("\n");
+      if (histogram.getTotalCount() == 0) {
+        response.append(ServerUtils.LANG.get("mspt.percentiles.no_data", window.getLabel()));
+        continue;
+      }
+      response.append(
+          ServerUtils.LANG.get(
+              "mspt.percentiles.row",
+              window.getLabel(),
+              formatMicros(histogram.getValueAtPercentile(50.0)),
+              formatMicros(histogram.getValueAtPercentile(95.0)),
+              formatMicros(histogram.getValueAtPercentile(99.0)),
+              formatMicros(histogram.getValueAtPercentile(99.9)),
+              formatMicros(histogram.getMaxValue()),
+              histogram.getTotalCount()));
+    }
+
+    source.sendMessage(Text.of(response.toString()));
 
-    source.sendMessage(Text.of(label));
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * Tick内訳コマンド実行ハンドラ． フェーズ毎の集計窓別平均処理時間を表示．
+   *
+   * @param context コマンドコンテキスト
+   * @return コマンド結果
+   */
+  private static int runBreakdownCommand(CommandContext<ServerCommandSource> context) {
+    ServerCommandSource source = context.getSource();
+
+    if (!TickPhaseProfiler.isEnabled()) {
+      source.sendMessage(Text.of(ServerUtils.LANG.get("mspt.breakdown.disabled")));
+      return 0;
+    }
+
+    StringBuilder response =
+        new StringBuilder(ServerUtils.LANG.get("mspt.breakdown.title", TickWindow.joinLabels()));
+    for (TickPhase phase : TickPhase.values()) {
+      // ワールド内のフェーズは字下げ表示
+      String phaseName = (phase.isNested() ? "  " : "") + ServerUtils.LANG.get(phase.getLangKey());
+      response
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "mspt.breakdown.row",
+                  phaseName,
+                  TickWindow.joinValues(
+                      window -> TickPhaseProfiler.getMeanPhaseTime(phase, window))));
+    }
+
+    source.sendMessage(Text.of(response.toString()));
 
     return Command.SINGLE_SUCCESS;
   }
+
+  /**
+   * Tick内訳計測切替コマンド実行ハンドラ． 設定ファイルへも反映．
+   *
+   * @param context コマンドコンテキスト
+   * @param enable 有効化する場合true
+   * @return コマンド結果
+   */
+  private static int runBreakdownToggleCommand(
+      CommandContext<ServerCommandSource> context, boolean enable) {
+    ServerUtilsMidnightConfig.enableTickBreakdown = enable;
+    MidnightConfig.write(ServerUtils.MOD_ID);
+    TickPhaseProfiler.setEnabled(enable);
+
+    String key = enable ? "mspt.breakdown.toggle.on" : "mspt.breakdown.toggle.off";
+    context
+        .getSource()
+        .sendFeedback(
+            () ->
+                Text.literal(
+                    ServerUtils.LANG.get("serverutils.prefix") + ServerUtils.LANG.get(key)),
+            true);
+
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * マイクロ秒値のミリ秒表記変換．
+   *
+   * @param micros マイクロ秒値
+   * @return 小数点以下2桁のミリ秒文字列
+   */
+  private static String formatMicros(long micros) {
+    return String.format("%.2f", micros / 1_000.0);
+  }
 }
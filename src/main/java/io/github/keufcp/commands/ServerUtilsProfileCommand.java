@@ -0,0 +1,131 @@
+package io.github.keufcp.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.context.CommandContext;
+import io.github.keufcp.ServerUtils;
+import io.github.keufcp.ServerUtilsMidnightConfig;
+import io.github.keufcp.utils.ServerThreadProfiler;
+import java.io.IOException;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+/**
+ * サーバースレッドプロファイラ操作コマンドクラス．
+ *
+ * <p>/suProfile start|stop|dump コマンド登録・実行処理担当． ダンプはcollapsed-stack形式でサーバー実行ディレクトリへ出力．
+ */
+public class ServerUtilsProfileCommand {
+
+  /** /suProfile コマンドのコマンドディスパッチャへの登録． */
+  public static void register() {
+    CommandRegistrationCallback.EVENT.register(
+        (dispatcher, registryAccess, environment) ->
+            dispatcher.register(
+                CommandManager.literal("suProfile")
+                    .requires(source -> source.hasPermissionLevel(4)) // OP権限要求
+                    .then(
+                        CommandManager.literal("start")
+                            .executes(ServerUtilsProfileCommand::runStartCommand))
+                    .then(
+                        CommandManager.literal("stop")
+                            .executes(ServerUtilsProfileCommand::runStopCommand))
+                    .then(
+                        CommandManager.literal("dump")
+                            .executes(ServerUtilsProfileCommand::runDumpCommand))));
+  }
+
+  /**
+   * プロファイリング開始コマンド実行ハンドラ．
+   *
+   * @param context コマンドコンテキスト
+   * @return コマンド結果
+   */
+  private static int runStartCommand(CommandContext<ServerCommandSource> context) {
+    ServerCommandSource source = context.getSource();
+    int interval = ServerUtilsMidnightConfig.profilerSampleIntervalMillis;
+    int threshold = ServerUtilsMidnightConfig.profilerSlowTickThresholdMillis;
+
+    boolean started =
+        ServerThreadProfiler.start(
+            source.getServer().getThread(),
+            interval,
+            threshold,
+            ServerUtilsMidnightConfig.profilerMaxNodes);
+
+    if (!started) {
+      sendPrefixed(source, ServerUtils.LANG.get("profile.already_running"));
+      return 0;
+    }
+
+    sendPrefixed(
+        source,
+        threshold > 0
+            ? ServerUtils.LANG.get("profile.started.slow_only", interval, threshold)
+            : ServerUtils.LANG.get("profile.started", interval));
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * プロファイリング停止コマンド実行ハンドラ．
+   *
+   * @param context コマンドコンテキスト
+   * @return コマンド結果
+   */
+  private static int runStopCommand(CommandContext<ServerCommandSource> context) {
+    ServerCommandSource source = context.getSource();
+    long samples = ServerThreadProfiler.stop();
+
+    if (samples < 0) {
+      sendPrefixed(source, ServerUtils.LANG.get("profile.not_running"));
+      return 0;
+    }
+
+    sendPrefixed(source, ServerUtils.LANG.get("profile.stopped", samples));
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * ダンプコマンド実行ハンドラ． ファイル書き出しは別スレッドで実行し，完了後にサーバースレッドで結果通知．
+   *
+   * @param context コマンドコンテキスト
+   * @return コマンド結果
+   */
+  private static int runDumpCommand(CommandContext<ServerCommandSource> context) {
+    ServerCommandSource source = context.getSource();
+    MinecraftServer server = source.getServer();
+
+    Thread.ofVirtual()
+        .name("ServerUtils-ProfileDump")
+        .start(
+            () -> {
+              String message;
+              try {
+                ServerThreadProfiler.DumpResult result =
+                    ServerThreadProfiler.dump(server.getRunDirectory());
+                message =
+                    (result == null)
+                        ? ServerUtils.LANG.get("profile.no_data")
+                        : ServerUtils.LANG.get(
+                            "profile.dump.success",
+                            result.file().toString(),
+                            result.sampleCount(),
+                            result.nodeCount());
+              } catch (IOException e) {
+                ServerUtils.LOGGER.error("Failed to write profile dump", e);
+                message = ServerUtils.LANG.get("profile.dump.failed", e.getMessage());
+              }
+              String feedback = message;
+              server.execute(() -> sendPrefixed(source, feedback));
+            });
+
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static void sendPrefixed(ServerCommandSource source, String message) {
+    source.sendFeedback(
+        () -> Text.literal(ServerUtils.LANG.get("serverutils.prefix") + message), false);
+  }
+}
@@ -0,0 +1,235 @@
+package io.github.keufcp.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import eu.midnightdust.lib.config.MidnightConfig;
+import io.github.keufcp.ServerUtils;
+import io.github.keufcp.ServerUtilsMidnightConfig;
+import io.github.keufcp.utils.MobCapProcessor;
+import io.github.keufcp.utils.TickCostProfiler;
+import java.util.List;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * エンティティ・ブロックエンティティのTickコスト表示コマンドクラス．
+ *
+ * <p>/suTickCost コマンド登録・実行処理担当． {@link TickCostProfiler} がサンプリングTickで集計したタイプ別・チャンク別の処理時間を表示．
+ */
+public class ServerUtilsTickCostCommand {
+
+  /** 既定の表示タイプ数 */
+  private static final int DEFAULT_TYPE_COUNT = 10;
+
+  /** 最大表示タイプ数 */
+  private static final int MAX_TYPE_COUNT = 100;
+
+  /** 表示チャンク数 */
+  private static final int CHUNK_COUNT = 5;
+
+  /** /suTickCost コマンドのコマンドディスパッチャへの登録． */
+  public static void register() {
+    CommandRegistrationCallback.EVENT.register(
+        (dispatcher, registryAccess, environment) ->
+            dispatcher.register(
+                CommandManager.literal("suTickCost")
+                    .requires(source -> source.hasPermissionLevel(2)) // OP権限レベル2以上要
+                    .executes(context -> runStatusCommand(context.getSource()))
+                    .then(costLiteral("entities", false))
+                    .then(costLiteral("blockentities", true))
+                    .then(
+                        CommandManager.literal("on")
+                            .executes(context -> runToggleCommand(context.getSource(), true)))
+                    .then(
+                        CommandManager.literal("off")
+                            .executes(context -> runToggleCommand(context.getSource(), false)))
+                    .then(
+                        CommandManager.literal("reset")
+                            .executes(context -> runResetCommand(context.getSource())))));
+  }
+
+  /**
+   * {@code entities}・{@code blockentities} サブコマンド構築．
+   *
+   * @param name サブコマンド名
+   * @param blockEntities ブロックエンティティを表示する場合true
+   * @return サブコマンド
+   */
+  private static LiteralArgumentBuilder<ServerCommandSource> costLiteral(
+      String name, boolean blockEntities) {
+    return CommandManager.literal(name)
+        .executes(context -> runCostCommand(context.getSource(), blockEntities, DEFAULT_TYPE_COUNT))
+        .then(
+            CommandManager.literal("top")
+                .then(
+                    CommandManager.argument("count", IntegerArgumentType.integer(1, MAX_TYPE_COUNT))
+                        .executes(
+                            context ->
+                                runCostCommand(
+                                    context.getSource(),
+                                    blockEntities,
+                                    IntegerArgumentType.getInteger(context, "count")))));
+  }
+
+  /**
+   * 計測状態表示．
+   *
+   * @param source コマンドソース
+   * @return コマンド結果
+   */
+  private static int runStatusCommand(ServerCommandSource source) {
+    if (!TickCostProfiler.isEnabled()) {
+      source.sendMessage(Text.of(ServerUtils.LANG.get("tickcost.disabled")));
+      return 0;
+    }
+    source.sendMessage(Text.of(createStatusLine()));
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * タイプ別・チャンク別Tickコスト表示．
+   *
+   * @param source コマンドソース
+   * @param blockEntities ブロックエンティティを表示する場合true
+   * @param limit 表示タイプ数
+   * @return コマンド結果
+   */
+  private static int runCostCommand(ServerCommandSource source, boolean blockEntities, int limit) {
+    if (!TickCostProfiler.isEnabled()) {
+      source.sendMessage(Text.of(ServerUtils.LANG.get("tickcost.disabled")));
+      return 0;
+    }
+
+    List<TickCostProfiler.TypeCost> types =
+        blockEntities
+            ? TickCostProfiler.getTopBlockEntityTypes(limit)
+            : TickCostProfiler.getTopEntityTypes(limit);
+    List<TickCostProfiler.ChunkCost> chunks =
+        blockEntities
+            ? TickCostProfiler.getTopBlockEntityChunks(CHUNK_COUNT)
+            : TickCostProfiler.getTopEntityChunks(CHUNK_COUNT);
+
+    StringBuilder response =
+        new StringBuilder(
+            ServerUtils.LANG.get(
+                blockEntities ? "tickcost.title.blockentities" : "tickcost.title.entities"));
+    response.append("\n").append(createStatusLine());
+    if (types.isEmpty()) {
+      response.append("\n").append(ServerUtils.LANG.get("tickcost.none"));
+      source.sendMessage(Text.of(response.toString()));
+      return Command.SINGLE_SUCCESS;
+    }
+
+    for (int i = 0; i < types.size(); i++) {
+      TickCostProfiler.TypeCost cost = types.get(i);
+      BlockPos pos = cost.worstPos();
+      response
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "tickcost.entry",
+                  i + 1,
+                  getDisplayId(cost.typeId()),
+                  cost.nanosPerTick(),
+                  String.format("%.1f", cost.callsPerTick()),
+                  cost.nanosPerCall()))
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "tickcost.worst",
+                  cost.worstNanos(),
+                  getDisplayWorldName(source, cost.worstWorld()),
+                  String.valueOf(pos.getX()),
+                  String.valueOf(pos.getY()),
+                  String.valueOf(pos.getZ())));
+    }
+
+    response.append("\n").append(ServerUtils.LANG.get("tickcost.chunks"));
+    for (int i = 0; i < chunks.size(); i++) {
+      TickCostProfiler.ChunkCost cost = chunks.get(i);
+      response
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "tickcost.chunk",
+                  i + 1,
+                  getDisplayWorldName(source, cost.worldKey()),
+                  String.valueOf(cost.chunkPos().x),
+                  String.valueOf(cost.chunkPos().z),
+                  cost.nanosPerTick()));
+    }
+
+    source.sendMessage(Text.of(response.toString()));
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * 計測切替． 設定ファイルへも反映．
+   *
+   * @param source コマンドソース
+   * @param enable 有効化する場合true
+   * @return コマンド結果
+   */
+  private static int runToggleCommand(ServerCommandSource source, boolean enable) {
+    ServerUtilsMidnightConfig.enableTickCost = enable;
+    MidnightConfig.write(ServerUtils.MOD_ID);
+    TickCostProfiler.configure(
+        enable,
+        ServerUtilsMidnightConfig.tickCostSampleInterval,
+        ServerUtilsMidnightConfig.tickCostBudgetMicros);
+
+    String key = enable ? "tickcost.toggle.on" : "tickcost.toggle.off";
+    source.sendFeedback(
+        () -> Text.literal(ServerUtils.LANG.get("serverutils.prefix") + ServerUtils.LANG.get(key)),
+        true);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * 集計値破棄．
+   *
+   * @param source コマンドソース
+   * @return コマンド結果
+   */
+  private static int runResetCommand(ServerCommandSource source) {
+    TickCostProfiler.reset();
+    source.sendFeedback(
+        () ->
+            Text.literal(
+                ServerUtils.LANG.get("serverutils.prefix")
+                    + ServerUtils.LANG.get("tickcost.reset")),
+        true);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static String createStatusLine() {
+    return ServerUtils.LANG.get(
+        "tickcost.status",
+        TickCostProfiler.getSampledTicks(),
+        TickCostProfiler.getEffectiveInterval(),
+        String.format("%.1f", TickCostProfiler.getLastOverheadNanos() / 1000.0),
+        TickCostProfiler.getBudgetNanos() / 1000);
+  }
+
+  /** ディメンション表示名． 読込中のワールドが無い場合はID． */
+  private static String getDisplayWorldName(
+      ServerCommandSource source, RegistryKey<World> worldKey) {
+    ServerWorld world = source.getServer().getWorld(worldKey);
+    return world != null
+        ? MobCapProcessor.getDisplayDimensionName(world)
+        : worldKey.getValue().toString();
+  }
+
+  /** {@code minecraft} 名前空間を省略したID． */
+  private static String getDisplayId(Identifier id) {
+    return "minecraft".equals(id.getNamespace()) ? id.getPath() : id.toString();
+  }
+}
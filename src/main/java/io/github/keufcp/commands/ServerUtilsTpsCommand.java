@@ -3,7 +3,9 @@ package io.github.keufcp.commands;
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.context.CommandContext;
 import io.github.keufcp.ServerUtils;
-import io.github.keufcp.utils.TickTimeUtil;
+import io.github.keufcp.utils.MetricsSnapshot;
+import io.github.keufcp.utils.MetricsSnapshotPublisher;
+import io.github.keufcp.utils.TickWindow;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
@@ -12,7 +14,7 @@ import net.minecraft.text.Text;
 /**
  * サーバーTPS (Ticks Per Second) 表示コマンドクラス．
  *
- * <p>/suTps コマンド登録・実行処理， サーバーTPS計算・表示担当．
+ * <p>/suTps コマンド登録・実行処理， サーバーTPS計算・表示担当． TPSはTick開始間隔から計測した実レートを目標Tickレートと併せて表示．
  */
 public class ServerUtilsTpsCommand {
 
@@ -36,13 +38,33 @@ public class ServerUtilsTpsCommand {
    */
   private static int runTpsCommand(CommandContext<ServerCommandSource> context) {
     ServerCommandSource source = context.getSource();
+    MetricsSnapshot snapshot = MetricsSnapshotPublisher.getOrCapture(source.getServer());
 
-    double tps = TickTimeUtil.calculateTPS();
+    double tps = snapshot.getTps();
+    float targetTps = snapshot.getTargetTickRate();
 
-    String label = ServerUtils.LANG.get("tps.result", String.format("%.2f", tps));
+    StringBuilder response =
+        new StringBuilder(ServerUtils.LANG.get("tps.result", String.format("%.2f", tps)));
+    response
+        .append("\n")
+        .append(
+            ServerUtils.LANG.get(
+                "tps.target",
+                String.format("%.1f", targetTps),
+                String.format("%.1f", tps / targetTps * 100.0)));
+    response
+        .append("\n")
+        .append(
+            ServerUtils.LANG.get(
+                "tps.windows", TickWindow.joinLabels(), TickWindow.joinValues(snapshot::getTps)));
+    if (snapshot.isFrozen()) {
+      response.append("\n").append(ServerUtils.LANG.get("tps.state.frozen"));
+    } else if (snapshot.isSprinting()) {
+      response.append("\n").append(ServerUtils.LANG.get("tps.state.sprinting"));
+    }
 
     // TPS結果をプレイヤーに表示
-    source.sendMessage(Text.of(label));
+    source.sendMessage(Text.of(response.toString()));
 
     return Command.SINGLE_SUCCESS;
   }
@@ -0,0 +1,122 @@
+package io.github.keufcp.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import io.github.keufcp.ServerUtils;
+import io.github.keufcp.utils.WebhookDispatcher;
+import io.github.keufcp.utils.WebhookSender;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.command.CommandSource;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+/**
+ * Webhook配送状況表示・手動送信コマンドクラス．
+ *
+ * <p>/suWebhook コマンド登録・実行処理担当． 送信先毎の {@link WebhookDispatcher} のキュー長・配送数・遅延等を表示．
+ */
+public class ServerUtilsWebhookCommand {
+
+  /** 送信先名候補を提供するSuggestionProvider. */
+  private static final SuggestionProvider<ServerCommandSource> TARGET_SUGGESTIONS =
+      (context, builder) ->
+          CommandSource.suggestMatching(
+              WebhookSender.getDispatchers().stream().map(WebhookDispatcher::getName), builder);
+
+  /** /suWebhook コマンドのコマンドディスパッチャへの登録． */
+  public static void register() {
+    CommandRegistrationCallback.EVENT.register(
+        (dispatcher, registryAccess, environment) ->
+            dispatcher.register(
+                CommandManager.literal("suWebhook")
+                    .requires(source -> source.hasPermissionLevel(2)) // OP権限レベル2以上要
+                    .executes(context -> runStatusCommand(context.getSource()))
+                    .then(
+                        CommandManager.literal("send")
+                            .requires(source -> source.hasPermissionLevel(4)) // 外部送信のためOP権限要求
+                            .executes(context -> runSendCommand(context.getSource(), null))
+                            .then(
+                                CommandManager.argument("target", StringArgumentType.string())
+                                    .suggests(TARGET_SUGGESTIONS)
+                                    .executes(
+                                        context ->
+                                            runSendCommand(
+                                                context.getSource(),
+                                                StringArgumentType.getString(
+                                                    context, "target")))))));
+  }
+
+  /**
+   * 配送状況表示．
+   *
+   * @param source コマンドソース
+   * @return コマンド結果
+   */
+  private static int runStatusCommand(ServerCommandSource source) {
+    if (WebhookSender.getDispatchers().isEmpty()) {
+      source.sendMessage(Text.of(ServerUtils.LANG.get("webhook.status.none")));
+      return 0;
+    }
+
+    StringBuilder response = new StringBuilder();
+    for (WebhookDispatcher dispatcher : WebhookSender.getDispatchers()) {
+      if (response.length() > 0) {
+        response.append("\n");
+      }
+      response
+          .append(ServerUtils.LANG.get("webhook.status.title", dispatcher.getName()))
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "webhook.status.counts",
+                  dispatcher.getQueueDepth(),
+                  dispatcher.getSentCount(),
+                  dispatcher.getFailedCount(),
+                  dispatcher.getDroppedCount()))
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "webhook.status.retries",
+                  dispatcher.getRetryCount(),
+                  dispatcher.getRateLimitedCount(),
+                  dispatcher.getCoalescedCount()))
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "webhook.status.latency",
+                  formatMillis(dispatcher.getLastLatencyMillis()),
+                  formatMillis(dispatcher.getMeanLatencyMillis())));
+    }
+
+    source.sendMessage(Text.of(response.toString()));
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * Webhook手動送信． 配送キューへ投入のみ行い，通信は待たない．
+   *
+   * @param source コマンドソース
+   * @param targetName 送信先名．nullの場合は定期送信対象の全送信先
+   * @return コマンド結果
+   */
+  private static int runSendCommand(ServerCommandSource source, String targetName) {
+    if (!WebhookSender.sendWebhook(targetName)) {
+      source.sendError(Text.literal(ServerUtils.LANG.get("webhook.send.failed")));
+      return 0;
+    }
+
+    source.sendFeedback(
+        () ->
+            Text.literal(
+                ServerUtils.LANG.get("serverutils.prefix")
+                    + ServerUtils.LANG.get("webhook.send.queued")),
+        true);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private static String formatMillis(double millis) {
+    return Double.isNaN(millis) ? "-" : String.format("%.0f", millis);
+  }
+}
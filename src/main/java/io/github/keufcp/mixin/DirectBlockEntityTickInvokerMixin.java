@@ -0,0 +1,66 @@
+package io.github.keufcp.mixin;
+
+import io.github.keufcp.utils.TickCostProfiler;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.server.world.ServerWorld;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * WorldChunk.DirectBlockEntityTickInvokerクラスへのMixin． 個々のブロックエンティティのTicker呼出にフックし，
+ * サーバーワールドのサンプリングTickのみ処理時間を {@link TickCostProfiler} へ記録．
+ *
+ * <p>削除済み・Tick範囲外で呼ばれないブロックエンティティは記録しない．
+ */
+@Mixin(targets = "net.minecraft.world.chunk.WorldChunk$DirectBlockEntityTickInvoker")
+public abstract class DirectBlockEntityTickInvokerMixin {
+
+  @Shadow @Final private BlockEntity blockEntity;
+
+  /**
+   * Ticker呼出直前へのインジェクション． サンプリングTickのみ計測開始．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(
+      method = "tick",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/block/entity/BlockEntityTicker;tick(Lnet/minecraft/world/World;"
+                      + "Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/BlockState;"
+                      + "Lnet/minecraft/block/entity/BlockEntity;)V"),
+      require = 0)
+  private void onTickerStart(CallbackInfo ci) {
+    if (TickCostProfiler.isSampling() && blockEntity.getWorld() instanceof ServerWorld) {
+      TickCostProfiler.beginBlockEntity();
+    }
+  }
+
+  /**
+   * Ticker呼出直後へのインジェクション． サンプリングTickのみブロックエンティティタイプ別に記録．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(
+      method = "tick",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/block/entity/BlockEntityTicker;tick(Lnet/minecraft/world/World;"
+                      + "Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/BlockState;"
+                      + "Lnet/minecraft/block/entity/BlockEntity;)V",
+              shift = At.Shift.AFTER),
+      require = 0)
+  private void onTickerEnd(CallbackInfo ci) {
+    if (TickCostProfiler.isSampling() && blockEntity.getWorld() instanceof ServerWorld world) {
+      TickCostProfiler.endBlockEntity(world, blockEntity);
+    }
+  }
+}
@@ -1,44 +1,136 @@
 package io.github.keufcp.mixin;
 
+import io.github.keufcp.utils.AlertEngine;
+import io.github.keufcp.utils.EntityPopulationCounter;
+import io.github.keufcp.utils.JfrTickEvents;
+import io.github.keufcp.utils.LocalMobCapTracker;
+import io.github.keufcp.utils.MetricsHistory;
+import io.github.keufcp.utils.MetricsSnapshotPublisher;
+import io.github.keufcp.utils.MobHotspotScanner;
+import io.github.keufcp.utils.TickCostProfiler;
+import io.github.keufcp.utils.TickPhase;
+import io.github.keufcp.utils.TickPhaseProfiler;
 import io.github.keufcp.utils.TickTimeUtil;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.ServerTickManager;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
-/** MinecraftServerクラスへのMixin． サーバーTick処理にフックし，Tick時間を記録． */
+/**
+ * MinecraftServerクラスへのMixin． サーバーTick処理にフックし，Tick時間を記録．
+ *
+ * <p>Tick内のネットワーク・自動保存フェーズも {@link TickPhaseProfiler} へ記録．
+ * ネットワークフェーズ計測用インジェクションは対象バージョン差異で一致しない場合も起動を妨げず，{@link TickPhaseProfiler} が不一致を警告．
+ * 自動保存フェーズは処理メソッド自体へのフックのため必須とし，不一致を計測値0のまま見逃さない．
+ */
 @Mixin(MinecraftServer.class)
 public class MinecraftServerMixin {
 
-  // スレッドローカルでTick開始時間を保持
-  private static final ThreadLocal<Long> tickStartTime = new ThreadLocal<>();
+  // Tick開始時間（ナノ秒）．サーバースレッドのみが読み書きするためボクシング不要のプリミティブで保持
+  @Unique private long serverutils$tickStartTime = -1L;
 
   /**
-   * サーバーTick毎処理メソッドの先頭へのインジェクション． Tick開始時間を記録．
+   * サーバーTick毎処理メソッドの先頭へのインジェクション． Tick開始時間を記録し，実TPS計測用に {@link TickTimeUtil} へ通知．
+   * 一時停止中の経路はTick終了処理へ到達しないため，{@link TickPhaseProfiler} の前回Tick分の残りを破棄．
    *
    * @param ci コールバック情報
    */
   @Inject(at = @At("HEAD"), method = "tick")
   private void onTickStart(CallbackInfo ci) {
     // Tick開始時間を記録
-    tickStartTime.set(System.nanoTime());
+    long startTime = System.nanoTime();
+    serverutils$tickStartTime = startTime;
+    TickPhaseProfiler.onTickStart();
+
+    ServerTickManager tickManager = ((MinecraftServer) (Object) this).getTickManager();
+    TickTimeUtil.onTickStart(
+        startTime, tickManager.getTickRate(), tickManager.isFrozen(), tickManager.isSprinting());
   }
 
   /**
-   * サーバーTick毎処理メソッドの末尾へのインジェクション． Tick処理時間を計算し {@link TickTimeUtil} へ追加．
+   * サーバーTick毎処理メソッドの末尾へのインジェクション． Tick処理時間を計算し {@link JfrTickEvents}・{@link TickTimeUtil} へ追加後，
+   * {@link EntityPopulationCounter}・{@link MetricsSnapshotPublisher}・{@link AlertEngine}・{@link
+   * MetricsHistory}・{@link LocalMobCapTracker}・{@link MobHotspotScanner}・{@link TickCostProfiler}
+   * へ通知．
    *
    * @param ci コールバック情報
    */
   @Inject(at = @At("TAIL"), method = "tick")
   private void onTickEnd(CallbackInfo ci) {
-    Long startTime = tickStartTime.get();
-    if (startTime != null) {
+    long startTime = serverutils$tickStartTime;
+    if (startTime != -1L) {
       long endTime = System.nanoTime();
       long duration = endTime - startTime;
-      TickTimeUtil.addTickTime(duration);
-      // 次のTickのためにクリア (任意だが推奨)
-      tickStartTime.remove();
+      JfrTickEvents.onTickEnd((MinecraftServer) (Object) this, duration, endTime);
+      TickTimeUtil.addTickTime(duration, endTime);
+      EntityPopulationCounter.onTickEnd((MinecraftServer) (Object) this);
+      MetricsSnapshotPublisher.onTickEnd((MinecraftServer) (Object) this);
+      AlertEngine.onTickEnd((MinecraftServer) (Object) this, endTime);
+      MetricsHistory.onTickEnd((MinecraftServer) (Object) this, duration);
+      LocalMobCapTracker.onTickEnd((MinecraftServer) (Object) this);
+      MobHotspotScanner.onTickEnd((MinecraftServer) (Object) this);
+      TickCostProfiler.onTickEnd((MinecraftServer) (Object) this);
+      // 次のTickのためにクリア
+      serverutils$tickStartTime = -1L;
     }
   }
+
+  /**
+   * 通信処理開始へのインジェクション． ネットワークフェーズ計測開始．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(
+      method = "tickWorlds",
+      at =
+          @At(
+              value = "INVOKE_STRING",
+              target = "Lnet/minecraft/util/profiler/Profiler;swap(Ljava/lang/String;)V",
+              args = "ldc=connection"),
+      require = 0)
+  private void onNetworkStart(CallbackInfo ci) {
+    TickPhaseProfiler.begin(TickPhase.NETWORK);
+  }
+
+  /**
+   * 通信処理終了（プレイヤー処理開始）へのインジェクション． ネットワークフェーズ計測終了．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(
+      method = "tickWorlds",
+      at =
+          @At(
+              value = "INVOKE_STRING",
+              target = "Lnet/minecraft/util/profiler/Profiler;swap(Ljava/lang/String;)V",
+              args = "ldc=players"),
+      require = 0)
+  private void onNetworkEnd(CallbackInfo ci) {
+    TickPhaseProfiler.end(TickPhase.NETWORK);
+  }
+
+  /**
+   * 自動保存処理先頭へのインジェクション． 自動保存フェーズ計測開始．
+   *
+   * <p>1.21.2以降の自動保存は {@code tick} から分離され，サーバー一時停止中の経路からも呼ばれるため，自動保存処理自体にフック．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(method = "runAutosave", at = @At("HEAD"))
+  private void onAutosaveStart(CallbackInfo ci) {
+    TickPhaseProfiler.begin(TickPhase.AUTOSAVE);
+  }
+
+  /**
+   * 自動保存処理終了時へのインジェクション． 自動保存フェーズ計測終了．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(method = "runAutosave", at = @At("RETURN"))
+  private void onAutosaveEnd(CallbackInfo ci) {
+    TickPhaseProfiler.end(TickPhase.AUTOSAVE);
+  }
 }
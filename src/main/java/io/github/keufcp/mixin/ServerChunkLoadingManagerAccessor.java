@@ -0,0 +1,20 @@
+package io.github.keufcp.mixin;
+
+import io.github.keufcp.utils.MobHotspotScanner;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ServerChunkLoadingManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+/** ServerChunkLoadingManagerクラスへのアクセサ． {@link MobHotspotScanner} による読込済みチャンクの列挙に使用． */
+@Mixin(ServerChunkLoadingManager.class)
+public interface ServerChunkLoadingManagerAccessor {
+
+  /**
+   * 読込済みチャンクのChunkHolder一覧取得．
+   *
+   * @return ChunkHolder一覧
+   */
+  @Invoker("entryIterator")
+  Iterable<ChunkHolder> serverutils$entryIterator();
+}
@@ -0,0 +1,176 @@
+package io.github.keufcp.mixin;
+
+import io.github.keufcp.utils.DimensionTickStats;
+import io.github.keufcp.utils.TickCostProfiler;
+import io.github.keufcp.utils.TickPhase;
+import io.github.keufcp.utils.TickPhaseProfiler;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * ServerWorldクラスへのMixin． ワールドTick処理にフックし，フェーズ別処理時間を {@link TickPhaseProfiler} へ記録．
+ * 個々のエンティティTickはサンプリングTickのみ {@link TickCostProfiler} へ記録．
+ *
+ * <p>ワールドTick全体の処理時間はディメンション別に {@link DimensionTickStats} へも記録．
+ * ワールド全体・チャンク管理・エンティティ・ブロックエンティティの各区間を計測． 内部区間のインジェクションは対象バージョン差異で一致しない場合も起動を妨げない．
+ */
+@Mixin(ServerWorld.class)
+public class ServerWorldMixin {
+
+  // ワールドTick開始時間（ナノ秒）．サーバースレッドのみが読み書き
+  @Unique private long serverutils$worldTickStartTime = -1L;
+
+  // ディメンション別Tick統計スロット．初回Tick時に解決
+  @Unique private DimensionTickStats.Slot serverutils$tickStats;
+
+  /**
+   * ワールドTick処理先頭へのインジェクション． ワールドTick開始時間を記録し，ワールドフェーズ計測開始．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(at = @At("HEAD"), method = "tick")
+  private void onWorldTickStart(CallbackInfo ci) {
+    serverutils$worldTickStartTime = System.nanoTime();
+    TickPhaseProfiler.begin(TickPhase.WORLDS);
+  }
+
+  /**
+   * ワールドTick処理終了時へのインジェクション． ディメンション別統計への記録とワールドフェーズ計測終了．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(at = @At("RETURN"), method = "tick")
+  private void onWorldTickEnd(CallbackInfo ci) {
+    TickPhaseProfiler.end(TickPhase.WORLDS);
+
+    long startTime = serverutils$worldTickStartTime;
+    if (startTime != -1L) {
+      DimensionTickStats.Slot stats = serverutils$tickStats;
+      if (stats == null) {
+        stats = DimensionTickStats.slotFor(((ServerWorld) (Object) this).getRegistryKey());
+        serverutils$tickStats = stats;
+      }
+      stats.record(startTime, System.nanoTime() - startTime);
+      serverutils$worldTickStartTime = -1L;
+    }
+  }
+
+  /**
+   * チャンク管理Tick呼出直前へのインジェクション． チャンクフェーズ計測開始．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(
+      method = "tick",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/server/world/ServerChunkManager;"
+                      + "tick(Ljava/util/function/BooleanSupplier;Z)V"),
+      require = 0)
+  private void onChunksStart(CallbackInfo ci) {
+    TickPhaseProfiler.begin(TickPhase.CHUNKS);
+  }
+
+  /**
+   * チャンク管理Tick呼出直後へのインジェクション． チャンクフェーズ計測終了．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(
+      method = "tick",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/server/world/ServerChunkManager;"
+                      + "tick(Ljava/util/function/BooleanSupplier;Z)V",
+              shift = At.Shift.AFTER),
+      require = 0)
+  private void onChunksEnd(CallbackInfo ci) {
+    TickPhaseProfiler.end(TickPhase.CHUNKS);
+  }
+
+  /**
+   * エンティティTick区間開始へのインジェクション． エンティティフェーズ計測開始．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(
+      method = "tick",
+      at =
+          @At(
+              value = "INVOKE_STRING",
+              target = "Lnet/minecraft/util/profiler/Profiler;push(Ljava/lang/String;)V",
+              args = "ldc=entities"),
+      require = 0)
+  private void onEntitiesStart(CallbackInfo ci) {
+    TickPhaseProfiler.begin(TickPhase.ENTITIES);
+  }
+
+  /**
+   * ブロックエンティティTick呼出直前へのインジェクション． エンティティフェーズ計測終了とブロックエンティティフェーズ計測開始．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(
+      method = "tick",
+      at =
+          @At(
+              value = "INVOKE",
+              target = "Lnet/minecraft/server/world/ServerWorld;tickBlockEntities()V"),
+      require = 0)
+  private void onBlockEntitiesStart(CallbackInfo ci) {
+    TickPhaseProfiler.end(TickPhase.ENTITIES);
+    TickPhaseProfiler.begin(TickPhase.BLOCK_ENTITIES);
+  }
+
+  /**
+   * ブロックエンティティTick呼出直後へのインジェクション． ブロックエンティティフェーズ計測終了．
+   *
+   * @param ci コールバック情報
+   */
+  @Inject(
+      method = "tick",
+      at =
+          @At(
+              value = "INVOKE",
+              target = "Lnet/minecraft/server/world/ServerWorld;tickBlockEntities()V",
+              shift = At.Shift.AFTER),
+      require = 0)
+  private void onBlockEntitiesEnd(CallbackInfo ci) {
+    TickPhaseProfiler.end(TickPhase.BLOCK_ENTITIES);
+  }
+
+  /**
+   * エンティティTick処理先頭へのインジェクション． サンプリングTickのみ計測開始．
+   *
+   * @param entity 対象エンティティ
+   * @param ci コールバック情報
+   */
+  @Inject(at = @At("HEAD"), method = "tickEntity(Lnet/minecraft/entity/Entity;)V", require = 0)
+  private void onEntityTickStart(Entity entity, CallbackInfo ci) {
+    if (TickCostProfiler.isSampling()) {
+      TickCostProfiler.beginEntity();
+    }
+  }
+
+  /**
+   * エンティティTick処理終了時へのインジェクション． サンプリングTickのみエンティティタイプ別に記録．
+   *
+   * @param entity 対象エンティティ
+   * @param ci コールバック情報
+   */
+  @Inject(at = @At("RETURN"), method = "tickEntity(Lnet/minecraft/entity/Entity;)V", require = 0)
+  private void onEntityTickEnd(Entity entity, CallbackInfo ci) {
+    if (TickCostProfiler.isSampling()) {
+      TickCostProfiler.endEntity((ServerWorld) (Object) this, entity);
+    }
+  }
+}
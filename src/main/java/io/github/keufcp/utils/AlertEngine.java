@@ -0,0 +1,220 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import io.github.keufcp.ServerUtilsMidnightConfig;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+
+/**
+ * 閾値アラート評価クラス．
+ *
+ * <p>サーバースレッドのTick終了時に1秒毎に以下のルールを評価し，発火・解消時にWebhookを送信． 各ルールは {@link AlertRule}
+ * によるヒステリシス・デバウンス付きで，評価コストはルール数に比例する定数．
+ *
+ * <ul>
+ *   <li>低TPS: 5秒窓TPSが閾値未満の状態が継続
+ *   <li>高MSPT: 1分窓p99 Tick時間が閾値超過の状態が継続
+ *   <li>MobCap飽和: ディメンションのモンスター数がMobCap以上の状態が継続
+ * </ul>
+ *
+ * <p>継続時間を0秒に設定したルールは評価しない．
+ */
+public class AlertEngine {
+
+  /** 評価間隔（ナノ秒） */
+  private static final long EVALUATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /** TPS解消判定のヒステリシス幅（閾値 + 本値以上で解消） */
+  private static final double TPS_HYSTERESIS = 1.0;
+
+  /** MSPT解消判定比率（閾値 × 本値以下で解消） */
+  private static final double MSPT_RESOLVE_RATIO = 0.8;
+
+  /** MobCap解消判定比率（MobCap × 本値未満で解消） */
+  private static final double MOB_CAP_RESOLVE_RATIO = 0.9;
+
+  /** アラート有効フラグ */
+  private static volatile boolean enabled;
+
+  /** 低TPSルール */
+  private static final AlertRule tpsRule = new AlertRule();
+
+  /** 高MSPTルール */
+  private static final AlertRule msptRule = new AlertRule();
+
+  /** ディメンション毎のMobCap飽和ルール（サーバースレッドのみ参照） */
+  private static final Map<RegistryKey<World>, AlertRule> mobCapRules = new HashMap<>();
+
+  /** 前回評価時刻（サーバースレッドのみ参照） */
+  private static long lastEvaluation = Long.MIN_VALUE;
+
+  /**
+   * 有効・無効切替． 無効化時は発火中のルールを通知無しで解除．
+   *
+   * <p>サーバースレッドまたはサーバー起動前に呼出．
+   *
+   * @param enable 有効化する場合true
+   */
+  public static void setEnabled(boolean enable) {
+    if (!enable) {
+      tpsRule.reset();
+      msptRule.reset();
+      mobCapRules.clear();
+      lastEvaluation = Long.MIN_VALUE;
+    }
+    enabled = enable;
+  }
+
+  /**
+   * Tick終了時処理． 前回評価から1秒以上経過した場合のみ全ルールを評価．
+   *
+   * <p>サーバースレッドからのみ呼出可．
+   *
+   * @param server サーバーインスタンス
+   * @param now Tick終了時刻（{@link System#nanoTime()} 基準）
+   */
+  public static void onTickEnd(MinecraftServer server, long now) {
+    if (!enabled) {
+      return;
+    }
+    if (lastEvaluation != Long.MIN_VALUE && now - lastEvaluation < EVALUATION_INTERVAL_NANOS) {
+      return;
+    }
+    lastEvaluation = now;
+
+    evaluateTps(now);
+    evaluateMspt(now);
+    evaluateMobCaps(server, now);
+  }
+
+  private static void evaluateTps(long now) {
+    int seconds = ServerUtilsMidnightConfig.alertTpsSeconds;
+    if (seconds <= 0) {
+      return;
+    }
+    double threshold = ServerUtilsMidnightConfig.alertTpsThreshold;
+    double tps = TickTimeUtil.calculateTPS(TickWindow.SECONDS_5);
+    AlertRule.Transition transition =
+        tpsRule.update(
+            tps < threshold,
+            tps >= threshold + TPS_HYSTERESIS,
+            now,
+            toNanos(seconds),
+            resolveNanos());
+
+    String name = ServerUtils.LANG.get("alert.tps.name");
+    if (transition == AlertRule.Transition.FIRED) {
+      notify(
+          name,
+          ServerUtils.LANG.get(
+              "alert.tps.fired",
+              String.format("%.1f", threshold),
+              seconds,
+              String.format("%.2f", tps)),
+          true);
+    } else if (transition == AlertRule.Transition.RESOLVED) {
+      notify(name, ServerUtils.LANG.get("alert.tps.resolved", String.format("%.2f", tps)), false);
+    }
+  }
+
+  private static void evaluateMspt(long now) {
+    int seconds = ServerUtilsMidnightConfig.alertMsptSeconds;
+    if (seconds <= 0) {
+      return;
+    }
+    double threshold = ServerUtilsMidnightConfig.alertMsptP99Millis;
+    TickHistogram histogram = TickTimeUtil.getTickTimeHistogram(TickWindow.MINUTES_1);
+    if (histogram.getTotalCount() == 0) {
+      return;
+    }
+    double p99 = histogram.getValueAtPercentile(99.0) / 1_000.0;
+    AlertRule.Transition transition =
+        msptRule.update(
+            p99 > threshold,
+            p99 <= threshold * MSPT_RESOLVE_RATIO,
+            now,
+            toNanos(seconds),
+            resolveNanos());
+
+    String name = ServerUtils.LANG.get("alert.mspt.name");
+    if (transition == AlertRule.Transition.FIRED) {
+      notify(
+          name,
+          ServerUtils.LANG.get(
+              "alert.mspt.fired",
+              String.format("%.0f", threshold),
+              seconds,
+              String.format("%.2f", p99)),
+          true);
+    } else if (transition == AlertRule.Transition.RESOLVED) {
+      notify(name, ServerUtils.LANG.get("alert.mspt.resolved", String.format("%.2f", p99)), false);
+    }
+  }
+
+  private static void evaluateMobCaps(MinecraftServer server, long now) {
+    int seconds = ServerUtilsMidnightConfig.alertMobCapSeconds;
+    if (seconds <= 0) {
+      return;
+    }
+    for (ServerWorld world : server.getWorlds()) {
+      MobCapProcessor.MobCapInfo info = MobCapProcessor.getMobCapInfo(world);
+      if (!info.hasValidInfo()) {
+        continue;
+      }
+      long count = info.getCurrentMonsterCount();
+      int cap = info.getMobCap();
+      AlertRule rule = mobCapRules.computeIfAbsent(world.getRegistryKey(), key -> new AlertRule());
+      AlertRule.Transition transition =
+          rule.update(
+              cap > 0 && count >= cap,
+              count < cap * MOB_CAP_RESOLVE_RATIO || cap == 0,
+              now,
+              toNanos(seconds),
+              resolveNanos());
+
+      if (transition == AlertRule.Transition.NONE) {
+        continue;
+      }
+      String dimensionName = MobCapProcessor.getDisplayDimensionName(world);
+      String name = ServerUtils.LANG.get("alert.mobcap.name", dimensionName);
+      if (transition == AlertRule.Transition.FIRED) {
+        notify(
+            name,
+            ServerUtils.LANG.get("alert.mobcap.fired", dimensionName, seconds, count, cap),
+            true);
+      } else {
+        notify(
+            name, ServerUtils.LANG.get("alert.mobcap.resolved", dimensionName, count, cap), false);
+      }
+    }
+  }
+
+  /**
+   * アラート通知． ログ出力とWebhook送信要求投入（通信は待たない）．
+   *
+   * @param name アラート名
+   * @param description 詳細
+   * @param fired 発火の場合true，解消の場合false
+   */
+  private static void notify(String name, String description, boolean fired) {
+    if (fired) {
+      ServerUtils.LOGGER.warn("Alert fired: {} - {}", name, description);
+    } else {
+      ServerUtils.LOGGER.info("Alert resolved: {} - {}", name, description);
+    }
+    WebhookSender.sendAlert(name, description, fired);
+  }
+
+  private static long resolveNanos() {
+    return toNanos(ServerUtilsMidnightConfig.alertResolveSeconds);
+  }
+
+  private static long toNanos(int seconds) {
+    return TimeUnit.SECONDS.toNanos(seconds);
+  }
+}
@@ -0,0 +1,123 @@
+package io.github.keufcp.utils;
+
+/**
+ * ヒステリシス・デバウンス付きアラート状態機械．
+ *
+ * <p>発火条件が {@code fireAfterNanos} 継続した時点で発火し，解消条件が {@code resolveAfterNanos} 継続した時点で解消．
+ * 発火条件と解消条件の間の値では現状態を維持するため，閾値付近での発火・解消の繰り返しを防止． 評価毎のコストは定数．
+ *
+ * <p>単一スレッドからのみ更新可．
+ */
+public final class AlertRule {
+
+  /** ルール状態 */
+  private enum State {
+    /** 正常 */
+    OK,
+    /** 発火条件継続中（未発火） */
+    PENDING,
+    /** 発火中 */
+    FIRING,
+    /** 解消条件継続中（発火中扱い） */
+    RESOLVING
+  }
+
+  /** 状態遷移結果 */
+  public enum Transition {
+    /** 通知不要 */
+    NONE,
+    /** 発火 */
+    FIRED,
+    /** 解消 */
+    RESOLVED
+  }
+
+  /** 現在状態 */
+  private State state = State.OK;
+
+  /** 現在状態への遷移時刻（{@link System#nanoTime()} 基準） */
+  private long stateSince;
+
+  /** 発火時刻（{@link System#nanoTime()} 基準） */
+  private long firedAt;
+
+  /**
+   * 評価値による状態更新．
+   *
+   * @param breached 発火条件成立
+   * @param cleared 解消条件成立（ヒステリシス分だけ発火条件より厳しい）
+   * @param now 評価時刻（{@link System#nanoTime()} 基準）
+   * @param fireAfterNanos 発火までの条件継続時間
+   * @param resolveAfterNanos 解消までの条件継続時間
+   * @return 通知すべき遷移
+   */
+  public Transition update(
+      boolean breached, boolean cleared, long now, long fireAfterNanos, long resolveAfterNanos) {
+    switch (state) {
+      case OK:
+        if (!breached) {
+          return Transition.NONE;
+        }
+        enter(State.PENDING, now);
+      // fall through: 継続時間0の場合は即時発火
+      case PENDING:
+        if (!breached) {
+          enter(State.OK, now);
+          return Transition.NONE;
+        }
+        if (now - stateSince >= fireAfterNanos) {
+          enter(State.FIRING, now);
+          firedAt = now;
+          return Transition.FIRED;
+        }
+        return Transition.NONE;
+      case FIRING:
+        if (!cleared) {
+          return Transition.NONE;
+        }
+        enter(State.RESOLVING, now);
+      // fall through: 継続時間0の場合は即時解消
+      case RESOLVING:
+      default:
+        if (!cleared) {
+          enter(State.FIRING, now);
+          return Transition.NONE;
+        }
+        if (now - stateSince >= resolveAfterNanos) {
+          enter(State.OK, now);
+          return Transition.RESOLVED;
+        }
+        return Transition.NONE;
+    }
+  }
+
+  /** 通知無しで正常状態へ戻す． 遷移時刻・発火時刻も初期化し，以前の評価を次回判定へ持ち越さない． */
+  public void reset() {
+    state = State.OK;
+    stateSince = 0L;
+    firedAt = 0L;
+  }
+
+  /**
+   * 発火中判定．
+   *
+   * @return 発火済みかつ未解消の場合true
+   */
+  public boolean isFiring() {
+    return state == State.FIRING || state == State.RESOLVING;
+  }
+
+  /**
+   * 発火時刻取得．
+   *
+   * @return 発火時刻（{@link System#nanoTime()} 基準）．{@link #isFiring()} がtrueの場合のみ有効
+   */
+  public long getFiredAt() {
+    return firedAt;
+  }
+
+  private void enter(State next, long now) {
+    state = next;
+    stateSince = now;
+  }
+}
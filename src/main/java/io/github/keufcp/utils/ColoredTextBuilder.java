@@ -192,6 +192,17 @@ public class ColoredTextBuilder {
       return ComparisonColors.getNumeratorColor(current, cap);
     }
 
+    /**
+     * プレイヤー毎のローカルMobCap使用状況に基づく色を取得する． ローカルMobCapは使用量が上限に達した時点でスポーンを止めるため，到達時点で赤とする．
+     *
+     * @param current 現在の使用量
+     * @param cap ローカルMobCap
+     * @return 適切なフォーマット
+     */
+    public static Formatting getLocalCountColor(long current, int cap) {
+      return current >= cap ? Formatting.RED : Formatting.GREEN;
+    }
+
     /**
      * MobCap状況に基づく分母の色を取得する．
      *
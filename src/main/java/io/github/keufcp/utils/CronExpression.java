@@ -0,0 +1,303 @@
+package io.github.keufcp.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * cron式クラス．
+ *
+ * <p>Quartz形式（秒 分 時 日 月 曜日 [年]）の式を解析し，次回実行時刻を直接算出． 各フィールドで {@code *}・{@code ?}・リスト（{@code
+ * ,}）・範囲（{@code -}）・間隔（{@code /}）・月名（{@code JAN}〜）・曜日名（{@code SUN}〜，1=日曜）に対応． 日フィールドの {@code
+ * L}・{@code L-n}，曜日フィールドの {@code nL}（最終n曜日）・{@code n#k}（第k n曜日）にも対応． {@code W} は未対応．
+ *
+ * <p>日・曜日の一方が {@code *} または {@code ?} の場合はもう一方のみで判定し，両方指定時はいずれかに一致する日を対象とする．
+ */
+public final class CronExpression {
+
+  /** 対応する最大の年 */
+  private static final int MAX_YEAR = 2199;
+
+  /** 月名 */
+  private static final String[] MONTH_NAMES = {
+    "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"
+  };
+
+  /** 曜日名（1=日曜） */
+  private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+  /** 元の式 */
+  private final String expression;
+
+  private final BitSet seconds;
+  private final BitSet minutes;
+  private final BitSet hours;
+  private final BitSet daysOfMonth;
+  private final BitSet months;
+  private final BitSet daysOfWeek;
+
+  /** 対象年（指定無しの場合null） */
+  private final BitSet years;
+
+  /** 日フィールドが {@code *}・{@code ?} のみ */
+  private final boolean anyDayOfMonth;
+
+  /** 曜日フィールドが {@code *}・{@code ?} のみ */
+  private final boolean anyDayOfWeek;
+
+  /** {@code L-n} の月末からの日数（未指定時-1） */
+  private final int lastDayOffset;
+
+  /** {@code nL} の曜日（未指定時0） */
+  private final int lastDayOfWeek;
+
+  /** {@code n#k} の曜日（未指定時0） */
+  private final int nthDayOfWeek;
+
+  /** {@code n#k} の週番号 */
+  private final int nthWeek;
+
+  private CronExpression(String expression, String[] fields) {
+    this.expression = expression;
+    this.seconds = parseField(fields[0], 0, 59, null);
+    this.minutes = parseField(fields[1], 0, 59, null);
+    this.hours = parseField(fields[2], 0, 23, null);
+    this.months = parseField(fields[4], 1, 12, MONTH_NAMES);
+    this.years = fields.length == 7 ? parseField(fields[6], 1970, MAX_YEAR, null) : null;
+
+    // 日フィールド
+    String dayOfMonth = fields[3].toUpperCase(Locale.ROOT);
+    this.anyDayOfMonth = dayOfMonth.equals("*") || dayOfMonth.equals("?");
+    if (dayOfMonth.equals("L")) {
+      this.lastDayOffset = 0;
+      this.daysOfMonth = new BitSet();
+    } else if (dayOfMonth.startsWith("L-")) {
+      this.lastDayOffset = parseNumber(dayOfMonth.substring(2), 0, 30, null);
+      this.daysOfMonth = new BitSet();
+    } else {
+      this.lastDayOffset = -1;
+      this.daysOfMonth = parseField(dayOfMonth, 1, 31, null);
+    }
+
+    // 曜日フィールド
+    String dayOfWeek = fields[5].toUpperCase(Locale.ROOT);
+    this.anyDayOfWeek = dayOfWeek.equals("*") || dayOfWeek.equals("?");
+    int hash = dayOfWeek.indexOf('#');
+    if (hash >= 0) {
+      this.nthDayOfWeek = parseNumber(dayOfWeek.substring(0, hash), 1, 7, DAY_NAMES);
+      this.nthWeek = parseNumber(dayOfWeek.substring(hash + 1), 1, 5, null);
+      this.lastDayOfWeek = 0;
+      this.daysOfWeek = new BitSet();
+    } else if (dayOfWeek.endsWith("L")) {
+      this.lastDayOfWeek =
+          dayOfWeek.length() == 1
+              ? 7 // 単独の L は土曜
+              : parseNumber(dayOfWeek.substring(0, dayOfWeek.length() - 1), 1, 7, DAY_NAMES);
+      this.nthDayOfWeek = 0;
+      this.nthWeek = 0;
+      this.daysOfWeek = new BitSet();
+    } else {
+      this.lastDayOfWeek = 0;
+      this.nthDayOfWeek = 0;
+      this.nthWeek = 0;
+      this.daysOfWeek = parseField(dayOfWeek, 1, 7, DAY_NAMES);
+    }
+  }
+
+  /**
+   * cron式解析．
+   *
+   * @param expression cron式（6または7フィールド）
+   * @return 解析済みcron式
+   * @throws IllegalArgumentException 構文不正時
+   */
+  public static CronExpression parse(String expression) {
+    if (expression == null) {
+      throw new IllegalArgumentException("cron expression is null");
+    }
+    String[] fields = expression.trim().split("\\s+");
+    if (fields.length != 6 && fields.length != 7) {
+      throw new IllegalArgumentException(
+          "cron expression must have 6 or 7 fields: '" + expression + "'");
+    }
+    return new CronExpression(expression.trim(), fields);
+  }
+
+  /**
+   * cron式有効性判定．
+   *
+   * @param expression cron式
+   * @return 解析可能な場合true
+   */
+  public static boolean isValid(String expression) {
+    try {
+      parse(expression);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  /**
+   * 指定時刻より後の次回実行時刻算出．
+   *
+   * @param after 基準時刻
+   * @return 次回実行時刻．該当時刻が無い場合null
+   */
+  public ZonedDateTime next(ZonedDateTime after) {
+    ZoneId zone = after.getZone();
+    LocalDateTime time = after.toLocalDateTime().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+
+    while (time.getYear() <= MAX_YEAR) {
+      if (years != null && !years.get(time.getYear())) {
+        int year = years.nextSetBit(time.getYear() + 1);
+        if (year < 0) {
+          return null;
+        }
+        time = LocalDateTime.of(year, 1, 1, 0, 0);
+        continue;
+      }
+      if (!months.get(time.getMonthValue())) {
+        int month = months.nextSetBit(time.getMonthValue() + 1);
+        time =
+            month < 0
+                ? LocalDateTime.of(time.getYear() + 1, 1, 1, 0, 0)
+                : LocalDateTime.of(time.getYear(), month, 1, 0, 0);
+        continue;
+      }
+      if (!matchesDay(time.toLocalDate())) {
+        time = time.toLocalDate().plusDays(1).atStartOfDay();
+        continue;
+      }
+      if (!hours.get(time.getHour())) {
+        int hour = hours.nextSetBit(time.getHour() + 1);
+        time =
+            hour < 0
+                ? time.toLocalDate().plusDays(1).atStartOfDay()
+                : time.toLocalDate().atTime(hour, 0);
+        continue;
+      }
+      if (!minutes.get(time.getMinute())) {
+        int minute = minutes.nextSetBit(time.getMinute() + 1);
+        time =
+            minute < 0
+                ? time.truncatedTo(ChronoUnit.HOURS).plusHours(1)
+                : time.truncatedTo(ChronoUnit.HOURS).withMinute(minute);
+        continue;
+      }
+      if (!seconds.get(time.getSecond())) {
+        int second = seconds.nextSetBit(time.getSecond() + 1);
+        time =
+            second < 0
+                ? time.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1)
+                : time.truncatedTo(ChronoUnit.MINUTES).withSecond(second);
+        continue;
+      }
+
+      // 夏時間の切替で存在しない時刻は後ろへずれるため，基準時刻以前にならないよう確認
+      ZonedDateTime result = ZonedDateTime.of(time, zone);
+      if (result.isAfter(after)) {
+        return result;
+      }
+      time = time.plusSeconds(1);
+    }
+    return null;
+  }
+
+  /**
+   * 日・曜日条件判定．
+   *
+   * @param date 日付
+   * @return 対象日の場合true
+   */
+  private boolean matchesDay(LocalDate date) {
+    int day = date.getDayOfMonth();
+    int length = date.lengthOfMonth();
+    boolean dayOfMonthMatch =
+        daysOfMonth.get(day) || (lastDayOffset >= 0 && day == length - lastDayOffset);
+
+    int dayOfWeek = date.getDayOfWeek().getValue() % 7 + 1; // 1=日曜
+    boolean dayOfWeekMatch =
+        daysOfWeek.get(dayOfWeek)
+            || (lastDayOfWeek == dayOfWeek && day + 7 > length)
+            || (nthDayOfWeek == dayOfWeek && (day - 1) / 7 + 1 == nthWeek);
+
+    if (anyDayOfMonth) {
+      return dayOfWeekMatch;
+    }
+    if (anyDayOfWeek) {
+      return dayOfMonthMatch;
+    }
+    return dayOfMonthMatch || dayOfWeekMatch;
+  }
+
+  /**
+   * 1フィールドの解析．
+   *
+   * @param field フィールド文字列
+   * @param min 最小値
+   * @param max 最大値
+   * @param names 名前表記（最小値から順，無い場合null）
+   * @return 対象値の集合
+   */
+  private static BitSet parseField(String field, int min, int max, String[] names) {
+    BitSet values = new BitSet(max + 1);
+    for (String part : field.toUpperCase(Locale.ROOT).split(",")) {
+      int slash = part.indexOf('/');
+      String range = slash < 0 ? part : part.substring(0, slash);
+      int step = slash < 0 ? 1 : parseNumber(part.substring(slash + 1), 1, max - min + 1, null);
+
+      int start;
+      int end;
+      if (range.equals("*") || range.equals("?")) {
+        start = min;
+        end = max;
+      } else if (range.indexOf('-') > 0) {
+        int dash = range.indexOf('-');
+        start = parseNumber(range.substring(0, dash), min, max, names);
+        end = parseNumber(range.substring(dash + 1), min, max, names);
+      } else {
+        start = parseNumber(range, min, max, names);
+        end = slash < 0 ? start : max;
+      }
+
+      // 範囲の折返し（例: 22-2）に対応
+      int span = end >= start ? end - start : end - start + max - min + 1;
+      for (int offset = 0; offset <= span; offset += step) {
+        int value = start + offset;
+        values.set(value > max ? value - (max - min + 1) : value);
+      }
+    }
+    return values;
+  }
+
+  private static int parseNumber(String token, int min, int max, String[] names) {
+    if (names != null) {
+      for (int i = 0; i < names.length; i++) {
+        if (names[i].equals(token)) {
+          return min + i;
+        }
+      }
+    }
+    int value;
+    try {
+      value = Integer.parseInt(token);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("unsupported cron token '" + token + "'");
+    }
+    if (value < min || value > max) {
+      throw new IllegalArgumentException(
+          "cron value " + value + " out of range " + min + "-" + max);
+    }
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+}
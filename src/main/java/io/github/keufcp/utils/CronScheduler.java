@@ -0,0 +1,110 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cron式による定期実行スケジューラー．
+ *
+ * <p>1本のデーモンスレッドを持つ {@link ScheduledExecutorService} 上で，{@link CronExpression}
+ * から算出した次回実行時刻までの遅延で1回実行タスクを登録し，実行毎に次回分を登録し直す． 実行時刻を過ぎた回は実行しない．
+ */
+public class CronScheduler {
+
+  /** 実行スレッド */
+  private final ScheduledExecutorService executor;
+
+  /**
+   * スケジューラー作成．
+   *
+   * @param threadName 実行スレッド名
+   */
+  public CronScheduler(String threadName) {
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, threadName);
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * タスク登録．
+   *
+   * @param expression 実行タイミング
+   * @param task 実行処理（実行スレッドを長時間占有しないこと）
+   * @return 登録済みタスク
+   */
+  public Task schedule(CronExpression expression, Runnable task) {
+    Task scheduled = new Task(expression, task);
+    scheduled.scheduleNext(ZonedDateTime.now(ZoneId.systemDefault()));
+    return scheduled;
+  }
+
+  /** スケジューラー停止． 実行中のタスクは完了を待たない． */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /** 登録済みタスク． */
+  public final class Task {
+
+    private final CronExpression expression;
+    private final Runnable task;
+
+    /** 次回実行予約 */
+    private ScheduledFuture<?> future;
+
+    /** 取消済みフラグ */
+    private boolean cancelled;
+
+    private Task(CronExpression expression, Runnable task) {
+      this.expression = expression;
+      this.task = task;
+    }
+
+    /**
+     * 次回実行予約． 予定時刻から算出することで，実行スレッドの遅延による同一時刻の重複実行を防ぐ．
+     *
+     * @param after 基準時刻
+     */
+    private synchronized void scheduleNext(ZonedDateTime after) {
+      if (cancelled || executor.isShutdown()) {
+        return;
+      }
+      ZonedDateTime now = ZonedDateTime.now(after.getZone());
+      ZonedDateTime fireTime = expression.next(after.isAfter(now) ? after : now);
+      if (fireTime == null) {
+        ServerUtils.LOGGER.info("Cron expression '{}' has no further fire times", expression);
+        return;
+      }
+      long delayMillis = Math.max(0, Duration.between(now, fireTime).toMillis());
+      future = executor.schedule(() -> run(fireTime), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(ZonedDateTime fireTime) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        ServerUtils.LOGGER.error("Scheduled task '{}' failed", expression, e);
+      } finally {
+        scheduleNext(fireTime);
+      }
+    }
+
+    /** タスク取消． */
+    public synchronized void cancel() {
+      cancelled = true;
+      if (future != null) {
+        future.cancel(false);
+      }
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package io.github.keufcp.utils;
+
+/**
+ * 時間減衰型の指数移動平均．
+ *
+ * <p>経過時間に応じた減衰係数 {@code 1 - exp(-dt / window)} を用いるため，Tick間隔が伸びた場合でも窓幅（時定数）は実時間基準で維持．
+ * 単一書き込みスレッド前提で更新はO(1)，値はvolatileフィールドで公開．
+ */
+public final class DecayingAverage {
+
+  /** 時定数（ナノ秒） */
+  private final double windowNanos;
+
+  /** 公開用平均値．未初期化時はNaN */
+  private volatile double value = Double.NaN;
+
+  /**
+   * 指定時定数の指数移動平均作成．
+   *
+   * @param windowNanos 時定数（ナノ秒）
+   */
+  public DecayingAverage(long windowNanos) {
+    this.windowNanos = windowNanos;
+  }
+
+  /**
+   * サンプル反映．
+   *
+   * <p>初回サンプルはそのまま初期値として採用．
+   *
+   * @param sample サンプル値
+   * @param elapsedNanos 前回反映からの経過時間（ナノ秒）
+   */
+  public void update(double sample, long elapsedNanos) {
+    double current = value;
+    if (Double.isNaN(current)) {
+      value = sample;
+      return;
+    }
+    double alpha = 1.0 - Math.exp(-Math.max(elapsedNanos, 0L) / windowNanos);
+    value = current + alpha * (sample - current);
+  }
+
+  /**
+   * 現在の平均値取得．
+   *
+   * @return 平均値．サンプル無し時はNaN
+   */
+  public double get() {
+    return value;
+  }
+
+  /** 平均値初期化． */
+  public void reset() {
+    value = Double.NaN;
+  }
+}
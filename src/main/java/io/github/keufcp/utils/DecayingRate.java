@@ -0,0 +1,60 @@
+package io.github.keufcp.utils;
+
+/**
+ * 時間減衰型のイベント発生率．
+ *
+ * <p>減衰係数 {@code d = exp(-dt / window)} でイベント数と経過時間の双方を減衰させ，その比を発生率とする． 間隔の平均の逆数と異なり長い間隔への偏りが無く，
+ * 単位時間当たりの実イベント数を表す． 単一書き込みスレッド前提で更新はO(1)，値はvolatileフィールドで公開．
+ */
+public final class DecayingRate {
+
+  /** 時定数（ナノ秒） */
+  private final double windowNanos;
+
+  /** 減衰済みイベント数 */
+  private double decayedEvents;
+
+  /** 減衰済み経過時間（ナノ秒） */
+  private double decayedNanos;
+
+  /** 公開用発生率（毎秒）．未初期化時はNaN */
+  private volatile double rate = Double.NaN;
+
+  /**
+   * 指定時定数の発生率作成．
+   *
+   * @param windowNanos 時定数（ナノ秒）
+   */
+  public DecayingRate(long windowNanos) {
+    this.windowNanos = windowNanos;
+  }
+
+  /**
+   * イベント1件の反映．
+   *
+   * @param elapsedNanos 前回イベントからの経過時間（ナノ秒）
+   */
+  public void update(long elapsedNanos) {
+    long elapsed = Math.max(elapsedNanos, 1L);
+    double decay = Math.exp(-elapsed / windowNanos);
+    decayedEvents = decayedEvents * decay + 1.0;
+    decayedNanos = decayedNanos * decay + elapsed;
+    rate = decayedEvents * 1_000_000_000.0 / decayedNanos;
+  }
+
+  /**
+   * 現在の発生率取得．
+   *
+   * @return 毎秒当たりのイベント数．データ無し時はNaN
+   */
+  public double get() {
+    return rate;
+  }
+
+  /** 発生率初期化． */
+  public void reset() {
+    decayedEvents = 0.0;
+    decayedNanos = 0.0;
+    rate = Double.NaN;
+  }
+}
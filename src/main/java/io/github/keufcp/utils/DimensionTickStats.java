@@ -0,0 +1,112 @@
+package io.github.keufcp.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * ディメンション別Tick統計管理クラス．
+ *
+ * <p>{@code ServerWorld.tick} の処理時間・実行間隔をディメンション毎のスロットへ記録し，集計窓毎のMSPT・TPSを提供．
+ * スロットは初回Tick時のみ作成し，以降の記録はプリミティブ演算のみでアロケーション無し．
+ */
+public class DimensionTickStats {
+
+  /** ディメンション毎の統計スロット */
+  private static final Map<RegistryKey<World>, Slot> slots = new ConcurrentHashMap<>();
+
+  /**
+   * 指定ディメンションの統計スロット取得． 未作成時は作成．
+   *
+   * @param worldKey ディメンションキー
+   * @return 統計スロット
+   */
+  public static Slot slotFor(RegistryKey<World> worldKey) {
+    return slots.computeIfAbsent(worldKey, key -> new Slot());
+  }
+
+  /**
+   * 指定ディメンションの統計スロット取得．
+   *
+   * @param worldKey ディメンションキー
+   * @return 統計スロット．未記録時はnull
+   */
+  public static Slot getSlot(RegistryKey<World> worldKey) {
+    return slots.get(worldKey);
+  }
+
+  /**
+   * ディメンション単位のTick統計スロット．
+   *
+   * <p>書き込みはサーバースレッドのみ． 値はvolatileフィールド経由で公開．
+   */
+  public static final class Slot {
+
+    /** 集計窓毎のワールドTick時間減衰平均（ナノ秒） */
+    private final DecayingAverage[] tickTimes;
+
+    /** 集計窓毎のワールドTickレート */
+    private final DecayingRate[] tickRates;
+
+    /** 前回ワールドTick開始時刻（-1は未記録） */
+    private long lastStartTime = -1L;
+
+    private Slot() {
+      TickWindow[] windows = TickWindow.values();
+      this.tickTimes = new DecayingAverage[windows.length];
+      this.tickRates = new DecayingRate[windows.length];
+      for (TickWindow window : windows) {
+        tickTimes[window.ordinal()] = new DecayingAverage(window.getWindowNanos());
+        tickRates[window.ordinal()] = new DecayingRate(window.getWindowNanos());
+      }
+    }
+
+    /**
+     * ワールドTick記録．
+     *
+     * @param startTime ワールドTick開始時刻（{@link System#nanoTime()} 基準）
+     * @param duration ワールドTick処理時間（ナノ秒）
+     */
+    public void record(long startTime, long duration) {
+      long elapsed = (lastStartTime == -1L) ? duration : startTime - lastStartTime;
+      boolean hasInterval = lastStartTime != -1L;
+      lastStartTime = startTime;
+      for (int i = 0; i < tickTimes.length; i++) {
+        tickTimes[i].update(duration, elapsed);
+        if (hasInterval) {
+          tickRates[i].update(elapsed);
+        }
+      }
+    }
+
+    /**
+     * 指定集計窓の平均ワールドTick時間取得．
+     *
+     * @param window 集計窓
+     * @return 平均Tick時間（ミリ秒）．データ無し時はNaN
+     */
+    public double getMeanTickTime(TickWindow window) {
+      return tickTimes[window.ordinal()].get() / 1_000_000.0;
+    }
+
+    /**
+     * 指定集計窓のワールドTickレート取得．
+     *
+     * @param window 集計窓
+     * @return 毎秒Tick数．データ無し時はNaN
+     */
+    public double getTickRate(TickWindow window) {
+      return tickRates[window.ordinal()].get();
+    }
+
+    /**
+     * 記録有無判定．
+     *
+     * @return 1回以上記録済みの場合true
+     */
+    public boolean hasData() {
+      return !Double.isNaN(tickTimes[0].get());
+    }
+  }
+}
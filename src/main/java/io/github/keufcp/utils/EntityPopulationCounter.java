@@ -0,0 +1,226 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * ディメンション・エンティティタイプ別のエンティティ数計数クラス．
+ *
+ * <p>Fabricのエンティティ読込・破棄イベントでエンティティタイプのraw IDを添字とする配列を増減し，参照はタイプ数に比例する コストで済む．
+ * イベントの取りこぼしやディメンション移動による誤差は，一定間隔でワールドの読込済みエンティティを数え直して補正する．
+ *
+ * <p>サーバースレッドからのみ呼出可．
+ */
+public class EntityPopulationCounter {
+
+  /** ディメンション→raw ID毎のエンティティ数 */
+  private static final Map<RegistryKey<World>, int[]> counts = new HashMap<>();
+
+  /** 再集計間隔（ミリ秒）．0で無効 */
+  private static long reconcileIntervalMillis = 300_000L;
+
+  /** 次回再集計時刻（ミリ秒） */
+  private static long nextReconcileMillis;
+
+  /** 前回再集計時刻（ミリ秒）．未実施の場合は0 */
+  private static long lastReconcileMillis;
+
+  /** 前回再集計で補正したエンティティ数（差分の絶対値の合計） */
+  private static int lastDrift;
+
+  /** 前回再集計の所要時間（ナノ秒） */
+  private static long lastReconcileNanos;
+
+  /**
+   * 再集計間隔設定．
+   *
+   * @param intervalSeconds 再集計間隔（秒）．0で無効
+   */
+  public static void setReconcileInterval(int intervalSeconds) {
+    reconcileIntervalMillis = intervalSeconds * 1000L;
+    nextReconcileMillis = lastReconcileMillis + reconcileIntervalMillis;
+  }
+
+  /**
+   * エンティティ読込時処理．
+   *
+   * @param entity 読み込まれたエンティティ
+   * @param world 読込先ワールド
+   */
+  public static void onLoad(Entity entity, ServerWorld world) {
+    int rawId = Registries.ENTITY_TYPE.getRawId(entity.getType());
+    getCountsForUpdate(world.getRegistryKey(), rawId)[rawId]++;
+  }
+
+  /**
+   * エンティティ破棄時処理．
+   *
+   * @param entity 破棄されたエンティティ
+   * @param world 破棄元ワールド
+   */
+  public static void onUnload(Entity entity, ServerWorld world) {
+    int rawId = Registries.ENTITY_TYPE.getRawId(entity.getType());
+    int[] worldCounts = getCountsForUpdate(world.getRegistryKey(), rawId);
+    if (worldCounts[rawId] > 0) {
+      worldCounts[rawId]--;
+    }
+  }
+
+  /**
+   * Tick終了時処理． 再集計間隔経過時に全ディメンションを数え直す．
+   *
+   * @param server サーバーインスタンス
+   */
+  public static void onTickEnd(MinecraftServer server) {
+    if (reconcileIntervalMillis <= 0) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (now < nextReconcileMillis) {
+      return;
+    }
+    reconcile(server);
+  }
+
+  /**
+   * 全ディメンションのエンティティを数え直し，計数値を補正．
+   *
+   * @param server サーバーインスタンス
+   */
+  public static void reconcile(MinecraftServer server) {
+    long startNanos = System.nanoTime();
+    int drift = 0;
+    for (ServerWorld world : server.getWorlds()) {
+      int[] actual = new int[Registries.ENTITY_TYPE.size()];
+      for (Entity entity : world.iterateEntities()) {
+        // 読込イベントの対象となる（読込済みチャンク内の）エンティティのみ数える
+        ChunkPos chunkPos = entity.getChunkPos();
+        if (world.isChunkLoaded(chunkPos.x, chunkPos.z)) {
+          actual[Registries.ENTITY_TYPE.getRawId(entity.getType())]++;
+        }
+      }
+      int[] current = counts.get(world.getRegistryKey());
+      for (int i = 0; i < actual.length; i++) {
+        int counted = current != null && i < current.length ? current[i] : 0;
+        drift += Math.abs(actual[i] - counted);
+      }
+      counts.put(world.getRegistryKey(), actual);
+    }
+
+    long now = System.currentTimeMillis();
+    lastReconcileMillis = now;
+    lastDrift = drift;
+    lastReconcileNanos = System.nanoTime() - startNanos;
+    nextReconcileMillis = now + reconcileIntervalMillis;
+    if (drift > 0) {
+      ServerUtils.LOGGER.debug(
+          "Entity counters reconciled: {} entities corrected in {} us",
+          drift,
+          lastReconcileNanos / 1000);
+    }
+  }
+
+  /**
+   * ディメンションのエンティティ数取得． 返却配列は計数中の配列そのものであり，変更不可．
+   *
+   * @param worldKey ディメンションキー
+   * @return raw ID毎のエンティティ数
+   */
+  public static int[] getCounts(RegistryKey<World> worldKey) {
+    int[] worldCounts = counts.get(worldKey);
+    return worldCounts != null ? worldCounts : new int[0];
+  }
+
+  public static long getLastReconcileMillis() {
+    return lastReconcileMillis;
+  }
+
+  public static int getLastDrift() {
+    return lastDrift;
+  }
+
+  public static long getLastReconcileNanos() {
+    return lastReconcileNanos;
+  }
+
+  /**
+   * raw IDからエンティティタイプのID取得．
+   *
+   * @param rawId エンティティタイプのraw ID
+   * @return エンティティタイプID
+   */
+  public static Identifier getTypeId(int rawId) {
+    EntityType<?> type = Registries.ENTITY_TYPE.get(rawId);
+    return Registries.ENTITY_TYPE.getId(type);
+  }
+
+  /**
+   * raw IDから表示用エンティティタイプ名取得． {@code minecraft} 名前空間は省略．
+   *
+   * @param rawId エンティティタイプのraw ID
+   * @return 表示用エンティティタイプ名
+   */
+  public static String getDisplayTypeName(int rawId) {
+    Identifier id = getTypeId(rawId);
+    return "minecraft".equals(id.getNamespace()) ? id.getPath() : id.toString();
+  }
+
+  /**
+   * エンティティ数上位のraw ID取得．
+   *
+   * @param typeCounts raw ID毎のエンティティ数
+   * @param limit 取得件数上限
+   * @return エンティティ数降順のraw ID（0体のタイプは含まない）
+   */
+  public static int[] getTopTypes(int[] typeCounts, int limit) {
+    int[] top = new int[Math.max(0, Math.min(limit, typeCounts.length))];
+    if (top.length == 0) {
+      return top;
+    }
+    int size = 0;
+    // 件数上限は小さいため，上位配列への挿入ソートで選択
+    for (int rawId = 0; rawId < typeCounts.length; rawId++) {
+      int count = typeCounts[rawId];
+      if (count == 0 || (size == top.length && count <= typeCounts[top[size - 1]])) {
+        continue;
+      }
+      int i = size < top.length ? size++ : size - 1;
+      while (i > 0 && typeCounts[top[i - 1]] < count) {
+        top[i] = top[i - 1];
+        i--;
+      }
+      top[i] = rawId;
+    }
+    return Arrays.copyOf(top, size);
+  }
+
+  /** 計数値・再集計状態破棄． サーバー停止時呼出． */
+  public static void clear() {
+    counts.clear();
+    nextReconcileMillis = 0;
+    lastReconcileMillis = 0;
+    lastDrift = 0;
+    lastReconcileNanos = 0;
+  }
+
+  private static int[] getCountsForUpdate(RegistryKey<World> worldKey, int rawId) {
+    int[] worldCounts = counts.get(worldKey);
+    if (worldCounts == null || rawId >= worldCounts.length) {
+      int size = Math.max(Registries.ENTITY_TYPE.size(), rawId + 1);
+      worldCounts = worldCounts == null ? new int[size] : Arrays.copyOf(worldCounts, size);
+      counts.put(worldKey, worldCounts);
+    }
+    return worldCounts;
+  }
+}
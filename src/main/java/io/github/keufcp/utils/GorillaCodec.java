@@ -0,0 +1,282 @@
+package io.github.keufcp.utils;
+
+import java.util.Arrays;
+
+/**
+ * Gorilla形式の時系列圧縮．
+ *
+ * <p>時刻は2階差分（delta-of-delta），値は直前の値とのXORの有効ビットのみを可変長で格納． 一定間隔の時刻は1点1ビット， 変化しない値は1点1ビットまで縮む．
+ * 各列は独立したビット列のため，必要な列のみ復号可．
+ */
+final class GorillaCodec {
+
+  private GorillaCodec() {}
+
+  /** 追記型ビット列． */
+  static final class BitWriter {
+
+    private long[] words = new long[16];
+    private long bitLength;
+
+    /**
+     * 下位ビットの追記．
+     *
+     * @param bits 値（下位 {@code count} ビットを使用）
+     * @param count ビット数（0〜64）
+     */
+    void write(long bits, int count) {
+      if (count == 0) {
+        return;
+      }
+      if (count < 64) {
+        bits &= (1L << count) - 1;
+      }
+      int index = (int) (bitLength >>> 6);
+      int used = (int) (bitLength & 63);
+      ensureCapacity(index + 2);
+      int free = 64 - used;
+      if (count <= free) {
+        words[index] |= bits << (free - count);
+      } else {
+        words[index] |= bits >>> (count - free);
+        words[index + 1] |= bits << (64 - (count - free));
+      }
+      bitLength += count;
+    }
+
+    void writeBit(boolean bit) {
+      write(bit ? 1L : 0L, 1);
+    }
+
+    long getBitLength() {
+      return bitLength;
+    }
+
+    /** 先頭から {@link #getBitLength()} ビットをバイト列として取得（最終バイトの余りは0）． */
+    byte[] toByteArray() {
+      byte[] bytes = new byte[(int) ((bitLength + 7) >>> 3)];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = (byte) (words[i >>> 3] >>> (56 - ((i & 7) << 3)));
+      }
+      return bytes;
+    }
+
+    private void ensureCapacity(int size) {
+      if (size > words.length) {
+        words = Arrays.copyOf(words, Math.max(size, words.length * 2));
+      }
+    }
+  }
+
+  /** ビット列の順次読取り． */
+  static final class BitReader {
+
+    private final byte[] bytes;
+    private final long bitLength;
+    private long position;
+
+    BitReader(byte[] bytes, long bitLength) {
+      this.bytes = bytes;
+      this.bitLength = bitLength;
+    }
+
+    /**
+     * 指定ビット数の読取り．
+     *
+     * @param count ビット数（0〜64）
+     * @return 値（下位 {@code count} ビット）
+     */
+    long read(int count) {
+      if (position + count > bitLength) {
+        throw new IllegalStateException("Bit stream exhausted");
+      }
+      long value = 0L;
+      int remaining = count;
+      while (remaining > 0) {
+        int current = bytes[(int) (position >>> 3)] & 0xFF;
+        int offset = (int) (position & 7);
+        int take = Math.min(8 - offset, remaining);
+        int chunk = (current >>> (8 - offset - take)) & ((1 << take) - 1);
+        value = (value << take) | chunk;
+        position += take;
+        remaining -= take;
+      }
+      return value;
+    }
+
+    boolean readBit() {
+      return read(1) != 0L;
+    }
+  }
+
+  /** 時刻列の符号化． */
+  static final class TimestampEncoder {
+
+    private final BitWriter out = new BitWriter();
+    private long previous;
+    private long previousDelta;
+    private int count;
+
+    /**
+     * 時刻追記． 時刻は単調増加であること．
+     *
+     * @param timestamp 時刻
+     */
+    void add(long timestamp) {
+      if (count == 0) {
+        out.write(timestamp, 64);
+      } else if (count == 1) {
+        previousDelta = timestamp - previous;
+        out.write(previousDelta, 64);
+      } else {
+        long delta = timestamp - previous;
+        long deltaOfDelta = delta - previousDelta;
+        // 復号側で符号拡張するため，各幅の2の補数表現範囲に収める
+        if (deltaOfDelta == 0) {
+          out.writeBit(false);
+        } else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+          out.write(0b10, 2);
+          out.write(deltaOfDelta, 7);
+        } else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+          out.write(0b110, 3);
+          out.write(deltaOfDelta, 9);
+        } else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+          out.write(0b1110, 4);
+          out.write(deltaOfDelta, 12);
+        } else {
+          out.write(0b1111, 4);
+          out.write(deltaOfDelta, 64);
+        }
+        previousDelta = delta;
+      }
+      previous = timestamp;
+      count++;
+    }
+
+    BitWriter getOutput() {
+      return out;
+    }
+  }
+
+  /** 時刻列の復号． */
+  static final class TimestampDecoder {
+
+    private final BitReader in;
+    private long previous;
+    private long previousDelta;
+    private int count;
+
+    TimestampDecoder(BitReader in) {
+      this.in = in;
+    }
+
+    long next() {
+      if (count == 0) {
+        previous = in.read(64);
+      } else if (count == 1) {
+        previousDelta = in.read(64);
+        previous += previousDelta;
+      } else {
+        long deltaOfDelta;
+        if (!in.readBit()) {
+          deltaOfDelta = 0;
+        } else if (!in.readBit()) {
+          deltaOfDelta = signExtend(in.read(7), 7);
+        } else if (!in.readBit()) {
+          deltaOfDelta = signExtend(in.read(9), 9);
+        } else if (!in.readBit()) {
+          deltaOfDelta = signExtend(in.read(12), 12);
+        } else {
+          deltaOfDelta = in.read(64);
+        }
+        previousDelta += deltaOfDelta;
+        previous += previousDelta;
+      }
+      count++;
+      return previous;
+    }
+
+    private static long signExtend(long value, int bits) {
+      return (value << (64 - bits)) >> (64 - bits);
+    }
+  }
+
+  /** 値列のXOR符号化． */
+  static final class ValueEncoder {
+
+    private final BitWriter out = new BitWriter();
+    private long previous;
+    private int previousLeading = Integer.MAX_VALUE;
+    private int previousTrailing;
+    private boolean first = true;
+
+    void add(double value) {
+      long bits = Double.doubleToRawLongBits(value);
+      if (first) {
+        out.write(bits, 64);
+        previous = bits;
+        first = false;
+        return;
+      }
+      long xor = bits ^ previous;
+      previous = bits;
+      if (xor == 0) {
+        out.writeBit(false);
+        return;
+      }
+      out.writeBit(true);
+      int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+      int trailing = Long.numberOfTrailingZeros(xor);
+      if (leading >= previousLeading && trailing >= previousTrailing) {
+        // 直前の有効ビット範囲に収まる場合は範囲を再利用
+        out.writeBit(false);
+        out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+      } else {
+        int significant = 64 - leading - trailing;
+        out.writeBit(true);
+        out.write(leading, 5);
+        out.write(significant & 63, 6); // 64は0で表現
+        out.write(xor >>> trailing, significant);
+        previousLeading = leading;
+        previousTrailing = trailing;
+      }
+    }
+
+    BitWriter getOutput() {
+      return out;
+    }
+  }
+
+  /** 値列の復号． */
+  static final class ValueDecoder {
+
+    private final BitReader in;
+    private long previous;
+    private int previousLeading;
+    private int previousTrailing;
+    private boolean first = true;
+
+    ValueDecoder(BitReader in) {
+      this.in = in;
+    }
+
+    double next() {
+      if (first) {
+        previous = in.read(64);
+        first = false;
+      } else if (in.readBit()) {
+        if (in.readBit()) {
+          previousLeading = (int) in.read(5);
+          int significant = (int) in.read(6);
+          if (significant == 0) {
+            significant = 64;
+          }
+          previousTrailing = 64 - previousLeading - significant;
+        }
+        int significant = 64 - previousLeading - previousTrailing;
+        previous ^= in.read(significant) << previousTrailing;
+      }
+      return Double.longBitsToDouble(previous);
+    }
+  }
+}
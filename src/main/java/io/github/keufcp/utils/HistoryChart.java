@@ -0,0 +1,332 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+
+/**
+ * メトリクス履歴のグラフ画像作成クラス．
+ *
+ * <p>{@link HistoryStore} からMSPT・TPS・プレイヤー数を読み込み，3段のPNGグラフを描画． 描画は専用スレッド1本で行い，画像バッファ・
+ * PNG出力バッファは描画毎に再利用． 同一期間・同一分の要求は描画結果を共有するため，複数の送信先へ同時に送る場合も描画は1回．
+ */
+public class HistoryChart {
+
+  /** 添付ファイル名 */
+  public static final String FILE_NAME = "chart.png";
+
+  /** 画像サイズ */
+  private static final int WIDTH = 800;
+
+  private static final int HEIGHT = 480;
+
+  /** 余白 */
+  private static final int MARGIN_LEFT = 56;
+
+  private static final int MARGIN_RIGHT = 16;
+  private static final int MARGIN_TOP = 28;
+  private static final int MARGIN_BOTTOM = 24;
+  private static final int PANEL_GAP = 18;
+
+  /** 1グラフのバケット数（横方向2ピクセル程度に1点） */
+  private static final int BUCKETS = (WIDTH - MARGIN_LEFT - MARGIN_RIGHT) / 2;
+
+  /** 描画結果を共有する時間幅（秒） */
+  private static final long CACHE_SECONDS = 60;
+
+  /** 配色 */
+  private static final Color BACKGROUND = new Color(0x2B, 0x2D, 0x31);
+
+  private static final Color GRID = new Color(0x40, 0x44, 0x4B);
+  private static final Color TEXT = new Color(0xDB, 0xDE, 0xE1);
+  private static final Color MSPT_COLOR = new Color(0xF0, 0xB2, 0x32);
+  private static final Color TPS_COLOR = new Color(0x57, 0xF2, 0x87);
+  private static final Color PLAYERS_COLOR = new Color(0x58, 0x65, 0xF2);
+  private static final Color LIMIT_COLOR = new Color(0xED, 0x42, 0x45);
+
+  /** 描画スレッド */
+  private static final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "ServerUtils-Chart");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** 期間（秒）毎の直近の描画結果 */
+  private static final Map<Long, CachedChart> cache = new ConcurrentHashMap<>();
+
+  /** 描画先画像（描画スレッドのみ参照） */
+  private static BufferedImage image;
+
+  /** PNG出力先（描画スレッドのみ参照） */
+  private static final ByteArrayOutputStream pngBuffer = new ByteArrayOutputStream(64 * 1024);
+
+  /**
+   * 直近の指定期間のグラフ作成要求． 同一期間で {@value #CACHE_SECONDS} 秒以内の要求は同じ結果を共有．
+   * 返却値は共有結果の複製のため，呼出側でのタイムアウト等による完了はキャッシュへ波及しない．
+   *
+   * @param store 履歴ストア
+   * @param rangeSeconds 期間（秒）
+   * @return PNG画像（描画失敗時は例外完了）
+   */
+  public static CompletableFuture<byte[]> render(HistoryStore store, long rangeSeconds) {
+    long now = System.currentTimeMillis() / 1000L;
+    long slot = now / CACHE_SECONDS;
+    CachedChart chart =
+        cache.compute(
+            rangeSeconds,
+            (key, cached) -> {
+              if (cached != null && cached.slot() == slot && cached.store() == store) {
+                return cached;
+              }
+              long to = now - 1; // 集計中の秒は含めない
+              return new CachedChart(
+                  slot,
+                  store,
+                  CompletableFuture.supplyAsync(() -> draw(store, to - key + 1, to), executor));
+            });
+    evictStale(slot);
+    return chart.png().copy();
+  }
+
+  private static void evictStale(long slot) {
+    for (Iterator<CachedChart> it = cache.values().iterator(); it.hasNext(); ) {
+      if (it.next().slot() < slot) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * グラフ描画． 描画スレッドからのみ呼出．
+   *
+   * @param store 履歴ストア
+   * @param from 期間開始（UNIX秒，含む）
+   * @param to 期間終了（UNIX秒，含む）
+   * @return PNG画像
+   */
+  private static byte[] draw(HistoryStore store, long from, long to) {
+    HistorySeries mspt;
+    HistorySeries tps;
+    HistorySeries players;
+    try {
+      mspt = store.query(HistoryMetric.MSPT, null, from, to, BUCKETS);
+      tps = store.query(HistoryMetric.TPS, null, from, to, BUCKETS);
+      players = store.query(HistoryMetric.PLAYERS, null, from, to, BUCKETS);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read metrics history", e);
+    }
+    if (mspt.getSampleCount() == 0) {
+      throw new IllegalStateException("No metrics history in range");
+    }
+
+    if (image == null) {
+      // 画面の無いサーバー環境でのAWT初期化失敗防止（初回の描画前に設定）
+      if (System.getProperty("java.awt.headless") == null) {
+        System.setProperty("java.awt.headless", "true");
+      }
+      image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+    Graphics2D graphics = image.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      graphics.setRenderingHint(
+          RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+      graphics.setColor(BACKGROUND);
+      graphics.fillRect(0, 0, WIDTH, HEIGHT);
+      graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
+
+      int plotHeight = (HEIGHT - MARGIN_TOP - MARGIN_BOTTOM - 2 * PANEL_GAP) / 3;
+      int top = MARGIN_TOP;
+      double msptCeiling = Math.max(60.0, niceCeiling(mspt.getMax()));
+      drawPanel(graphics, mspt, "MSPT (ms)", MSPT_COLOR, top, plotHeight, msptCeiling, 50.0);
+      top += plotHeight + PANEL_GAP;
+      drawPanel(graphics, tps, "TPS", TPS_COLOR, top, plotHeight, 24.0, 20.0);
+      top += plotHeight + PANEL_GAP;
+      // 目盛り4分割が整数になるよう4の倍数へ切り上げ
+      double playerCeiling = Math.max(4.0, Math.ceil(niceCeiling(players.getMax()) / 4) * 4);
+      drawPanel(graphics, players, "Players", PLAYERS_COLOR, top, plotHeight, playerCeiling, -1);
+      drawTimeAxis(graphics, from, to, top + plotHeight);
+
+      graphics.setColor(TEXT);
+      graphics.drawString(
+          "resolution " + mspt.getResolutionSeconds() + "s", WIDTH - MARGIN_RIGHT - 90, 16);
+    } finally {
+      graphics.dispose();
+    }
+
+    pngBuffer.reset();
+    try {
+      ImageIO.write(image, "png", pngBuffer);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to encode chart", e);
+    }
+    ServerUtils.LOGGER.debug("Rendered history chart ({} bytes)", pngBuffer.size());
+    return pngBuffer.toByteArray();
+  }
+
+  /**
+   * 1段分の描画． バケットの最小〜最大を帯，平均を線で描画し，サンプルの無いバケットで線を途切れさせる．
+   *
+   * @param graphics 描画先
+   * @param series 系列
+   * @param label 段の見出し
+   * @param color 系列色
+   * @param top 描画領域上端
+   * @param height 描画領域高さ
+   * @param ceiling 縦軸上限
+   * @param limit 基準線の値（負の場合は描画しない）
+   */
+  private static void drawPanel(
+      Graphics2D graphics,
+      HistorySeries series,
+      String label,
+      Color color,
+      int top,
+      int height,
+      double ceiling,
+      double limit) {
+    int left = MARGIN_LEFT;
+    int width = WIDTH - MARGIN_LEFT - MARGIN_RIGHT;
+
+    graphics.setStroke(new BasicStroke(1f));
+    for (int i = 0; i <= 4; i++) {
+      int y = top + height - height * i / 4;
+      graphics.setColor(GRID);
+      graphics.drawLine(left, y, left + width, y);
+      graphics.setColor(TEXT);
+      graphics.drawString(
+          String.format("%.0f", ceiling * i / 4), 8, y + graphics.getFontMetrics().getAscent() / 2);
+    }
+    graphics.setColor(TEXT);
+    graphics.drawString(
+        label
+            + "  min "
+            + series.getMetric().format(series.getMin())
+            + " / avg "
+            + series.getMetric().format(series.getAverage())
+            + " / max "
+            + series.getMetric().format(series.getMax()),
+        left,
+        top - 5);
+
+    if (limit >= 0 && limit <= ceiling) {
+      int y = toY(limit, ceiling, top, height);
+      graphics.setColor(LIMIT_COLOR);
+      graphics.setStroke(
+          new BasicStroke(
+              1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 1f, new float[] {4f, 4f}, 0f));
+      graphics.drawLine(left, y, left + width, y);
+    }
+
+    int buckets = series.getBucketCount();
+    double step = (double) width / buckets;
+    graphics.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 70));
+    for (int i = 0; i < buckets; i++) {
+      double min = series.getBucketMin(i);
+      if (Double.isNaN(min)) {
+        continue;
+      }
+      int yMax = toY(series.getBucketMax(i), ceiling, top, height);
+      int yMin = toY(min, ceiling, top, height);
+      graphics.fillRect(
+          left + (int) (i * step), yMax, Math.max(1, (int) Math.ceil(step)), yMin - yMax + 1);
+    }
+
+    Path2D.Double line = new Path2D.Double();
+    boolean drawing = false;
+    for (int i = 0; i < buckets; i++) {
+      double average = series.getBucketAverage(i);
+      if (Double.isNaN(average)) {
+        drawing = false;
+        continue;
+      }
+      double x = left + (i + 0.5) * step;
+      double y = toY(average, ceiling, top, height);
+      if (drawing) {
+        line.lineTo(x, y);
+      } else {
+        line.moveTo(x, y);
+        drawing = true;
+      }
+    }
+    graphics.setColor(color);
+    graphics.setStroke(new BasicStroke(1.5f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+    graphics.draw(line);
+  }
+
+  /**
+   * 時間軸の目盛り描画．
+   *
+   * @param graphics 描画先
+   * @param from 期間開始（UNIX秒）
+   * @param to 期間終了（UNIX秒）
+   * @param baseline 最下段の下端
+   */
+  private static void drawTimeAxis(Graphics2D graphics, long from, long to, int baseline) {
+    int width = WIDTH - MARGIN_LEFT - MARGIN_RIGHT;
+    DateTimeFormatter formatter =
+        DateTimeFormatter.ofPattern(to - from > 2 * 86400 ? "MM/dd HH:mm" : "HH:mm")
+            .withZone(ZoneId.systemDefault());
+    graphics.setColor(TEXT);
+    for (int i = 0; i <= 4; i++) {
+      long time = from + (to - from) * i / 4;
+      String text = formatter.format(Instant.ofEpochSecond(time));
+      int textWidth = graphics.getFontMetrics().stringWidth(text);
+      int x = MARGIN_LEFT + width * i / 4 - textWidth / 2;
+      x = Math.max(MARGIN_LEFT, Math.min(x, WIDTH - MARGIN_RIGHT - textWidth));
+      graphics.drawString(text, x, baseline + 16);
+    }
+  }
+
+  private static int toY(double value, double ceiling, int top, int height) {
+    double ratio = Math.max(0.0, Math.min(1.0, value / ceiling));
+    return top + height - (int) Math.round(ratio * height);
+  }
+
+  /**
+   * 縦軸上限の切り上げ（1・2・5の10冪倍）．
+   *
+   * @param value 最大値
+   * @return 上限
+   */
+  private static double niceCeiling(double value) {
+    if (Double.isNaN(value) || value <= 0) {
+      return 1.0;
+    }
+    double magnitude = Math.pow(10, Math.floor(Math.log10(value)));
+    for (double factor : new double[] {1, 2, 5, 10}) {
+      if (value <= factor * magnitude) {
+        return factor * magnitude;
+      }
+    }
+    return 10 * magnitude;
+  }
+
+  /**
+   * 描画結果のキャッシュ．
+   *
+   * @param slot 要求時刻を {@value #CACHE_SECONDS} 秒単位にした値
+   * @param store 描画元の履歴ストア
+   * @param png PNG画像
+   */
+  private record CachedChart(long slot, HistoryStore store, CompletableFuture<byte[]> png) {}
+}
@@ -0,0 +1,65 @@
+package io.github.keufcp.utils;
+
+import java.util.Locale;
+
+/** 履歴ストアに記録するメトリクスの種類． */
+public enum HistoryMetric {
+  TPS("tps", "%.2f", false),
+  MSPT("mspt", "%.2f", false),
+  MSPT_P50("mspt_p50", "%.2f", false),
+  MSPT_P95("mspt_p95", "%.2f", false),
+  MSPT_P99("mspt_p99", "%.2f", false),
+  MSPT_MAX("mspt_max", "%.2f", false),
+  PLAYERS("players", "%.0f", false),
+  MONSTERS("monsters", "%.0f", true),
+  SPAWN_CHUNKS("spawn_chunks", "%.0f", true);
+
+  /** コマンド引数・表示用ID */
+  private final String id;
+
+  /** 値の表示書式 */
+  private final String format;
+
+  /** ディメンション別の値の場合true */
+  private final boolean perDimension;
+
+  HistoryMetric(String id, String format, boolean perDimension) {
+    this.id = id;
+    this.format = format;
+    this.perDimension = perDimension;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public boolean isPerDimension() {
+    return perDimension;
+  }
+
+  /**
+   * 値の表示用文字列変換．
+   *
+   * @param value 値
+   * @return 表示用文字列（値が無い場合は {@code -}）
+   */
+  public String format(double value) {
+    return Double.isNaN(value) ? "-" : String.format(format, value);
+  }
+
+  /**
+   * IDからの取得．
+   *
+   * @param id メトリクスID
+   * @return メトリクス．該当無しの場合null
+   */
+  public static HistoryMetric byId(String id) {
+    String normalized = id.toLowerCase(Locale.ROOT);
+    for (HistoryMetric metric : values()) {
+      if (metric.id.equals(normalized)) {
+        return metric;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,321 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 集約済み履歴の1段（1分・1時間など）．
+ *
+ * <p>一定間隔の集約点を {@link GorillaCodec} で列毎に圧縮し，{@code blockSeconds} 毎のブロックファイル（{@code
+ * <開始UNIX秒>.gor}）へ格納． 書込み中のブロックはメモリ上で符号化を続け，{@link #persist()} 時に一時ファイル経由で置換するため，
+ * 読取り側は常に完全なブロックを参照． 書込み操作は書込みスレッドからのみ呼出．
+ */
+final class HistoryRollup {
+
+  /** ブロックファイル識別子 */
+  private static final int MAGIC = 0x53555230; // "SUR0"
+
+  /** ブロックファイル形式バージョン */
+  private static final int VERSION = 1;
+
+  /** ブロックファイル拡張子 */
+  private static final String BLOCK_SUFFIX = ".gor";
+
+  /** 格納ディレクトリ */
+  private final Path directory;
+
+  /** 集約間隔（秒） */
+  private final int stepSeconds;
+
+  /** 1ブロックの秒数 */
+  private final int blockSeconds;
+
+  /** 値の列数 */
+  private final int columns;
+
+  /** 書込み中ブロック（書込みスレッドのみ操作） */
+  private long blockStart = Long.MIN_VALUE;
+
+  private int blockPoints;
+  private GorillaCodec.TimestampEncoder timestampEncoder;
+  private GorillaCodec.ValueEncoder[] valueEncoders;
+  private boolean dirty;
+  private long lastTimestamp = Long.MIN_VALUE;
+
+  /**
+   * 集約段作成． 既存の最新ブロックがあれば読み込んで追記を継続．
+   *
+   * @param directory 格納ディレクトリ
+   * @param stepSeconds 集約間隔（秒）
+   * @param blockSeconds 1ブロックの秒数
+   * @param columns 値の列数
+   * @throws IOException ディレクトリ作成・ブロック読込失敗時
+   */
+  HistoryRollup(Path directory, int stepSeconds, int blockSeconds, int columns) throws IOException {
+    this.directory = directory;
+    this.stepSeconds = stepSeconds;
+    this.blockSeconds = blockSeconds;
+    this.columns = columns;
+    Files.createDirectories(directory);
+    restoreLatestBlock();
+  }
+
+  int getStepSeconds() {
+    return stepSeconds;
+  }
+
+  /**
+   * 最後に追記した集約点の時刻．
+   *
+   * @return 時刻（UNIX秒）．集約点が無い場合 {@link Long#MIN_VALUE}
+   */
+  long getLastTimestamp() {
+    return lastTimestamp;
+  }
+
+  /**
+   * 集約点の追記． 時刻は単調増加であること．
+   *
+   * @param timestamp 集約区間の開始（UNIX秒）
+   * @param values 列毎の値
+   * @throws IOException ブロック切替時の書込み失敗時
+   */
+  void append(long timestamp, double[] values) throws IOException {
+    long start = timestamp - Math.floorMod(timestamp, blockSeconds);
+    if (start != blockStart) {
+      persist();
+      startBlock(start);
+    }
+    timestampEncoder.add(timestamp);
+    for (int i = 0; i < columns; i++) {
+      valueEncoders[i].add(values[i]);
+    }
+    blockPoints++;
+    lastTimestamp = timestamp;
+    dirty = true;
+  }
+
+  /**
+   * 書込み中ブロックの保存． 変更が無い場合は何もしない．
+   *
+   * @throws IOException 書込み失敗時
+   */
+  void persist() throws IOException {
+    if (!dirty) {
+      return;
+    }
+    Path temp = directory.resolve(blockStart + BLOCK_SUFFIX + ".tmp");
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeInt(blockPoints);
+      out.writeInt(columns);
+      writeColumn(out, timestampEncoder.getOutput());
+      for (GorillaCodec.ValueEncoder encoder : valueEncoders) {
+        writeColumn(out, encoder.getOutput());
+      }
+    }
+    Files.move(temp, blockPath(blockStart), StandardCopyOption.REPLACE_EXISTING);
+    dirty = false;
+  }
+
+  /**
+   * 期間内の集約点の走査． 任意のスレッドから呼出可． 指定列以外は復号しない．
+   *
+   * @param fromEpochSecond 期間開始（UNIX秒，含む）
+   * @param toEpochSecond 期間終了（UNIX秒，含む）
+   * @param columnIndexes 読み取る列
+   * @param consumer 集約点毎の処理（値は {@code columnIndexes} の順．配列は再利用）
+   * @throws IOException ブロック読込失敗時
+   */
+  void scan(long fromEpochSecond, long toEpochSecond, int[] columnIndexes, PointConsumer consumer)
+      throws IOException {
+    double[] values = new double[columnIndexes.length];
+    long firstBlock = fromEpochSecond - Math.floorMod(fromEpochSecond, blockSeconds);
+    for (long start = firstBlock; start <= toEpochSecond; start += blockSeconds) {
+      Path file = blockPath(start);
+      if (!Files.isRegularFile(file)) {
+        continue;
+      }
+      Block block = readBlock(Files.readAllBytes(file), columnIndexes);
+      GorillaCodec.TimestampDecoder timestamps = block.timestamps();
+      GorillaCodec.ValueDecoder[] decoders = block.values();
+      for (int point = 0; point < block.points(); point++) {
+        long timestamp = timestamps.next();
+        for (int i = 0; i < decoders.length; i++) {
+          values[i] = decoders[i].next();
+        }
+        if (timestamp > toEpochSecond) {
+          break;
+        }
+        if (timestamp >= fromEpochSecond) {
+          consumer.accept(timestamp, values);
+        }
+      }
+    }
+  }
+
+  /**
+   * 期限切れブロックの削除．
+   *
+   * @param threshold この時刻（UNIX秒）より前に終わるブロックを削除
+   */
+  void deleteExpired(long threshold) {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + BLOCK_SUFFIX)) {
+      for (Path file : files) {
+        long start = parseBlockStart(file);
+        if (start != Long.MIN_VALUE && start + blockSeconds <= threshold && start != blockStart) {
+          Files.deleteIfExists(file);
+        }
+      }
+    } catch (IOException e) {
+      ServerUtils.LOGGER.warn("Failed to delete expired history rollups in {}", directory, e);
+    }
+  }
+
+  private void startBlock(long start) {
+    blockStart = start;
+    blockPoints = 0;
+    timestampEncoder = new GorillaCodec.TimestampEncoder();
+    valueEncoders = new GorillaCodec.ValueEncoder[columns];
+    for (int i = 0; i < columns; i++) {
+      valueEncoders[i] = new GorillaCodec.ValueEncoder();
+    }
+  }
+
+  /**
+   * 最新ブロックの読込． 全点を再符号化して書込み中ブロックとする．
+   *
+   * @throws IOException 読込失敗時
+   */
+  private void restoreLatestBlock() throws IOException {
+    long latest = Long.MIN_VALUE;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + BLOCK_SUFFIX)) {
+      for (Path file : files) {
+        latest = Math.max(latest, parseBlockStart(file));
+      }
+    }
+    if (latest == Long.MIN_VALUE) {
+      return;
+    }
+
+    int[] all = new int[columns];
+    for (int i = 0; i < columns; i++) {
+      all[i] = i;
+    }
+    Block block;
+    try {
+      block = readBlock(Files.readAllBytes(blockPath(latest)), all);
+    } catch (IOException | RuntimeException e) {
+      ServerUtils.LOGGER.warn("Discarding unreadable history rollup {}", blockPath(latest), e);
+      Files.deleteIfExists(blockPath(latest));
+      return;
+    }
+    startBlock(latest);
+    double[] values = new double[columns];
+    for (int point = 0; point < block.points(); point++) {
+      long timestamp = block.timestamps().next();
+      for (int i = 0; i < columns; i++) {
+        values[i] = block.values()[i].next();
+      }
+      timestampEncoder.add(timestamp);
+      for (int i = 0; i < columns; i++) {
+        valueEncoders[i].add(values[i]);
+      }
+      blockPoints++;
+      lastTimestamp = timestamp;
+    }
+  }
+
+  /**
+   * ブロックファイルの解析．
+   *
+   * @param data ファイル内容
+   * @param columnIndexes 読み取る列
+   * @return 復号器
+   * @throws IOException 形式不正時
+   */
+  private Block readBlock(byte[] data, int[] columnIndexes) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+      throw new IOException("Not a history rollup block");
+    }
+    int points = in.readInt();
+    int storedColumns = in.readInt();
+    if (storedColumns != columns) {
+      throw new IOException("Unexpected column count " + storedColumns);
+    }
+    GorillaCodec.TimestampDecoder timestamps =
+        new GorillaCodec.TimestampDecoder(readColumn(in, true));
+
+    GorillaCodec.BitReader[] readers = new GorillaCodec.BitReader[storedColumns];
+    int[] wanted = new int[storedColumns];
+    for (int index : columnIndexes) {
+      wanted[index]++;
+    }
+    for (int i = 0; i < storedColumns; i++) {
+      readers[i] = readColumn(in, wanted[i] > 0);
+    }
+    GorillaCodec.ValueDecoder[] values = new GorillaCodec.ValueDecoder[columnIndexes.length];
+    for (int i = 0; i < columnIndexes.length; i++) {
+      values[i] = new GorillaCodec.ValueDecoder(readers[columnIndexes[i]]);
+    }
+    return new Block(points, timestamps, values);
+  }
+
+  private static void writeColumn(DataOutputStream out, GorillaCodec.BitWriter column)
+      throws IOException {
+    byte[] bytes = column.toByteArray();
+    out.writeLong(column.getBitLength());
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static GorillaCodec.BitReader readColumn(DataInputStream in, boolean decode)
+      throws IOException {
+    long bitLength = in.readLong();
+    int length = in.readInt();
+    if (!decode) {
+      in.skipNBytes(length);
+      return null;
+    }
+    return new GorillaCodec.BitReader(in.readNBytes(length), bitLength);
+  }
+
+  private Path blockPath(long start) {
+    return directory.resolve(start + BLOCK_SUFFIX);
+  }
+
+  private static long parseBlockStart(Path file) {
+    String name = file.getFileName().toString();
+    try {
+      return Long.parseLong(name.substring(0, name.length() - BLOCK_SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      return Long.MIN_VALUE;
+    }
+  }
+
+  /** 集約点の処理． */
+  @FunctionalInterface
+  interface PointConsumer {
+
+    /**
+     * @param timestamp 集約区間の開始（UNIX秒）
+     * @param values 指定列の値
+     */
+    void accept(long timestamp, double[] values);
+  }
+
+  /** 解析済みブロック． */
+  private record Block(
+      int points, GorillaCodec.TimestampDecoder timestamps, GorillaCodec.ValueDecoder[] values) {}
+}
@@ -0,0 +1,190 @@
+package io.github.keufcp.utils;
+
+import java.util.Arrays;
+
+/**
+ * 履歴クエリ結果．
+ *
+ * <p>指定期間を等間隔のバケットへ分割し，バケット毎・期間全体の最小・平均・最大を集計． 期間全体のp99は各点のp99をサンプル数で
+ * 重み付けした99パーセンタイル（1秒レコードでは厳密値，集約点では近似値）．
+ */
+public final class HistorySeries {
+
+  private final HistoryMetric metric;
+  private final long fromEpochSecond;
+  private final long toEpochSecond;
+  private final int resolutionSeconds;
+  private final double[] bucketMin;
+  private final double[] bucketMax;
+  private final double[] bucketSum;
+  private final long[] bucketCount;
+
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+  private double sum;
+  private long count;
+
+  /** 点毎のp99とサンプル数 */
+  private double[] percentileValues = new double[64];
+
+  private long[] percentileWeights = new long[64];
+  private int percentilePoints;
+
+  /**
+   * 空の結果作成．
+   *
+   * @param metric メトリクス
+   * @param fromEpochSecond 期間開始（UNIX秒，含む）
+   * @param toEpochSecond 期間終了（UNIX秒，含む）
+   * @param buckets バケット数
+   * @param resolutionSeconds 元データの1点あたりの秒数
+   */
+  public HistorySeries(
+      HistoryMetric metric,
+      long fromEpochSecond,
+      long toEpochSecond,
+      int buckets,
+      int resolutionSeconds) {
+    this.metric = metric;
+    this.fromEpochSecond = fromEpochSecond;
+    this.toEpochSecond = toEpochSecond;
+    this.resolutionSeconds = resolutionSeconds;
+    this.bucketMin = new double[buckets];
+    this.bucketMax = new double[buckets];
+    this.bucketSum = new double[buckets];
+    this.bucketCount = new long[buckets];
+    Arrays.fill(bucketMin, Double.POSITIVE_INFINITY);
+    Arrays.fill(bucketMax, Double.NEGATIVE_INFINITY);
+  }
+
+  /**
+   * 1サンプル追加．
+   *
+   * @param epochSecond サンプル時刻（UNIX秒）
+   * @param value 値
+   */
+  void add(long epochSecond, double value) {
+    add(epochSecond, value, value, value, 1, value);
+  }
+
+  /**
+   * 集計済みサンプル追加．
+   *
+   * @param epochSecond サンプル時刻（UNIX秒）
+   * @param sampleMin 最小値
+   * @param sampleMax 最大値
+   * @param sampleSum 合計値
+   * @param sampleCount サンプル数
+   * @param sampleP99 p99
+   */
+  void add(
+      long epochSecond,
+      double sampleMin,
+      double sampleMax,
+      double sampleSum,
+      long sampleCount,
+      double sampleP99) {
+    if (epochSecond < fromEpochSecond || epochSecond > toEpochSecond || sampleCount <= 0) {
+      return;
+    }
+    int bucket = (int) ((epochSecond - fromEpochSecond) * bucketCount.length / getRangeSeconds());
+    bucketMin[bucket] = Math.min(bucketMin[bucket], sampleMin);
+    bucketMax[bucket] = Math.max(bucketMax[bucket], sampleMax);
+    bucketSum[bucket] += sampleSum;
+    bucketCount[bucket] += sampleCount;
+    min = Math.min(min, sampleMin);
+    max = Math.max(max, sampleMax);
+    sum += sampleSum;
+    count += sampleCount;
+
+    if (percentilePoints == percentileValues.length) {
+      percentileValues = Arrays.copyOf(percentileValues, percentilePoints * 2);
+      percentileWeights = Arrays.copyOf(percentileWeights, percentilePoints * 2);
+    }
+    percentileValues[percentilePoints] = sampleP99;
+    percentileWeights[percentilePoints] = sampleCount;
+    percentilePoints++;
+  }
+
+  public HistoryMetric getMetric() {
+    return metric;
+  }
+
+  public long getFromEpochSecond() {
+    return fromEpochSecond;
+  }
+
+  public long getToEpochSecond() {
+    return toEpochSecond;
+  }
+
+  /** 元データの1点あたりの秒数． */
+  public int getResolutionSeconds() {
+    return resolutionSeconds;
+  }
+
+  /** 期間の長さ（秒）． */
+  public long getRangeSeconds() {
+    return toEpochSecond - fromEpochSecond + 1;
+  }
+
+  public int getBucketCount() {
+    return bucketCount.length;
+  }
+
+  /** 期間全体のサンプル数． */
+  public long getSampleCount() {
+    return count;
+  }
+
+  /** 期間全体の最小値．サンプルが無い場合NaN． */
+  public double getMin() {
+    return count == 0 ? Double.NaN : min;
+  }
+
+  /** 期間全体の平均値．サンプルが無い場合NaN． */
+  public double getAverage() {
+    return count == 0 ? Double.NaN : sum / count;
+  }
+
+  /** 期間全体の最大値．サンプルが無い場合NaN． */
+  public double getMax() {
+    return count == 0 ? Double.NaN : max;
+  }
+
+  /** 期間全体のp99．サンプルが無い場合NaN． */
+  public double getP99() {
+    if (count == 0) {
+      return Double.NaN;
+    }
+    Integer[] order = new Integer[percentilePoints];
+    for (int i = 0; i < percentilePoints; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(percentileValues[a], percentileValues[b]));
+    long threshold = (long) Math.ceil(count * 0.99);
+    long cumulative = 0;
+    for (int index : order) {
+      cumulative += percentileWeights[index];
+      if (cumulative >= threshold) {
+        return percentileValues[index];
+      }
+    }
+    return percentileValues[order[order.length - 1]];
+  }
+
+  /** バケットの最小値．サンプルが無い場合NaN． */
+  public double getBucketMin(int bucket) {
+    return bucketCount[bucket] == 0 ? Double.NaN : bucketMin[bucket];
+  }
+
+  /** バケットの平均値．サンプルが無い場合NaN． */
+  public double getBucketAverage(int bucket) {
+    return bucketCount[bucket] == 0 ? Double.NaN : bucketSum[bucket] / bucketCount[bucket];
+  }
+
+  /** バケットの最大値．サンプルが無い場合NaN． */
+  public double getBucketMax(int bucket) {
+    return bucketCount[bucket] == 0 ? Double.NaN : bucketMax[bucket];
+  }
+}
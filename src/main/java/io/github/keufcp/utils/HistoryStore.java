@@ -0,0 +1,709 @@
+package io.github.keufcp.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.keufcp.ServerUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * メモリマップ型の時系列ストア．
+ *
+ * <p>1秒1レコードの固定長レコードを {@value #SEGMENT_SECONDS} 秒分ずつ固定サイズのセグメントファイル（{@code <開始UNIX秒>.seg}）へ格納．
+ * レコード位置は時刻から直接決まるため索引は不要． 書込みは単一の書込みスレッドがセグメントをメモリマップして行い，
+ * クエリは対象セグメントのみを読取専用でマップして走査するためヒープへ全体を読み込まない．
+ *
+ * <p>1秒レコードは区間の終了毎に1分・1時間単位の最小・平均・最大・p99へ集約し，{@link HistoryRollup} へ圧縮格納．
+ * 段毎に保持期間を持ち，クエリは期間とバケット数を満たす最も粗い段を使用．
+ *
+ * <p>ディメンション別の値はディメンション毎に割り当てた最大 {@value #MAX_DIMENSIONS} 個のスロットへ格納し，割当は {@value #DIMENSIONS_FILE}
+ * に保存．
+ */
+public final class HistoryStore {
+
+  /** 1セグメントの秒数 */
+  public static final int SEGMENT_SECONDS = 3600;
+
+  /** ディメンションスロット数 */
+  public static final int MAX_DIMENSIONS = 8;
+
+  /** レコード内オフセット */
+  private static final int OFFSET_EPOCH_SECOND = 0;
+
+  private static final int OFFSET_TPS = 8;
+  private static final int OFFSET_MSPT = 12;
+  private static final int OFFSET_MSPT_P50 = 16;
+  private static final int OFFSET_MSPT_P95 = 20;
+  private static final int OFFSET_MSPT_P99 = 24;
+  private static final int OFFSET_MSPT_MAX = 28;
+  private static final int OFFSET_PLAYERS = 32;
+  private static final int OFFSET_DIMENSIONS = 40;
+
+  /** ディメンション1スロットのバイト数（モンスター数・スポーンチャンク数） */
+  private static final int DIMENSION_BYTES = 8;
+
+  /** レコード長 */
+  public static final int RECORD_BYTES = OFFSET_DIMENSIONS + MAX_DIMENSIONS * DIMENSION_BYTES;
+
+  /** セグメントファイル拡張子 */
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  /** ディメンションスロット割当ファイル名 */
+  private static final String DIMENSIONS_FILE = "dimensions.json";
+
+  /** ディメンション別でない系列数（{@link HistoryMetric} の先頭から） */
+  private static final int SCALAR_SERIES = 7;
+
+  /** 集約系列数． ディメンション別メトリクスはスロット毎と全スロット合計 */
+  private static final int SERIES = SCALAR_SERIES + 2 * (MAX_DIMENSIONS + 1);
+
+  /** 1系列あたりの集約列（最小・平均・最大・p99） */
+  private static final int STATS = 4;
+
+  /** 集約列数（先頭はサンプル数） */
+  private static final int ROLLUP_COLUMNS = 1 + SERIES * STATS;
+
+  /** 格納ディレクトリ */
+  private final Path directory;
+
+  /** ディメンションID→スロット */
+  private final Map<String, Integer> dimensionSlots = new ConcurrentHashMap<>();
+
+  /** 段毎の保持期間（秒，{@link Tier} の順） */
+  private final long[] retentionSeconds = new long[Tier.values().length];
+
+  /** 集約段（{@link Tier#MINUTE}・{@link Tier#HOUR}） */
+  private final HistoryRollup[] rollups = new HistoryRollup[Tier.values().length];
+
+  /** 段毎の次に集約する区間の開始（書込みスレッドのみ操作） */
+  private final long[] nextRollupWindow = new long[Tier.values().length];
+
+  /** 集約作業領域（系列×区間内の秒，書込みスレッドのみ操作） */
+  private final float[][] rollupValues = new float[SERIES][Tier.HOUR.getSeconds()];
+
+  private final double[] rollupPoint = new double[ROLLUP_COLUMNS];
+
+  /** 書込み中セグメント（書込みスレッドのみ操作） */
+  private FileChannel segmentChannel;
+
+  private MappedByteBuffer segmentBuffer;
+  private long segmentStart = Long.MIN_VALUE;
+
+  /** 集約元として直前に参照した過去セグメント（書込みスレッドのみ操作） */
+  private MappedByteBuffer sourceBuffer;
+
+  private long sourceStart = Long.MIN_VALUE;
+
+  /**
+   * ストア作成． ディレクトリが無い場合は作成．
+   *
+   * @param directory 格納ディレクトリ
+   * @param rawRetentionSeconds 1秒レコードの保持期間（秒）
+   * @param minuteRetentionSeconds 1分集約の保持期間（秒）
+   * @param hourRetentionSeconds 1時間集約の保持期間（秒）
+   * @throws IOException ディレクトリ作成・スロット割当/集約読込失敗時
+   */
+  public HistoryStore(
+      Path directory,
+      long rawRetentionSeconds,
+      long minuteRetentionSeconds,
+      long hourRetentionSeconds)
+      throws IOException {
+    this.directory = directory;
+    setRetentionSeconds(rawRetentionSeconds, minuteRetentionSeconds, hourRetentionSeconds);
+    Files.createDirectories(directory);
+    loadDimensionSlots();
+    for (Tier tier : Tier.values()) {
+      if (tier != Tier.RAW) {
+        rollups[tier.ordinal()] =
+            new HistoryRollup(
+                directory.resolve(tier.getDirectoryName()),
+                tier.getSeconds(),
+                tier.getBlockSeconds(),
+                ROLLUP_COLUMNS);
+      }
+    }
+    Arrays.fill(nextRollupWindow, Long.MIN_VALUE);
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * 段毎の保持期間変更．
+   *
+   * @param rawRetentionSeconds 1秒レコードの保持期間（秒）
+   * @param minuteRetentionSeconds 1分集約の保持期間（秒）
+   * @param hourRetentionSeconds 1時間集約の保持期間（秒）
+   */
+  public synchronized void setRetentionSeconds(
+      long rawRetentionSeconds, long minuteRetentionSeconds, long hourRetentionSeconds) {
+    retentionSeconds[Tier.RAW.ordinal()] = rawRetentionSeconds;
+    retentionSeconds[Tier.MINUTE.ordinal()] = minuteRetentionSeconds;
+    retentionSeconds[Tier.HOUR.ordinal()] = hourRetentionSeconds;
+  }
+
+  private synchronized long getRetentionSeconds(Tier tier) {
+    return retentionSeconds[tier.ordinal()];
+  }
+
+  /**
+   * 1レコード追記． 書込みスレッドからのみ呼出． 終了した集約区間があれば集約．
+   *
+   * @param sample サンプル
+   * @throws IOException セグメント作成・集約書込み失敗時
+   */
+  void append(Sample sample) throws IOException {
+    long second = sample.epochSecond();
+    long start = second - Math.floorMod(second, SEGMENT_SECONDS);
+    boolean newSegment = start != segmentStart;
+    if (newSegment) {
+      openSegment(start);
+    }
+
+    int position = (int) (second - start) * RECORD_BYTES;
+    ByteBuffer buffer = segmentBuffer;
+    buffer.putFloat(position + OFFSET_TPS, sample.tps());
+    buffer.putFloat(position + OFFSET_MSPT, sample.mspt());
+    buffer.putFloat(position + OFFSET_MSPT_P50, sample.msptP50());
+    buffer.putFloat(position + OFFSET_MSPT_P95, sample.msptP95());
+    buffer.putFloat(position + OFFSET_MSPT_P99, sample.msptP99());
+    buffer.putFloat(position + OFFSET_MSPT_MAX, sample.msptMax());
+    buffer.putInt(position + OFFSET_PLAYERS, sample.players());
+    for (int slot = 0; slot < MAX_DIMENSIONS; slot++) {
+      buffer.putLong(position + OFFSET_DIMENSIONS + slot * DIMENSION_BYTES, 0L);
+    }
+    for (DimensionSample dimension : sample.dimensions()) {
+      int slot = slotFor(dimension.id());
+      if (slot >= 0) {
+        int offset = position + OFFSET_DIMENSIONS + slot * DIMENSION_BYTES;
+        buffer.putInt(offset, dimension.monsters());
+        buffer.putInt(offset + 4, dimension.spawnChunks());
+      }
+    }
+    // 時刻を最後に書き込み，レコードの有効印とする
+    buffer.putLong(position + OFFSET_EPOCH_SECOND, second);
+
+    rollUp(second);
+    if (newSegment) {
+      // 集約済みの区間のみ削除するため集約後に実行
+      deleteExpired(second);
+    }
+  }
+
+  /**
+   * 書込み中セグメント・集約のディスク反映． 書込みスレッドからのみ呼出．
+   *
+   * @throws IOException 集約書込み失敗時
+   */
+  void flush() throws IOException {
+    if (segmentBuffer != null) {
+      segmentBuffer.force();
+    }
+    for (HistoryRollup rollup : rollups) {
+      if (rollup != null) {
+        rollup.persist();
+      }
+    }
+  }
+
+  /** 書込み中セグメント・集約を反映して閉じる． 書込みスレッドからのみ呼出． */
+  void close() {
+    try {
+      flush();
+    } catch (IOException e) {
+      ServerUtils.LOGGER.error("Failed to flush metrics history", e);
+    }
+    closeSegment();
+    sourceBuffer = null;
+    sourceStart = Long.MIN_VALUE;
+  }
+
+  /**
+   * 終了した集約区間の集約． 停止中の区間など，1秒レコードの無い区間は飛ばす．
+   *
+   * @param now 現在のレコード時刻（UNIX秒）
+   * @throws IOException 集約書込み失敗時
+   */
+  private void rollUp(long now) throws IOException {
+    for (Tier tier : Tier.values()) {
+      HistoryRollup rollup = rollups[tier.ordinal()];
+      if (rollup == null) {
+        continue;
+      }
+      int step = tier.getSeconds();
+      long currentWindow = now - Math.floorMod(now, step);
+      long window = nextRollupWindow[tier.ordinal()];
+      if (window == Long.MIN_VALUE) {
+        long last = rollup.getLastTimestamp();
+        window = last != Long.MIN_VALUE ? last + step : oldestSegmentStart(currentWindow);
+      }
+      while (window < currentWindow) {
+        long start = window - Math.floorMod(window, SEGMENT_SECONDS);
+        ByteBuffer source = sourceSegment(start);
+        if (source == null) {
+          window = start + SEGMENT_SECONDS; // セグメント単位で飛ばす
+          continue;
+        }
+        int count = aggregate(source, start, window, step);
+        if (count > 0) {
+          rollup.append(window, rollupPoint);
+        }
+        window += step;
+      }
+      nextRollupWindow[tier.ordinal()] = window;
+    }
+  }
+
+  /**
+   * 1区間分の1秒レコードの集約． 結果は {@link #rollupPoint} へ格納．
+   *
+   * @param source 区間を含むセグメント
+   * @param start セグメント開始（UNIX秒）
+   * @param window 区間開始（UNIX秒）
+   * @param step 区間の秒数（セグメント長の約数）
+   * @return 区間内のレコード数
+   */
+  private int aggregate(ByteBuffer source, long start, long window, int step) {
+    int count = 0;
+    for (long second = window; second < window + step; second++) {
+      int position = (int) (second - start) * RECORD_BYTES;
+      if (source.getLong(position + OFFSET_EPOCH_SECOND) != second) {
+        continue; // 未記録
+      }
+      for (HistoryMetric metric : HistoryMetric.values()) {
+        if (!metric.isPerDimension()) {
+          rollupValues[seriesIndex(metric, -1)][count] = (float) read(source, position, metric, -1);
+          continue;
+        }
+        for (int slot = -1; slot < MAX_DIMENSIONS; slot++) {
+          rollupValues[seriesIndex(metric, slot)][count] =
+              (float) read(source, position, metric, slot);
+        }
+      }
+      count++;
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    rollupPoint[0] = count;
+    for (int series = 0; series < SERIES; series++) {
+      float[] values = rollupValues[series];
+      Arrays.sort(values, 0, count);
+      double sum = 0;
+      for (int i = 0; i < count; i++) {
+        sum += values[i];
+      }
+      int column = 1 + series * STATS;
+      // 元の値がfloatのため，単精度へ丸めてXOR圧縮の有効ビットを減らす
+      rollupPoint[column] = values[0];
+      rollupPoint[column + 1] = (float) (sum / count);
+      rollupPoint[column + 2] = values[count - 1];
+      rollupPoint[column + 3] = values[(int) Math.ceil(count * 0.99) - 1];
+    }
+    return count;
+  }
+
+  /**
+   * 集約元セグメントの取得． 書込み中セグメントはそのまま使用し，過去セグメントは読取専用でマップ．
+   *
+   * @param start セグメント開始（UNIX秒）
+   * @return セグメント．ファイルが無い場合null
+   * @throws IOException マップ失敗時
+   */
+  private ByteBuffer sourceSegment(long start) throws IOException {
+    if (start == segmentStart) {
+      return segmentBuffer;
+    }
+    if (start != sourceStart) {
+      Path file = segmentPath(start);
+      if (!Files.isRegularFile(file)) {
+        return null;
+      }
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        if (channel.size() < (long) SEGMENT_SECONDS * RECORD_BYTES) {
+          return null;
+        }
+        sourceBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+      sourceStart = start;
+    }
+    return sourceBuffer;
+  }
+
+  /**
+   * 最も古いセグメントの開始時刻．
+   *
+   * @param fallback セグメントが無い場合の値
+   * @return 開始時刻（UNIX秒）
+   */
+  private long oldestSegmentStart(long fallback) {
+    long oldest = fallback;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        long start = parseSegmentStart(file);
+        if (start != Long.MIN_VALUE) {
+          oldest = Math.min(oldest, start);
+        }
+      }
+    } catch (IOException e) {
+      ServerUtils.LOGGER.warn("Failed to list history segments", e);
+    }
+    return oldest;
+  }
+
+  /**
+   * 集約系列の番号．
+   *
+   * @param metric メトリクス
+   * @param slot ディメンションスロット（-1の場合は全スロット合計）
+   * @return 系列番号
+   */
+  private static int seriesIndex(HistoryMetric metric, int slot) {
+    if (!metric.isPerDimension()) {
+      return metric.ordinal(); // ディメンション別でないメトリクスは列挙の先頭に並ぶ
+    }
+    int group = metric == HistoryMetric.MONSTERS ? 0 : 1;
+    return SCALAR_SERIES + group * (MAX_DIMENSIONS + 1) + (slot < 0 ? MAX_DIMENSIONS : slot);
+  }
+
+  /**
+   * クエリに使用する段の選択． バケット幅以下の解像度を持つ最も粗い段を選び，その段の保持期間が期間開始に届かない場合はより粗い段を使用．
+   *
+   * @param fromEpochSecond 期間開始（UNIX秒，含む）
+   * @param toEpochSecond 期間終了（UNIX秒，含む）
+   * @param buckets バケット数
+   * @return 段
+   */
+  public Tier selectTier(long fromEpochSecond, long toEpochSecond, int buckets) {
+    long bucketSeconds = Math.max(1L, (toEpochSecond - fromEpochSecond + 1) / buckets);
+    Tier[] tiers = Tier.values();
+    int index = 0;
+    for (int i = tiers.length - 1; i >= 0; i--) {
+      if (tiers[i].getSeconds() <= bucketSeconds) {
+        index = i;
+        break;
+      }
+    }
+    long now = System.currentTimeMillis() / 1000L;
+    while (index < tiers.length - 1 && fromEpochSecond < now - getRetentionSeconds(tiers[index])) {
+      index++;
+    }
+    return tiers[index];
+  }
+
+  /**
+   * 期間内のメトリクス集計． 任意のスレッドから呼出可． 使用する段は {@link #selectTier} で選択．
+   *
+   * @param metric メトリクス
+   * @param dimensionId ディメンションID（ディメンション別メトリクスでnullの場合は全ディメンション合計）
+   * @param fromEpochSecond 期間開始（UNIX秒，含む）
+   * @param toEpochSecond 期間終了（UNIX秒，含む）
+   * @param buckets バケット数
+   * @return 集計結果
+   * @throws IOException セグメント読込失敗時
+   */
+  public HistorySeries query(
+      HistoryMetric metric,
+      String dimensionId,
+      long fromEpochSecond,
+      long toEpochSecond,
+      int buckets)
+      throws IOException {
+    Tier tier = selectTier(fromEpochSecond, toEpochSecond, buckets);
+    HistorySeries series =
+        new HistorySeries(metric, fromEpochSecond, toEpochSecond, buckets, tier.getSeconds());
+    int slot = -1;
+    if (metric.isPerDimension() && dimensionId != null) {
+      Integer assigned = dimensionSlots.get(dimensionId);
+      if (assigned == null) {
+        return series;
+      }
+      slot = assigned;
+    }
+    if (tier != Tier.RAW) {
+      queryRollup(series, rollups[tier.ordinal()], metric, slot);
+      return series;
+    }
+
+    long firstSegment = fromEpochSecond - Math.floorMod(fromEpochSecond, SEGMENT_SECONDS);
+    for (long start = firstSegment; start <= toEpochSecond; start += SEGMENT_SECONDS) {
+      Path file = segmentPath(start);
+      if (!Files.isRegularFile(file)) {
+        continue;
+      }
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        long first = Math.max(fromEpochSecond, start);
+        long last = Math.min(toEpochSecond, start + SEGMENT_SECONDS - 1);
+        for (long second = first; second <= last; second++) {
+          int position = (int) (second - start) * RECORD_BYTES;
+          if (position + RECORD_BYTES > buffer.capacity()) {
+            break;
+          }
+          if (buffer.getLong(position + OFFSET_EPOCH_SECOND) != second) {
+            continue; // 未記録
+          }
+          series.add(second, read(buffer, position, metric, slot));
+        }
+      }
+    }
+    return series;
+  }
+
+  /**
+   * 集約段からの集計． 期間開始をまたぐ集約点は期間開始の点として扱う．
+   *
+   * @param series 集計先
+   * @param rollup 集約段
+   * @param metric メトリクス
+   * @param slot ディメンションスロット（-1の場合は全スロット合計）
+   * @throws IOException ブロック読込失敗時
+   */
+  private static void queryRollup(
+      HistorySeries series, HistoryRollup rollup, HistoryMetric metric, int slot)
+      throws IOException {
+    int column = 1 + seriesIndex(metric, metric.isPerDimension() ? slot : -1) * STATS;
+    int[] columns = {0, column, column + 1, column + 2, column + 3};
+    long from = series.getFromEpochSecond();
+    rollup.scan(
+        from - rollup.getStepSeconds() + 1,
+        series.getToEpochSecond(),
+        columns,
+        (timestamp, values) -> {
+          long count = (long) values[0];
+          series.add(
+              Math.max(timestamp, from), values[1], values[3], values[2] * count, count, values[4]);
+        });
+  }
+
+  /**
+   * レコードからの値読取り．
+   *
+   * @param buffer セグメント
+   * @param position レコード位置
+   * @param metric メトリクス
+   * @param slot ディメンションスロット（-1の場合は全スロット合計）
+   * @return 値
+   */
+  private static double read(ByteBuffer buffer, int position, HistoryMetric metric, int slot) {
+    return switch (metric) {
+      case TPS -> buffer.getFloat(position + OFFSET_TPS);
+      case MSPT -> buffer.getFloat(position + OFFSET_MSPT);
+      case MSPT_P50 -> buffer.getFloat(position + OFFSET_MSPT_P50);
+      case MSPT_P95 -> buffer.getFloat(position + OFFSET_MSPT_P95);
+      case MSPT_P99 -> buffer.getFloat(position + OFFSET_MSPT_P99);
+      case MSPT_MAX -> buffer.getFloat(position + OFFSET_MSPT_MAX);
+      case PLAYERS -> buffer.getInt(position + OFFSET_PLAYERS);
+      case MONSTERS, SPAWN_CHUNKS -> {
+        int field = metric == HistoryMetric.MONSTERS ? 0 : 4;
+        if (slot >= 0) {
+          yield buffer.getInt(position + OFFSET_DIMENSIONS + slot * DIMENSION_BYTES + field);
+        }
+        long total = 0;
+        for (int i = 0; i < MAX_DIMENSIONS; i++) {
+          total += buffer.getInt(position + OFFSET_DIMENSIONS + i * DIMENSION_BYTES + field);
+        }
+        yield total;
+      }
+    };
+  }
+
+  /**
+   * セグメントを開く（無い場合は固定サイズで作成）．
+   *
+   * @param start セグメント開始（UNIX秒）
+   * @throws IOException 作成失敗時
+   */
+  private void openSegment(long start) throws IOException {
+    flush();
+    closeSegment();
+    segmentChannel =
+        FileChannel.open(
+            segmentPath(start),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    segmentBuffer =
+        segmentChannel.map(
+            FileChannel.MapMode.READ_WRITE, 0, (long) SEGMENT_SECONDS * RECORD_BYTES);
+    segmentStart = start;
+  }
+
+  private void closeSegment() {
+    if (segmentChannel != null) {
+      try {
+        segmentChannel.close();
+      } catch (IOException e) {
+        ServerUtils.LOGGER.warn("Failed to close history segment", e);
+      }
+    }
+    segmentChannel = null;
+    segmentBuffer = null;
+    segmentStart = Long.MIN_VALUE;
+  }
+
+  /**
+   * 保持期間を過ぎたセグメントの削除．
+   *
+   * @param now 現在時刻（UNIX秒）
+   */
+  private void deleteExpired(long now) {
+    for (Tier tier : Tier.values()) {
+      HistoryRollup rollup = rollups[tier.ordinal()];
+      if (rollup != null) {
+        rollup.deleteExpired(now - getRetentionSeconds(tier));
+      }
+    }
+    long threshold = now - getRetentionSeconds(Tier.RAW);
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        long start = parseSegmentStart(file);
+        if (start != Long.MIN_VALUE && start + SEGMENT_SECONDS <= threshold) {
+          Files.deleteIfExists(file);
+        }
+      }
+    } catch (IOException e) {
+      ServerUtils.LOGGER.warn("Failed to delete expired history segments", e);
+    }
+  }
+
+  private Path segmentPath(long start) {
+    return directory.resolve(start + SEGMENT_SUFFIX);
+  }
+
+  private static long parseSegmentStart(Path file) {
+    String name = file.getFileName().toString();
+    try {
+      return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      return Long.MIN_VALUE;
+    }
+  }
+
+  /**
+   * ディメンションのスロット取得． 未割当の場合は空きスロットを割当て保存．
+   *
+   * @param dimensionId ディメンションID
+   * @return スロット．空きが無い場合-1
+   */
+  private int slotFor(String dimensionId) {
+    Integer slot = dimensionSlots.get(dimensionId);
+    if (slot != null) {
+      return slot;
+    }
+    if (dimensionSlots.size() >= MAX_DIMENSIONS) {
+      return -1;
+    }
+    int assigned = dimensionSlots.size();
+    dimensionSlots.put(dimensionId, assigned);
+    saveDimensionSlots();
+    ServerUtils.LOGGER.info("History slot {} assigned to dimension {}", assigned, dimensionId);
+    return assigned;
+  }
+
+  private void loadDimensionSlots() throws IOException {
+    Path file = directory.resolve(DIMENSIONS_FILE);
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+    JsonObject root =
+        JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonObject();
+    for (Map.Entry<String, JsonElement> entry : root.entrySet()) {
+      dimensionSlots.put(entry.getKey(), entry.getValue().getAsInt());
+    }
+  }
+
+  private void saveDimensionSlots() {
+    JsonObject root = new JsonObject();
+    dimensionSlots.forEach(root::addProperty);
+    try {
+      Path temp = directory.resolve(DIMENSIONS_FILE + ".tmp");
+      Files.writeString(temp, root.toString(), StandardCharsets.UTF_8);
+      Files.move(temp, directory.resolve(DIMENSIONS_FILE), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      ServerUtils.LOGGER.error("Failed to save history dimension slots", e);
+    }
+  }
+
+  /** 履歴の段（解像度）． */
+  public enum Tier {
+    /** 1秒レコード */
+    RAW(1, SEGMENT_SECONDS, ""),
+    /** 1分集約（6時間毎のブロック） */
+    MINUTE(60, 6 * 3600, "minute"),
+    /** 1時間集約（7日毎のブロック） */
+    HOUR(3600, 7 * 24 * 3600, "hour");
+
+    private final int seconds;
+    private final int blockSeconds;
+    private final String directoryName;
+
+    Tier(int seconds, int blockSeconds, String directoryName) {
+      this.seconds = seconds;
+      this.blockSeconds = blockSeconds;
+      this.directoryName = directoryName;
+    }
+
+    /** 1点あたりの秒数． */
+    public int getSeconds() {
+      return seconds;
+    }
+
+    int getBlockSeconds() {
+      return blockSeconds;
+    }
+
+    String getDirectoryName() {
+      return directoryName;
+    }
+  }
+
+  /**
+   * 1秒分のサンプル．
+   *
+   * @param epochSecond 時刻（UNIX秒）
+   * @param tps 1秒間のTick数
+   * @param mspt 平均Tick時間（ミリ秒）
+   * @param msptP50 Tick時間p50（ミリ秒）
+   * @param msptP95 Tick時間p95（ミリ秒）
+   * @param msptP99 Tick時間p99（ミリ秒）
+   * @param msptMax 最大Tick時間（ミリ秒）
+   * @param players プレイヤー数
+   * @param dimensions ディメンション別の値
+   */
+  public record Sample(
+      long epochSecond,
+      float tps,
+      float mspt,
+      float msptP50,
+      float msptP95,
+      float msptP99,
+      float msptMax,
+      int players,
+      List<DimensionSample> dimensions) {}
+
+  /**
+   * ディメンション別サンプル．
+   *
+   * @param id ディメンションID
+   * @param monsters モンスター数
+   * @param spawnChunks スポーン可能チャンク数
+   */
+  public record DimensionSample(String id, int monsters, int spawnChunks) {}
+}
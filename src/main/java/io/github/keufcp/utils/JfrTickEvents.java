@@ -0,0 +1,318 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+
+/**
+ * JDK Flight Recorder連携クラス．
+ *
+ * <p>Tick毎のカスタムイベント（Tick時間・フェーズ別時間・プレイヤー数）と，ディメンション別MobCapイベントを発行． イベントクラスは {@link Registered}
+ * を無効化しており，設定で有効化されるまでJFRへ登録されないため無効時のコストはフラグ判定のみ． 登録中も記録対象外の間はイベントを生成しない．
+ *
+ * <p>低速Tick記録有効時は保持期間・容量を制限したインメモリの継続記録を保持し，閾値超過Tick発生時に別スレッドでディスクへダンプ．
+ * GC・アロケーション・ロック・I/O等の前後状況を常時ダンプ無しで取得可能．
+ */
+public class JfrTickEvents {
+
+  /** MobCapイベント発行間隔（Tick） */
+  private static final int MOB_CAP_EVENT_INTERVAL = 20;
+
+  /** 継続記録の保持期間 */
+  private static final Duration RECORDING_MAX_AGE = Duration.ofMinutes(2);
+
+  /** 継続記録の保持容量上限（バイト） */
+  private static final long RECORDING_MAX_SIZE = 64L * 1024 * 1024;
+
+  /** 出力ファイル名用日時フォーマット */
+  private static final DateTimeFormatter FILE_TIME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  /** イベント発行有効フラグ */
+  private static volatile boolean eventsEnabled;
+
+  /** Tickイベント種別．未登録時はnull */
+  private static volatile EventType tickEventType;
+
+  /** MobCapイベント種別．未登録時はnull */
+  private static volatile EventType mobCapEventType;
+
+  /** 低速Tickダンプ用継続記録．無効時はnull */
+  private static volatile Recording slowTickRecording;
+
+  /** 低速Tick閾値（ナノ秒） */
+  private static volatile long slowTickThresholdNanos;
+
+  /** ダンプ間隔下限（ナノ秒） */
+  private static volatile long dumpCooldownNanos;
+
+  /** 前回ダンプ時刻（サーバースレッドのみ参照） */
+  private static long lastDumpTime = Long.MIN_VALUE;
+
+  /** MobCapイベント発行用Tickカウンタ（サーバースレッドのみ参照） */
+  private static int tickCounter;
+
+  /** ダンプ書き出し用スレッド */
+  private static ExecutorService dumpExecutor;
+
+  /**
+   * 設定反映． イベント登録状態と継続記録の開始・停止を切り替え．
+   *
+   * @param enableEvents カスタムイベント発行有効化
+   * @param enableSlowTickDump 低速Tickダンプ有効化
+   * @param thresholdMillis 低速Tick閾値（ミリ秒）
+   * @param cooldownSeconds ダンプ間隔下限（秒）
+   */
+  public static synchronized void configure(
+      boolean enableEvents, boolean enableSlowTickDump, int thresholdMillis, int cooldownSeconds) {
+    if (!FlightRecorder.isAvailable()) {
+      if (enableEvents || enableSlowTickDump) {
+        ServerUtils.LOGGER.warn("JDK Flight Recorder is not available. JFR features are disabled.");
+      }
+      return;
+    }
+
+    if (enableEvents && !eventsEnabled) {
+      FlightRecorder.register(TickEvent.class);
+      FlightRecorder.register(MobCapEvent.class);
+      tickEventType = EventType.getEventType(TickEvent.class);
+      mobCapEventType = EventType.getEventType(MobCapEvent.class);
+      ServerUtils.LOGGER.info("JFR tick events registered.");
+    } else if (!enableEvents && eventsEnabled) {
+      tickEventType = null;
+      mobCapEventType = null;
+      FlightRecorder.unregister(TickEvent.class);
+      FlightRecorder.unregister(MobCapEvent.class);
+      ServerUtils.LOGGER.info("JFR tick events unregistered.");
+    }
+    eventsEnabled = enableEvents;
+
+    slowTickThresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    dumpCooldownNanos = TimeUnit.SECONDS.toNanos(cooldownSeconds);
+
+    if (enableSlowTickDump && slowTickRecording == null) {
+      startRecording();
+    } else if (!enableSlowTickDump && slowTickRecording != null) {
+      stopRecording();
+    }
+  }
+
+  /** 継続記録停止とダンプ用スレッド終了． サーバー停止時呼出． */
+  public static synchronized void shutdown() {
+    stopRecording();
+    if (dumpExecutor != null) {
+      dumpExecutor.shutdown();
+      dumpExecutor = null;
+    }
+  }
+
+  /**
+   * Tick終了時処理． イベント発行と低速Tick判定．
+   *
+   * <p>サーバースレッドからのみ呼出可．{@link TickPhaseProfiler#onTickEnd(long)} より前に呼出すこと．
+   *
+   * @param server サーバーインスタンス
+   * @param tickTime Tick時間（ナノ秒）
+   * @param tickEndTime Tick終了時刻（{@link System#nanoTime()} 基準）
+   */
+  public static void onTickEnd(MinecraftServer server, long tickTime, long tickEndTime) {
+    if (eventsEnabled) {
+      emitTickEvent(server, tickTime);
+      if (++tickCounter >= MOB_CAP_EVENT_INTERVAL) {
+        tickCounter = 0;
+        emitMobCapEvents(server);
+      }
+    }
+
+    Recording recording = slowTickRecording;
+    if (recording != null
+        && tickTime >= slowTickThresholdNanos
+        && (lastDumpTime == Long.MIN_VALUE || tickEndTime - lastDumpTime >= dumpCooldownNanos)) {
+      lastDumpTime = tickEndTime;
+      dumpAsync(recording, server.getRunDirectory(), tickTime);
+    }
+  }
+
+  private static void emitTickEvent(MinecraftServer server, long tickTime) {
+    // 記録対象外の間はイベントを生成しない
+    if (!isRecorded(tickEventType)) {
+      return;
+    }
+    TickEvent event = new TickEvent();
+    event.tickTime = tickTime;
+    event.worldsTime = TickPhaseProfiler.getCurrentTickTime(TickPhase.WORLDS);
+    event.entitiesTime = TickPhaseProfiler.getCurrentTickTime(TickPhase.ENTITIES);
+    event.blockEntitiesTime = TickPhaseProfiler.getCurrentTickTime(TickPhase.BLOCK_ENTITIES);
+    event.chunksTime = TickPhaseProfiler.getCurrentTickTime(TickPhase.CHUNKS);
+    event.networkTime = TickPhaseProfiler.getCurrentTickTime(TickPhase.NETWORK);
+    event.autosaveTime = TickPhaseProfiler.getCurrentTickTime(TickPhase.AUTOSAVE);
+    event.playerCount = server.getCurrentPlayerCount();
+    event.targetTickRate = TickTimeUtil.getTargetTickRate();
+    event.commit();
+  }
+
+  private static void emitMobCapEvents(MinecraftServer server) {
+    if (!isRecorded(mobCapEventType)) {
+      return;
+    }
+    for (ServerWorld world : server.getWorlds()) {
+      MobCapProcessor.MobCapInfo info = MobCapProcessor.getMobCapInfo(world);
+      if (!info.hasValidInfo()) {
+        continue;
+      }
+      MobCapEvent event = new MobCapEvent();
+      event.dimension = world.getRegistryKey().getValue().toString();
+      event.monsterCount = info.getCurrentMonsterCount();
+      event.mobCap = info.getMobCap();
+      event.spawnChunkCount = info.getSpawnChunkCount();
+      event.commit();
+    }
+  }
+
+  private static boolean isRecorded(EventType type) {
+    return type != null && type.isEnabled();
+  }
+
+  private static void startRecording() {
+    try {
+      Recording recording = new Recording(Configuration.getConfiguration("default"));
+      recording.setName("ServerUtils-SlowTick");
+      recording.setToDisk(false);
+      recording.setMaxAge(RECORDING_MAX_AGE);
+      recording.setMaxSize(RECORDING_MAX_SIZE);
+      recording.start();
+      slowTickRecording = recording;
+      if (dumpExecutor == null) {
+        dumpExecutor =
+            Executors.newSingleThreadExecutor(
+                runnable -> {
+                  Thread thread = new Thread(runnable, "ServerUtils-JfrDump");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+      }
+      ServerUtils.LOGGER.info("JFR slow tick recording started.");
+    } catch (IOException | ParseException | IllegalStateException e) {
+      ServerUtils.LOGGER.error("Failed to start JFR slow tick recording", e);
+    }
+  }
+
+  private static void stopRecording() {
+    Recording recording = slowTickRecording;
+    if (recording == null) {
+      return;
+    }
+    slowTickRecording = null;
+    recording.close();
+    ServerUtils.LOGGER.info("JFR slow tick recording stopped.");
+  }
+
+  private static void dumpAsync(Recording recording, Path runDirectory, long tickTime) {
+    ExecutorService executor = dumpExecutor;
+    if (executor == null) {
+      return;
+    }
+    String fileName = "slow-tick-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".jfr";
+    executor.execute(
+        () -> {
+          try {
+            Path directory = runDirectory.resolve(ServerUtils.MOD_ID).resolve("jfr");
+            Files.createDirectories(directory);
+            Path file = directory.resolve(fileName);
+            recording.dump(file);
+            ServerUtils.LOGGER.warn(
+                "Slow tick detected ({} ms). JFR recording dumped to {}",
+                String.format("%.2f", tickTime / 1_000_000.0),
+                file);
+          } catch (IOException | IllegalStateException e) {
+            ServerUtils.LOGGER.error("Failed to dump JFR slow tick recording", e);
+          }
+        });
+  }
+
+  /** サーバーTickイベント． */
+  @Name("serverutils.Tick")
+  @Label("Server Tick")
+  @Description("Duration and phase breakdown of a server tick")
+  @Category({"ServerUtils", "Tick"})
+  @StackTrace(false)
+  @Registered(false)
+  public static class TickEvent extends Event {
+    @Label("Tick Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long tickTime;
+
+    @Label("Worlds Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long worldsTime;
+
+    @Label("Entities Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long entitiesTime;
+
+    @Label("Block Entities Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long blockEntitiesTime;
+
+    @Label("Chunks Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long chunksTime;
+
+    @Label("Network Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long networkTime;
+
+    @Label("Autosave Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long autosaveTime;
+
+    @Label("Player Count")
+    int playerCount;
+
+    @Label("Target Tick Rate")
+    float targetTickRate;
+  }
+
+  /** ディメンション別MobCapイベント． */
+  @Name("serverutils.MobCap")
+  @Label("Mob Cap")
+  @Description("Monster count and mob cap of a dimension")
+  @Category({"ServerUtils", "MobCap"})
+  @StackTrace(false)
+  @Registered(false)
+  public static class MobCapEvent extends Event {
+    @Label("Dimension")
+    String dimension;
+
+    @Label("Monster Count")
+    long monsterCount;
+
+    @Label("Mob Cap")
+    int mobCap;
+
+    @Label("Spawn Chunk Count")
+    int spawnChunkCount;
+  }
+}
@@ -0,0 +1,285 @@
+package io.github.keufcp.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.keufcp.ServerUtils;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import net.fabricmc.loader.api.FabricLoader;
+
+/**
+ * ライブステータスメッセージ更新クラス．
+ *
+ * <p>{@code live:<秒>} トリガーの送信先へ1件のステータスメッセージを作成し，以降はWebhookメッセージ編集APIで同じメッセージを定期的に上書き．
+ * 内容が前回から変化していない場合は編集を省略． メッセージIDは {@value #STATE_FILE_NAME} へ保存し再起動後も同じメッセージを編集．
+ * 編集対象のメッセージが削除されていた場合は新規作成．
+ */
+public class LiveStatusUpdater {
+
+  /** メッセージID保存ファイル名 */
+  private static final String STATE_FILE_NAME = "webhook-live.json";
+
+  /** メッセージID保存ファイル */
+  private static final Path STATE_FILE =
+      FabricLoader.getInstance().getGameDir().resolve(ServerUtils.MOD_ID).resolve(STATE_FILE_NAME);
+
+  /** 送信先名毎の更新状態 */
+  private static final Map<String, LiveState> states = new ConcurrentHashMap<>();
+
+  /** 保存済み状態読込済みフラグ */
+  private static boolean stateLoaded;
+
+  /** 更新タスク実行スレッド */
+  private static ScheduledExecutorService executor;
+
+  /** 更新タスク設定済みの送信先 */
+  private static List<WebhookTarget> configuredTargets = List.of();
+
+  /**
+   * 更新対象設定． 対象が変化した場合のみ既存の更新タスクを停止し，ライブステータス対象の送信先毎に更新タスクを開始．
+   *
+   * @param targets 送信先一覧（ライブステータス対象外は無視）
+   */
+  public static synchronized void configure(List<WebhookTarget> targets) {
+    List<WebhookTarget> liveTargets =
+        targets.stream().filter(target -> target.liveIntervalSeconds() > 0).toList();
+    if (executor != null && liveTargets.equals(configuredTargets)) {
+      return; // 変更無しの場合は更新タスクを維持
+    }
+    stop();
+    configuredTargets = liveTargets;
+    if (liveTargets.isEmpty()) {
+      return;
+    }
+    if (!stateLoaded) {
+      loadState();
+      stateLoaded = true;
+    }
+
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "ServerUtils-LiveStatus");
+              thread.setDaemon(true);
+              return thread;
+            });
+    for (WebhookTarget target : liveTargets) {
+      executor.scheduleWithFixedDelay(
+          () -> update(target), 0, target.liveIntervalSeconds(), TimeUnit.SECONDS);
+      ServerUtils.LOGGER.info(
+          "Live status for webhook target '{}' every {} s",
+          target.name(),
+          target.liveIntervalSeconds());
+    }
+  }
+
+  /** 更新タスク停止． 作成済みメッセージのIDは保持． */
+  public static synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * ステータスメッセージ更新． 前回の送信が未完了の場合，または内容が変化していない場合は何もしない．
+   *
+   * @param target 送信先
+   */
+  private static void update(WebhookTarget target) {
+    try {
+      if (MetricsSnapshotPublisher.getCurrent() == null) {
+        return;
+      }
+      WebhookDispatcher dispatcher = WebhookSender.getDispatcher(target.name());
+      if (dispatcher == null) {
+        return;
+      }
+
+      String url = target.uri().toString();
+      LiveState state = states.computeIfAbsent(target.name(), name -> new LiveState(url));
+      if (!state.url.equals(url)) {
+        // 送信先URL変更時は新規メッセージとして作成
+        state.url = url;
+        state.messageId = null;
+        state.lastContent = null;
+      }
+      CompletableFuture<?> inFlight = state.inFlight;
+      if (inFlight != null && !inFlight.isDone()) {
+        return;
+      }
+
+      JsonObject payload = WebhookSender.buildWebhookPayload(true);
+      String content = payload.toString();
+      String messageId = state.messageId;
+      if (messageId != null && content.equals(state.lastContent)) {
+        return;
+      }
+      payload
+          .getAsJsonArray("embeds")
+          .get(0)
+          .getAsJsonObject()
+          .addProperty("timestamp", Instant.now().toString());
+
+      WebhookDispatcher.Delivery delivery =
+          messageId == null
+              ? WebhookDispatcher.Delivery.json(
+                  withPath(target.uri(), "", "wait=true"), "POST", payload.toString())
+              : WebhookDispatcher.Delivery.json(
+                  withPath(target.uri(), "/messages/" + messageId, null),
+                  "PATCH",
+                  payload.toString());
+      state.inFlight = delivery.result();
+      delivery
+          .result()
+          .whenComplete((response, error) -> onResponse(state, messageId, content, response));
+      dispatcher.submit(delivery);
+    } catch (RuntimeException e) {
+      ServerUtils.LOGGER.error("Failed to update live status for '{}'", target.name(), e);
+    }
+  }
+
+  /**
+   * 送信結果反映． 作成時はメッセージIDを保存，編集先が削除済み（404）の場合は次回新規作成．
+   *
+   * @param state 更新状態
+   * @param messageId 送信時のメッセージID（新規作成時はnull）
+   * @param content 送信内容（比較用）
+   * @param response 応答（送信失敗時はnull）
+   */
+  private static void onResponse(
+      LiveState state, String messageId, String content, HttpResponse<String> response) {
+    if (response == null) {
+      return;
+    }
+    int status = response.statusCode();
+    if (status / 100 == 2) {
+      state.lastContent = content;
+      if (messageId == null) {
+        String createdId = parseMessageId(response.body());
+        if (createdId != null) {
+          state.messageId = createdId;
+          saveState();
+        }
+      }
+    } else if (status == 404 && messageId != null) {
+      ServerUtils.LOGGER.info("Live status message {} was deleted, creating a new one", messageId);
+      state.messageId = null;
+      state.lastContent = null;
+      saveState();
+    }
+  }
+
+  private static String parseMessageId(String body) {
+    try {
+      JsonElement element = JsonParser.parseString(body);
+      if (element.isJsonObject() && element.getAsJsonObject().has("id")) {
+        return element.getAsJsonObject().get("id").getAsString();
+      }
+    } catch (RuntimeException e) {
+      ServerUtils.LOGGER.warn("Unexpected live status response: {}", body);
+    }
+    return null;
+  }
+
+  /**
+   * WebhookURLへのパス・クエリ追加． 既存クエリ（{@code thread_id} 等）は保持．
+   *
+   * @param base WebhookURL
+   * @param pathSuffix 追加パス
+   * @param query 追加クエリ（無い場合null）
+   * @return 変換後URL
+   */
+  private static URI withPath(URI base, String pathSuffix, String query) {
+    String mergedQuery;
+    if (base.getQuery() == null) {
+      mergedQuery = query;
+    } else {
+      mergedQuery = query == null ? base.getQuery() : base.getQuery() + "&" + query;
+    }
+    try {
+      return new URI(
+          base.getScheme(), base.getAuthority(), base.getPath() + pathSuffix, mergedQuery, null);
+    } catch (URISyntaxException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /** 保存済みメッセージID読込． */
+  private static void loadState() {
+    if (!Files.isRegularFile(STATE_FILE)) {
+      return;
+    }
+    try {
+      JsonObject root =
+          JsonParser.parseString(Files.readString(STATE_FILE, StandardCharsets.UTF_8))
+              .getAsJsonObject();
+      for (Map.Entry<String, JsonElement> entry : root.entrySet()) {
+        JsonObject saved = entry.getValue().getAsJsonObject();
+        LiveState state = new LiveState(saved.get("url").getAsString());
+        state.messageId = saved.get("messageId").getAsString();
+        states.put(entry.getKey(), state);
+      }
+    } catch (IOException | RuntimeException e) {
+      ServerUtils.LOGGER.warn("Failed to read {}", STATE_FILE, e);
+    }
+  }
+
+  /** メッセージID保存． 一時ファイルへ書き込み後に置換． */
+  private static synchronized void saveState() {
+    JsonObject root = new JsonObject();
+    for (Map.Entry<String, LiveState> entry : states.entrySet()) {
+      LiveState state = entry.getValue();
+      String messageId = state.messageId;
+      if (messageId != null) {
+        JsonObject saved = new JsonObject();
+        saved.addProperty("url", state.url);
+        saved.addProperty("messageId", messageId);
+        root.add(entry.getKey(), saved);
+      }
+    }
+    try {
+      Files.createDirectories(STATE_FILE.getParent());
+      Path temp = STATE_FILE.resolveSibling(STATE_FILE_NAME + ".tmp");
+      Files.writeString(temp, root.toString(), StandardCharsets.UTF_8);
+      Files.move(temp, STATE_FILE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      ServerUtils.LOGGER.error("Failed to write {}", STATE_FILE, e);
+    }
+  }
+
+  /** 送信先毎の更新状態． */
+  private static final class LiveState {
+
+    /** 送信先URL */
+    private volatile String url;
+
+    /** 編集対象メッセージID（未作成時はnull） */
+    private volatile String messageId;
+
+    /** 前回送信成功時の内容（タイムスタンプ除く） */
+    private volatile String lastContent;
+
+    /** 送信中の要求結果 */
+    private volatile CompletableFuture<?> inFlight;
+
+    private LiveState(String url) {
+      this.url = url;
+    }
+  }
+}
@@ -0,0 +1,325 @@
+package io.github.keufcp.utils;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * プレイヤー毎のローカルMobCap算出クラス．
+ *
+ * <p>1.18以降のMobCapはプレイヤー毎に適用され，プレイヤーから水平128ブロック以内に中心を持つチャンクのMobが そのプレイヤーの使用量として数えられる．
+ * チャンク→周辺プレイヤーの空間インデックスをTick終了時に保持し，プレイヤーがチャンク境界を跨いだ場合のみ 差分（移動方向の辺）を更新する．
+ * 算出時はワールドのエンティティを1度走査し，各Mobのチャンクからインデックスを引いて該当プレイヤーに加算するため， プレイヤー数×エンティティ数の総当たりにはならない．
+ *
+ * <p>バニラの判定からチャンクのTick可否の確認を省略した近似値． サーバースレッドからのみ呼出可．
+ */
+public class LocalMobCapTracker {
+
+  /** Mobがプレイヤーの使用量に数えられる水平距離の2乗（チャンク中心基準，128ブロック） */
+  private static final double MOB_SPAWN_RANGE_SQUARED = 128.0 * 128.0;
+
+  /** インデックス登録半径（チャンク）．距離判定の候補を包含する最小の正方形 (17×17) */
+  private static final int INDEX_RADIUS = 8;
+
+  /** ディメンション→チャンク→周辺プレイヤー */
+  private static final Map<RegistryKey<World>, Long2ObjectOpenHashMap<List<ServerPlayerEntity>>>
+      chunkToPlayers = new HashMap<>();
+
+  /** プレイヤーUUID→登録位置 */
+  private static final Map<UUID, TrackedPlayer> trackedPlayers = new HashMap<>();
+
+  /** 掃除判定用Tick番号 */
+  private static int currentMark;
+
+  /**
+   * Tick終了時処理． チャンクを跨いだプレイヤーのみインデックスを更新し，退出したプレイヤーを削除．
+   *
+   * @param server サーバーインスタンス
+   */
+  public static void onTickEnd(MinecraftServer server) {
+    int mark = ++currentMark;
+    List<ServerPlayerEntity> players = server.getPlayerManager().getPlayerList();
+    for (ServerPlayerEntity player : players) {
+      TrackedPlayer tracked =
+          trackedPlayers.computeIfAbsent(player.getUuid(), uuid -> new TrackedPlayer());
+      tracked.mark = mark;
+      // スペクテイターはMobCapの対象外
+      RegistryKey<World> worldKey =
+          player.isSpectator() ? null : player.getServerWorld().getRegistryKey();
+      ChunkPos chunkPos = player.getChunkPos();
+      if (tracked.player == player
+          && tracked.worldKey == worldKey
+          && tracked.chunkX == chunkPos.x
+          && tracked.chunkZ == chunkPos.z) {
+        continue;
+      }
+      move(tracked, player, worldKey, chunkPos.x, chunkPos.z);
+    }
+
+    if (trackedPlayers.size() != players.size()) {
+      Iterator<TrackedPlayer> iterator = trackedPlayers.values().iterator();
+      while (iterator.hasNext()) {
+        TrackedPlayer tracked = iterator.next();
+        if (tracked.mark != mark) {
+          move(tracked, null, null, 0, 0);
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  /** インデックス破棄． サーバー停止時呼出． */
+  public static void clear() {
+    chunkToPlayers.clear();
+    trackedPlayers.clear();
+  }
+
+  /**
+   * 単一プレイヤーのローカルMobCap算出．
+   *
+   * @param player 対象プレイヤー
+   * @return ローカルMobCap情報
+   */
+  public static PlayerMobCap compute(ServerPlayerEntity player) {
+    PlayerMobCap result = computeWorld(player.getServerWorld()).get(player);
+    return result != null ? result : new PlayerMobCap(player, new int[SpawnGroup.values().length]);
+  }
+
+  /**
+   * 全プレイヤーのローカルMobCapを飽和度の高い順に取得．
+   *
+   * @param server サーバーインスタンス
+   * @param limit 取得件数上限
+   * @return 飽和度降順のローカルMobCap情報
+   */
+  public static List<PlayerMobCap> getMostSaturated(MinecraftServer server, int limit) {
+    List<PlayerMobCap> results = new ArrayList<>();
+    for (ServerWorld world : server.getWorlds()) {
+      if (chunkToPlayers.containsKey(world.getRegistryKey())) {
+        results.addAll(computeWorld(world).values());
+      }
+    }
+    results.sort(
+        Comparator.comparingDouble(PlayerMobCap::getSaturation)
+            .reversed()
+            .thenComparing(PlayerMobCap::getPlayerName));
+    return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+  }
+
+  /** ワールドのエンティティを1度走査し，インデックスに登録されたプレイヤー毎の使用量を集計． */
+  private static Map<ServerPlayerEntity, PlayerMobCap> computeWorld(ServerWorld world) {
+    Map<ServerPlayerEntity, PlayerMobCap> results = new IdentityHashMap<>();
+    Long2ObjectOpenHashMap<List<ServerPlayerEntity>> index =
+        chunkToPlayers.get(world.getRegistryKey());
+    if (index == null) {
+      return results;
+    }
+    int groupCount = SpawnGroup.values().length;
+
+    for (Entity entity : world.iterateEntities()) {
+      SpawnGroup group = MobCapProcessor.getMobCapGroup(entity);
+      if (group == null) {
+        continue;
+      }
+      ChunkPos chunkPos = entity.getChunkPos();
+      List<ServerPlayerEntity> players = index.get(chunkPos.toLong());
+      if (players == null) {
+        continue;
+      }
+      double centerX = chunkPos.getCenterX();
+      double centerZ = chunkPos.getCenterZ();
+      for (ServerPlayerEntity player : players) {
+        double dx = centerX - player.getX();
+        double dz = centerZ - player.getZ();
+        if (dx * dx + dz * dz < MOB_SPAWN_RANGE_SQUARED) {
+          results.computeIfAbsent(player, p -> new PlayerMobCap(p, new int[groupCount]))
+              .counts[group.ordinal()]++;
+        }
+      }
+    }
+
+    // 周辺にMobが居ないプレイヤーも結果に含める
+    for (TrackedPlayer tracked : trackedPlayers.values()) {
+      if (tracked.player != null && world.getRegistryKey() == tracked.worldKey) {
+        results.computeIfAbsent(tracked.player, p -> new PlayerMobCap(p, new int[groupCount]));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * 登録位置の移動． 同一ディメンション内の移動は旧正方形と新正方形の差分のみ更新．
+   *
+   * @param tracked 登録位置
+   * @param player 新しいプレイヤーインスタンス．削除時はnull
+   * @param worldKey 新しいディメンション．登録しない場合はnull
+   * @param chunkX 新しいチャンクX座標
+   * @param chunkZ 新しいチャンクZ座標
+   */
+  private static void move(
+      TrackedPlayer tracked,
+      ServerPlayerEntity player,
+      RegistryKey<World> worldKey,
+      int chunkX,
+      int chunkZ) {
+    boolean samePlayer = tracked.player == player && tracked.worldKey == worldKey;
+    if (tracked.worldKey != null) {
+      Long2ObjectOpenHashMap<List<ServerPlayerEntity>> index = chunkToPlayers.get(tracked.worldKey);
+      forEachChunk(
+          tracked.chunkX,
+          tracked.chunkZ,
+          (x, z) -> {
+            if (samePlayer && isWithinIndexRadius(x, z, chunkX, chunkZ)) {
+              return;
+            }
+            long key = ChunkPos.toLong(x, z);
+            List<ServerPlayerEntity> players = index.get(key);
+            if (players != null) {
+              players.remove(tracked.player);
+              if (players.isEmpty()) {
+                index.remove(key);
+              }
+            }
+          });
+      if (index.isEmpty()) {
+        chunkToPlayers.remove(tracked.worldKey);
+      }
+    }
+
+    if (worldKey != null) {
+      Long2ObjectOpenHashMap<List<ServerPlayerEntity>> index =
+          chunkToPlayers.computeIfAbsent(worldKey, key -> new Long2ObjectOpenHashMap<>());
+      forEachChunk(
+          chunkX,
+          chunkZ,
+          (x, z) -> {
+            if (samePlayer && isWithinIndexRadius(x, z, tracked.chunkX, tracked.chunkZ)) {
+              return;
+            }
+            index.computeIfAbsent(ChunkPos.toLong(x, z), key -> new ArrayList<>(2)).add(player);
+          });
+    }
+
+    tracked.player = worldKey != null ? player : null;
+    tracked.worldKey = worldKey;
+    tracked.chunkX = chunkX;
+    tracked.chunkZ = chunkZ;
+  }
+
+  private static boolean isWithinIndexRadius(int x, int z, int centerX, int centerZ) {
+    return Math.abs(x - centerX) <= INDEX_RADIUS && Math.abs(z - centerZ) <= INDEX_RADIUS;
+  }
+
+  private static void forEachChunk(int centerX, int centerZ, ChunkConsumer consumer) {
+    for (int x = centerX - INDEX_RADIUS; x <= centerX + INDEX_RADIUS; x++) {
+      for (int z = centerZ - INDEX_RADIUS; z <= centerZ + INDEX_RADIUS; z++) {
+        consumer.accept(x, z);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface ChunkConsumer {
+    void accept(int x, int z);
+  }
+
+  /** プレイヤーのインデックス登録位置． */
+  private static final class TrackedPlayer {
+    /** 登録中のプレイヤーインスタンス（リスポーン時に変わる） */
+    private ServerPlayerEntity player;
+
+    /** 登録中のディメンション．未登録時はnull */
+    private RegistryKey<World> worldKey;
+
+    private int chunkX;
+    private int chunkZ;
+
+    /** 最後に確認したTick番号 */
+    private int mark;
+  }
+
+  /** プレイヤー毎のローカルMobCap情報． */
+  public static final class PlayerMobCap {
+    private final String playerName;
+    private final RegistryKey<World> worldKey;
+    private final boolean spectator;
+
+    /** スポーングループ序数→使用量 */
+    private final int[] counts;
+
+    private PlayerMobCap(ServerPlayerEntity player, int[] counts) {
+      this.playerName = player.getName().getString();
+      this.worldKey = player.getServerWorld().getRegistryKey();
+      this.spectator = player.isSpectator();
+      this.counts = counts;
+    }
+
+    public String getPlayerName() {
+      return playerName;
+    }
+
+    public RegistryKey<World> getWorldKey() {
+      return worldKey;
+    }
+
+    public boolean isSpectator() {
+      return spectator;
+    }
+
+    public int getCount(SpawnGroup group) {
+      return counts[group.ordinal()];
+    }
+
+    /**
+     * スポーングループのローカルMobCap取得． プレイヤー毎の上限はグループのベース容量そのもの．
+     *
+     * @param group 対象のスポーングループ
+     * @return ローカルMobCap
+     */
+    public int getMobCap(SpawnGroup group) {
+      return group.getCapacity();
+    }
+
+    /**
+     * 最も飽和しているスポーングループ取得．
+     *
+     * @return 使用率が最大のスポーングループ
+     */
+    public SpawnGroup getMostSaturatedGroup() {
+      SpawnGroup result = SpawnGroup.MONSTER;
+      double max = -1.0;
+      for (SpawnGroup group : MobCapProcessor.getCappedGroups()) {
+        double ratio = (double) getCount(group) / group.getCapacity();
+        if (ratio > max) {
+          max = ratio;
+          result = group;
+        }
+      }
+      return result;
+    }
+
+    /**
+     * 飽和度取得．
+     *
+     * @return 最も飽和しているスポーングループの使用率 (1.0で上限到達)
+     */
+    public double getSaturation() {
+      SpawnGroup group = getMostSaturatedGroup();
+      return (double) getCount(group) / group.getCapacity();
+    }
+  }
+}
@@ -0,0 +1,247 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * メトリクス履歴記録クラス．
+ *
+ * <p>サーバースレッドがTick終了毎にTick時間を集計し，壁時計の1秒毎にTPS・MSPT（平均・p50/p95/p99・最大）・プレイヤー数・
+ * ディメンション別モンスター数/スポーンチャンク数を1サンプルとしてロックフリーキューへ投入． 書込みスレッドがキューを消化して {@link HistoryStore}
+ * へ追記するため，サーバースレッドはディスクを待たない． 1分・1時間単位への集約も書込みスレッドで実行．
+ */
+public class MetricsHistory {
+
+  /** 格納ディレクトリ名 */
+  private static final String DIRECTORY_NAME = "history";
+
+  /** 書込み中セグメントのディスク反映間隔（サンプル数） */
+  private static final int FLUSH_INTERVAL_SAMPLES = 60;
+
+  /** 書込み待ちサンプル */
+  private static final Queue<HistoryStore.Sample> queue = new ConcurrentLinkedQueue<>();
+
+  /** 1秒分のTick時間集計（サーバースレッドのみ参照） */
+  private static final TickHistogram secondHistogram = new TickHistogram();
+
+  /** 集計中の秒（UNIX秒，サーバースレッドのみ参照） */
+  private static long currentSecond = -1L;
+
+  /** 集計中の秒のTick時間合計（ナノ秒，サーバースレッドのみ参照） */
+  private static long tickNanosSum;
+
+  /** 履歴ストア */
+  private static volatile HistoryStore store;
+
+  /** 書込みスレッド */
+  private static volatile Thread writerThread;
+
+  /** 停止待ちが時間切れとなった書込みスレッド．終了してストアを閉じるまで記録を再開しない */
+  private static Thread closingThread;
+
+  /**
+   * 記録開始． 記録中の場合，および前回の書込みスレッドがストアを閉じ終えていない場合は何もしない．
+   *
+   * @param rawRetentionHours 1秒レコードの保持時間
+   * @param minuteRetentionDays 1分集約の保持日数
+   * @param retentionDays 1時間集約の保持日数
+   */
+  public static synchronized void start(
+      int rawRetentionHours, int minuteRetentionDays, int retentionDays) {
+    if (writerThread != null) {
+      return;
+    }
+    if (closingThread != null) {
+      if (closingThread.isAlive()) {
+        // 同じファイルへ2つの書込みスレッドが書き込まないよう，前回分の終了を待つ
+        ServerUtils.LOGGER.warn("Previous metrics history writer is still closing, not restarting");
+        return;
+      }
+      closingThread = null;
+    }
+    Path directory =
+        FabricLoader.getInstance().getGameDir().resolve(ServerUtils.MOD_ID).resolve(DIRECTORY_NAME);
+    HistoryStore opened;
+    try {
+      opened =
+          new HistoryStore(
+              directory,
+              TimeUnit.HOURS.toSeconds(rawRetentionHours),
+              TimeUnit.DAYS.toSeconds(minuteRetentionDays),
+              TimeUnit.DAYS.toSeconds(retentionDays));
+    } catch (IOException | RuntimeException e) {
+      ServerUtils.LOGGER.error("Failed to open metrics history at {}", directory, e);
+      return;
+    }
+    store = opened;
+    queue.clear();
+
+    Thread thread = new Thread(() -> run(opened), "ServerUtils-History");
+    thread.setDaemon(true);
+    writerThread = thread;
+    thread.start();
+    ServerUtils.LOGGER.info("Metrics history recording to {}", directory);
+  }
+
+  /**
+   * 記録停止． 書込み待ちのサンプルを書き込んでから停止．
+   *
+   * <p>停止要求後はサンプルが追加されないため，書込みスレッドは停止時点のキューのみを消化． ストアの参照解除と終了処理は書込みスレッド自身が行い，
+   * 待機が時間切れとなった場合も書込み中のストアを途中で手放さない．
+   */
+  public static synchronized void stop() {
+    Thread thread = writerThread;
+    if (thread == null) {
+      return;
+    }
+    writerThread = null;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (thread.isAlive()) {
+      ServerUtils.LOGGER.warn(
+          "Metrics history writer did not stop in time, it will close on its own");
+      closingThread = thread;
+    }
+  }
+
+  /**
+   * 保持期間変更．
+   *
+   * @param rawRetentionHours 1秒レコードの保持時間
+   * @param minuteRetentionDays 1分集約の保持日数
+   * @param retentionDays 1時間集約の保持日数
+   */
+  public static void setRetention(
+      int rawRetentionHours, int minuteRetentionDays, int retentionDays) {
+    HistoryStore current = store;
+    if (current != null) {
+      current.setRetentionSeconds(
+          TimeUnit.HOURS.toSeconds(rawRetentionHours),
+          TimeUnit.DAYS.toSeconds(minuteRetentionDays),
+          TimeUnit.DAYS.toSeconds(retentionDays));
+    }
+  }
+
+  /**
+   * 履歴ストア取得．
+   *
+   * @return 記録中の履歴ストア．停止中はnull
+   */
+  public static HistoryStore getStore() {
+    return store;
+  }
+
+  /**
+   * Tick終了時処理． 秒が変わった時点で前の秒のサンプルを投入．
+   *
+   * <p>サーバースレッドからのみ呼出可．
+   *
+   * @param server サーバーインスタンス
+   * @param tickNanos Tick時間（ナノ秒）
+   */
+  public static void onTickEnd(MinecraftServer server, long tickNanos) {
+    Thread writer = writerThread;
+    if (writer == null) {
+      return;
+    }
+    long second = System.currentTimeMillis() / 1000L;
+    if (second != currentSecond) {
+      if (currentSecond != -1L && secondHistogram.getTotalCount() > 0) {
+        queue.offer(createSample(server, currentSecond));
+        LockSupport.unpark(writer);
+      }
+      currentSecond = second;
+      secondHistogram.reset();
+      tickNanosSum = 0L;
+    }
+    secondHistogram.record(tickNanos / 1_000L);
+    tickNanosSum += tickNanos;
+  }
+
+  /**
+   * 集計中の1秒分からのサンプル作成． ディメンション別の値は公開済みスナップショットを参照．
+   *
+   * @param server サーバーインスタンス
+   * @param second 対象の秒（UNIX秒）
+   * @return サンプル
+   */
+  private static HistoryStore.Sample createSample(MinecraftServer server, long second) {
+    long ticks = secondHistogram.getTotalCount();
+    List<HistoryStore.DimensionSample> dimensions = new ArrayList<>();
+    MetricsSnapshot snapshot = MetricsSnapshotPublisher.getCurrent();
+    if (snapshot != null) {
+      for (MetricsSnapshot.DimensionSnapshot dimension : snapshot.getDimensions()) {
+        MobCapProcessor.MobCapInfo info = dimension.getMobCapInfo();
+        if (info.hasValidInfo()) {
+          dimensions.add(
+              new HistoryStore.DimensionSample(
+                  dimension.getWorldKey().getValue().toString(),
+                  (int) info.getCurrentMonsterCount(),
+                  info.getSpawnChunkCount()));
+        }
+      }
+    }
+    return new HistoryStore.Sample(
+        second,
+        (float) ticks, // 1秒間に完了したTick数
+        (float) (tickNanosSum / 1_000_000.0 / ticks),
+        secondHistogram.getValueAtPercentile(50.0) / 1_000.0f,
+        secondHistogram.getValueAtPercentile(95.0) / 1_000.0f,
+        secondHistogram.getValueAtPercentile(99.0) / 1_000.0f,
+        secondHistogram.getMaxValue() / 1_000.0f,
+        server.getCurrentPlayerCount(),
+        List.copyOf(dimensions));
+  }
+
+  /**
+   * 書込みスレッド処理． キューが空の間は待機し，停止要求後はキューを消化し，ストアを閉じてから終了．
+   *
+   * @param target 書込み先
+   */
+  private static void run(HistoryStore target) {
+    int unflushed = 0;
+    boolean failed = false;
+    while (true) {
+      HistoryStore.Sample sample = queue.poll();
+      if (sample == null) {
+        if (writerThread != Thread.currentThread()) {
+          break;
+        }
+        LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+        continue;
+      }
+      try {
+        target.append(sample);
+        failed = false;
+        if (++unflushed >= FLUSH_INTERVAL_SAMPLES) {
+          target.flush();
+          unflushed = 0;
+        }
+      } catch (IOException | RuntimeException e) {
+        if (!failed) {
+          // 連続した失敗は最初の1回のみ記録
+          ServerUtils.LOGGER.error("Failed to write metrics history", e);
+          failed = true;
+        }
+      }
+    }
+    // 次回開始は本スレッドの終了を確認してから新しいストアを設定するため，ロック無しで参照解除可
+    if (store == target) {
+      store = null;
+    }
+    target.close();
+  }
+}
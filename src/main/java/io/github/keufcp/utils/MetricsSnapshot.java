@@ -0,0 +1,238 @@
+package io.github.keufcp.utils;
+
+import java.util.List;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Tick終了時点のサーバーメトリクスの不変スナップショット．
+ *
+ * <p>サーバースレッドが {@link MetricsSnapshotPublisher}
+ * 経由で作成・公開し，Webhook送信スレッドやコマンドはゲーム状態へ直接アクセスせず本スナップショットを参照． 全フィールドは作成後不変のため，任意スレッドからロック無しで参照可能．
+ */
+public final class MetricsSnapshot {
+
+  /** 作成時刻（エポックミリ秒） */
+  private final long timestampMillis;
+
+  /** サーバーTick番号 */
+  private final int tickNumber;
+
+  /** 直近サンプル窓の実TPS */
+  private final double tps;
+
+  /** 目標Tickレート */
+  private final float targetTickRate;
+
+  /** Tick凍結中フラグ */
+  private final boolean frozen;
+
+  /** Tickスプリント中フラグ */
+  private final boolean sprinting;
+
+  /** 直近サンプル窓の平均MSPT（ミリ秒） */
+  private final double mspt;
+
+  /** 集計窓毎の実TPS（{@link TickWindow#ordinal()} で索引） */
+  private final double[] tpsWindows;
+
+  /** 集計窓毎の平均MSPT（{@link TickWindow#ordinal()} で索引） */
+  private final double[] msptWindows;
+
+  /** 接続中プレイヤー数 */
+  private final int playerCount;
+
+  /** 最大プレイヤー数 */
+  private final int maxPlayerCount;
+
+  /** ディメンション別スナップショット */
+  private final List<DimensionSnapshot> dimensions;
+
+  public MetricsSnapshot(
+      long timestampMillis,
+      int tickNumber,
+      double tps,
+      float targetTickRate,
+      boolean frozen,
+      boolean sprinting,
+      double mspt,
+      double[] tpsWindows,
+      double[] msptWindows,
+      int playerCount,
+      int maxPlayerCount,
+      List<DimensionSnapshot> dimensions) {
+    this.timestampMillis = timestampMillis;
+    this.tickNumber = tickNumber;
+    this.tps = tps;
+    this.targetTickRate = targetTickRate;
+    this.frozen = frozen;
+    this.sprinting = sprinting;
+    this.mspt = mspt;
+    this.tpsWindows = tpsWindows.clone();
+    this.msptWindows = msptWindows.clone();
+    this.playerCount = playerCount;
+    this.maxPlayerCount = maxPlayerCount;
+    this.dimensions = List.copyOf(dimensions);
+  }
+
+  public long getTimestampMillis() {
+    return timestampMillis;
+  }
+
+  public int getTickNumber() {
+    return tickNumber;
+  }
+
+  public double getTps() {
+    return tps;
+  }
+
+  public double getTps(TickWindow window) {
+    return tpsWindows[window.ordinal()];
+  }
+
+  public float getTargetTickRate() {
+    return targetTickRate;
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  public boolean isSprinting() {
+    return sprinting;
+  }
+
+  public double getMspt() {
+    return mspt;
+  }
+
+  public double getMspt(TickWindow window) {
+    return msptWindows[window.ordinal()];
+  }
+
+  public int getPlayerCount() {
+    return playerCount;
+  }
+
+  public int getMaxPlayerCount() {
+    return maxPlayerCount;
+  }
+
+  public List<DimensionSnapshot> getDimensions() {
+    return dimensions;
+  }
+
+  /**
+   * 指定ディメンションのスナップショット取得．
+   *
+   * @param worldKey ディメンションキー
+   * @return ディメンション別スナップショット．存在しない場合はnull
+   */
+  public DimensionSnapshot getDimension(RegistryKey<World> worldKey) {
+    for (DimensionSnapshot dimension : dimensions) {
+      if (dimension.getWorldKey().equals(worldKey)) {
+        return dimension;
+      }
+    }
+    return null;
+  }
+
+  /** ディメンション単位のスナップショット． */
+  public static final class DimensionSnapshot {
+
+    /** ディメンションキー */
+    private final RegistryKey<World> worldKey;
+
+    /** MobCap情報 */
+    private final MobCapProcessor.MobCapInfo mobCapInfo;
+
+    /** ワールドTick記録有無 */
+    private final boolean hasTickData;
+
+    /** 集計窓毎のワールドTick時間（ミリ秒） */
+    private final double[] msptWindows;
+
+    /** 集計窓毎のワールドTickレート */
+    private final double[] tpsWindows;
+
+    /** エンティティタイプraw ID毎のエンティティ数 */
+    private final int[] entityCounts;
+
+    /** エンティティ数合計 */
+    private final int entityTotal;
+
+    public DimensionSnapshot(
+        RegistryKey<World> worldKey,
+        MobCapProcessor.MobCapInfo mobCapInfo,
+        boolean hasTickData,
+        double[] msptWindows,
+        double[] tpsWindows,
+        int[] entityCounts) {
+      this.worldKey = worldKey;
+      this.mobCapInfo = mobCapInfo;
+      this.hasTickData = hasTickData;
+      this.msptWindows = msptWindows.clone();
+      this.tpsWindows = tpsWindows.clone();
+      this.entityCounts = entityCounts.clone();
+      int total = 0;
+      for (int count : entityCounts) {
+        total += count;
+      }
+      this.entityTotal = total;
+    }
+
+    public RegistryKey<World> getWorldKey() {
+      return worldKey;
+    }
+
+    public MobCapProcessor.MobCapInfo getMobCapInfo() {
+      return mobCapInfo;
+    }
+
+    public boolean hasTickData() {
+      return hasTickData;
+    }
+
+    public double getMspt(TickWindow window) {
+      return msptWindows[window.ordinal()];
+    }
+
+    public double getTps(TickWindow window) {
+      return tpsWindows[window.ordinal()];
+    }
+
+    /**
+     * エンティティタイプ毎のエンティティ数取得．
+     *
+     * @param rawId エンティティタイプのraw ID
+     * @return エンティティ数
+     */
+    public int getEntityCount(int rawId) {
+      return rawId < entityCounts.length ? entityCounts[rawId] : 0;
+    }
+
+    /**
+     * エンティティ数上位のエンティティタイプ取得．
+     *
+     * @param limit 取得件数上限
+     * @return エンティティ数降順のraw ID
+     */
+    public int[] getTopEntityTypes(int limit) {
+      return EntityPopulationCounter.getTopTypes(entityCounts, limit);
+    }
+
+    public int getEntityTotal() {
+      return entityTotal;
+    }
+
+    /**
+     * 表示用ディメンション名取得． 現在の言語設定で解決．
+     *
+     * @return 表示用ディメンション名
+     */
+    public String getDisplayName() {
+      return MobCapProcessor.getDisplayDimensionName(worldKey.getValue());
+    }
+  }
+}
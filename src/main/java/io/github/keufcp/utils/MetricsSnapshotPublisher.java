@@ -0,0 +1,125 @@
+package io.github.keufcp.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+
+/**
+ * {@link MetricsSnapshot} の作成・公開クラス．
+ *
+ * <p>サーバースレッドがTick終了時にN Tick毎にスナップショットを作成し，volatileフィールドへの単一書き込みで公開． 読み取り側はロック不要で，
+ * サーバースレッドを待たせることも無い．
+ */
+public class MetricsSnapshotPublisher {
+
+  /** 公開中スナップショット */
+  private static volatile MetricsSnapshot current;
+
+  /** 公開間隔（Tick） */
+  private static volatile int intervalTicks = 20;
+
+  /** 前回公開からのTick数（サーバースレッドのみ参照） */
+  private static int ticksSincePublish;
+
+  /**
+   * 公開間隔設定．
+   *
+   * @param ticks 公開間隔（Tick）
+   */
+  public static void setInterval(int ticks) {
+    intervalTicks = Math.max(ticks, 1);
+  }
+
+  /**
+   * Tick終了時処理． 公開間隔到達時にスナップショットを作成・公開．
+   *
+   * <p>サーバースレッドからのみ呼出可．
+   *
+   * @param server サーバーインスタンス
+   */
+  public static void onTickEnd(MinecraftServer server) {
+    if (++ticksSincePublish >= intervalTicks || current == null) {
+      ticksSincePublish = 0;
+      current = capture(server);
+    }
+  }
+
+  /**
+   * 公開中スナップショット取得．
+   *
+   * @return スナップショット．未公開時はnull
+   */
+  public static MetricsSnapshot getCurrent() {
+    return current;
+  }
+
+  /**
+   * 公開中スナップショット取得． 未公開の場合はその場で作成・公開．
+   *
+   * <p>サーバースレッド（コマンド実行時等）からのみ呼出可．
+   *
+   * @param server サーバーインスタンス
+   * @return スナップショット
+   */
+  public static MetricsSnapshot getOrCapture(MinecraftServer server) {
+    MetricsSnapshot snapshot = current;
+    if (snapshot == null) {
+      snapshot = capture(server);
+      current = snapshot;
+    }
+    return snapshot;
+  }
+
+  /** 公開中スナップショット破棄． サーバー停止時呼出． */
+  public static void clear() {
+    current = null;
+    ticksSincePublish = 0;
+  }
+
+  private static MetricsSnapshot capture(MinecraftServer server) {
+    TickWindow[] windows = TickWindow.values();
+    double[] tpsWindows = new double[windows.length];
+    double[] msptWindows = new double[windows.length];
+    for (TickWindow window : windows) {
+      tpsWindows[window.ordinal()] = TickTimeUtil.calculateTPS(window);
+      msptWindows[window.ordinal()] = TickTimeUtil.getMeanTickTime(window);
+    }
+
+    List<MetricsSnapshot.DimensionSnapshot> dimensions = new ArrayList<>();
+    for (ServerWorld world : server.getWorlds()) {
+      DimensionTickStats.Slot stats = DimensionTickStats.getSlot(world.getRegistryKey());
+      double[] dimensionMspt = new double[windows.length];
+      double[] dimensionTps = new double[windows.length];
+      boolean hasTickData = stats != null && stats.hasData();
+      if (hasTickData) {
+        for (TickWindow window : windows) {
+          dimensionMspt[window.ordinal()] = stats.getMeanTickTime(window);
+          dimensionTps[window.ordinal()] = stats.getTickRate(window);
+        }
+      }
+      dimensions.add(
+          new MetricsSnapshot.DimensionSnapshot(
+              world.getRegistryKey(),
+              MobCapProcessor.getMobCapInfo(world),
+              hasTickData,
+              dimensionMspt,
+              dimensionTps,
+              EntityPopulationCounter.getCounts(world.getRegistryKey())));
+    }
+
+    return new MetricsSnapshot(
+        System.currentTimeMillis(),
+        server.getTicks(),
+        TickTimeUtil.calculateTPS(),
+        TickTimeUtil.getTargetTickRate(),
+        TickTimeUtil.isFrozen(),
+        TickTimeUtil.isSprinting(),
+        TickTimeUtil.getMeanTickTime(),
+        tpsWindows,
+        msptWindows,
+        server.getCurrentPlayerCount(),
+        server.getMaxPlayerCount(),
+        dimensions);
+  }
+}
@@ -3,28 +3,37 @@ package io.github.keufcp.utils;
 import io.github.keufcp.ServerUtils;
 import java.util.ArrayList;
 import java.util.List;
+import net.minecraft.entity.SpawnGroup;
 import net.minecraft.registry.RegistryKey;
-import net.minecraft.server.command.ServerCommandSource;
-import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.world.World;
 
-/** MobCap情報の出力フォーマッティングを担当するクラス． */
+/**
+ * MobCap情報の出力フォーマッティングを担当するクラス．
+ *
+ * <p>ゲーム状態へは直接アクセスせず，{@link MetricsSnapshot}・{@link LocalMobCapTracker}・{@link MobHotspotScanner}
+ * の結果を整形する． スポーングループの指定がnullの場合は，MobCap対象の全グループを ディメンション毎に列挙する．
+ */
 public class MobCapFormatter {
 
+  /** 全ディメンション表示時のディメンション毎上位チャンク数 */
+  private static final int HOTSPOT_COUNT = 5;
+
+  /** ディメンション指定時の上位チャンク数 */
+  private static final int DETAILED_HOTSPOT_COUNT = 10;
+
   /** 全ディメンションのMobCap情報を色付きテキストで作成する． */
-  public static Text createColoredAllDimensionsOutput(ServerCommandSource source, boolean debug) {
+  public static Text createColoredAllDimensionsOutput(
+      MetricsSnapshot snapshot, SpawnGroup group, boolean debug) {
     ColoredTextBuilder.Builder builder = new ColoredTextBuilder.Builder();
     builder.appendLine(
-        ServerUtils.LANG.get("mobcap.title.all"), ColoredTextBuilder.StatusColors.getTitleColor());
-
-    List<RegistryKey<World>> worldKeys = new ArrayList<>(source.getServer().getWorldRegistryKeys());
-    for (int i = 0; i < worldKeys.size(); i++) {
-      ServerWorld world = source.getServer().getWorld(worldKeys.get(i));
-      if (world != null) {
-        boolean isLast = (i == worldKeys.size() - 1);
-        builder.append(createColoredDimensionMobCapInfo(world, debug, isLast));
-      }
+        createTitle(ServerUtils.LANG.get("mobcap.title.all"), group),
+        ColoredTextBuilder.StatusColors.getTitleColor());
+
+    List<MetricsSnapshot.DimensionSnapshot> dimensions = snapshot.getDimensions();
+    for (int i = 0; i < dimensions.size(); i++) {
+      boolean isLast = (i == dimensions.size() - 1);
+      builder.append(createColoredDimensionMobCapInfo(dimensions.get(i), group, debug, isLast));
     }
 
     return builder.build();
@@ -32,26 +41,28 @@ public class MobCapFormatter {
 
   /** 単一ディメンションのMobCap情報を色付きテキストで作成する． */
   public static Text createColoredSingleDimensionOutput(
-      ServerWorld world, String dimensionDisplayName, boolean debug) {
+      MetricsSnapshot.DimensionSnapshot dimension,
+      String dimensionDisplayName,
+      SpawnGroup group,
+      boolean debug) {
     ColoredTextBuilder.Builder builder = new ColoredTextBuilder.Builder();
     builder.appendLine(
-        ServerUtils.LANG.get("mobcap.title.single", dimensionDisplayName),
+        createTitle(ServerUtils.LANG.get("mobcap.title.single", dimensionDisplayName), group),
         ColoredTextBuilder.StatusColors.getTitleColor());
-    builder.append(createColoredDimensionMobCapInfo(world, debug, true));
+    builder.append(createColoredDimensionMobCapInfo(dimension, group, debug, true));
     return builder.build();
   }
 
   /** 全ディメンションのMobCap情報をプレーンテキストで作成する． */
-  public static String createPlainAllDimensionsOutput(ServerCommandSource source, boolean debug) {
-    StringBuilder response = new StringBuilder(ServerUtils.LANG.get("mobcap.title.all") + "\n");
-
-    List<RegistryKey<World>> worldKeys = new ArrayList<>(source.getServer().getWorldRegistryKeys());
-    for (int i = 0; i < worldKeys.size(); i++) {
-      ServerWorld world = source.getServer().getWorld(worldKeys.get(i));
-      if (world != null) {
-        boolean isLast = (i == worldKeys.size() - 1);
-        appendDimensionMobCapInfo(world, response, debug, isLast);
-      }
+  public static String createPlainAllDimensionsOutput(
+      MetricsSnapshot snapshot, SpawnGroup group, boolean debug) {
+    StringBuilder response =
+        new StringBuilder(createTitle(ServerUtils.LANG.get("mobcap.title.all"), group) + "\n");
+
+    List<MetricsSnapshot.DimensionSnapshot> dimensions = snapshot.getDimensions();
+    for (int i = 0; i < dimensions.size(); i++) {
+      boolean isLast = (i == dimensions.size() - 1);
+      appendDimensionMobCapInfo(dimensions.get(i), response, group, debug, isLast);
     }
 
     return response.toString();
@@ -59,17 +70,278 @@ public class MobCapFormatter {
 
   /** 単一ディメンションのMobCap情報をプレーンテキストで作成する． */
   public static String createPlainSingleDimensionOutput(
-      ServerWorld world, String dimensionDisplayName, boolean debug) {
+      MetricsSnapshot.DimensionSnapshot dimension,
+      String dimensionDisplayName,
+      SpawnGroup group,
+      boolean debug) {
     StringBuilder response =
-        new StringBuilder(ServerUtils.LANG.get("mobcap.title.single", dimensionDisplayName) + "\n");
-    appendDimensionMobCapInfo(world, response, debug, true);
+        new StringBuilder(
+            createTitle(ServerUtils.LANG.get("mobcap.title.single", dimensionDisplayName), group)
+                + "\n");
+    appendDimensionMobCapInfo(dimension, response, group, debug, true);
+    return response.toString();
+  }
+
+  /** プレイヤーのローカルMobCap情報を色付きテキストで作成する． */
+  public static Text createColoredPlayerOutput(LocalMobCapTracker.PlayerMobCap info) {
+    ColoredTextBuilder.Builder builder = new ColoredTextBuilder.Builder();
+    builder.append(
+        ServerUtils.LANG.get(
+            "mobcap.player.title",
+            info.getPlayerName(),
+            MobCapProcessor.getDisplayDimensionName(info.getWorldKey().getValue())),
+        ColoredTextBuilder.StatusColors.getTitleColor());
+
+    if (info.isSpectator()) {
+      builder
+          .newLine()
+          .append(
+              ServerUtils.LANG.get("mobcap.player.spectator"),
+              ColoredTextBuilder.StatusColors.getWarningColor());
+      return builder.build();
+    }
+
+    for (SpawnGroup group : MobCapProcessor.getCappedGroups()) {
+      int count = info.getCount(group);
+      int cap = info.getMobCap(group);
+      builder
+          .newLine()
+          .append(
+              ServerUtils.LANG.get("mobcap.group", group.getName()),
+              ColoredTextBuilder.StatusColors.getNormalColor())
+          .append(
+              String.valueOf(count), ColoredTextBuilder.MobCapColors.getLocalCountColor(count, cap))
+          .append("/" + cap, ColoredTextBuilder.StatusColors.getNormalColor());
+    }
+    return builder.build();
+  }
+
+  /** プレイヤーのローカルMobCap情報をプレーンテキストで作成する． */
+  public static String createPlainPlayerOutput(LocalMobCapTracker.PlayerMobCap info) {
+    StringBuilder response =
+        new StringBuilder(
+            ServerUtils.LANG.get(
+                "mobcap.player.title",
+                info.getPlayerName(),
+                MobCapProcessor.getDisplayDimensionName(info.getWorldKey().getValue())));
+
+    if (info.isSpectator()) {
+      response.append("\n").append(ServerUtils.LANG.get("mobcap.player.spectator"));
+      return response.toString();
+    }
+
+    for (SpawnGroup group : MobCapProcessor.getCappedGroups()) {
+      response
+          .append("\n")
+          .append(ServerUtils.LANG.get("mobcap.group", group.getName()))
+          .append(info.getCount(group))
+          .append("/")
+          .append(info.getMobCap(group));
+    }
     return response.toString();
   }
 
+  /** ローカルMobCapの飽和度上位プレイヤー一覧を色付きテキストで作成する． */
+  public static Text createColoredPlayerRankingOutput(
+      List<LocalMobCapTracker.PlayerMobCap> players) {
+    ColoredTextBuilder.Builder builder = new ColoredTextBuilder.Builder();
+    builder.append(
+        ServerUtils.LANG.get("mobcap.players.title"),
+        ColoredTextBuilder.StatusColors.getTitleColor());
+
+    if (players.isEmpty()) {
+      builder
+          .newLine()
+          .append(
+              ServerUtils.LANG.get("mobcap.players.none"),
+              ColoredTextBuilder.StatusColors.getDisabledColor());
+      return builder.build();
+    }
+
+    for (int i = 0; i < players.size(); i++) {
+      LocalMobCapTracker.PlayerMobCap info = players.get(i);
+      SpawnGroup group = info.getMostSaturatedGroup();
+      int count = info.getCount(group);
+      int cap = info.getMobCap(group);
+      builder
+          .newLine()
+          .append(
+              ServerUtils.LANG.get(
+                  "mobcap.players.entry",
+                  i + 1,
+                  info.getPlayerName(),
+                  MobCapProcessor.getDisplayDimensionName(info.getWorldKey().getValue()),
+                  group.getName()),
+              ColoredTextBuilder.StatusColors.getNormalColor())
+          .append(
+              count + "/" + cap + String.format(" (%.0f%%)", info.getSaturation() * 100.0),
+              ColoredTextBuilder.MobCapColors.getLocalCountColor(count, cap));
+    }
+    return builder.build();
+  }
+
+  /** ローカルMobCapの飽和度上位プレイヤー一覧をプレーンテキストで作成する． */
+  public static String createPlainPlayerRankingOutput(
+      List<LocalMobCapTracker.PlayerMobCap> players) {
+    StringBuilder response = new StringBuilder(ServerUtils.LANG.get("mobcap.players.title"));
+
+    if (players.isEmpty()) {
+      response.append("\n").append(ServerUtils.LANG.get("mobcap.players.none"));
+      return response.toString();
+    }
+
+    for (int i = 0; i < players.size(); i++) {
+      LocalMobCapTracker.PlayerMobCap info = players.get(i);
+      SpawnGroup group = info.getMostSaturatedGroup();
+      response
+          .append("\n")
+          .append(
+              ServerUtils.LANG.get(
+                  "mobcap.players.entry",
+                  i + 1,
+                  info.getPlayerName(),
+                  MobCapProcessor.getDisplayDimensionName(info.getWorldKey().getValue()),
+                  group.getName()))
+          .append(info.getCount(group))
+          .append("/")
+          .append(info.getMobCap(group))
+          .append(String.format(" (%.0f%%)", info.getSaturation() * 100.0));
+    }
+    return response.toString();
+  }
+
+  /**
+   * Mob密集箇所の走査結果を色付きテキストで作成する．
+   *
+   * @param worlds 対象ディメンション
+   * @param group 対象スポーングループ．全グループの合計の場合はnull
+   * @param detailed trueの場合は上位チャンクを多く表示し，リージョン単位の集計も表示
+   */
+  public static Text createColoredHotspotOutput(
+      List<RegistryKey<World>> worlds, SpawnGroup group, boolean detailed) {
+    ColoredTextBuilder.Builder builder = new ColoredTextBuilder.Builder();
+    builder.append(
+        createTitle(ServerUtils.LANG.get("mobcap.hotspots.title"), group),
+        ColoredTextBuilder.StatusColors.getTitleColor());
+    for (String line : createHotspotLines(worlds, group, detailed)) {
+      builder.newLine();
+      if (line.startsWith("  ")) {
+        builder.append(line, ColoredTextBuilder.StatusColors.getNormalColor());
+      } else {
+        builder.append(line, ColoredTextBuilder.StatusColors.getInfoColor());
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Mob密集箇所の走査結果をプレーンテキストで作成する．
+   *
+   * @param worlds 対象ディメンション
+   * @param group 対象スポーングループ．全グループの合計の場合はnull
+   * @param detailed trueの場合は上位チャンクを多く表示し，リージョン単位の集計も表示
+   */
+  public static String createPlainHotspotOutput(
+      List<RegistryKey<World>> worlds, SpawnGroup group, boolean detailed) {
+    StringBuilder response =
+        new StringBuilder(createTitle(ServerUtils.LANG.get("mobcap.hotspots.title"), group));
+    for (String line : createHotspotLines(worlds, group, detailed)) {
+      response.append("\n").append(line);
+    }
+    return response.toString();
+  }
+
+  private static List<String> createHotspotLines(
+      List<RegistryKey<World>> worlds, SpawnGroup group, boolean detailed) {
+    List<String> lines = new ArrayList<>();
+    long now = System.currentTimeMillis();
+    for (RegistryKey<World> worldKey : worlds) {
+      String dimensionName = MobCapProcessor.getDisplayDimensionName(worldKey.getValue());
+      MobHotspotScanner.HotspotResult result = MobHotspotScanner.getResult(worldKey);
+      if (result == null) {
+        int[] progress = MobHotspotScanner.getProgress(worldKey);
+        if (progress != null) {
+          lines.add(
+              ServerUtils.LANG.get(
+                  "mobcap.hotspots.scanning", dimensionName, progress[0], progress[1]));
+        } else {
+          lines.add(ServerUtils.LANG.get("mobcap.hotspots.disabled", dimensionName));
+        }
+        continue;
+      }
+
+      lines.add(
+          ServerUtils.LANG.get(
+              "mobcap.hotspots.scanned",
+              dimensionName,
+              result.getScannedChunks(),
+              Math.max(0, (now - result.getCompletedMillis()) / 1000),
+              result.getTicks(),
+              String.format("%.1f", result.getScanNanos() / 1_000_000.0)));
+
+      List<MobHotspotScanner.Hotspot> chunks =
+          result.getTopChunks(group, detailed ? DETAILED_HOTSPOT_COUNT : HOTSPOT_COUNT);
+      if (chunks.isEmpty()) {
+        lines.add(ServerUtils.LANG.get("mobcap.hotspots.none"));
+        continue;
+      }
+      for (int i = 0; i < chunks.size(); i++) {
+        MobHotspotScanner.Hotspot chunk = chunks.get(i);
+        lines.add(
+            ServerUtils.LANG.get(
+                    "mobcap.hotspots.chunk",
+                    i + 1,
+                    String.valueOf(chunk.getX()),
+                    String.valueOf(chunk.getZ()),
+                    String.valueOf((chunk.getX() << 4) + 8),
+                    String.valueOf((chunk.getZ() << 4) + 8))
+                + formatHotspotCount(chunk, group));
+      }
+
+      if (detailed) {
+        lines.add(ServerUtils.LANG.get("mobcap.hotspots.regions"));
+        List<MobHotspotScanner.Hotspot> regions = result.getTopRegions(group, HOTSPOT_COUNT);
+        for (int i = 0; i < regions.size(); i++) {
+          MobHotspotScanner.Hotspot region = regions.get(i);
+          lines.add(
+              ServerUtils.LANG.get(
+                      "mobcap.hotspots.region",
+                      i + 1,
+                      String.valueOf(region.getX()),
+                      String.valueOf(region.getZ()))
+                  + formatHotspotCount(region, group));
+        }
+      }
+    }
+    return lines;
+  }
+
+  private static String formatHotspotCount(MobHotspotScanner.Hotspot hotspot, SpawnGroup group) {
+    if (group != null) {
+      return String.valueOf(hotspot.getCount(group));
+    }
+    SpawnGroup dominant = hotspot.getDominantGroup();
+    return ServerUtils.LANG.get(
+        "mobcap.hotspots.count",
+        hotspot.getCount(null),
+        dominant.getName(),
+        hotspot.getCount(dominant));
+  }
+
+  private static String createTitle(String title, SpawnGroup group) {
+    if (group == null) {
+      return title;
+    }
+    return ServerUtils.LANG.get("mobcap.title.group", title, group.getName());
+  }
+
   private static Text createColoredDimensionMobCapInfo(
-      ServerWorld world, boolean debug, boolean isLast) {
-    MobCapProcessor.MobCapInfo info = MobCapProcessor.getMobCapInfo(world);
-    String dimensionDisplayName = MobCapProcessor.getDisplayDimensionName(world);
+      MetricsSnapshot.DimensionSnapshot dimension,
+      SpawnGroup group,
+      boolean debug,
+      boolean isLast) {
+    MobCapProcessor.MobCapInfo info = dimension.getMobCapInfo();
+    String dimensionDisplayName = dimension.getDisplayName();
 
     ColoredTextBuilder.Builder builder = new ColoredTextBuilder.Builder();
 
@@ -83,27 +355,22 @@ public class MobCapFormatter {
 
     builder
         .append(dimensionDisplayName, ColoredTextBuilder.StatusColors.getInfoColor())
-        .append(": ", ColoredTextBuilder.StatusColors.getNormalColor())
-        .append(
-            String.valueOf(info.getCurrentMonsterCount()),
-            ColoredTextBuilder.MobCapColors.getCurrentCountColor(
-                info.getCurrentMonsterCount(), info.getMobCap()))
-        .append("/", ColoredTextBuilder.StatusColors.getNormalColor())
-        .append(
-            String.valueOf(info.getMobCap()),
-            ColoredTextBuilder.MobCapColors.getCapLimitColor(
-                info.getMobCap(), info.getSpawnChunkCount()));
+        .append(":", ColoredTextBuilder.StatusColors.getNormalColor());
 
-    if (debug) {
-      builder
-          .newLine()
-          .append(
-              ServerUtils.LANG.get(
-                  "mobcap.debug.base",
-                  info.getCapacity(),
-                  info.getSpawnChunkCount(),
-                  MobCapProcessor.SPAWN_CHUNK_AREA_CONSTANT),
-              ColoredTextBuilder.StatusColors.getDisabledColor());
+    if (group != null) {
+      builder.append(" ", ColoredTextBuilder.StatusColors.getNormalColor());
+      appendColoredCount(builder, info, group);
+      if (debug) {
+        builder
+            .newLine()
+            .append(
+                ServerUtils.LANG.get(
+                    "mobcap.debug.base",
+                    info.getCapacity(group),
+                    info.getSpawnChunkCount(),
+                    MobCapProcessor.SPAWN_CHUNK_AREA_CONSTANT),
+                ColoredTextBuilder.StatusColors.getDisabledColor());
+      }
     }
 
     if (info.hasZeroChunkWarning()) {
@@ -114,6 +381,32 @@ public class MobCapFormatter {
               ColoredTextBuilder.StatusColors.getWarningColor());
     }
 
+    if (group == null) {
+      if (debug) {
+        builder
+            .newLine()
+            .append(
+                ServerUtils.LANG.get(
+                    "mobcap.debug.chunks",
+                    info.getSpawnChunkCount(),
+                    MobCapProcessor.SPAWN_CHUNK_AREA_CONSTANT),
+                ColoredTextBuilder.StatusColors.getDisabledColor());
+      }
+      for (SpawnGroup cappedGroup : MobCapProcessor.getCappedGroups()) {
+        builder
+            .newLine()
+            .append(
+                ServerUtils.LANG.get("mobcap.group", cappedGroup.getName()),
+                ColoredTextBuilder.StatusColors.getNormalColor());
+        appendColoredCount(builder, info, cappedGroup);
+        if (debug) {
+          builder.append(
+              ServerUtils.LANG.get("mobcap.debug.group_base", info.getCapacity(cappedGroup)),
+              ColoredTextBuilder.StatusColors.getDisabledColor());
+        }
+      }
+    }
+
     if (!isLast) {
       builder.newLine();
     }
@@ -121,35 +414,80 @@ public class MobCapFormatter {
     return builder.build();
   }
 
+  private static void appendColoredCount(
+      ColoredTextBuilder.Builder builder, MobCapProcessor.MobCapInfo info, SpawnGroup group) {
+    builder
+        .append(
+            String.valueOf(info.getCount(group)),
+            ColoredTextBuilder.MobCapColors.getCurrentCountColor(
+                info.getCount(group), info.getMobCap(group)))
+        .append("/", ColoredTextBuilder.StatusColors.getNormalColor())
+        .append(
+            String.valueOf(info.getMobCap(group)),
+            ColoredTextBuilder.MobCapColors.getCapLimitColor(
+                info.getMobCap(group), info.getSpawnChunkCount()));
+  }
+
   private static void appendDimensionMobCapInfo(
-      ServerWorld world, StringBuilder response, boolean debug, boolean isLast) {
-    MobCapProcessor.MobCapInfo info = MobCapProcessor.getMobCapInfo(world);
-    String dimensionDisplayName = MobCapProcessor.getDisplayDimensionName(world);
+      MetricsSnapshot.DimensionSnapshot dimension,
+      StringBuilder response,
+      SpawnGroup group,
+      boolean debug,
+      boolean isLast) {
+    MobCapProcessor.MobCapInfo info = dimension.getMobCapInfo();
+    String dimensionDisplayName = dimension.getDisplayName();
 
     if (!info.hasValidInfo()) {
       response.append(ServerUtils.LANG.get("mobcap.error.spawn_info"));
       return;
     }
 
-    response.append(
-        ServerUtils.LANG.get(
-            "mobcap.info", dimensionDisplayName, info.getCurrentMonsterCount(), info.getMobCap()));
-
-    if (debug) {
-      response
-          .append("\n")
-          .append(
-              ServerUtils.LANG.get(
-                  "mobcap.debug.base",
-                  info.getCapacity(),
-                  info.getSpawnChunkCount(),
-                  MobCapProcessor.SPAWN_CHUNK_AREA_CONSTANT));
+    if (group != null) {
+      response.append(
+          ServerUtils.LANG.get(
+              "mobcap.info", dimensionDisplayName, info.getCount(group), info.getMobCap(group)));
+      if (debug) {
+        response
+            .append("\n")
+            .append(
+                ServerUtils.LANG.get(
+                    "mobcap.debug.base",
+                    info.getCapacity(group),
+                    info.getSpawnChunkCount(),
+                    MobCapProcessor.SPAWN_CHUNK_AREA_CONSTANT));
+      }
+    } else {
+      response.append(dimensionDisplayName).append(":");
     }
 
     if (info.hasZeroChunkWarning()) {
       response.append(" - ").append(ServerUtils.LANG.get("mobcap.warning.zero_chunks"));
     }
 
+    if (group == null) {
+      if (debug) {
+        response
+            .append("\n")
+            .append(
+                ServerUtils.LANG.get(
+                    "mobcap.debug.chunks",
+                    info.getSpawnChunkCount(),
+                    MobCapProcessor.SPAWN_CHUNK_AREA_CONSTANT));
+      }
+      for (SpawnGroup cappedGroup : MobCapProcessor.getCappedGroups()) {
+        response
+            .append("\n")
+            .append(ServerUtils.LANG.get("mobcap.group", cappedGroup.getName()))
+            .append(info.getCount(cappedGroup))
+            .append("/")
+            .append(info.getMobCap(cappedGroup));
+        if (debug) {
+          response.append(
+              ServerUtils.LANG.get("mobcap.debug.group_base", info.getCapacity(cappedGroup)));
+        }
+      }
+    }
+
     if (!isLast) {
       response.append("\n");
     }
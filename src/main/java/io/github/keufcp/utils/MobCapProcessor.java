@@ -1,7 +1,13 @@
 package io.github.keufcp.utils;
 
 import io.github.keufcp.ServerUtils;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.minecraft.entity.Entity;
 import net.minecraft.entity.SpawnGroup;
+import net.minecraft.entity.mob.MobEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.world.SpawnHelper;
@@ -12,9 +18,16 @@ public class MobCapProcessor {
 
   public static final int SPAWN_CHUNK_AREA_CONSTANT = 17 * 17; // スポーンチャンクエリアの定数 (289)
 
+  private static final SpawnGroup[] SPAWN_GROUPS = SpawnGroup.values();
+
+  /** MobCapの対象となる（容量が正の）スポーングループ．MISCは上限を持たないため除外． */
+  private static final List<SpawnGroup> CAPPED_GROUPS = createCappedGroups();
+
   /**
    * ディメンションのMobCap情報を取得する．
    *
+   * <p>{@link SpawnHelper.Info} を1度だけ読み，全スポーングループの数と上限を序数添字の配列に格納する．
+   *
    * @param world 対象のServerWorld
    * @return MobCap情報オブジェクト
    */
@@ -22,19 +35,63 @@ public class MobCapProcessor {
     SpawnHelper.Info spawnHelperInfo = world.getChunkManager().getSpawnInfo();
 
     if (spawnHelperInfo == null) {
-      return new MobCapInfo(0, 0, 0, SpawnGroup.MONSTER.getCapacity(), false, false);
+      return new MobCapInfo(new int[SPAWN_GROUPS.length], new int[SPAWN_GROUPS.length], 0, false);
     }
 
-    long currentMonsterCount =
-        spawnHelperInfo.getGroupToCount().getOrDefault(SpawnGroup.MONSTER, 0);
     int spawnChunkCount = spawnHelperInfo.getSpawningChunkCount();
-    int capacity = SpawnGroup.MONSTER.getCapacity();
+    int[] counts = new int[SPAWN_GROUPS.length];
+    int[] mobCaps = new int[SPAWN_GROUPS.length];
+
+    Object2IntMap<SpawnGroup> groupToCount = spawnHelperInfo.getGroupToCount();
+    for (Object2IntMap.Entry<SpawnGroup> entry : groupToCount.object2IntEntrySet()) {
+      counts[entry.getKey().ordinal()] = entry.getIntValue();
+    }
+    for (SpawnGroup group : SPAWN_GROUPS) {
+      mobCaps[group.ordinal()] = calculateMobCap(spawnChunkCount, group.getCapacity());
+    }
 
-    int mobCap = calculateMobCap(spawnChunkCount, capacity);
-    boolean hasZeroChunkWarning = (spawnChunkCount == 0);
+    return new MobCapInfo(counts, mobCaps, spawnChunkCount, true);
+  }
+
+  /**
+   * MobCapの対象となるスポーングループ一覧を取得する．
+   *
+   * @return 序数順のスポーングループ一覧（変更不可）
+   */
+  public static List<SpawnGroup> getCappedGroups() {
+    return CAPPED_GROUPS;
+  }
 
-    return new MobCapInfo(
-        currentMonsterCount, mobCap, spawnChunkCount, capacity, true, hasZeroChunkWarning);
+  /**
+   * エンティティが数えられるスポーングループを取得する． {@link SpawnHelper} と同様，MISC及びデスポーンしないMobは数えない．
+   *
+   * @param entity 対象エンティティ
+   * @return MobCapに数えられるスポーングループ．数えられない場合はnull
+   */
+  public static SpawnGroup getMobCapGroup(Entity entity) {
+    SpawnGroup group = entity.getType().getSpawnGroup();
+    if (group == SpawnGroup.MISC) {
+      return null;
+    }
+    if (entity instanceof MobEntity mob && (mob.isPersistent() || mob.cannotDespawn())) {
+      return null;
+    }
+    return group;
+  }
+
+  /**
+   * 名前からスポーングループを解決する．
+   *
+   * @param name スポーングループ名 (例: {@code monster}, {@code water_ambient})
+   * @return 対応するスポーングループ．MobCap対象外または不明の場合はnull
+   */
+  public static SpawnGroup resolveSpawnGroup(String name) {
+    for (SpawnGroup group : CAPPED_GROUPS) {
+      if (group.getName().equalsIgnoreCase(name)) {
+        return group;
+      }
+    }
+    return null;
   }
 
   /**
@@ -44,8 +101,16 @@ public class MobCapProcessor {
    * @return 表示用ディメンション名
    */
   public static String getDisplayDimensionName(ServerWorld world) {
-    Identifier dimensionId = world.getRegistryKey().getValue();
+    return getDisplayDimensionName(world.getRegistryKey().getValue());
+  }
 
+  /**
+   * ディメンションIDから表示名を取得する．
+   *
+   * @param dimensionId ディメンションID
+   * @return 表示用ディメンション名
+   */
+  public static String getDisplayDimensionName(Identifier dimensionId) {
     // 標準ディメンションの場合は翻訳キーを使用
     if (dimensionId.equals(World.OVERWORLD.getValue())) {
       return ServerUtils.LANG.get("mobcap.dimension.overworld");
@@ -74,44 +139,81 @@ public class MobCapProcessor {
     return 0;
   }
 
-  /** MobCap情報を格納するデータクラス． */
+  private static List<SpawnGroup> createCappedGroups() {
+    List<SpawnGroup> groups = new ArrayList<>();
+    for (SpawnGroup group : SPAWN_GROUPS) {
+      if (group.getCapacity() > 0) {
+        groups.add(group);
+      }
+    }
+    return Collections.unmodifiableList(groups);
+  }
+
+  /**
+   * MobCap情報を格納するデータクラス．
+   *
+   * <p>スポーングループ毎の値は {@link SpawnGroup#ordinal()} を添字とするプリミティブ配列で保持する． 引数なしのgetterは {@link
+   * SpawnGroup#MONSTER} の値を返す．
+   */
   public static class MobCapInfo {
-    private final long currentMonsterCount;
-    private final int mobCap;
+    private final int[] counts;
+    private final int[] mobCaps;
     private final int spawnChunkCount;
-    private final int capacity;
     private final boolean hasValidInfo;
     private final boolean hasZeroChunkWarning;
 
-    public MobCapInfo(
-        long currentMonsterCount,
-        int mobCap,
-        int spawnChunkCount,
-        int capacity,
-        boolean hasValidInfo,
-        boolean hasZeroChunkWarning) {
-      this.currentMonsterCount = currentMonsterCount;
-      this.mobCap = mobCap;
+    public MobCapInfo(int[] counts, int[] mobCaps, int spawnChunkCount, boolean hasValidInfo) {
+      this.counts = counts;
+      this.mobCaps = mobCaps;
       this.spawnChunkCount = spawnChunkCount;
-      this.capacity = capacity;
       this.hasValidInfo = hasValidInfo;
-      this.hasZeroChunkWarning = hasZeroChunkWarning;
+      this.hasZeroChunkWarning = hasValidInfo && spawnChunkCount == 0;
     }
 
     public long getCurrentMonsterCount() {
-      return currentMonsterCount;
+      return getCount(SpawnGroup.MONSTER);
     }
 
     public int getMobCap() {
-      return mobCap;
+      return getMobCap(SpawnGroup.MONSTER);
     }
 
-    public int getSpawnChunkCount() {
-      return spawnChunkCount;
+    public int getCapacity() {
+      return getCapacity(SpawnGroup.MONSTER);
     }
 
-    public int getCapacity() {
-      return capacity;
+    /**
+     * スポーングループの現在のMob数を取得する．
+     *
+     * @param group 対象のスポーングループ
+     * @return 現在のMob数
+     */
+    public int getCount(SpawnGroup group) {
+      return counts[group.ordinal()];
+    }
+
+    /**
+     * スポーングループのMobCapを取得する．
+     *
+     * @param group 対象のスポーングループ
+     * @return スポーンチャンク数に応じたMobCap
+     */
+    public int getMobCap(SpawnGroup group) {
+      return mobCaps[group.ordinal()];
+    }
+
+    /**
+     * スポーングループのベース容量を取得する．
+     *
+     * @param group 対象のスポーングループ
+     * @return ベース容量
+     */
+    public int getCapacity(SpawnGroup group) {
+      return group.getCapacity();
+    }
+
+    public int getSpawnChunkCount() {
+      return spawnChunkCount;
     }
 
     public boolean hasValidInfo() {
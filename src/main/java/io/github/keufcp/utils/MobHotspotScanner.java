@@ -0,0 +1,430 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.mixin.ServerChunkLoadingManagerAccessor;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.TypeFilter;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * Mob密集箇所（ホットスポット）検出クラス．
+ *
+ * <p>ディメンション毎に読込済みチャンクの一覧を取得し，Tick終了時に設定されたマイクロ秒予算内で数チャンクずつ エンティティを数える．
+ * 1巡の走査完了時に結果を完了時刻付きで保持し，走査間隔経過後に次の走査を開始． 数えるのはMobCapに数えられるエンティティのみ．
+ *
+ * <p>サーバースレッドからのみ呼出可．
+ */
+public class MobHotspotScanner {
+
+  /** リージョン（32×32チャンク）算出用のシフト量 */
+  private static final int REGION_SHIFT = 5;
+
+  /** TypeFilter（全エンティティ） */
+  private static final TypeFilter<Entity, Entity> ALL_ENTITIES =
+      TypeFilter.instanceOf(Entity.class);
+
+  /** ディメンション→走査状態 */
+  private static final Map<RegistryKey<World>, ScanState> states = new HashMap<>();
+
+  /** 走査中チャンクのエンティティ格納用（再利用） */
+  private static final List<Entity> entityBuffer = new ArrayList<>();
+
+  /** ディメンション毎の既定予算（マイクロ秒/Tick） */
+  private static int defaultBudgetMicros = 200;
+
+  /** ディメンションID→予算（マイクロ秒/Tick） */
+  private static Map<Identifier, Integer> budgetOverrides = Map.of();
+
+  /** 走査開始間隔（ミリ秒） */
+  private static long intervalMillis = 60_000L;
+
+  /**
+   * 走査設定．
+   *
+   * @param budgetMicros ディメンション毎の既定予算（マイクロ秒/Tick）．0で無効
+   * @param overrides ディメンション毎の予算指定 ({@code ディメンションID=マイクロ秒})
+   * @param intervalSeconds 走査開始間隔（秒）
+   */
+  public static void configure(int budgetMicros, List<String> overrides, int intervalSeconds) {
+    Map<Identifier, Integer> parsed = new HashMap<>();
+    for (String override : overrides) {
+      BudgetOverride budget = BudgetOverride.parse(override);
+      parsed.put(budget.dimension(), budget.micros());
+    }
+    defaultBudgetMicros = budgetMicros;
+    budgetOverrides = parsed;
+    intervalMillis = intervalSeconds * 1000L;
+    for (ScanState state : states.values()) {
+      state.nextStartMillis =
+          Math.min(state.nextStartMillis, state.passStartMillis + intervalMillis);
+    }
+  }
+
+  /**
+   * Tick終了時処理． 予算が設定されたディメンション毎に走査を進める．
+   *
+   * @param server サーバーインスタンス
+   */
+  public static void onTickEnd(MinecraftServer server) {
+    for (ServerWorld world : server.getWorlds()) {
+      int budgetMicros = getBudgetMicros(world.getRegistryKey());
+      if (budgetMicros <= 0) {
+        continue;
+      }
+      states
+          .computeIfAbsent(world.getRegistryKey(), key -> new ScanState())
+          .step(world, budgetMicros * 1000L);
+    }
+  }
+
+  /**
+   * ディメンションの走査予算取得．
+   *
+   * @param worldKey ディメンションキー
+   * @return 予算（マイクロ秒/Tick）．0は無効
+   */
+  public static int getBudgetMicros(RegistryKey<World> worldKey) {
+    return budgetOverrides.getOrDefault(worldKey.getValue(), defaultBudgetMicros);
+  }
+
+  /**
+   * 最新の走査結果取得．
+   *
+   * @param worldKey ディメンションキー
+   * @return 走査結果．未完了の場合はnull
+   */
+  public static HotspotResult getResult(RegistryKey<World> worldKey) {
+    ScanState state = states.get(worldKey);
+    return state != null ? state.result : null;
+  }
+
+  /**
+   * 走査中の進捗取得．
+   *
+   * @param worldKey ディメンションキー
+   * @return 走査済みチャンク数と総チャンク数．走査中でない場合はnull
+   */
+  public static int[] getProgress(RegistryKey<World> worldKey) {
+    ScanState state = states.get(worldKey);
+    if (state == null || state.chunks == null) {
+      return null;
+    }
+    return new int[] {state.position, state.chunks.size()};
+  }
+
+  /** 走査状態・結果破棄． サーバー停止時呼出． */
+  public static void clear() {
+    states.clear();
+    entityBuffer.clear();
+  }
+
+  /** ディメンション毎の走査状態． */
+  private static final class ScanState {
+    /** 走査対象チャンク．走査中でない場合はnull */
+    private LongArrayList chunks;
+
+    /** 次に走査するチャンクの添字 */
+    private int position;
+
+    /** チャンク→スポーングループ序数毎のエンティティ数（1体以上のチャンクのみ） */
+    private Long2ObjectOpenHashMap<int[]> counts;
+
+    /** 走査開始時刻（ミリ秒） */
+    private long passStartMillis;
+
+    /** 次の走査開始時刻（ミリ秒） */
+    private long nextStartMillis;
+
+    /** 走査に要したTick数 */
+    private int passTicks;
+
+    /** 走査に要した時間の合計（ナノ秒） */
+    private long passNanos;
+
+    /** 最新の走査結果 */
+    private HotspotResult result;
+
+    private void step(ServerWorld world, long budgetNanos) {
+      long startNanos = System.nanoTime();
+      if (chunks == null) {
+        long now = System.currentTimeMillis();
+        if (now < nextStartMillis) {
+          return;
+        }
+        begin(world, now);
+      }
+
+      long deadline = startNanos + budgetNanos;
+      // 予算超過時も1チャンクは進め，必ず完了させる
+      do {
+        if (position >= chunks.size()) {
+          break;
+        }
+        scanChunk(world, chunks.getLong(position++));
+      } while (System.nanoTime() < deadline);
+      passTicks++;
+      passNanos += System.nanoTime() - startNanos;
+
+      if (position >= chunks.size()) {
+        result =
+            new HotspotResult(
+                System.currentTimeMillis(), chunks.size(), passTicks, passNanos, counts);
+        chunks = null;
+        counts = null;
+      }
+    }
+
+    private void begin(ServerWorld world, long now) {
+      LongArrayList positions = new LongArrayList();
+      for (ChunkHolder holder :
+          ((ServerChunkLoadingManagerAccessor) world.getChunkManager().chunkLoadingManager)
+              .serverutils$entryIterator()) {
+        positions.add(holder.getPos().toLong());
+      }
+      chunks = positions;
+      position = 0;
+      counts = new Long2ObjectOpenHashMap<>();
+      passStartMillis = now;
+      nextStartMillis = now + intervalMillis;
+      passTicks = 0;
+      passNanos = 0;
+    }
+
+    private void scanChunk(ServerWorld world, long chunkPos) {
+      int chunkX = ChunkPos.getPackedX(chunkPos);
+      int chunkZ = ChunkPos.getPackedZ(chunkPos);
+      if (!world.isChunkLoaded(chunkX, chunkZ)) {
+        return;
+      }
+      int minX = chunkX << 4;
+      int minZ = chunkZ << 4;
+      Box box =
+          new Box(
+              minX, world.getBottomY(), minZ, minX + 16, world.getTopYInclusive() + 1, minZ + 16);
+      world.collectEntitiesByType(
+          ALL_ENTITIES,
+          box,
+          // 境界を跨ぐエンティティの重複を避けるため，所属チャンクで判定
+          entity -> entity.getChunkPos().toLong() == chunkPos,
+          entityBuffer);
+
+      int[] chunkCounts = null;
+      for (Entity entity : entityBuffer) {
+        SpawnGroup group = MobCapProcessor.getMobCapGroup(entity);
+        if (group == null) {
+          continue;
+        }
+        if (chunkCounts == null) {
+          chunkCounts = new int[SpawnGroup.values().length];
+        }
+        chunkCounts[group.ordinal()]++;
+      }
+      entityBuffer.clear();
+      if (chunkCounts != null) {
+        counts.put(chunkPos, chunkCounts);
+      }
+    }
+  }
+
+  /**
+   * ディメンション毎の走査予算指定．
+   *
+   * @param dimension ディメンションID
+   * @param micros 予算（マイクロ秒/Tick）
+   */
+  public record BudgetOverride(Identifier dimension, int micros) {
+
+    /**
+     * {@code ディメンションID=マイクロ秒} 形式の文字列を解析．
+     *
+     * @param value 設定文字列
+     * @return 予算指定
+     * @throws IllegalArgumentException 書式不正の場合
+     */
+    public static BudgetOverride parse(String value) {
+      int separator = value.lastIndexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("expected <dimension>=<micros>");
+      }
+      Identifier dimension = Identifier.tryParse(value.substring(0, separator).trim());
+      if (dimension == null) {
+        throw new IllegalArgumentException("invalid dimension id");
+      }
+      int micros;
+      try {
+        micros = Integer.parseInt(value.substring(separator + 1).trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("invalid budget");
+      }
+      if (micros < 0 || micros > 50000) {
+        throw new IllegalArgumentException("budget must be between 0 and 50000");
+      }
+      return new BudgetOverride(dimension, micros);
+    }
+  }
+
+  /** 1巡分の走査結果． */
+  public static final class HotspotResult {
+    private final long completedMillis;
+    private final int scannedChunks;
+    private final int ticks;
+    private final long scanNanos;
+
+    /** チャンク→スポーングループ序数毎のエンティティ数 */
+    private final Long2ObjectOpenHashMap<int[]> counts;
+
+    private HotspotResult(
+        long completedMillis,
+        int scannedChunks,
+        int ticks,
+        long scanNanos,
+        Long2ObjectOpenHashMap<int[]> counts) {
+      this.completedMillis = completedMillis;
+      this.scannedChunks = scannedChunks;
+      this.ticks = ticks;
+      this.scanNanos = scanNanos;
+      this.counts = counts;
+    }
+
+    public long getCompletedMillis() {
+      return completedMillis;
+    }
+
+    public int getScannedChunks() {
+      return scannedChunks;
+    }
+
+    public int getTicks() {
+      return ticks;
+    }
+
+    public long getScanNanos() {
+      return scanNanos;
+    }
+
+    /**
+     * エンティティ数上位のチャンク取得．
+     *
+     * @param group 対象スポーングループ．全グループの合計の場合はnull
+     * @param limit 取得件数上限
+     * @return エンティティ数降順のチャンク（座標はチャンク座標）
+     */
+    public List<Hotspot> getTopChunks(SpawnGroup group, int limit) {
+      List<Hotspot> hotspots = new ArrayList<>(counts.size());
+      for (Long2ObjectMap.Entry<int[]> entry : counts.long2ObjectEntrySet()) {
+        long key = entry.getLongKey();
+        hotspots.add(
+            new Hotspot(ChunkPos.getPackedX(key), ChunkPos.getPackedZ(key), entry.getValue()));
+      }
+      return rank(hotspots, group, limit);
+    }
+
+    /**
+     * エンティティ数上位のリージョン（32×32チャンク）取得．
+     *
+     * @param group 対象スポーングループ．全グループの合計の場合はnull
+     * @param limit 取得件数上限
+     * @return エンティティ数降順のリージョン（座標はリージョン座標）
+     */
+    public List<Hotspot> getTopRegions(SpawnGroup group, int limit) {
+      Long2ObjectOpenHashMap<int[]> regions = new Long2ObjectOpenHashMap<>();
+      for (Long2ObjectMap.Entry<int[]> entry : counts.long2ObjectEntrySet()) {
+        long key = entry.getLongKey();
+        long regionKey =
+            ChunkPos.toLong(
+                ChunkPos.getPackedX(key) >> REGION_SHIFT, ChunkPos.getPackedZ(key) >> REGION_SHIFT);
+        int[] regionCounts =
+            regions.computeIfAbsent(regionKey, k -> new int[SpawnGroup.values().length]);
+        int[] chunkCounts = entry.getValue();
+        for (int i = 0; i < chunkCounts.length; i++) {
+          regionCounts[i] += chunkCounts[i];
+        }
+      }
+
+      List<Hotspot> hotspots = new ArrayList<>(regions.size());
+      for (Long2ObjectMap.Entry<int[]> entry : regions.long2ObjectEntrySet()) {
+        long key = entry.getLongKey();
+        hotspots.add(
+            new Hotspot(ChunkPos.getPackedX(key), ChunkPos.getPackedZ(key), entry.getValue()));
+      }
+      return rank(hotspots, group, limit);
+    }
+
+    private static List<Hotspot> rank(List<Hotspot> hotspots, SpawnGroup group, int limit) {
+      hotspots.removeIf(hotspot -> hotspot.getCount(group) == 0);
+      hotspots.sort(
+          Comparator.comparingInt((Hotspot hotspot) -> hotspot.getCount(group)).reversed());
+      return hotspots.size() > limit ? new ArrayList<>(hotspots.subList(0, limit)) : hotspots;
+    }
+  }
+
+  /** チャンクまたはリージョン毎のエンティティ数． */
+  public static final class Hotspot {
+    private final int x;
+    private final int z;
+
+    /** スポーングループ序数→エンティティ数 */
+    private final int[] counts;
+
+    private Hotspot(int x, int z, int[] counts) {
+      this.x = x;
+      this.z = z;
+      this.counts = counts;
+    }
+
+    public int getX() {
+      return x;
+    }
+
+    public int getZ() {
+      return z;
+    }
+
+    /**
+     * エンティティ数取得．
+     *
+     * @param group 対象スポーングループ．全グループの合計の場合はnull
+     * @return エンティティ数
+     */
+    public int getCount(SpawnGroup group) {
+      if (group != null) {
+        return counts[group.ordinal()];
+      }
+      int total = 0;
+      for (int count : counts) {
+        total += count;
+      }
+      return total;
+    }
+
+    /**
+     * 最もエンティティ数の多いスポーングループ取得．
+     *
+     * @return スポーングループ
+     */
+    public SpawnGroup getDominantGroup() {
+      SpawnGroup result = SpawnGroup.MONSTER;
+      for (SpawnGroup group : MobCapProcessor.getCappedGroups()) {
+        if (counts[group.ordinal()] > counts[result.ordinal()]) {
+          result = group;
+        }
+      }
+      return result;
+    }
+  }
+}
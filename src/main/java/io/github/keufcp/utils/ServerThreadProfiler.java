@@ -0,0 +1,192 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * サーバースレッド用サンプリングプロファイラ．
+ *
+ * <p>デーモンスレッドから一定間隔でサーバースレッドのスタックを取得し {@link StackTrie} へ集計． スタック取得コストを計測し， サーバースレッドへの負荷が {@value
+ * #MAX_OVERHEAD_PERCENT}% を超えないようサンプリング間隔を自動で延長．
+ *
+ * <p>MSPT閾値指定時は，実行中Tickの経過時間が閾値を超えている間のみサンプリング（{@link TickTimeUtil#getCurrentTickStartTime()} 利用）．
+ */
+public class ServerThreadProfiler {
+
+  /** サーバースレッド負荷上限（%） */
+  private static final int MAX_OVERHEAD_PERCENT = 2;
+
+  /** 記録する最大スタック深さ */
+  private static final int MAX_STACK_DEPTH = 512;
+
+  /** 出力ファイル名用日時フォーマット */
+  private static final DateTimeFormatter FILE_TIME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  /** 実行中セッション */
+  private static volatile Session session;
+
+  /** 直近セッションの集計結果（停止後のダンプ用） */
+  private static volatile StackTrie lastTrie;
+
+  /**
+   * プロファイリング開始．
+   *
+   * @param serverThread 対象サーバースレッド
+   * @param intervalMillis サンプリング間隔（ミリ秒）
+   * @param slowTickThresholdMillis 対象Tick閾値（ミリ秒）．0以下で全期間を対象
+   * @param maxNodes 集計トライ木のノード数上限
+   * @return 開始した場合true，実行中の場合false
+   */
+  public static synchronized boolean start(
+      Thread serverThread, int intervalMillis, int slowTickThresholdMillis, int maxNodes) {
+    if (session != null) {
+      return false;
+    }
+    StackTrie trie = new StackTrie(maxNodes);
+    Session newSession =
+        new Session(
+            serverThread,
+            trie,
+            TimeUnit.MILLISECONDS.toNanos(intervalMillis),
+            TimeUnit.MILLISECONDS.toNanos(Math.max(slowTickThresholdMillis, 0)));
+    Thread samplerThread = new Thread(newSession::run, "ServerUtils-Profiler");
+    samplerThread.setDaemon(true);
+    newSession.samplerThread = samplerThread;
+    session = newSession;
+    lastTrie = trie;
+    samplerThread.start();
+    ServerUtils.LOGGER.info(
+        "Server thread profiler started (interval: {} ms, slow tick threshold: {} ms)",
+        intervalMillis,
+        slowTickThresholdMillis);
+    return true;
+  }
+
+  /**
+   * プロファイリング停止． 集計結果はダンプ用に保持．
+   *
+   * @return 停止時点のサンプル数．実行中でなかった場合は-1
+   */
+  public static synchronized long stop() {
+    Session current = session;
+    if (current == null) {
+      return -1;
+    }
+    session = null;
+    current.running = false;
+    LockSupport.unpark(current.samplerThread);
+    try {
+      current.samplerThread.join(1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    long samples;
+    synchronized (current.trie) {
+      samples = current.trie.getSampleCount();
+    }
+    ServerUtils.LOGGER.info("Server thread profiler stopped ({} samples)", samples);
+    return samples;
+  }
+
+  /**
+   * 実行状態取得．
+   *
+   * @return 実行中の場合true
+   */
+  public static boolean isRunning() {
+    return session != null;
+  }
+
+  /**
+   * 集計結果のcollapsed-stack形式ファイル書き出し．
+   *
+   * <p>ファイルI/Oを伴うため，サーバースレッド外から呼出すこと．
+   *
+   * @param runDirectory サーバー実行ディレクトリ
+   * @return 書き出し結果．集計結果が無い場合はnull
+   * @throws IOException 書き込み失敗時
+   */
+  public static DumpResult dump(Path runDirectory) throws IOException {
+    StackTrie trie = lastTrie;
+    if (trie == null) {
+      return null;
+    }
+    // 複製のみロック下で行い，サンプリングスレッドをファイル書き込みで待たせない
+    StackTrie.Snapshot snapshot;
+    synchronized (trie) {
+      if (trie.getSampleCount() == 0) {
+        return null;
+      }
+      snapshot = trie.snapshot();
+    }
+    Path directory = runDirectory.resolve(ServerUtils.MOD_ID).resolve("profiles");
+    Files.createDirectories(directory);
+    Path file =
+        directory.resolve("profile-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".txt");
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      snapshot.writeCollapsed(writer);
+    }
+    return new DumpResult(file, snapshot.getSampleCount(), snapshot.getNodeCount());
+  }
+
+  /**
+   * ダンプ結果．
+   *
+   * @param file 出力ファイル
+   * @param sampleCount 総サンプル数
+   * @param nodeCount トライ木ノード数
+   */
+  public record DumpResult(Path file, long sampleCount, int nodeCount) {}
+
+  /** サンプリングセッション． */
+  private static final class Session {
+    private final Thread serverThread;
+    private final StackTrie trie;
+    private final long intervalNanos;
+    private final long slowTickThresholdNanos;
+    private volatile boolean running = true;
+    private Thread samplerThread;
+
+    private Session(
+        Thread serverThread, StackTrie trie, long intervalNanos, long slowTickThresholdNanos) {
+      this.serverThread = serverThread;
+      this.trie = trie;
+      this.intervalNanos = intervalNanos;
+      this.slowTickThresholdNanos = slowTickThresholdNanos;
+    }
+
+    private void run() {
+      while (running && serverThread.isAlive()) {
+        long sleepNanos = intervalNanos;
+        if (shouldSample()) {
+          long start = System.nanoTime();
+          StackTraceElement[] stack = serverThread.getStackTrace();
+          long cost = System.nanoTime() - start;
+          synchronized (trie) {
+            trie.addSample(stack, MAX_STACK_DEPTH);
+          }
+          // スタック取得はサーバースレッドを一時停止させるため，負荷上限に応じて間隔を延長
+          sleepNanos = Math.max(intervalNanos, cost * (100 / MAX_OVERHEAD_PERCENT));
+        }
+        LockSupport.parkNanos(sleepNanos);
+      }
+    }
+
+    private boolean shouldSample() {
+      if (slowTickThresholdNanos <= 0) {
+        return true;
+      }
+      long tickStartTime = TickTimeUtil.getCurrentTickStartTime();
+      return tickStartTime != -1L && System.nanoTime() - tickStartTime >= slowTickThresholdNanos;
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package io.github.keufcp.utils;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * スタックサンプル集計用のトライ木．
+ *
+ * <p>フレーム（クラス名.メソッド名）をIDへインターンし，ノードは親ID・フレームID・自己サンプル数のプリミティブ配列で保持．
+ * ノード数は上限で固定し，上限到達後の新規経路は到達済みの最深ノードへ計上． フレームのインターンはノード追加時のみのため， インターン表もノード数上限で頭打ち．
+ * 出力はFlameGraph互換のcollapsed-stack形式．
+ *
+ * <p>スレッドセーフではないため，呼出側で同期すること． 書き出しは {@link #snapshot()} の複製から行い，ロック保持中のI/Oを避ける．
+ */
+public final class StackTrie {
+
+  /** ルートノードID */
+  private static final int ROOT = 0;
+
+  /** ノード配列初期容量 */
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** ノード数上限 */
+  private final int maxNodes;
+
+  /** クラス名→メソッド名→フレームID */
+  private final Map<String, Map<String, Integer>> frameIds = new HashMap<>();
+
+  /** フレームID→表示名 */
+  private final List<String> frameNames = new ArrayList<>();
+
+  /** (親ノードID << 32 | フレームID) → 子ノードID．未登録時は-1 */
+  private final Long2IntOpenHashMap children = createChildren();
+
+  /** ノード毎の親ノードID */
+  private int[] nodeParents = new int[INITIAL_CAPACITY];
+
+  /** ノード毎のフレームID */
+  private int[] nodeFrames = new int[INITIAL_CAPACITY];
+
+  /** ノード毎の自己サンプル数 */
+  private long[] nodeSelfCounts = new long[INITIAL_CAPACITY];
+
+  /** 使用済みノード数（ルート含む） */
+  private int nodeCount = 1;
+
+  /** 総サンプル数 */
+  private long sampleCount;
+
+  /** ノード上限により経路を打ち切ったサンプル数 */
+  private long truncatedCount;
+
+  /**
+   * 指定ノード数上限のトライ木作成．
+   *
+   * @param maxNodes ノード数上限
+   */
+  public StackTrie(int maxNodes) {
+    this.maxNodes = Math.max(maxNodes, 2);
+    nodeParents[ROOT] = -1;
+    nodeFrames[ROOT] = -1;
+  }
+
+  /**
+   * スタックサンプル追加．
+   *
+   * @param stack スタックトレース（{@link Thread#getStackTrace()} 順，最内フレームが先頭）
+   * @param maxDepth 記録する最大フレーム数（最外フレームから数える）
+   */
+  public void addSample(StackTraceElement[] stack, int maxDepth) {
+    int node = ROOT;
+    boolean truncated = false;
+    int last = Math.max(0, stack.length - maxDepth);
+    for (int i = stack.length - 1; i >= last; i--) {
+      int frame = findFrame(stack[i]);
+      int child = frame == -1 ? -1 : children.get(((long) node << 32) | frame);
+      if (child == -1) {
+        if (nodeCount >= maxNodes) {
+          truncated = true;
+          break;
+        }
+        if (frame == -1) {
+          frame = internFrame(stack[i]);
+        }
+        child = newNode(node, frame);
+        children.put(((long) node << 32) | frame, child);
+      }
+      node = child;
+    }
+    nodeSelfCounts[node]++;
+    sampleCount++;
+    if (truncated) {
+      truncatedCount++;
+    }
+  }
+
+  /**
+   * 書き出し用の集計結果複製． 呼出側の同期下で呼出し，書き出しは同期外で行う．
+   *
+   * @return 集計結果の複製
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(
+        Arrays.copyOf(nodeParents, nodeCount),
+        Arrays.copyOf(nodeFrames, nodeCount),
+        Arrays.copyOf(nodeSelfCounts, nodeCount),
+        frameNames.toArray(new String[0]),
+        sampleCount);
+  }
+
+  public long getSampleCount() {
+    return sampleCount;
+  }
+
+  public long getTruncatedCount() {
+    return truncatedCount;
+  }
+
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  private int findFrame(StackTraceElement element) {
+    Map<String, Integer> methods = frameIds.get(element.getClassName());
+    if (methods == null) {
+      return -1;
+    }
+    Integer id = methods.get(element.getMethodName());
+    return id != null ? id : -1;
+  }
+
+  private int internFrame(StackTraceElement element) {
+    int id = frameNames.size();
+    String name = element.getClassName() + "." + element.getMethodName();
+    // collapsed形式の区切り文字を含まないよう置換
+    frameNames.add(name.replace(';', '_').replace(' ', '_'));
+    frameIds
+        .computeIfAbsent(element.getClassName(), key -> new HashMap<>())
+        .put(element.getMethodName(), id);
+    return id;
+  }
+
+  private int newNode(int parent, int frame) {
+    if (nodeCount == nodeParents.length) {
+      int capacity = Math.min(nodeParents.length * 2, maxNodes);
+      nodeParents = Arrays.copyOf(nodeParents, capacity);
+      nodeFrames = Arrays.copyOf(nodeFrames, capacity);
+      nodeSelfCounts = Arrays.copyOf(nodeSelfCounts, capacity);
+    }
+    int node = nodeCount++;
+    nodeParents[node] = parent;
+    nodeFrames[node] = frame;
+    return node;
+  }
+
+  private static Long2IntOpenHashMap createChildren() {
+    Long2IntOpenHashMap map = new Long2IntOpenHashMap(INITIAL_CAPACITY);
+    map.defaultReturnValue(-1);
+    return map;
+  }
+
+  /** 集計結果の複製． 作成後不変のため，同期無しで書き出し可． */
+  public static final class Snapshot {
+
+    private final int[] nodeParents;
+    private final int[] nodeFrames;
+    private final long[] nodeSelfCounts;
+    private final String[] frameNames;
+    private final long sampleCount;
+
+    private Snapshot(
+        int[] nodeParents,
+        int[] nodeFrames,
+        long[] nodeSelfCounts,
+        String[] frameNames,
+        long sampleCount) {
+      this.nodeParents = nodeParents;
+      this.nodeFrames = nodeFrames;
+      this.nodeSelfCounts = nodeSelfCounts;
+      this.frameNames = frameNames;
+      this.sampleCount = sampleCount;
+    }
+
+    /**
+     * collapsed-stack形式での書き出し． 1行1経路で {@code frame1;frame2;... count} を出力．
+     *
+     * @param writer 出力先
+     * @throws IOException 書き込み失敗時
+     */
+    public void writeCollapsed(Writer writer) throws IOException {
+      int[] path = new int[64];
+      StringBuilder line = new StringBuilder();
+      for (int node = 1; node < nodeParents.length; node++) {
+        long count = nodeSelfCounts[node];
+        if (count == 0) {
+          continue;
+        }
+        int depth = 0;
+        for (int current = node; current != ROOT; current = nodeParents[current]) {
+          if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+          }
+          path[depth++] = nodeFrames[current];
+        }
+        line.setLength(0);
+        for (int i = depth - 1; i >= 0; i--) {
+          line.append(frameNames[path[i]]);
+          if (i > 0) {
+            line.append(';');
+          }
+        }
+        line.append(' ').append(count).append('\n');
+        writer.write(line.toString());
+      }
+    }
+
+    public long getSampleCount() {
+      return sampleCount;
+    }
+
+    public int getNodeCount() {
+      return nodeParents.length;
+    }
+  }
+}
@@ -0,0 +1,290 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * サーバースレッド停止（ストール）監視クラス．
+ *
+ * <p>監視スレッドが {@link TickTimeUtil#getCurrentTickStartTime()}
+ * を定期的に参照し，実行中Tickが閾値を超えた場合にサーバースレッドのスタック・保持ロック・待機中モニタを取得． 同一Tick内では閾値の2倍，4倍…と段階的に再取得．
+ * 取得結果はスタックのフィンガープリントで重複排除し保持．
+ *
+ * <p>スレッド情報のみを参照し，ゲーム状態には一切アクセスしない．
+ */
+public class StallWatchdog {
+
+  /** 保持するストール記録数上限 */
+  private static final int MAX_RECORDS = 50;
+
+  /** フィンガープリント算出対象フレーム数 */
+  private static final int FINGERPRINT_DEPTH = 32;
+
+  /** 記録するスタックフレーム数上限 */
+  private static final int MAX_RECORDED_FRAMES = 64;
+
+  /** 監視間隔上限（ミリ秒） */
+  private static final long MAX_POLL_INTERVAL_MILLIS = 250;
+
+  /** フィンガープリント→ストール記録（アクセス順） */
+  private static final Map<Long, StallRecord> records = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** 検出閾値（ナノ秒） */
+  private static volatile long thresholdNanos = TimeUnit.SECONDS.toNanos(2);
+
+  /** 監視スレッド */
+  private static volatile Thread watchdogThread;
+
+  /**
+   * 検出閾値設定．
+   *
+   * @param thresholdMillis 検出閾値（ミリ秒）
+   */
+  public static void setThreshold(int thresholdMillis) {
+    thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+  }
+
+  /**
+   * 監視開始． 既に監視中の場合は何もしない．
+   *
+   * @param serverThread 監視対象サーバースレッド
+   */
+  public static synchronized void start(Thread serverThread) {
+    if (watchdogThread != null) {
+      return;
+    }
+    Thread thread = new Thread(() -> run(serverThread), "ServerUtils-StallWatchdog");
+    thread.setDaemon(true);
+    watchdogThread = thread;
+    thread.start();
+    ServerUtils.LOGGER.info(
+        "Stall watchdog started (threshold: {} ms)", TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+  }
+
+  /** 監視停止． */
+  public static synchronized void stop() {
+    Thread thread = watchdogThread;
+    if (thread == null) {
+      return;
+    }
+    watchdogThread = null;
+    LockSupport.unpark(thread);
+    ServerUtils.LOGGER.info("Stall watchdog stopped");
+  }
+
+  /**
+   * 監視状態取得．
+   *
+   * @return 監視中の場合true
+   */
+  public static boolean isRunning() {
+    return watchdogThread != null;
+  }
+
+  /**
+   * ストール記録一覧取得．
+   *
+   * @return 最終検出時刻の新しい順の記録一覧
+   */
+  public static List<StallRecord> getRecords() {
+    List<StallRecord> list;
+    synchronized (records) {
+      list = new ArrayList<>(records.values());
+    }
+    list.sort(Comparator.comparingLong(StallRecord::getLastSeenMillis).reversed());
+    return list;
+  }
+
+  /** ストール記録消去． */
+  public static void clearRecords() {
+    synchronized (records) {
+      records.clear();
+    }
+  }
+
+  private static void run(Thread serverThread) {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    long observedTickStart = -1L;
+    long nextCaptureNanos = 0L;
+
+    while (watchdogThread == Thread.currentThread() && serverThread.isAlive()) {
+      long threshold = thresholdNanos;
+      long tickStart = TickTimeUtil.getCurrentTickStartTime();
+      if (tickStart != -1L) {
+        if (tickStart != observedTickStart) {
+          observedTickStart = tickStart;
+          nextCaptureNanos = threshold;
+        }
+        long elapsed = System.nanoTime() - tickStart;
+        if (elapsed >= nextCaptureNanos) {
+          capture(threadMXBean, serverThread, elapsed);
+          // 同一Tick内では閾値の2倍，4倍…で再取得
+          nextCaptureNanos *= 2;
+        }
+      }
+      long pollMillis =
+          Math.max(
+              1L, Math.min(MAX_POLL_INTERVAL_MILLIS, TimeUnit.NANOSECONDS.toMillis(threshold) / 4));
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollMillis));
+    }
+  }
+
+  private static void capture(ThreadMXBean threadMXBean, Thread serverThread, long elapsedNanos) {
+    ThreadInfo[] infos =
+        threadMXBean.getThreadInfo(
+            new long[] {serverThread.threadId()},
+            threadMXBean.isObjectMonitorUsageSupported(),
+            threadMXBean.isSynchronizerUsageSupported());
+    if (infos.length == 0 || infos[0] == null) {
+      return;
+    }
+    ThreadInfo info = infos[0];
+    StackTraceElement[] stack = info.getStackTrace();
+    long fingerprint = fingerprint(stack);
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    long now = System.currentTimeMillis();
+
+    StallRecord record;
+    boolean isNew;
+    synchronized (records) {
+      record = records.get(fingerprint);
+      isNew = (record == null);
+      if (isNew) {
+        record = new StallRecord(fingerprint, describe(info), topFrame(stack), now);
+        records.put(fingerprint, record);
+        if (records.size() > MAX_RECORDS) {
+          // アクセス順の先頭（最も古い記録）を削除
+          Long eldest = records.keySet().iterator().next();
+          records.remove(eldest);
+        }
+      }
+      record.onSeen(elapsedMillis, now);
+    }
+
+    if (isNew) {
+      ServerUtils.LOGGER.warn(
+          "Server thread has been running the current tick for {} ms:\n{}",
+          elapsedMillis,
+          String.join("\n", record.getDetails()));
+    } else {
+      ServerUtils.LOGGER.warn(
+          "Server thread has been running the current tick for {} ms (known stall {}, at {})",
+          elapsedMillis,
+          Long.toHexString(fingerprint),
+          record.getTopFrame());
+    }
+  }
+
+  private static long fingerprint(StackTraceElement[] stack) {
+    long hash = 1125899906842597L;
+    int depth = Math.min(stack.length, FINGERPRINT_DEPTH);
+    for (int i = 0; i < depth; i++) {
+      StackTraceElement element = stack[i];
+      hash = 31 * hash + element.getClassName().hashCode();
+      hash = 31 * hash + element.getMethodName().hashCode();
+      hash = 31 * hash + element.getLineNumber();
+    }
+    return hash;
+  }
+
+  private static String topFrame(StackTraceElement[] stack) {
+    return stack.length == 0 ? "?" : stack[0].toString();
+  }
+
+  private static List<String> describe(ThreadInfo info) {
+    List<String> lines = new ArrayList<>();
+    StringBuilder state = new StringBuilder("State: ").append(info.getThreadState());
+    LockInfo blockedOn = info.getLockInfo();
+    if (blockedOn != null) {
+      state.append(" on ").append(blockedOn);
+      if (info.getLockOwnerName() != null) {
+        state.append(" owned by \"").append(info.getLockOwnerName()).append('"');
+      }
+    }
+    lines.add(state.toString());
+
+    StackTraceElement[] stack = info.getStackTrace();
+    MonitorInfo[] monitors = info.getLockedMonitors();
+    int frames = Math.min(stack.length, MAX_RECORDED_FRAMES);
+    for (int i = 0; i < frames; i++) {
+      lines.add("  at " + stack[i]);
+      for (MonitorInfo monitor : monitors) {
+        if (monitor.getLockedStackDepth() == i) {
+          lines.add("    - locked " + monitor);
+        }
+      }
+    }
+    if (stack.length > frames) {
+      lines.add("  ... " + (stack.length - frames) + " more");
+    }
+    for (LockInfo synchronizer : info.getLockedSynchronizers()) {
+      lines.add("  Locked synchronizer: " + synchronizer);
+    }
+    return Collections.unmodifiableList(lines);
+  }
+
+  /** スタックのフィンガープリント単位のストール記録． */
+  public static final class StallRecord {
+    private final long fingerprint;
+    private final List<String> details;
+    private final String topFrame;
+    private final long firstSeenMillis;
+    private volatile long lastSeenMillis;
+    private volatile long maxStallMillis;
+    private volatile int count;
+
+    private StallRecord(
+        long fingerprint, List<String> details, String topFrame, long firstSeenMillis) {
+      this.fingerprint = fingerprint;
+      this.details = details;
+      this.topFrame = topFrame;
+      this.firstSeenMillis = firstSeenMillis;
+    }
+
+    private void onSeen(long stallMillis, long nowMillis) {
+      count++;
+      lastSeenMillis = nowMillis;
+      maxStallMillis = Math.max(maxStallMillis, stallMillis);
+    }
+
+    public long getFingerprint() {
+      return fingerprint;
+    }
+
+    public List<String> getDetails() {
+      return details;
+    }
+
+    public String getTopFrame() {
+      return topFrame;
+    }
+
+    public long getFirstSeenMillis() {
+      return firstSeenMillis;
+    }
+
+    public long getLastSeenMillis() {
+      return lastSeenMillis;
+    }
+
+    public long getMaxStallMillis() {
+      return maxStallMillis;
+    }
+
+    public int getCount() {
+      return count;
+    }
+  }
+}
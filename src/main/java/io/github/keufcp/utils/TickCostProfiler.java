@@ -0,0 +1,464 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * エンティティ・ブロックエンティティのタイプ別Tickコスト集計クラス．
+ *
+ * <p>サンプリング対象のサーバーTickのみ，Mixinから個々のエンティティ・ブロックエンティティのTick処理を {@link System#nanoTime()} で計測し，タイプのraw
+ * IDを添字とするプリミティブ配列とチャンク毎のマップへ累積． 計測間隔は設定値を下限とし，直前のサンプリングTickの
+ * 計測回数から見積もった計測コストがTick当たりの予算を超えないよう自動で延長する． 非サンプリングTickはフラグ判定のみで即時復帰．
+ *
+ * <p>サーバースレッドからのみ呼出可．
+ */
+public class TickCostProfiler {
+
+  /** 計測間隔の上限（Tick） */
+  private static final int MAX_SAMPLE_INTERVAL = 1200;
+
+  /** 計測コスト見積り用の {@link System#nanoTime()} 呼出回数 */
+  private static final int CALIBRATION_CALLS = 10_000;
+
+  /** 計測1回当たりの集計処理コスト見積り（ナノ秒） */
+  private static final long ACCOUNTING_NANOS = 40L;
+
+  /** 計測記録が無い場合にインジェクション未適用と判断するまでのサンプリングTick数 */
+  private static final int HOOK_CHECK_SAMPLES = 100;
+
+  /** エンティティ集計 */
+  private static final Accumulator entities = new Accumulator(Registries.ENTITY_TYPE);
+
+  /** ブロックエンティティ集計 */
+  private static final Accumulator blockEntities = new Accumulator(Registries.BLOCK_ENTITY_TYPE);
+
+  /** 計測有効フラグ */
+  private static boolean enabled;
+
+  /** 現在Tickがサンプリング対象か */
+  private static boolean sampling;
+
+  /** 設定上の計測間隔（Tick） */
+  private static int sampleInterval = 20;
+
+  /** 計測コスト予算（ナノ秒/Tick）．0で無制限 */
+  private static long budgetNanos = 100_000L;
+
+  /** 予算により延長された実際の計測間隔（Tick） */
+  private static int effectiveInterval = 20;
+
+  /** 計測1回当たりのコスト見積り（ナノ秒） */
+  private static long callOverheadNanos;
+
+  /** 次のサンプリングまでのTick数 */
+  private static int ticksUntilSample;
+
+  /** サンプリングしたTick数 */
+  private static long sampledTicks;
+
+  /** 直前のサンプリングTickの計測コスト見積り（ナノ秒/Tick，計測間隔で平均） */
+  private static long lastOverheadNanos;
+
+  /** 計測中エンティティのTick開始時刻（0は未計測） */
+  private static long entityStartTime;
+
+  /** 計測中ブロックエンティティのTick開始時刻（0は未計測） */
+  private static long blockEntityStartTime;
+
+  /** エンティティのインジェクション適用確認の残りサンプリングTick数（0で確認済み） */
+  private static int entityHookCheckRemaining = HOOK_CHECK_SAMPLES;
+
+  /** ブロックエンティティのインジェクション適用確認の残りサンプリングTick数（0で確認済み） */
+  private static int blockEntityHookCheckRemaining = HOOK_CHECK_SAMPLES;
+
+  /**
+   * 計測設定． 無効から有効への切替時は集計値を破棄．
+   *
+   * @param value 計測有効化する場合true
+   * @param interval 計測間隔の下限（Tick）
+   * @param budgetMicros 計測コスト予算（マイクロ秒/Tick）．0で無制限
+   */
+  public static void configure(boolean value, int interval, int budgetMicros) {
+    sampleInterval = Math.max(1, interval);
+    budgetNanos = budgetMicros * 1000L;
+    effectiveInterval = sampleInterval;
+    if (value && !enabled) {
+      reset();
+      callOverheadNanos = calibrate();
+    }
+    enabled = value;
+    if (!enabled) {
+      sampling = false;
+    }
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * 現在Tickのサンプリング状態取得． Mixinの計測前判定に使用．
+   *
+   * @return サンプリング対象Tickの場合true
+   */
+  public static boolean isSampling() {
+    return sampling;
+  }
+
+  /** エンティティTick開始記録． */
+  public static void beginEntity() {
+    entityStartTime = System.nanoTime();
+  }
+
+  /**
+   * エンティティTick終了記録． 乗客のTickを含む．
+   *
+   * @param world 対象ワールド
+   * @param entity Tickしたエンティティ
+   */
+  public static void endEntity(ServerWorld world, Entity entity) {
+    long startTime = entityStartTime;
+    if (startTime == 0L) {
+      return;
+    }
+    entityStartTime = 0L;
+    long elapsed = System.nanoTime() - startTime;
+    entities.record(
+        world.getRegistryKey(),
+        Registries.ENTITY_TYPE.getRawId(entity.getType()),
+        entity.getBlockPos(),
+        elapsed);
+  }
+
+  /** ブロックエンティティTick開始記録． */
+  public static void beginBlockEntity() {
+    blockEntityStartTime = System.nanoTime();
+  }
+
+  /**
+   * ブロックエンティティTick終了記録．
+   *
+   * @param world 対象ワールド
+   * @param blockEntity Tickしたブロックエンティティ
+   */
+  public static void endBlockEntity(ServerWorld world, BlockEntity blockEntity) {
+    long startTime = blockEntityStartTime;
+    if (startTime == 0L) {
+      return;
+    }
+    blockEntityStartTime = 0L;
+    long elapsed = System.nanoTime() - startTime;
+    blockEntities.record(
+        world.getRegistryKey(),
+        Registries.BLOCK_ENTITY_TYPE.getRawId(blockEntity.getType()),
+        blockEntity.getPos(),
+        elapsed);
+  }
+
+  /**
+   * Tick終了時処理． サンプリングTickの計測回数から計測コストを見積もって計測間隔を調整し，次Tickのサンプリング可否を決定．
+   *
+   * @param server サーバーインスタンス
+   */
+  public static void onTickEnd(MinecraftServer server) {
+    if (!enabled) {
+      return;
+    }
+    if (sampling) {
+      sampledTicks++;
+      checkHooks(server);
+      long calls = entities.currentTickCalls + blockEntities.currentTickCalls;
+      entities.currentTickCalls = 0;
+      blockEntities.currentTickCalls = 0;
+      long overheadNanos = calls * callOverheadNanos;
+      if (budgetNanos > 0) {
+        long required = (overheadNanos + budgetNanos - 1) / budgetNanos;
+        effectiveInterval = (int) Math.min(MAX_SAMPLE_INTERVAL, Math.max(sampleInterval, required));
+      }
+      lastOverheadNanos = overheadNanos / effectiveInterval;
+      ticksUntilSample = effectiveInterval;
+    }
+    sampling = --ticksUntilSample <= 0;
+  }
+
+  /** 集計値破棄． */
+  public static void reset() {
+    entities.reset();
+    blockEntities.reset();
+    sampledTicks = 0;
+    lastOverheadNanos = 0;
+    ticksUntilSample = 0;
+    entityStartTime = 0L;
+    blockEntityStartTime = 0L;
+  }
+
+  /** 計測停止・集計値破棄． サーバー停止時呼出． */
+  public static void clear() {
+    sampling = false;
+    reset();
+  }
+
+  public static long getSampledTicks() {
+    return sampledTicks;
+  }
+
+  public static int getEffectiveInterval() {
+    return effectiveInterval;
+  }
+
+  public static long getLastOverheadNanos() {
+    return lastOverheadNanos;
+  }
+
+  public static long getBudgetNanos() {
+    return budgetNanos;
+  }
+
+  /**
+   * エンティティのタイプ別Tickコスト上位取得．
+   *
+   * @param limit 取得件数上限
+   * @return Tick当たりの処理時間降順のタイプ別コスト
+   */
+  public static List<TypeCost> getTopEntityTypes(int limit) {
+    return entities.getTopTypes(limit);
+  }
+
+  /**
+   * ブロックエンティティのタイプ別Tickコスト上位取得．
+   *
+   * @param limit 取得件数上限
+   * @return Tick当たりの処理時間降順のタイプ別コスト
+   */
+  public static List<TypeCost> getTopBlockEntityTypes(int limit) {
+    return blockEntities.getTopTypes(limit);
+  }
+
+  /**
+   * エンティティのチャンク別Tickコスト上位取得．
+   *
+   * @param limit 取得件数上限
+   * @return Tick当たりの処理時間降順のチャンク別コスト
+   */
+  public static List<ChunkCost> getTopEntityChunks(int limit) {
+    return entities.getTopChunks(limit);
+  }
+
+  /**
+   * ブロックエンティティのチャンク別Tickコスト上位取得．
+   *
+   * @param limit 取得件数上限
+   * @return Tick当たりの処理時間降順のチャンク別コスト
+   */
+  public static List<ChunkCost> getTopBlockEntityChunks(int limit) {
+    return blockEntities.getTopChunks(limit);
+  }
+
+  /**
+   * インジェクション適用確認． 記録の無いサンプリングTickが続いた場合に一度だけ警告． エンティティはTick対象が無いサーバーでも記録が無いため，エンティティが存在するTickのみ数える．
+   *
+   * @param server サーバーインスタンス
+   */
+  private static void checkHooks(MinecraftServer server) {
+    if (entityHookCheckRemaining > 0) {
+      if (entities.currentTickCalls > 0) {
+        entityHookCheckRemaining = 0;
+      } else if (hasEntities(server) && --entityHookCheckRemaining == 0) {
+        ServerUtils.LOGGER.warn(
+            "No entity ticks recorded in {} sampled ticks, the entity tick hook may not have"
+                + " applied",
+            HOOK_CHECK_SAMPLES);
+      }
+    }
+    if (blockEntityHookCheckRemaining > 0) {
+      if (blockEntities.currentTickCalls > 0) {
+        blockEntityHookCheckRemaining = 0;
+      } else if (--blockEntityHookCheckRemaining == 0) {
+        ServerUtils.LOGGER.warn(
+            "No block entity ticks recorded in {} sampled ticks, the block entity tick hook may"
+                + " not have applied",
+            HOOK_CHECK_SAMPLES);
+      }
+    }
+  }
+
+  private static boolean hasEntities(MinecraftServer server) {
+    for (ServerWorld world : server.getWorlds()) {
+      if (world.iterateEntities().iterator().hasNext()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** 計測1回（{@link System#nanoTime()} 2回と集計処理）当たりのコスト見積り． */
+  private static long calibrate() {
+    long startTime = System.nanoTime();
+    for (int i = 0; i < CALIBRATION_CALLS; i++) {
+      System.nanoTime();
+    }
+    long perCall = (System.nanoTime() - startTime) / CALIBRATION_CALLS;
+    return perCall * 2 + ACCOUNTING_NANOS;
+  }
+
+  private static <T> Identifier getTypeId(Registry<T> registry, int rawId) {
+    return registry.getId(registry.get(rawId));
+  }
+
+  /** タイプ別・チャンク別の累積値． */
+  private static final class Accumulator {
+    private final Registry<?> registry;
+
+    /** raw ID→累積処理時間（ナノ秒） */
+    private long[] totalNanos = new long[0];
+
+    /** raw ID→計測回数 */
+    private long[] calls = new long[0];
+
+    /** raw ID→1回の最大処理時間（ナノ秒） */
+    private long[] worstNanos = new long[0];
+
+    /** raw ID→最大処理時間の位置 ({@link BlockPos#asLong()}) */
+    private long[] worstPositions = new long[0];
+
+    /** raw ID→最大処理時間のディメンション */
+    private RegistryKey<?>[] worstWorlds = new RegistryKey<?>[0];
+
+    /** ディメンション→チャンク→累積処理時間（ナノ秒） */
+    private final Map<RegistryKey<World>, Long2LongOpenHashMap> chunkNanos = new HashMap<>();
+
+    /** 現在Tickの計測回数 */
+    private long currentTickCalls;
+
+    private Accumulator(Registry<?> registry) {
+      this.registry = registry;
+    }
+
+    private void record(RegistryKey<World> worldKey, int rawId, BlockPos pos, long elapsed) {
+      if (rawId < 0) {
+        return;
+      }
+      if (rawId >= totalNanos.length) {
+        grow(rawId);
+      }
+      totalNanos[rawId] += elapsed;
+      calls[rawId]++;
+      if (elapsed > worstNanos[rawId] || worstWorlds[rawId] == null) {
+        worstNanos[rawId] = elapsed;
+        worstPositions[rawId] = pos.asLong();
+        worstWorlds[rawId] = worldKey;
+      }
+      chunkNanos
+          .computeIfAbsent(worldKey, key -> new Long2LongOpenHashMap())
+          .addTo(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4), elapsed);
+      currentTickCalls++;
+    }
+
+    private void grow(int rawId) {
+      int size = Math.max(registry.size(), rawId + 1);
+      totalNanos = Arrays.copyOf(totalNanos, size);
+      calls = Arrays.copyOf(calls, size);
+      worstNanos = Arrays.copyOf(worstNanos, size);
+      worstPositions = Arrays.copyOf(worstPositions, size);
+      worstWorlds = Arrays.copyOf(worstWorlds, size);
+    }
+
+    private void reset() {
+      Arrays.fill(totalNanos, 0L);
+      Arrays.fill(calls, 0L);
+      Arrays.fill(worstNanos, 0L);
+      Arrays.fill(worstPositions, 0L);
+      Arrays.fill(worstWorlds, null);
+      chunkNanos.clear();
+      currentTickCalls = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TypeCost> getTopTypes(int limit) {
+      List<TypeCost> results = new ArrayList<>();
+      if (sampledTicks == 0) {
+        return results;
+      }
+      for (int rawId = 0; rawId < totalNanos.length; rawId++) {
+        if (calls[rawId] == 0) {
+          continue;
+        }
+        results.add(
+            new TypeCost(
+                getTypeId(registry, rawId),
+                totalNanos[rawId] / sampledTicks,
+                (double) calls[rawId] / sampledTicks,
+                totalNanos[rawId] / calls[rawId],
+                worstNanos[rawId],
+                (RegistryKey<World>) worstWorlds[rawId],
+                BlockPos.fromLong(worstPositions[rawId])));
+      }
+      results.sort((a, b) -> Long.compare(b.nanosPerTick(), a.nanosPerTick()));
+      return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    private List<ChunkCost> getTopChunks(int limit) {
+      List<ChunkCost> results = new ArrayList<>();
+      if (sampledTicks == 0) {
+        return results;
+      }
+      for (Map.Entry<RegistryKey<World>, Long2LongOpenHashMap> entry : chunkNanos.entrySet()) {
+        for (Long2LongMap.Entry chunk : entry.getValue().long2LongEntrySet()) {
+          results.add(
+              new ChunkCost(
+                  entry.getKey(),
+                  new ChunkPos(chunk.getLongKey()),
+                  chunk.getLongValue() / sampledTicks));
+        }
+      }
+      results.sort((a, b) -> Long.compare(b.nanosPerTick(), a.nanosPerTick()));
+      return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+  }
+
+  /**
+   * タイプ別Tickコスト．
+   *
+   * @param typeId タイプID
+   * @param nanosPerTick サンプリングTick当たりの処理時間（ナノ秒）
+   * @param callsPerTick サンプリングTick当たりの計測回数
+   * @param nanosPerCall 1回当たりの平均処理時間（ナノ秒）
+   * @param worstNanos 1回の最大処理時間（ナノ秒）
+   * @param worstWorld 最大処理時間のディメンション
+   * @param worstPos 最大処理時間の位置
+   */
+  public record TypeCost(
+      Identifier typeId,
+      long nanosPerTick,
+      double callsPerTick,
+      long nanosPerCall,
+      long worstNanos,
+      RegistryKey<World> worstWorld,
+      BlockPos worstPos) {}
+
+  /**
+   * チャンク別Tickコスト．
+   *
+   * @param worldKey ディメンションキー
+   * @param chunkPos チャンク座標
+   * @param nanosPerTick サンプリングTick当たりの処理時間（ナノ秒）
+   */
+  public record ChunkCost(RegistryKey<World> worldKey, ChunkPos chunkPos, long nanosPerTick) {}
+}
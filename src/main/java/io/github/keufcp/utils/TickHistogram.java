@@ -0,0 +1,143 @@
+package io.github.keufcp.utils;
+
+import java.util.Arrays;
+
+/**
+ * Tick時間の対数バケット型ヒストグラム．
+ *
+ * <p>HdrHistogram同様，2の冪毎のバケットを {@value #SUB_BUCKET_COUNT} 個のサブバケットへ線形分割する固定メモリ構造． 相対誤差は最大約3%．
+ * 記録はビット演算のみでアロケーション無し． 同一構造同士の {@link #add(TickHistogram)} による合算に対応．
+ *
+ * <p>値の単位はマイクロ秒．{@value #MAX_TRACKABLE_VALUE} µs（約67秒）超の値は上限値として記録．
+ */
+public final class TickHistogram {
+
+  /** サブバケット分解能（ビット数） */
+  private static final int SUB_BUCKET_BITS = 6;
+
+  /** サブバケット数 */
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  /** サブバケット数の半分（バケット1以降の各バケットが持つ固有サブバケット数） */
+  private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+  /** 記録可能最大値（マイクロ秒） */
+  public static final long MAX_TRACKABLE_VALUE = (1L << 26) - 1;
+
+  /** カウント配列長 */
+  private static final int COUNTS_LENGTH = indexOf(MAX_TRACKABLE_VALUE) + 1;
+
+  /** バケット毎の記録数 */
+  private final int[] counts = new int[COUNTS_LENGTH];
+
+  /** 総記録数 */
+  private long totalCount;
+
+  /** 記録最大値（マイクロ秒） */
+  private long maxValue;
+
+  /**
+   * 値記録．
+   *
+   * @param value 値（マイクロ秒）
+   */
+  public void record(long value) {
+    long clamped = Math.min(Math.max(value, 0L), MAX_TRACKABLE_VALUE);
+    counts[indexOf(clamped)]++;
+    totalCount++;
+    if (value > maxValue) {
+      maxValue = value;
+    }
+  }
+
+  /**
+   * 別ヒストグラムの内容を合算．
+   *
+   * @param other 合算元ヒストグラム
+   */
+  public void add(TickHistogram other) {
+    int[] otherCounts = other.counts;
+    for (int i = 0; i < COUNTS_LENGTH; i++) {
+      counts[i] += otherCounts[i];
+    }
+    totalCount += other.totalCount;
+    maxValue = Math.max(maxValue, other.maxValue);
+  }
+
+  /** 全記録消去． */
+  public void reset() {
+    Arrays.fill(counts, 0);
+    totalCount = 0;
+    maxValue = 0;
+  }
+
+  /**
+   * 総記録数取得．
+   *
+   * @return 記録数
+   */
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  /**
+   * 記録最大値取得．
+   *
+   * @return 最大値（マイクロ秒）．記録無し時は0
+   */
+  public long getMaxValue() {
+    return maxValue;
+  }
+
+  /**
+   * 指定パーセンタイル値取得．
+   *
+   * <p>該当バケットの上端値を返却（HdrHistogramと同様の保守的推定）．
+   *
+   * @param percentile パーセンタイル（0〜100）
+   * @return パーセンタイル値（マイクロ秒）．記録無し時は0
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (totalCount == 0) {
+      return 0;
+    }
+    double clampedPercentile = Math.min(Math.max(percentile, 0.0), 100.0);
+    long target = Math.max(1L, (long) Math.ceil(clampedPercentile / 100.0 * totalCount));
+    long cumulative = 0;
+    for (int i = 0; i < COUNTS_LENGTH; i++) {
+      cumulative += counts[i];
+      if (cumulative >= target) {
+        return Math.min(highestEquivalentValue(i), maxValue);
+      }
+    }
+    return maxValue;
+  }
+
+  /**
+   * 値からカウント配列インデックスを算出．
+   *
+   * @param value 値（0以上）
+   * @return インデックス
+   */
+  private static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int msb = 63 - Long.numberOfLeadingZeros(value);
+    int bucket = msb - SUB_BUCKET_BITS + 1;
+    int subBucket = (int) (value >>> bucket);
+    return bucket * SUB_BUCKET_HALF_COUNT + subBucket;
+  }
+
+  /**
+   * インデックスが表す値範囲の上端値算出．
+   *
+   * @param index カウント配列インデックス
+   * @return 上端値
+   */
+  private static long highestEquivalentValue(int index) {
+    int bucket = Math.max(0, index / SUB_BUCKET_HALF_COUNT - 1);
+    long subBucket = index - (long) bucket * SUB_BUCKET_HALF_COUNT;
+    return ((subBucket + 1) << bucket) - 1;
+  }
+}
@@ -0,0 +1,34 @@
+package io.github.keufcp.utils;
+
+/**
+ * Tick内処理フェーズ定義．
+ *
+ * <p>{@link #ENTITIES}・{@link #BLOCK_ENTITIES}・{@link #CHUNKS} は {@link #WORLDS} に内包される．
+ */
+public enum TickPhase {
+  WORLDS("mspt.phase.worlds", false),
+  ENTITIES("mspt.phase.entities", true),
+  BLOCK_ENTITIES("mspt.phase.block_entities", true),
+  CHUNKS("mspt.phase.chunks", true),
+  NETWORK("mspt.phase.network", false),
+  AUTOSAVE("mspt.phase.autosave", false);
+
+  /** 表示名メッセージキー */
+  private final String langKey;
+
+  /** {@link #WORLDS} 内包フラグ */
+  private final boolean nested;
+
+  TickPhase(String langKey, boolean nested) {
+    this.langKey = langKey;
+    this.nested = nested;
+  }
+
+  public String getLangKey() {
+    return langKey;
+  }
+
+  public boolean isNested() {
+    return nested;
+  }
+}
@@ -0,0 +1,186 @@
+package io.github.keufcp.utils;
+
+import io.github.keufcp.ServerUtils;
+import java.util.EnumSet;
+
+/**
+ * Tick内フェーズ別処理時間集計クラス．
+ *
+ * <p>Mixinから呼ばれる {@link #begin(TickPhase)}・{@link #end(TickPhase)}
+ * でフェーズ毎の処理時間をTick単位に累積し，Tick終了時に集計窓毎の減衰平均へ反映． 計測コストはフェーズ当たり {@link System#nanoTime()} 2回のみ．
+ * 無効時はフラグ判定のみで即時復帰．
+ *
+ * <p>毎Tick通過するフェーズの計測開始が一定Tick数の間一度も無い場合，インジェクション不一致として1度だけ警告．
+ *
+ * <p>書き込みはサーバースレッドのみ．
+ */
+public class TickPhaseProfiler {
+
+  /** フェーズ一覧 */
+  private static final TickPhase[] PHASES = TickPhase.values();
+
+  /** インジェクション適用確認までのTick数 */
+  private static final int HOOK_CHECK_TICKS = 200;
+
+  /** 毎Tick通過するため，インジェクション適用確認の対象とするフェーズ */
+  private static final EnumSet<TickPhase> HOOK_CHECK_PHASES =
+      EnumSet.of(TickPhase.WORLDS, TickPhase.CHUNKS, TickPhase.NETWORK);
+
+  /** 計測有効フラグ */
+  private static volatile boolean enabled;
+
+  /** フェーズ開始時刻（0は未開始） */
+  private static final long[] phaseStartTimes = new long[PHASES.length];
+
+  /** 現在Tick内のフェーズ別累積時間（ナノ秒） */
+  private static final long[] currentTickTimes = new long[PHASES.length];
+
+  /** フェーズ×集計窓毎の減衰平均（ナノ秒/Tick） */
+  private static final DecayingAverage[][] phaseAverages = createAverages();
+
+  /** フェーズ別の計測開始実績 */
+  private static final boolean[] phaseSeen = new boolean[PHASES.length];
+
+  /** インジェクション適用確認までの残りTick数（0は確認済み） */
+  private static int hookCheckRemaining = HOOK_CHECK_TICKS;
+
+  /**
+   * 計測有効状態取得．
+   *
+   * @return 有効時true
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * 計測有効状態変更． 有効化時は過去の集計値を破棄．
+   *
+   * <p>サーバースレッドまたはサーバー起動前に呼出．
+   *
+   * @param value 有効化する場合true
+   */
+  public static void setEnabled(boolean value) {
+    if (value && !enabled) {
+      for (int i = 0; i < PHASES.length; i++) {
+        phaseStartTimes[i] = 0L;
+        currentTickTimes[i] = 0L;
+        for (DecayingAverage average : phaseAverages[i]) {
+          average.reset();
+        }
+      }
+    }
+    enabled = value;
+  }
+
+  /**
+   * フェーズ開始記録．
+   *
+   * @param phase 対象フェーズ
+   */
+  public static void begin(TickPhase phase) {
+    if (!enabled) {
+      return;
+    }
+    int index = phase.ordinal();
+    phaseStartTimes[index] = System.nanoTime();
+    phaseSeen[index] = true;
+  }
+
+  /**
+   * フェーズ終了記録． 開始時刻からの経過時間を現在Tickへ累積．
+   *
+   * @param phase 対象フェーズ
+   */
+  public static void end(TickPhase phase) {
+    if (!enabled) {
+      return;
+    }
+    int index = phase.ordinal();
+    long startTime = phaseStartTimes[index];
+    if (startTime != 0L) {
+      currentTickTimes[index] += System.nanoTime() - startTime;
+      phaseStartTimes[index] = 0L;
+    }
+  }
+
+  /** Tick開始時処理． 前回Tick終了処理まで到達しなかった経路（サーバー一時停止中の自動保存等）の累積時間を破棄． */
+  public static void onTickStart() {
+    if (!enabled) {
+      return;
+    }
+    for (int i = 0; i < PHASES.length; i++) {
+      phaseStartTimes[i] = 0L;
+      currentTickTimes[i] = 0L;
+    }
+  }
+
+  /**
+   * Tick終了時処理． 現在Tickの累積時間を減衰平均へ反映しリセット．
+   *
+   * @param elapsedNanos 前回Tick終了からの経過時間（ナノ秒）
+   */
+  public static void onTickEnd(long elapsedNanos) {
+    if (!enabled) {
+      return;
+    }
+    for (int i = 0; i < PHASES.length; i++) {
+      long tickTime = currentTickTimes[i];
+      for (DecayingAverage average : phaseAverages[i]) {
+        average.update(tickTime, elapsedNanos);
+      }
+      currentTickTimes[i] = 0L;
+    }
+    if (hookCheckRemaining > 0 && --hookCheckRemaining == 0) {
+      checkHooks();
+    }
+  }
+
+  /**
+   * 現在Tick内の指定フェーズ累積時間取得． {@link #onTickEnd(long)} 前のTick終了処理から参照．
+   *
+   * <p>サーバースレッドからのみ呼出可．
+   *
+   * @param phase 対象フェーズ
+   * @return 累積時間（ナノ秒）．無効時は0
+   */
+  public static long getCurrentTickTime(TickPhase phase) {
+    return currentTickTimes[phase.ordinal()];
+  }
+
+  /**
+   * 指定フェーズ・集計窓の平均処理時間取得．
+   *
+   * @param phase 対象フェーズ
+   * @param window 集計窓
+   * @return 1Tick当たりの平均処理時間（ミリ秒）．データ無し時は0
+   */
+  public static double getMeanPhaseTime(TickPhase phase, TickWindow window) {
+    double meanNanos = phaseAverages[phase.ordinal()][window.ordinal()].get();
+    if (Double.isNaN(meanNanos)) {
+      return 0.0;
+    }
+    return meanNanos / 1_000_000.0;
+  }
+
+  /** 計測開始実績の無いフェーズをインジェクション不一致として警告． */
+  private static void checkHooks() {
+    for (TickPhase phase : HOOK_CHECK_PHASES) {
+      if (!phaseSeen[phase.ordinal()]) {
+        ServerUtils.LOGGER.warn(
+            "Tick phase hook for {} did not apply, its time will read 0", phase.name());
+      }
+    }
+  }
+
+  private static DecayingAverage[][] createAverages() {
+    TickWindow[] windows = TickWindow.values();
+    DecayingAverage[][] averages = new DecayingAverage[PHASES.length][windows.length];
+    for (int i = 0; i < PHASES.length; i++) {
+      for (TickWindow window : windows) {
+        averages[i][window.ordinal()] = new DecayingAverage(window.getWindowNanos());
+      }
+    }
+    return averages;
+  }
+}
@@ -0,0 +1,115 @@
+package io.github.keufcp.utils;
+
+/**
+ * Tick開始時刻に基づく実TPS計測クラス．
+ *
+ * <p>Tick処理時間からの理論値ではなく，実時間1秒当たりに開始されたTick数を計測． 遅延後の追い上げ（キャッチアップ）や {@code /tick rate}・ {@code /tick
+ * sprint} による実レート変化もそのまま反映． 単一書き込みスレッド（サーバースレッド）前提でアロケーション無し．
+ */
+public final class TickRateTracker {
+
+  /** 直近Tick開始時刻リング */
+  private long[] startTimes;
+
+  /** 次回書き込み位置 */
+  private int head;
+
+  /** 格納済み時刻数 */
+  private int count;
+
+  /** 集計窓毎の減衰型Tickレート（{@link TickWindow#ordinal()} で索引） */
+  private final DecayingRate[] decayedRates;
+
+  /** 直近サンプル窓内の公開用Tickレート．データ無し時はNaN */
+  private volatile double sampleRate = Double.NaN;
+
+  /**
+   * 指定Tick数を対象とする計測器作成．
+   *
+   * @param sampleCount 直近レート算出対象Tick数
+   */
+  public TickRateTracker(int sampleCount) {
+    this.startTimes = new long[sampleCount + 1];
+    TickWindow[] windows = TickWindow.values();
+    this.decayedRates = new DecayingRate[windows.length];
+    for (TickWindow window : windows) {
+      decayedRates[window.ordinal()] = new DecayingRate(window.getWindowNanos());
+    }
+  }
+
+  /**
+   * Tick開始時刻の記録．
+   *
+   * <p>サーバースレッドからのみ呼出可．
+   *
+   * @param startTime Tick開始時刻（{@link System#nanoTime()} 基準）
+   */
+  public void onTickStart(long startTime) {
+    if (count > 0) {
+      long elapsed = startTime - startTimes[previousIndex(head)];
+      for (DecayingRate rate : decayedRates) {
+        rate.update(elapsed);
+      }
+    }
+
+    int oldestIndex;
+    if (count == startTimes.length) {
+      oldestIndex = (head + 1 == startTimes.length) ? 0 : head + 1;
+    } else {
+      oldestIndex = 0;
+      count++;
+    }
+    startTimes[head] = startTime;
+    head = (head + 1 == startTimes.length) ? 0 : head + 1;
+
+    if (count > 1) {
+      long span = startTime - startTimes[oldestIndex];
+      if (span > 0) {
+        sampleRate = (count - 1) * 1_000_000_000.0 / span;
+      }
+    }
+  }
+
+  /**
+   * 直近サンプル窓内のTickレート取得．
+   *
+   * @return 毎秒Tick数．データ無し時はNaN
+   */
+  public double getRate() {
+    return sampleRate;
+  }
+
+  /**
+   * 指定集計窓の減衰型Tickレート取得．
+   *
+   * @param window 集計窓
+   * @return 毎秒Tick数．データ無し時はNaN
+   */
+  public double getRate(TickWindow window) {
+    return decayedRates[window.ordinal()].get();
+  }
+
+  /**
+   * 直近レート算出対象Tick数の変更． 既存時刻は新しい順に引き継ぎ．
+   *
+   * <p>サーバースレッドまたはサーバー起動前に呼出．
+   *
+   * @param sampleCount 新しい対象Tick数
+   */
+  public void resize(int sampleCount) {
+    long[] resized = new long[sampleCount + 1];
+    int kept = Math.min(count, resized.length);
+    int index = head;
+    for (int i = kept - 1; i >= 0; i--) {
+      index = previousIndex(index);
+      resized[i] = startTimes[index];
+    }
+    startTimes = resized;
+    count = kept;
+    head = (kept == resized.length) ? 0 : kept;
+  }
+
+  private int previousIndex(int index) {
+    return (index == 0) ? startTimes.length - 1 : index - 1;
+  }
+}
@@ -0,0 +1,108 @@
+package io.github.keufcp.utils;
+
+/**
+ * Tick時間サンプル保持用の固定長リングバッファ．
+ *
+ * <p>単一書き込みスレッド（サーバースレッド）前提の {@code long[]} リングと累積和による実装． 記録はO(1)かつアロケーション無し．
+ * 平均値は書き込み側で算出しvolatileフィールドで公開するため，読み取り側は反復不要かつ一貫した値を取得可能．
+ */
+public final class TickSampleRing {
+
+  /** サンプル格納配列 */
+  private final long[] samples;
+
+  /** 次回書き込み位置 */
+  private int head;
+
+  /** 格納済みサンプル数 */
+  private int count;
+
+  /** 格納済みサンプルの累積和 */
+  private long runningSum;
+
+  /** 公開用平均値（ナノ秒）． サンプル無し時はNaN */
+  private volatile double publishedMean = Double.NaN;
+
+  /** 公開用サンプル数 */
+  private volatile int publishedCount;
+
+  /**
+   * 指定容量リングバッファ作成．
+   *
+   * @param capacity 保持サンプル数（1以上）
+   */
+  public TickSampleRing(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    this.samples = new long[capacity];
+  }
+
+  /**
+   * サンプル追加． 容量超過時は最古サンプルを上書き．
+   *
+   * <p>サーバースレッドからのみ呼出可．
+   *
+   * @param value サンプル値
+   */
+  public void add(long value) {
+    if (count == samples.length) {
+      runningSum -= samples[head];
+    } else {
+      count++;
+    }
+    samples[head] = value;
+    runningSum += value;
+    head = (head + 1 == samples.length) ? 0 : head + 1;
+
+    publishedCount = count;
+    publishedMean = runningSum / (double) count;
+  }
+
+  /**
+   * 平均値取得．
+   *
+   * @return 平均値．サンプル無し時はNaN
+   */
+  public double getMean() {
+    return publishedMean;
+  }
+
+  /**
+   * 格納済みサンプル数取得．
+   *
+   * @return サンプル数
+   */
+  public int getCount() {
+    return publishedCount;
+  }
+
+  /**
+   * 容量取得．
+   *
+   * @return 保持可能サンプル数
+   */
+  public int getCapacity() {
+    return samples.length;
+  }
+
+  /**
+   * 格納済みサンプルを古い順に別リングへ複写． 窓サイズ変更時の引き継ぎ用．
+   *
+   * <p>書き込みスレッドと同一スレッドからのみ呼出可．
+   *
+   * @param target 複写先リング
+   */
+  public void copyInto(TickSampleRing target) {
+    int start = (count == samples.length) ? head : 0;
+    // 複写先に収まる最新サンプルのみ対象
+    int skip = Math.max(0, count - target.getCapacity());
+    for (int i = skip; i < count; i++) {
+      int index = start + i;
+      if (index >= samples.length) {
+        index -= samples.length;
+      }
+      target.add(samples[index]);
+    }
+  }
+}
@@ -1,37 +1,62 @@
 package io.github.keufcp.utils;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-
 /** サーバーのTick時間関連ユーティリティクラス． TPS (Ticks Per Second) および MSPT (Milliseconds Per Tick) の計算機能提供． */
 public class TickTimeUtil {
 
   /** Minecraftデフォルト目標TPS */
-  private static final int TPS_TARGET = 20;
+  private static final float TPS_TARGET = 20.0f;
+
+  /** Tick時間キャッシュ数デフォルト値 */
+  public static final int DEFAULT_TICK_TIME_SAMPLES = 100;
+
+  /** Tick時間キャッシュ数上限（20TPSで1時間分） */
+  public static final int MAX_TICK_TIME_SAMPLES = 72000;
+
+  /** Tick時間キャッシュ（サーバースレッド単一書き込み） */
+  private static volatile TickSampleRing recentTickTimes =
+      new TickSampleRing(DEFAULT_TICK_TIME_SAMPLES);
+
+  /** 集計窓毎のTick時間減衰平均（ナノ秒，{@link TickWindow#ordinal()} で索引） */
+  private static final DecayingAverage[] decayedTickTimes = createDecayingAverages();
+
+  /** 時間窓付きTick時間ヒストグラム（最大窓幅15分） */
+  private static final WindowedTickHistogram tickTimeHistogram =
+      new WindowedTickHistogram(TickWindow.MINUTES_15.getWindowNanos());
 
-  /** Tick時間キャッシュ数 */
-  private static final int TICK_TIME_SAMPLES = 100;
+  /** Tick開始時刻に基づく実TPS計測器 */
+  private static final TickRateTracker tickRateTracker =
+      new TickRateTracker(DEFAULT_TICK_TIME_SAMPLES);
 
-  /** Tick時間キャッシュ */
-  private static final Queue<Long> recentTickTimes = new ConcurrentLinkedQueue<>();
+  /** サーバー目標Tickレート（{@code /tick rate} 反映） */
+  private static volatile float targetTickRate = TPS_TARGET;
+
+  /** Tick凍結中フラグ（{@code /tick freeze}） */
+  private static volatile boolean frozen;
+
+  /** Tickスプリント中フラグ（{@code /tick sprint}） */
+  private static volatile boolean sprinting;
+
+  /** 実行中Tickの開始時刻（-1はTick外） */
+  private static volatile long currentTickStartTime = -1L;
+
+  /** 前回Tick終了時刻（ナノ秒，サーバースレッドのみ参照） */
+  private static long lastTickEndTime = -1L;
 
   /**
    * サーバー現在TPS計算．
    *
-   * @return 現在のTPS値
+   * <p>直近 {@link #getSampleWindow()} Tick分の開始時刻間隔から算出した，実時間1秒当たりの実Tick数． 目標レートでの上限無し．
+   *
+   * @return 現在のTPS値．データ無し時は目標Tickレート
    */
   public static double calculateTPS() {
-    double meanTickTime = getMeanTickTime();
+    double rate = tickRateTracker.getRate();
 
-    if (meanTickTime == 0.0) {
-      return TPS_TARGET; // データがない場合は目標TPSを返す
+    if (Double.isNaN(rate)) {
+      return targetTickRate; // データがない場合は目標TPSを返す
     }
 
-    // MSPTから理論TPSを計算
-    double theoreticalTps = 1000.0 / meanTickTime;
-
-    // TPSは目標TPSを超えないようにする
-    return Math.min(theoreticalTps, TPS_TARGET);
+    return rate;
   }
 
   /**
@@ -40,31 +65,177 @@ public class TickTimeUtil {
    * @return 平均Tick時間（ミリ秒，小数点含む可能性有）
    */
   public static double getMeanTickTime() {
-    long sum = 0;
-    int sampleCount = 0;
+    double meanNanos = recentTickTimes.getMean();
 
-    for (long time : recentTickTimes) {
-      sum += time;
-      sampleCount++;
+    if (Double.isNaN(meanNanos)) {
+      return 50.0; // デフォルト値
     }
 
-    if (sampleCount == 0) {
+    // ナノ秒からミリ秒へ変換（1,000,000.0で除算し小数点保持）
+    return meanNanos / 1_000_000.0;
+  }
+
+  /**
+   * 指定集計窓の減衰平均TPS計算．
+   *
+   * @param window 集計窓
+   * @return 減衰平均TPS値．データ無し時は目標Tickレート
+   */
+  public static double calculateTPS(TickWindow window) {
+    double rate = tickRateTracker.getRate(window);
+
+    if (Double.isNaN(rate)) {
+      return targetTickRate;
+    }
+
+    return rate;
+  }
+
+  /**
+   * サーバー目標Tickレート取得．
+   *
+   * @return {@code /tick rate} で設定された目標TPS
+   */
+  public static float getTargetTickRate() {
+    return targetTickRate;
+  }
+
+  /**
+   * 目標Tickレートにおける1Tick当たりの時間予算取得．
+   *
+   * @return 1Tick当たりの予算（ミリ秒）
+   */
+  public static double getTickBudgetMillis() {
+    return 1000.0 / targetTickRate;
+  }
+
+  /**
+   * Tick凍結状態取得．
+   *
+   * @return {@code /tick freeze} 中の場合true
+   */
+  public static boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Tickスプリント状態取得．
+   *
+   * @return {@code /tick sprint} 中の場合true
+   */
+  public static boolean isSprinting() {
+    return sprinting;
+  }
+
+  /**
+   * 指定集計窓の減衰平均Tick時間取得．
+   *
+   * @param window 集計窓
+   * @return 減衰平均Tick時間（ミリ秒）．データ無し時は {@link #getMeanTickTime()} と同じデフォルト値
+   */
+  public static double getMeanTickTime(TickWindow window) {
+    double meanNanos = decayedTickTimes[window.ordinal()].get();
+
+    if (Double.isNaN(meanNanos)) {
       return 50.0; // デフォルト値
     }
 
-    // ナノ秒からミリ秒へ変換（1,000,000.0で除算し小数点保持）
-    return sum / (double) sampleCount / 1_000_000.0;
+    return meanNanos / 1_000_000.0;
   }
 
   /**
-   * Tick時間キャッシュ追加．
+   * 指定集計窓のTick時間ヒストグラム取得． p50/p95/p99等のパーセンタイル算出用．
+   *
+   * @param window 集計窓
+   * @return 窓内Tick時間を合算したヒストグラム（マイクロ秒単位，呼出毎に新規作成）
+   */
+  public static TickHistogram getTickTimeHistogram(TickWindow window) {
+    return tickTimeHistogram.query(window.getWindowNanos());
+  }
+
+  /**
+   * 実行中Tickの開始時刻取得． 他スレッドからのTick経過時間監視用．
+   *
+   * @return Tick開始時刻（{@link System#nanoTime()} 基準）．Tick外の場合-1
+   */
+  public static long getCurrentTickStartTime() {
+    return currentTickStartTime;
+  }
+
+  /**
+   * Tick開始記録． 実TPS計測とサーバーTick状態の反映．
+   *
+   * <p>サーバースレッドからのみ呼出可．
+   *
+   * @param tickStartTime Tick開始時刻（{@link System#nanoTime()} 基準）
+   * @param tickRate サーバー目標Tickレート
+   * @param isFrozen Tick凍結中フラグ
+   * @param isSprinting Tickスプリント中フラグ
+   */
+  public static void onTickStart(
+      long tickStartTime, float tickRate, boolean isFrozen, boolean isSprinting) {
+    currentTickStartTime = tickStartTime;
+    tickRateTracker.onTickStart(tickStartTime);
+    targetTickRate = tickRate;
+    frozen = isFrozen;
+    sprinting = isSprinting;
+  }
+
+  /**
+   * Tick時間キャッシュ追加． 減衰平均・ヒストグラムも同時に更新．
+   *
+   * <p>サーバースレッドからのみ呼出可．
    *
    * @param tickTime Tick時間（ナノ秒）
+   * @param tickEndTime Tick終了時刻（{@link System#nanoTime()} 基準）
    */
-  public static void addTickTime(long tickTime) {
+  public static void addTickTime(long tickTime, long tickEndTime) {
+    currentTickStartTime = -1L;
     recentTickTimes.add(tickTime);
-    while (recentTickTimes.size() > TICK_TIME_SAMPLES) {
-      recentTickTimes.remove();
+    tickTimeHistogram.record(tickTime / 1_000L, tickEndTime);
+
+    // 減衰係数は前回Tick終了からの実経過時間で決定（初回はTick時間で代用）
+    long elapsed = (lastTickEndTime == -1L) ? tickTime : tickEndTime - lastTickEndTime;
+    lastTickEndTime = tickEndTime;
+    for (DecayingAverage average : decayedTickTimes) {
+      average.update(tickTime, elapsed);
+    }
+    TickPhaseProfiler.onTickEnd(elapsed);
+  }
+
+  /**
+   * Tick時間キャッシュ数変更． 既存サンプルは新しい順に引き継ぎ．
+   *
+   * <p>サーバースレッドまたはサーバー起動前に呼出．
+   *
+   * @param sampleCount 新しいキャッシュ数
+   */
+  public static void setSampleWindow(int sampleCount) {
+    TickSampleRing current = recentTickTimes;
+    if (current.getCapacity() == sampleCount) {
+      return;
+    }
+    TickSampleRing resized = new TickSampleRing(sampleCount);
+    current.copyInto(resized);
+    recentTickTimes = resized;
+    tickRateTracker.resize(sampleCount);
+  }
+
+  /**
+   * 現在のTick時間キャッシュ数取得．
+   *
+   * @return キャッシュ数
+   */
+  public static int getSampleWindow() {
+    return recentTickTimes.getCapacity();
+  }
+
+  private static DecayingAverage[] createDecayingAverages() {
+    TickWindow[] windows = TickWindow.values();
+    DecayingAverage[] averages = new DecayingAverage[windows.length];
+    for (TickWindow window : windows) {
+      averages[window.ordinal()] = new DecayingAverage(window.getWindowNanos());
     }
+    return averages;
   }
 }
@@ -0,0 +1,64 @@
+package io.github.keufcp.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/** TPS/MSPT減衰平均の集計窓定義． */
+public enum TickWindow {
+  SECONDS_5("5s", TimeUnit.SECONDS.toNanos(5)),
+  MINUTES_1("1m", TimeUnit.MINUTES.toNanos(1)),
+  MINUTES_5("5m", TimeUnit.MINUTES.toNanos(5)),
+  MINUTES_15("15m", TimeUnit.MINUTES.toNanos(15));
+
+  /** 表示用ラベル */
+  private final String label;
+
+  /** 時定数（ナノ秒） */
+  private final long windowNanos;
+
+  TickWindow(String label, long windowNanos) {
+    this.label = label;
+    this.windowNanos = windowNanos;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public long getWindowNanos() {
+    return windowNanos;
+  }
+
+  /**
+   * 全窓ラベルの連結文字列取得．
+   *
+   * @return 例: {@code 5s/1m/5m/15m}
+   */
+  public static String joinLabels() {
+    StringBuilder sb = new StringBuilder();
+    for (TickWindow window : values()) {
+      if (sb.length() > 0) {
+        sb.append("/");
+      }
+      sb.append(window.label);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * 全窓の値を小数点以下2桁で連結した文字列取得．
+   *
+   * @param valueFunction 窓毎の値取得関数
+   * @return 例: {@code 20.00 / 19.98 / 19.95 / 19.90}
+   */
+  public static String joinValues(ToDoubleFunction<TickWindow> valueFunction) {
+    StringBuilder sb = new StringBuilder();
+    for (TickWindow window : values()) {
+      if (sb.length() > 0) {
+        sb.append(" / ");
+      }
+      sb.append(String.format("%.2f", valueFunction.applyAsDouble(window)));
+    }
+    return sb.toString();
+  }
+}
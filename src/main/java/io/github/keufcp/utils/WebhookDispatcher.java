@@ -0,0 +1,697 @@
+package io.github.keufcp.utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.keufcp.ServerUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Webhook配送パイプライン．
+ *
+ * <p>有界キューに積まれた送信要求を仮想スレッド上の単一ディスパッチャが順に配送． HTTPクライアントは全パイプラインで共有し接続を再利用．
+ *
+ * <ul>
+ *   <li>5xx・通信エラー時はジッター付き指数バックオフで最大 {@value #MAX_ATTEMPTS} 回まで再試行
+ *   <li>Discordのレート制限（{@code X-RateLimit-*}・{@code Retry-After}・429応答）をルート毎・グローバルに遵守．
+ *       429応答は指定時間後に再送し，試行回数には数えない
+ *   <li>キュー満杯時は新規要求を破棄（送信側スレッドは待機しない）
+ *   <li>同一宛先へ連続する埋め込みメッセージは最大 {@value #MAX_EMBEDS_PER_MESSAGE} 件まで1リクエストへ結合
+ * </ul>
+ */
+public class WebhookDispatcher {
+
+  /** 共有HTTPクライアント（送受信処理は仮想スレッドで実行） */
+  private static final HttpClient CLIENT =
+      HttpClient.newBuilder()
+          .connectTimeout(Duration.ofSeconds(10))
+          .executor(Executors.newVirtualThreadPerTaskExecutor())
+          .build();
+
+  /** 要求毎のタイムアウト */
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  /** キュー容量デフォルト値 */
+  public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+  /** 最大試行回数 */
+  private static final int MAX_ATTEMPTS = 5;
+
+  /** バックオフ初期値（ミリ秒） */
+  private static final long BASE_BACKOFF_MILLIS = 1_000L;
+
+  /** バックオフ上限（ミリ秒） */
+  private static final long MAX_BACKOFF_MILLIS = 60_000L;
+
+  /** 1メッセージ当たりの埋め込み数上限（Discord制限） */
+  private static final int MAX_EMBEDS_PER_MESSAGE = 10;
+
+  /** 1メッセージ当たりの埋め込み文字数上限（Discord制限6000文字をJSON長で保守的に近似） */
+  private static final int MAX_EMBED_CHARS_PER_MESSAGE = 6000;
+
+  /** 停止時のキュー消化待ち時間（ミリ秒） */
+  public static final long DRAIN_TIMEOUT_MILLIS = 5_000L;
+
+  /** グローバルレート制限解除時刻（{@link System#nanoTime()} 基準，全パイプライン共通） */
+  private static final AtomicLong globalResetAt = new AtomicLong(Long.MIN_VALUE);
+
+  /** パイプライン名（ログ・スレッド名用） */
+  private final String name;
+
+  /** 送信待ちキュー */
+  private final BlockingQueue<Delivery> queue;
+
+  /** アウトボックスの永続化待ちで確保済みのキュー枠数 */
+  private final AtomicInteger reserved = new AtomicInteger();
+
+  /** ルート毎のレート制限解除時刻（{@link System#nanoTime()} 基準，同一URLを共有するパイプライン間で共通） */
+  private static final Map<String, Long> routeResetAt = new ConcurrentHashMap<>();
+
+  /** ディスパッチャスレッド */
+  private volatile Thread dispatcherThread;
+
+  /** 停止済みフラグ．停止後の投入は再開せず失敗として完了 */
+  private volatile boolean stopped;
+
+  /** 配送成功数 */
+  private final AtomicLong sentCount = new AtomicLong();
+
+  /** 配送失敗数（再試行上限到達・再試行不能応答） */
+  private final AtomicLong failedCount = new AtomicLong();
+
+  /** キュー満杯による破棄数 */
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  /** 再試行数 */
+  private final AtomicLong retryCount = new AtomicLong();
+
+  /** 結合により省略したリクエスト数 */
+  private final AtomicLong coalescedCount = new AtomicLong();
+
+  /** 429応答受信数 */
+  private final AtomicLong rateLimitedCount = new AtomicLong();
+
+  /** 成功配送の投入から完了までの累計時間（ナノ秒） */
+  private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+  /** 直近成功配送の投入から完了までの時間（ナノ秒） */
+  private volatile long lastLatencyNanos = -1L;
+
+  /**
+   * パイプライン作成．
+   *
+   * @param name パイプライン名
+   * @param queueCapacity キュー容量
+   */
+  public WebhookDispatcher(String name, int queueCapacity) {
+    this.name = name;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+  }
+
+  /** ディスパッチャ開始． 開始済み・停止済みの場合は何もしない． */
+  public synchronized void start() {
+    if (dispatcherThread != null || stopped) {
+      return;
+    }
+    dispatcherThread = Thread.ofVirtual().name("ServerUtils-Webhook-" + name).start(this::run);
+  }
+
+  /**
+   * ディスパッチャ停止． キュー消化を {@value #DRAIN_TIMEOUT_MILLIS} ミリ秒まで待った後，未送信要求を失敗として完了．
+   *
+   * @return 未送信のまま破棄した要求数
+   */
+  public int stop() {
+    return stop(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_TIMEOUT_MILLIS));
+  }
+
+  /**
+   * 期限指定のディスパッチャ停止． 期限までキュー消化を待った後，未送信要求を失敗として完了．
+   *
+   * <p>複数パイプラインの停止時は共通の期限を渡すことで，全体の待ち時間を期限内に収める． 待機中も各パイプラインは並行して配送を続ける． 停止後の投入は受け付けず，失敗として完了．
+   *
+   * @param deadlineNanos キュー消化待ちの期限（{@link System#nanoTime()} 基準）
+   * @return 未送信のまま破棄した要求数
+   */
+  public synchronized int stop(long deadlineNanos) {
+    stopped = true;
+    Thread thread = dispatcherThread;
+    if (thread == null) {
+      return 0;
+    }
+    while (!queue.isEmpty() && System.nanoTime() - deadlineNanos < 0) {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    dispatcherThread = null;
+    thread.interrupt();
+
+    int abandoned = 0;
+    Delivery delivery;
+    while ((delivery = queue.poll()) != null) {
+      abandon(delivery);
+      abandoned++;
+    }
+    if (abandoned > 0) {
+      ServerUtils.LOGGER.warn("Webhook pipeline '{}' stopped with {} undelivered", name, abandoned);
+    }
+    return abandoned;
+  }
+
+  /**
+   * 送信要求投入． キュー満杯時は待機せず破棄． 停止後は失敗として完了．
+   *
+   * @param delivery 送信要求
+   * @return 投入できた場合true
+   */
+  public boolean submit(Delivery delivery) {
+    if (stopped) {
+      abandon(delivery);
+      return false;
+    }
+    start();
+    if (!queue.offer(delivery)) {
+      reject(delivery);
+      return false;
+    }
+    // 投入と停止が競合した場合，停止処理の破棄から漏れた要求を取り除く
+    if (stopped && queue.remove(delivery)) {
+      abandon(delivery);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * 後で投入する送信要求のキュー枠確保． 確保済みの枠を含めてキュー満杯の場合は {@link #submit(Delivery)} と同様に破棄．
+   *
+   * @param delivery 送信要求
+   * @return 確保できた場合true
+   */
+  public boolean reserve(Delivery delivery) {
+    if (stopped) {
+      abandon(delivery);
+      return false;
+    }
+    while (true) {
+      int current = reserved.get();
+      if (queue.remainingCapacity() <= current) {
+        reject(delivery);
+        return false;
+      }
+      if (reserved.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * キュー空き有無取得． 確保済みの枠は使用中とみなす．
+   *
+   * @return 1件以上投入できる場合true
+   */
+  public boolean hasCapacity() {
+    return queue.remainingCapacity() > reserved.get();
+  }
+
+  /**
+   * {@link #reserve(Delivery)} で枠を確保した送信要求の投入． 確保した枠は投入可否によらず解放．
+   *
+   * @param delivery 送信要求
+   * @return 投入できた場合true
+   */
+  public boolean submitReserved(Delivery delivery) {
+    reserved.decrementAndGet();
+    return submit(delivery);
+  }
+
+  private void abandon(Delivery delivery) {
+    delivery.result().completeExceptionally(new IOException("Webhook dispatcher stopped"));
+  }
+
+  private void reject(Delivery delivery) {
+    droppedCount.incrementAndGet();
+    delivery.result().completeExceptionally(new IOException("Webhook queue is full"));
+    ServerUtils.LOGGER.warn("Webhook queue '{}' is full, dropping delivery", name);
+  }
+
+  private void run() {
+    while (dispatcherThread == Thread.currentThread()) {
+      Delivery delivery;
+      try {
+        delivery = queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (delivery.embedPayload() != null) {
+        delivery = coalesce(delivery);
+      }
+      try {
+        deliver(delivery);
+      } catch (InterruptedException e) {
+        delivery.result().completeExceptionally(e);
+        return;
+      }
+    }
+  }
+
+  /**
+   * キュー先頭に連続する同一宛先の埋め込みメッセージを結合． 埋め込み数・文字数の上限内で結合し，結合元の結果は結合後の結果で完了．
+   *
+   * <p>キューの消費者はディスパッチャスレッドのみのため，先頭確認と取出しの間に他スレッドが取り出すことは無い．
+   *
+   * @param first 先頭要求
+   * @return 結合後の要求（結合対象が無い場合は先頭要求そのもの）
+   */
+  private Delivery coalesce(Delivery first) {
+    JsonArray embeds = first.embedPayload().getAsJsonArray("embeds");
+    int embedCount = embeds.size();
+    int embedChars = embeds.toString().length();
+    List<Delivery> merged = null;
+
+    Delivery next;
+    while ((next = queue.peek()) != null
+        && next.embedPayload() != null
+        && next.uri().equals(first.uri())
+        && next.method().equals(first.method())) {
+      JsonArray nextEmbeds = next.embedPayload().getAsJsonArray("embeds");
+      int nextChars = nextEmbeds.toString().length();
+      if (embedCount + nextEmbeds.size() > MAX_EMBEDS_PER_MESSAGE
+          || embedChars + nextChars > MAX_EMBED_CHARS_PER_MESSAGE) {
+        break;
+      }
+      queue.poll();
+      if (merged == null) {
+        merged = new ArrayList<>();
+        merged.add(first);
+      }
+      merged.add(next);
+      embedCount += nextEmbeds.size();
+      embedChars += nextChars;
+    }
+
+    if (merged == null) {
+      return first;
+    }
+
+    JsonObject payload = first.embedPayload().deepCopy();
+    JsonArray combined = new JsonArray();
+    for (Delivery delivery : merged) {
+      combined.addAll(delivery.embedPayload().getAsJsonArray("embeds"));
+    }
+    payload.add("embeds", combined);
+
+    Delivery coalesced =
+        new Delivery(
+            first.uri(),
+            first.method(),
+            first.contentType(),
+            payload.toString().getBytes(StandardCharsets.UTF_8),
+            payload,
+            first.enqueuedNanos(),
+            new CompletableFuture<>());
+    List<Delivery> sources = merged;
+    coalesced
+        .result()
+        .whenComplete(
+            (response, error) -> {
+              for (Delivery source : sources) {
+                if (error != null) {
+                  source.result().completeExceptionally(error);
+                } else {
+                  source.result().complete(response);
+                }
+              }
+            });
+    coalescedCount.addAndGet(merged.size() - 1);
+    return coalesced;
+  }
+
+  /**
+   * 1要求の配送． 成功・再試行不能・再試行上限到達のいずれかまで繰り返し． 429応答による再送は試行回数に数えない．
+   *
+   * @param delivery 送信要求
+   * @throws InterruptedException 停止時
+   */
+  private void deliver(Delivery delivery) throws InterruptedException {
+    String route = delivery.method() + " " + delivery.uri().getPath();
+    HttpRequest request =
+        HttpRequest.newBuilder()
+            .uri(delivery.uri())
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", delivery.contentType())
+            .header("User-Agent", "ServerUtils-Webhook")
+            .method(delivery.method(), HttpRequest.BodyPublishers.ofByteArray(delivery.body()))
+            .build();
+
+    int attempt = 0;
+    while (true) {
+      awaitRateLimit(route);
+
+      HttpResponse<String> response;
+      try {
+        response = CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString()).get();
+      } catch (ExecutionException e) {
+        ServerUtils.LOGGER.warn(
+            "Webhook delivery '{}' failed (attempt {}/{}): {}",
+            name,
+            attempt + 1,
+            MAX_ATTEMPTS,
+            e.getCause().toString());
+        if (++attempt >= MAX_ATTEMPTS) {
+          break;
+        }
+        retryCount.incrementAndGet();
+        Thread.sleep(backoffMillis(attempt - 1));
+        continue;
+      }
+
+      updateRateLimit(route, response);
+      int status = response.statusCode();
+
+      if (status >= 200 && status < 300) {
+        long latency = System.nanoTime() - delivery.enqueuedNanos();
+        lastLatencyNanos = latency;
+        totalLatencyNanos.addAndGet(latency);
+        sentCount.incrementAndGet();
+        delivery.result().complete(response);
+        return;
+      }
+
+      if (status == 429) {
+        // 送信先の指定時間待てば受理されるため，試行回数を消費せず再送
+        rateLimitedCount.incrementAndGet();
+        applyRetryAfter(route, response);
+        ServerUtils.LOGGER.warn("Webhook '{}' rate limited, retrying after reset", name);
+        continue;
+      }
+
+      if (status < 500) {
+        // 4xx（429以外）は再試行しても結果が変わらないため即失敗
+        ServerUtils.LOGGER.error(
+            "Webhook delivery '{}' rejected with HTTP {}: {}", name, status, response.body());
+        failedCount.incrementAndGet();
+        delivery.result().complete(response);
+        return;
+      }
+
+      ServerUtils.LOGGER.warn(
+          "Webhook delivery '{}' got HTTP {} (attempt {}/{})",
+          name,
+          status,
+          attempt + 1,
+          MAX_ATTEMPTS);
+      if (++attempt >= MAX_ATTEMPTS) {
+        break;
+      }
+      retryCount.incrementAndGet();
+      Thread.sleep(backoffMillis(attempt - 1));
+    }
+
+    failedCount.incrementAndGet();
+    delivery
+        .result()
+        .completeExceptionally(
+            new IOException("Webhook delivery gave up after " + MAX_ATTEMPTS + " attempts"));
+    ServerUtils.LOGGER.error("Webhook delivery '{}' gave up after {} attempts", name, MAX_ATTEMPTS);
+  }
+
+  /**
+   * ルート・グローバルのレート制限解除まで待機．
+   *
+   * @param route ルートキー
+   * @throws InterruptedException 停止時
+   */
+  private void awaitRateLimit(String route) throws InterruptedException {
+    long resetAt = Math.max(globalResetAt.get(), routeResetAt.getOrDefault(route, Long.MIN_VALUE));
+    long waitNanos = resetAt - System.nanoTime();
+    if (resetAt != Long.MIN_VALUE && waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  /**
+   * 応答ヘッダのレート制限情報反映． 残り枠0の場合，リセットまでルートを停止．
+   *
+   * @param route ルートキー
+   * @param response 応答
+   */
+  private void updateRateLimit(String route, HttpResponse<String> response) {
+    Optional<String> remaining = response.headers().firstValue("X-RateLimit-Remaining");
+    Optional<String> resetAfter = response.headers().firstValue("X-RateLimit-Reset-After");
+    if (remaining.isPresent() && resetAfter.isPresent() && "0".equals(remaining.get())) {
+      double seconds = parseSeconds(resetAfter.get());
+      if (seconds > 0) {
+        routeResetAt.put(route, System.nanoTime() + secondsToNanos(seconds));
+      }
+    }
+  }
+
+  /**
+   * 429応答の待機時間反映． 本文の {@code retry_after}，無ければ {@code Retry-After} ヘッダを使用．
+   *
+   * @param route ルートキー
+   * @param response 429応答
+   */
+  private void applyRetryAfter(String route, HttpResponse<String> response) {
+    double seconds = -1.0;
+    boolean global = response.headers().firstValue("X-RateLimit-Global").isPresent();
+    try {
+      JsonElement element = JsonParser.parseString(response.body());
+      if (element.isJsonObject()) {
+        JsonObject body = element.getAsJsonObject();
+        if (body.has("retry_after")) {
+          seconds = body.get("retry_after").getAsDouble();
+        }
+        if (body.has("global") && body.get("global").getAsBoolean()) {
+          global = true;
+        }
+      }
+    } catch (RuntimeException e) {
+      // 本文がJSONでない場合はヘッダを使用
+    }
+    if (seconds < 0) {
+      seconds = response.headers().firstValue("Retry-After").map(this::parseSeconds).orElse(1.0);
+    }
+
+    long resetAt = System.nanoTime() + secondsToNanos(Math.max(seconds, 0.0));
+    if (global) {
+      globalResetAt.accumulateAndGet(resetAt, Math::max);
+    } else {
+      routeResetAt.merge(route, resetAt, Math::max);
+    }
+  }
+
+  private double parseSeconds(String value) {
+    try {
+      return Double.parseDouble(value.trim());
+    } catch (NumberFormatException e) {
+      return -1.0;
+    }
+  }
+
+  private static long secondsToNanos(double seconds) {
+    return (long) (seconds * 1_000_000_000.0);
+  }
+
+  /**
+   * ジッター付き指数バックオフ時間算出． 上限付き指数値の50〜100%の範囲で一様乱数．
+   *
+   * @param attempt 試行番号（0始まり）
+   * @return 待機時間（ミリ秒）
+   */
+  private static long backoffMillis(int attempt) {
+    long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt, 16));
+    return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+  }
+
+  /**
+   * パイプライン名取得．
+   *
+   * @return パイプライン名
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * 送信待ち要求数取得．
+   *
+   * @return キュー内要求数
+   */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  public long getSentCount() {
+    return sentCount.get();
+  }
+
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  public long getRetryCount() {
+    return retryCount.get();
+  }
+
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  public long getRateLimitedCount() {
+    return rateLimitedCount.get();
+  }
+
+  /**
+   * 成功配送の平均遅延取得．
+   *
+   * @return 投入から完了までの平均時間（ミリ秒）．成功配送無し時はNaN
+   */
+  public double getMeanLatencyMillis() {
+    long sent = sentCount.get();
+    return sent == 0 ? Double.NaN : totalLatencyNanos.get() / (double) sent / 1_000_000.0;
+  }
+
+  /**
+   * 直近成功配送の遅延取得．
+   *
+   * @return 投入から完了までの時間（ミリ秒）．成功配送無し時はNaN
+   */
+  public double getLastLatencyMillis() {
+    long latency = lastLatencyNanos;
+    return latency < 0 ? Double.NaN : latency / 1_000_000.0;
+  }
+
+  /**
+   * 送信要求．
+   *
+   * @param uri 送信先
+   * @param method HTTPメソッド
+   * @param contentType Content-Type
+   * @param body 本文
+   * @param embedPayload 結合可能な埋め込みメッセージの場合その本文JSON（変更不可として扱う），それ以外はnull
+   * @param enqueuedNanos 作成時刻（{@link System#nanoTime()} 基準）
+   * @param result 配送結果（2xx・再試行不能応答で正常完了，再試行上限・破棄で例外完了）
+   */
+  public record Delivery(
+      URI uri,
+      String method,
+      String contentType,
+      byte[] body,
+      JsonObject embedPayload,
+      long enqueuedNanos,
+      CompletableFuture<HttpResponse<String>> result) {
+
+    /**
+     * JSON本文の送信要求作成． 結合対象外．
+     *
+     * @param uri 送信先
+     * @param method HTTPメソッド
+     * @param json JSON本文
+     * @return 送信要求
+     */
+    public static Delivery json(URI uri, String method, String json) {
+      return new Delivery(
+          uri,
+          method,
+          "application/json",
+          json.getBytes(StandardCharsets.UTF_8),
+          null,
+          System.nanoTime(),
+          new CompletableFuture<>());
+    }
+
+    /**
+     * 埋め込みメッセージの送信要求作成． 同一宛先の後続要求と結合可能．
+     *
+     * <p>{@code payload} は複数の送信先で共有されうるため，作成後に変更しないこと．
+     *
+     * @param uri 送信先
+     * @param payload {@code embeds} 配列を含むメッセージ本文
+     * @return 送信要求
+     */
+    public static Delivery embeds(URI uri, JsonObject payload) {
+      return new Delivery(
+          uri,
+          "POST",
+          "application/json",
+          payload.toString().getBytes(StandardCharsets.UTF_8),
+          payload,
+          System.nanoTime(),
+          new CompletableFuture<>());
+    }
+
+    /**
+     * ファイル添付付きメッセージの送信要求作成． {@code multipart/form-data} で本文を {@code payload_json}，ファイルを {@code
+     * files[0]} として送信． 結合対象外．
+     *
+     * @param uri 送信先
+     * @param payload メッセージ本文（{@code attachment://<ファイル名>} で添付を参照可）
+     * @param fileName 添付ファイル名
+     * @param fileContentType 添付ファイルのContent-Type
+     * @param file 添付ファイル内容
+     * @return 送信要求
+     */
+    public static Delivery multipart(
+        URI uri, JsonObject payload, String fileName, String fileContentType, byte[] file) {
+      String boundary = "ServerUtils-" + UUID.randomUUID();
+      ByteArrayOutputStream body = new ByteArrayOutputStream(file.length + 4096);
+      body.writeBytes(
+          ("--"
+                  + boundary
+                  + "\r\nContent-Disposition: form-data; name=\"payload_json\"\r\n"
+                  + "Content-Type: application/json\r\n\r\n"
+                  + payload
+                  + "\r\n--"
+                  + boundary
+                  + "\r\nContent-Disposition: form-data; name=\"files[0]\"; filename=\""
+                  + fileName
+                  + "\"\r\nContent-Type: "
+                  + fileContentType
+                  + "\r\n\r\n")
+              .getBytes(StandardCharsets.UTF_8));
+      body.writeBytes(file);
+      body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+      return new Delivery(
+          uri,
+          "POST",
+          "multipart/form-data; boundary=" + boundary,
+          body.toByteArray(),
+          null,
+          System.nanoTime(),
+          new CompletableFuture<>());
+    }
+  }
+}
@@ -0,0 +1,402 @@
+package io.github.keufcp.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.keufcp.ServerUtils;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import net.fabricmc.loader.api.FabricLoader;
+
+/**
+ * Webhook送信要求の永続化アウトボックス．
+ *
+ * <p>送信要求を追記専用ログ {@value #FILE_NAME} へ書き込み，永続化後に配送パイプラインへ投入． 応答（2xx・再試行不能エラー）を受けた要求は完了として記録し，
+ * 未完了の要求は次回起動時に記録順で再送． 書込み・fsyncは専用スレッドがまとめて行い，呼出元はディスク・通信を待たない．
+ *
+ * <p>完了記録はfsyncを伴わないため，クラッシュ時は送信済みの要求を再送する場合がある（at-least-once）．
+ */
+public class WebhookOutbox {
+
+  /** ログファイル名 */
+  private static final String FILE_NAME = "webhook-outbox.log";
+
+  /** ログファイル */
+  private static final Path FILE =
+      FabricLoader.getInstance().getGameDir().resolve(ServerUtils.MOD_ID).resolve(FILE_NAME);
+
+  /** 圧縮を行う不要レコード数 */
+  private static final int COMPACT_THRESHOLD = 256;
+
+  /** 書込み待ちレコード */
+  private static final BlockingQueue<Op> queue = new LinkedBlockingQueue<>();
+
+  /** 未完了の要求（ID→ログ行）．書込みスレッドのみ操作 */
+  private static final Map<Long, String> pending = new LinkedHashMap<>();
+
+  /** 次に割り当てる要求ID */
+  private static final AtomicLong nextId = new AtomicLong(1);
+
+  /** 書込みスレッド */
+  private static volatile Thread writerThread;
+
+  /** 追記用チャネル．書込みスレッドのみ操作 */
+  private static FileChannel channel;
+
+  /** 前回圧縮後の不要レコード数．書込みスレッドのみ操作 */
+  private static int obsoleteRecords;
+
+  /** 停止時に期限を過ぎても書込み完了を待つ最短時間（ミリ秒） */
+  private static final long CLOSE_GRACE_MILLIS = 1_000L;
+
+  /** 書込み停止要求 */
+  private static final Op STOP = new Op(0, null, null);
+
+  /**
+   * アウトボックス開始． ログを読込み未完了の要求を記録順で再投入し，ログを圧縮後に書込みスレッドを開始．
+   *
+   * @param dispatcherLookup 送信先名から配送パイプラインを取得する関数
+   */
+  public static synchronized void open(Function<String, WebhookDispatcher> dispatcherLookup) {
+    if (writerThread != null) {
+      return;
+    }
+    try {
+      Files.createDirectories(FILE.getParent());
+      load();
+      rewrite();
+    } catch (IOException e) {
+      ServerUtils.LOGGER.error(
+          "Failed to open webhook outbox {}, delivery is not durable", FILE, e);
+      closeChannel();
+      return;
+    }
+
+    // 書込みスレッド開始後は pending を操作できないため先に複製
+    List<Map.Entry<Long, String>> undelivered = new ArrayList<>(pending.entrySet());
+    Thread thread = new Thread(WebhookOutbox::run, "ServerUtils-Outbox");
+    thread.setDaemon(true);
+    thread.start();
+    writerThread = thread;
+
+    int replayed = 0;
+    for (Map.Entry<Long, String> entry : undelivered) {
+      try {
+        JsonObject record = JsonParser.parseString(entry.getValue()).getAsJsonObject();
+        WebhookDispatcher dispatcher = dispatcherLookup.apply(record.get("target").getAsString());
+        if (dispatcher == null) {
+          ServerUtils.LOGGER.warn(
+              "Discarding undelivered webhook for removed target '{}'",
+              record.get("target").getAsString());
+          markDone(entry.getKey());
+          continue;
+        }
+        WebhookDispatcher.Delivery delivery = decode(record);
+        track(entry.getKey(), delivery);
+        dispatcher.submit(delivery);
+        replayed++;
+      } catch (RuntimeException e) {
+        ServerUtils.LOGGER.warn("Discarding unreadable webhook outbox entry {}", entry.getKey(), e);
+        markDone(entry.getKey());
+      }
+    }
+    if (replayed > 0) {
+      ServerUtils.LOGGER.info("Replaying {} undelivered webhook(s) from outbox", replayed);
+    }
+  }
+
+  /**
+   * アウトボックス停止． 書込み待ちレコードを全て書き込み，ログを圧縮． サーバー停止時，配送パイプライン停止後に呼出．
+   *
+   * <p>書込みスレッドの終了は期限まで待ち，期限を過ぎている場合も {@value #CLOSE_GRACE_MILLIS} ミリ秒は待つ．
+   *
+   * @param deadlineNanos 終了待ちの期限（{@link System#nanoTime()} 基準）
+   */
+  public static void close(long deadlineNanos) {
+    Thread thread;
+    synchronized (WebhookOutbox.class) {
+      thread = writerThread;
+      if (thread == null) {
+        return;
+      }
+      writerThread = null;
+    }
+    queue.add(STOP);
+    try {
+      long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+      thread.join(Math.max(remainingMillis, CLOSE_GRACE_MILLIS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * 送信要求の永続化と投入． 配送パイプラインのキュー枠を確保してから永続化し，永続化完了後に書込みスレッドから投入．
+   * アウトボックス停止中は直接投入し，停止済みの配送パイプラインは要求を失敗として完了．
+   *
+   * <p>停止判定と書込み待ちレコードの追加は {@link #close(long)} と同じロック下で行い，停止要求より後に追加されたレコードが書き込まれず残ることを防ぐ．
+   *
+   * @param targetName 送信先名
+   * @param dispatcher 配送パイプライン
+   * @param delivery 送信要求
+   * @return 受付けた場合true．キュー満杯時は永続化せずfalse
+   */
+  public static boolean submit(
+      String targetName, WebhookDispatcher dispatcher, WebhookDispatcher.Delivery delivery) {
+    long id = nextId.getAndIncrement();
+    String line = encode(id, targetName, delivery);
+    CompletableFuture<Void> persisted = new CompletableFuture<>();
+    boolean durable;
+    synchronized (WebhookOutbox.class) {
+      durable = writerThread != null;
+      if (durable) {
+        if (!dispatcher.reserve(delivery)) {
+          return false;
+        }
+        queue.add(new Op(id, line, persisted));
+      }
+    }
+    if (!durable) {
+      return dispatcher.submit(delivery);
+    }
+    persisted.whenComplete(
+        (ignored, error) -> {
+          if (error == null) {
+            track(id, delivery);
+          }
+          dispatcher.submitReserved(delivery);
+        });
+    return true;
+  }
+
+  /**
+   * 応答受信時の完了記録登録． 送信を諦めた要求・停止時に破棄された要求は未完了のまま残し次回起動時に再送．
+   *
+   * @param id 要求ID
+   * @param delivery 送信要求
+   */
+  private static void track(long id, WebhookDispatcher.Delivery delivery) {
+    delivery
+        .result()
+        .whenComplete(
+            (response, error) -> {
+              if (error == null) {
+                markDone(id);
+              }
+            });
+  }
+
+  private static void markDone(long id) {
+    queue.add(new Op(id, null, null));
+  }
+
+  /** 書込みスレッド処理． 書込み待ちレコードをまとめて追記し，追加レコードを含む場合のみ1度fsync． */
+  private static void run() {
+    List<Op> batch = new ArrayList<>();
+    boolean stopping = false;
+    while (!stopping) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        break;
+      }
+      queue.drainTo(batch);
+
+      StringBuilder lines = new StringBuilder();
+      boolean hasAppend = false;
+      for (Op op : batch) {
+        if (op == STOP) {
+          stopping = true;
+        } else if (op.line() != null) {
+          pending.put(op.id(), op.line());
+          lines.append(op.line()).append('\n');
+          hasAppend = true;
+        } else if (pending.remove(op.id()) != null) {
+          lines.append("{\"op\":\"done\",\"id\":").append(op.id()).append("}\n");
+          obsoleteRecords += 2;
+        }
+      }
+
+      try {
+        write(lines.toString());
+        if (hasAppend && channel != null) {
+          channel.force(false);
+        }
+      } catch (IOException e) {
+        ServerUtils.LOGGER.error("Failed to write webhook outbox", e);
+      }
+      for (Op op : batch) {
+        if (op.persisted() != null) {
+          // 書込み失敗時も送信自体は行う
+          op.persisted().complete(null);
+        }
+      }
+      batch.clear();
+
+      if (obsoleteRecords >= COMPACT_THRESHOLD || stopping) {
+        try {
+          rewrite();
+        } catch (IOException e) {
+          ServerUtils.LOGGER.error("Failed to compact webhook outbox", e);
+        }
+      }
+    }
+    closeChannel();
+  }
+
+  private static void write(String lines) throws IOException {
+    if (lines.isEmpty()) {
+      return;
+    }
+    if (channel == null) {
+      throw new IOException("Webhook outbox is not open");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /** ログ読込． 未完了の要求のみ保持． 書込み途中で途切れた行は無視． */
+  private static void load() throws IOException {
+    pending.clear();
+    if (!Files.isRegularFile(FILE)) {
+      return;
+    }
+    long maxId = 0;
+    try (BufferedReader reader = Files.newBufferedReader(FILE, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        try {
+          JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+          long id = record.get("id").getAsLong();
+          maxId = Math.max(maxId, id);
+          if ("put".equals(record.get("op").getAsString())) {
+            pending.put(id, line);
+          } else {
+            pending.remove(id);
+          }
+        } catch (RuntimeException e) {
+          ServerUtils.LOGGER.warn("Skipping corrupt webhook outbox record");
+        }
+      }
+    }
+    nextId.set(maxId + 1);
+  }
+
+  /** ログ圧縮． 未完了の要求のみを一時ファイルへ書き込み，fsync後に置換して追記用に開き直す． */
+  private static void rewrite() throws IOException {
+    closeChannel();
+    Path temp = FILE.resolveSibling(FILE_NAME + ".tmp");
+    try (FileChannel out =
+        FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      StringBuilder lines = new StringBuilder();
+      for (String line : pending.values()) {
+        lines.append(line).append('\n');
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        out.write(buffer);
+      }
+      out.force(true);
+    }
+    Files.move(temp, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    channel =
+        FileChannel.open(
+            FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    obsoleteRecords = 0;
+  }
+
+  private static void closeChannel() {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        ServerUtils.LOGGER.warn("Failed to close webhook outbox", e);
+      }
+      channel = null;
+    }
+  }
+
+  /**
+   * 送信要求のログ行変換．
+   *
+   * @param id 要求ID
+   * @param targetName 送信先名
+   * @param delivery 送信要求
+   * @return ログ行（JSON）
+   */
+  private static String encode(long id, String targetName, WebhookDispatcher.Delivery delivery) {
+    JsonObject record = new JsonObject();
+    record.addProperty("op", "put");
+    record.addProperty("id", id);
+    record.addProperty("target", targetName);
+    record.addProperty("uri", delivery.uri().toString());
+    record.addProperty("method", delivery.method());
+    record.addProperty("embed", delivery.embedPayload() != null);
+    if (delivery.contentType().startsWith("application/json")) {
+      record.addProperty("body", new String(delivery.body(), StandardCharsets.UTF_8));
+    } else {
+      // 添付ファイル付き等のバイナリ本文
+      record.addProperty("contentType", delivery.contentType());
+      record.addProperty("bodyBase64", Base64.getEncoder().encodeToString(delivery.body()));
+    }
+    return record.toString();
+  }
+
+  /**
+   * ログ行からの送信要求復元． 埋め込みメッセージは結合可能な要求として復元．
+   *
+   * @param record ログ行（JSON）
+   * @return 送信要求
+   */
+  private static WebhookDispatcher.Delivery decode(JsonObject record) {
+    URI uri = URI.create(record.get("uri").getAsString());
+    if (record.has("bodyBase64")) {
+      return new WebhookDispatcher.Delivery(
+          uri,
+          record.get("method").getAsString(),
+          record.get("contentType").getAsString(),
+          Base64.getDecoder().decode(record.get("bodyBase64").getAsString()),
+          null,
+          System.nanoTime(),
+          new CompletableFuture<>());
+    }
+    String body = record.get("body").getAsString();
+    if (record.get("embed").getAsBoolean()) {
+      return WebhookDispatcher.Delivery.embeds(uri, JsonParser.parseString(body).getAsJsonObject());
+    }
+    return WebhookDispatcher.Delivery.json(uri, record.get("method").getAsString(), body);
+  }
+
+  /**
+   * 書込みレコード．
+   *
+   * @param id 要求ID
+   * @param line 追加レコードのログ行（完了レコードはnull）
+   * @param persisted 永続化完了通知（完了レコードはnull）
+   */
+  private record Op(long id, String line, CompletableFuture<Void> persisted) {}
+}
@@ -5,166 +5,626 @@ import com.google.gson.JsonObject;
 import io.github.keufcp.ServerUtils;
 import io.github.keufcp.ServerUtilsMidnightConfig;
 import io.github.keufcp.commands.UptimeCommand;
-import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.world.ServerWorld;
-import org.quartz.*;
-import org.quartz.impl.StdSchedulerFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import net.minecraft.entity.SpawnGroup;
 
 /**
  * Discord Webhookを用いたサーバー情報送信クラス．
  *
- * <p>cron式指定間隔でのWebhook送信． {@link ServerUtilsMidnightConfig#webhookCronExpression} で送信間隔設定可能．
+ * <p>{@link ServerUtilsMidnightConfig#webhookUrl} と {@link
+ * ServerUtilsMidnightConfig#webhookTargets} で定義した複数の送信先へ，送信先毎のトリガー（cron式・アラート）とペイロード形式で送信．
+ * 送信先毎に独立した {@link WebhookDispatcher} で非同期に配送し，スケジューラースレッドは通信を待たない． 同一契機のペイロードは形式毎に1度だけ構築し送信先間で共有．
+ * 定期レポート・アラートは {@link WebhookOutbox} で永続化してから配送し，未配送分は次回起動時に再送． 埋め込み形式の定期レポートには {@link
+ * HistoryChart} で描画したレポート間隔分の履歴グラフを添付． ライブステータス送信先は {@link LiveStatusUpdater} が担当．
  */
 public class WebhookSender {
   /** MOD名称．Webhook送信者名として利用 */
   private static final String MOD_NAME = "ServerUtils";
 
-  /** WebhookSender初期化済みフラグ */
-  private static final AtomicBoolean initialized = new AtomicBoolean(false);
+  /** {@link ServerUtilsMidnightConfig#webhookUrl} による送信先の名前 */
+  public static final String DEFAULT_TARGET_NAME = "default";
 
-  /** Webhook送信用Quartzスケジューラー */
-  private static Scheduler scheduler;
+  /** 手動送信等，cron式の無い場合のグラフ期間（秒） */
+  private static final long DEFAULT_CHART_SECONDS = TimeUnit.DAYS.toSeconds(1);
 
-  /** サーバーインスタンス参照 */
-  private static MinecraftServer serverInstance;
+  /** グラフ期間の下限・上限（秒） */
+  private static final long MIN_CHART_SECONDS = TimeUnit.MINUTES.toSeconds(10);
+
+  private static final long MAX_CHART_SECONDS = TimeUnit.DAYS.toSeconds(30);
+
+  /** グラフ描画待ちの上限（秒）． 超過時はグラフ無しで送信 */
+  private static final long CHART_TIMEOUT_SECONDS = 30;
+
+  /** 埋め込み形式でディメンション毎に表示するエンティティタイプ数 */
+  private static final int WEBHOOK_ENTITY_TYPES = 3;
+
+  /** 有効な送信先一覧 */
+  private static volatile List<WebhookTarget> targets = List.of();
+
+  /** 送信先名毎の配送パイプライン（同名の送信先はリロードを跨いで維持） */
+  private static volatile Map<String, WebhookDispatcher> dispatchers = Map.of();
+
+  /** 定期レポート用スケジューラー */
+  private static CronScheduler scheduler;
+
+  /** cron式毎の登録済み定期送信 */
+  private static final Map<String, CronScheduler.Task> scheduledTasks = new LinkedHashMap<>();
 
   /**
-   * サーバーインスタンスを設定する．
+   * WebhookSender初期化とスケジューラーセットアップ．
    *
-   * @param server サーバーインスタンス
+   * <p>送信先一覧を再構築し，cron式毎に定期送信をスケジュール． 同一cron式の送信先は同じトリガーで送信しペイロードを共有．
+   * 再呼出時は差分のみ反映し，変更の無いcron式のスケジュール・送信先の配送パイプラインは維持．
    */
-  public static void setServerInstance(MinecraftServer server) {
-    serverInstance = server;
+  public static synchronized void initialize() {
+    updateTargets(resolveTargets());
+    // 初回のみ：前回起動時の未配送要求を再送
+    WebhookOutbox.open(WebhookSender::getDispatcher);
+
+    // cron式毎に送信先をまとめる
+    Map<String, List<String>> targetsByCron = new LinkedHashMap<>();
+    if (ServerUtilsMidnightConfig.enableSendWebhook) {
+      for (WebhookTarget target : targets) {
+        if (target.cronExpression() != null) {
+          targetsByCron
+              .computeIfAbsent(target.cronExpression(), key -> new ArrayList<>())
+              .add(target.name());
+        }
+      }
+      LiveStatusUpdater.configure(targets);
+    } else {
+      LiveStatusUpdater.stop();
+      ServerUtils.LOGGER.info("Webhook sending is disabled.");
+    }
+    updateSchedules(targetsByCron);
   }
 
   /**
-   * WebhookSender初期化とスケジューラーセットアップ．
+   * 定期送信スケジュール更新． 不要になったcron式のみ取消し，新しいcron式のみ登録．
    *
-   * <p>設定ファイルに基づくWebhook送信有効時，指定cron式に従った定期的Webhook送信ジョブのスケジュール． 初期化済みの場合，一度シャットダウン後の再初期化．
+   * @param targetsByCron cron式→送信先名
    */
-  public static void initialize() {
-    // リロード時対応のため，初期化済みの場合，一度シャットダウン
-    if (initialized.get()) {
-      shutdown();
-      initialized.set(false);
+  private static void updateSchedules(Map<String, List<String>> targetsByCron) {
+    scheduledTasks
+        .entrySet()
+        .removeIf(
+            entry -> {
+              if (targetsByCron.containsKey(entry.getKey())) {
+                return false;
+              }
+              entry.getValue().cancel();
+              ServerUtils.LOGGER.info("Webhook schedule '{}' removed", entry.getKey());
+              return true;
+            });
+
+    for (Map.Entry<String, List<String>> entry : targetsByCron.entrySet()) {
+      String cronExpression = entry.getKey();
+      if (scheduledTasks.containsKey(cronExpression)) {
+        continue;
+      }
+      try {
+        CronExpression expression = CronExpression.parse(cronExpression);
+        if (scheduler == null) {
+          scheduler = new CronScheduler("ServerUtils-Webhook");
+        }
+        // 送信先はスケジュール実行時に参照するため，同一cron式の送信先増減では再登録不要
+        scheduledTasks.put(
+            cronExpression,
+            scheduler.schedule(expression, () -> sendScheduledReport(cronExpression)));
+        ServerUtils.LOGGER.info(
+            "Webhook schedule '{}' registered for {}", cronExpression, entry.getValue());
+      } catch (IllegalArgumentException e) {
+        ServerUtils.LOGGER.error(
+            "Invalid cron expression '{}' for webhook targets {}: {}",
+            cronExpression,
+            entry.getValue(),
+            e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * WebhookSenderスケジューラー停止処理． サーバー停止時呼出．
+   *
+   * <p>スケジューラーのシャットダウンとライブステータス更新の停止． 送信待ちの要求は配送パイプラインに残る．
+   */
+  public static synchronized void shutdown() {
+    LiveStatusUpdater.stop();
+    scheduledTasks.clear();
+    if (scheduler != null) {
+      scheduler.shutdown();
+      scheduler = null;
+      ServerUtils.LOGGER.info("Webhook scheduler shutdown");
     }
+  }
 
-    if (!ServerUtilsMidnightConfig.enableSendWebhook
-        || ServerUtilsMidnightConfig.webhookUrl.isEmpty()) {
-      ServerUtils.LOGGER.info("Webhook sending is disabled or URL not configured.");
-      return;
+  /**
+   * 全配送パイプライン停止． サーバー停止時呼出．
+   *
+   * <p>送信待ちの要求を一定時間消化した後，残りを破棄． 破棄した要求はアウトボックスに残り次回起動時に再送．
+   * 全パイプラインとアウトボックスで共通の期限を用い，送信先数によらず待ち時間を一定に抑える．
+   */
+  public static void shutdownDelivery() {
+    long deadline =
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WebhookDispatcher.DRAIN_TIMEOUT_MILLIS);
+    for (WebhookDispatcher dispatcher : dispatchers.values()) {
+      dispatcher.stop(deadline);
     }
+    WebhookOutbox.close(deadline);
+  }
 
-    // サーバー起動時にインスタンスを設定
-    ServerLifecycleEvents.SERVER_STARTED.register(
-        server -> {
-          setServerInstance(server);
-        });
+  /**
+   * 配送パイプライン一覧取得． 配送状況の参照用．
+   *
+   * @return 送信先定義順の配送パイプライン
+   */
+  public static Collection<WebhookDispatcher> getDispatchers() {
+    return dispatchers.values();
+  }
 
-    try {
-      // Quartzスケジューラー初期化
-      SchedulerFactory schedulerFactory = new StdSchedulerFactory();
-      scheduler = schedulerFactory.getScheduler();
-
-      // WebhookJob設定
-      JobDetail job =
-          JobBuilder.newJob(WebhookJob.class)
-              .withIdentity("webhookJob", "serverutils")
-              .storeDurably()
-              .build();
-
-      // Webhook cron式からの送信間隔設定
-      Trigger trigger =
-          TriggerBuilder.newTrigger()
-              .withIdentity("webhookTrigger", "serverutils")
-              .forJob(job)
-              .withSchedule(
-                  CronScheduleBuilder.cronSchedule(ServerUtilsMidnightConfig.webhookCronExpression))
-              .build();
-
-      // スケジューラーへのジョブとトリガー登録
-      scheduler.scheduleJob(job, trigger);
-      scheduler.start();
-      initialized.set(true);
-
-      ServerUtils.LOGGER.info(
-          "Webhook scheduler initialized with cron: {}",
-          ServerUtilsMidnightConfig.webhookCronExpression);
-    } catch (SchedulerException e) {
-      ServerUtils.LOGGER.error("Failed to initialize webhook scheduler", e);
+  /**
+   * 送信先名による配送パイプライン取得．
+   *
+   * @param name 送信先名
+   * @return 配送パイプライン．存在しない場合はnull
+   */
+  static WebhookDispatcher getDispatcher(String name) {
+    return dispatchers.get(name);
+  }
+
+  /**
+   * 定期レポート送信要求投入（手動送信）．
+   *
+   * <p>cronトリガーを持つ全送信先へサーバー情報を投入． 通信は待たない．
+   *
+   * @return 1件以上投入できた場合は {@code true}，送信無効・対象無し・キュー満杯時は {@code false}．
+   *     キュー枠は永続化前に確保するため，アウトボックス使用時も満杯は呼出時点で判定
+   */
+  public static boolean sendWebhook() {
+    return sendWebhook(null);
+  }
+
+  /**
+   * 定期レポート送信要求投入（手動送信）．
+   *
+   * @param targetName 送信先名．nullの場合はcronトリガーを持つ全送信先
+   * @return 1件以上投入できた場合は {@code true}，送信無効・対象無し・キュー満杯時は {@code false}
+   */
+  public static boolean sendWebhook(String targetName) {
+    if (!ServerUtilsMidnightConfig.enableSendWebhook) {
+      return false;
     }
+    List<WebhookTarget> selected = new ArrayList<>();
+    for (WebhookTarget target : targets) {
+      if (targetName == null ? target.cronExpression() != null : target.name().equals(targetName)) {
+        selected.add(target);
+      }
+    }
+    return submitReports(selected);
   }
 
   /**
-   * WebhookSenderスケジューラー停止処理．
+   * 指定cron式の送信先へ定期レポート送信要求投入．
    *
-   * <p>実行中ジョブの中断とスケジューラーのシャットダウン．
+   * @param cronExpression cron式
    */
-  public static void shutdown() {
-    if (scheduler != null) {
-      try {
-        scheduler.shutdown(true); // 即時シャットダウン
-        ServerUtils.LOGGER.info("Webhook scheduler shutdown");
-      } catch (SchedulerException e) {
-        ServerUtils.LOGGER.error("Failed to shutdown webhook scheduler", e);
+  private static void sendScheduledReport(String cronExpression) {
+    List<WebhookTarget> selected = new ArrayList<>();
+    for (WebhookTarget target : targets) {
+      if (cronExpression.equals(target.cronExpression())) {
+        selected.add(target);
       }
     }
+    submitReports(selected);
   }
 
   /**
-   * 手動でのWebhook送信．
+   * 送信先群への定期レポート送信要求投入．
    *
-   * <p>設定ファイルでのWebhook送信有効かつURL設定時， サーバー情報埋め込みWebhookメッセージの送信．
+   * <p>{@link ServerUtilsMidnightConfig#enableWebhookChart} 有効かつ履歴記録中の場合，埋め込み形式の送信先へはレポート間隔分の履歴グラフを
+   * 添付． グラフは描画スレッドで作成し，同じ期間の送信先間で1枚を共有． 描画完了後に投入するため呼出元は描画を待たない． 描画に失敗した場合はグラフ無しで送信．
    *
-   * @return 送信成功時は {@code true}，失敗時は {@code false}
+   * @param selected 送信先
+   * @return 1件以上投入した（またはグラフ描画後に投入する）場合true
    */
-  public static boolean sendWebhook() {
-    if (!ServerUtilsMidnightConfig.enableSendWebhook
-        || ServerUtilsMidnightConfig.webhookUrl.isEmpty()) {
-      return false;
+  private static boolean submitReports(List<WebhookTarget> selected) {
+    HistoryStore store = MetricsHistory.getStore();
+    if (!ServerUtilsMidnightConfig.enableWebhookChart || store == null) {
+      return submitAll(selected, WebhookSender::buildReport);
     }
 
-    try {
-      HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    List<WebhookTarget> plain = new ArrayList<>();
+    Map<Long, List<WebhookTarget>> charted = new LinkedHashMap<>();
+    for (WebhookTarget target : selected) {
+      if (target.template() == WebhookTemplate.EMBED) {
+        charted.computeIfAbsent(chartSeconds(target), key -> new ArrayList<>()).add(target);
+      } else {
+        plain.add(target);
+      }
+    }
+    boolean submitted = submitAll(plain, WebhookSender::buildReport);
+    if (charted.isEmpty()) {
+      return submitted;
+    }
 
-      // Webhookペイロード作成
-      String jsonPayload = buildWebhookPayload();
+    // 内容は投入時点のスナップショットで確定し，グラフのみ後から添付
+    JsonObject payload = buildWebhookPayload();
+    for (Map.Entry<Long, List<WebhookTarget>> entry : charted.entrySet()) {
+      List<WebhookTarget> group = entry.getValue();
+      HistoryChart.render(store, entry.getKey())
+          .orTimeout(CHART_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+          .whenComplete(
+              (png, error) -> {
+                if (error != null) {
+                  Throwable cause = error.getCause() != null ? error.getCause() : error;
+                  ServerUtils.LOGGER.warn("Sending report without chart: {}", cause.toString());
+                  submitAll(group, template -> payload);
+                  return;
+                }
+                JsonObject withChart = attachChart(payload);
+                Map<String, WebhookDispatcher> current = dispatchers;
+                for (WebhookTarget target : group) {
+                  WebhookDispatcher dispatcher = current.get(target.name());
+                  if (dispatcher != null) {
+                    submit(
+                        target,
+                        dispatcher,
+                        WebhookDispatcher.Delivery.multipart(
+                            target.uri(), withChart, HistoryChart.FILE_NAME, "image/png", png));
+                  }
+                }
+              });
+      // 投入は描画後のため，現時点でキューに空きがある送信先のみ受付けとみなす
+      for (WebhookTarget target : group) {
+        WebhookDispatcher dispatcher = dispatchers.get(target.name());
+        submitted |= dispatcher != null && dispatcher.hasCapacity();
+      }
+    }
+    return submitted;
+  }
 
-      HttpRequest request =
-          HttpRequest.newBuilder()
-              .uri(URI.create(ServerUtilsMidnightConfig.webhookUrl))
-              .header("Content-Type", "application/json")
-              .header("User-Agent", "ServerUtils-Webhook")
-              .POST(HttpRequest.BodyPublishers.ofString(jsonPayload, StandardCharsets.UTF_8))
-              .build();
+  /**
+   * グラフ期間の算出． cron式の次回と次々回の実行間隔（レポート間隔）を使用．
+   *
+   * @param target 送信先
+   * @return 期間（秒）
+   */
+  private static long chartSeconds(WebhookTarget target) {
+    if (target.cronExpression() == null) {
+      return DEFAULT_CHART_SECONDS;
+    }
+    try {
+      CronExpression expression = CronExpression.parse(target.cronExpression());
+      ZonedDateTime next = expression.next(ZonedDateTime.now());
+      ZonedDateTime following = next == null ? null : expression.next(next);
+      if (following == null) {
+        return DEFAULT_CHART_SECONDS;
+      }
+      long seconds = Duration.between(next, following).toSeconds();
+      return Math.max(MIN_CHART_SECONDS, Math.min(MAX_CHART_SECONDS, seconds));
+    } catch (IllegalArgumentException e) {
+      return DEFAULT_CHART_SECONDS;
+    }
+  }
 
-      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+  /**
+   * グラフ添付用のペイロード作成． 埋め込みの画像に添付ファイルを指定． 元のペイロードは変更しない．
+   *
+   * @param payload 定期レポートペイロード
+   * @return 添付ファイルを参照するペイロード
+   */
+  private static JsonObject attachChart(JsonObject payload) {
+    JsonObject copy = payload.deepCopy();
+    JsonObject image = new JsonObject();
+    image.addProperty("url", "attachment://" + HistoryChart.FILE_NAME);
+    copy.getAsJsonArray("embeds").get(0).getAsJsonObject().add("image", image);
+
+    JsonObject attachment = new JsonObject();
+    attachment.addProperty("id", 0);
+    attachment.addProperty("filename", HistoryChart.FILE_NAME);
+    JsonArray attachments = new JsonArray();
+    attachments.add(attachment);
+    copy.add("attachments", attachments);
+    return copy;
+  }
 
-      return response.statusCode() >= 200 && response.statusCode() < 300;
-    } catch (IOException | InterruptedException e) {
-      ServerUtils.LOGGER.error("Error sending webhook", e);
+  /**
+   * アラート通知Webhook送信要求投入．
+   *
+   * <p>{@link ServerUtilsMidnightConfig#enableAlerts} 有効時，アラートトリガーを持つ全送信先へ送信． 通信は待たない．
+   *
+   * @param name アラート名
+   * @param description アラート詳細
+   * @param fired 発火の場合true，解消の場合false
+   * @return 1件以上投入できた場合は {@code true}
+   */
+  public static boolean sendAlert(String name, String description, boolean fired) {
+    if (!ServerUtilsMidnightConfig.enableAlerts) {
       return false;
     }
+    List<WebhookTarget> selected = new ArrayList<>();
+    for (WebhookTarget target : targets) {
+      if (target.receivesAlerts()) {
+        selected.add(target);
+      }
+    }
+    return submitAll(selected, template -> buildAlert(template, name, description, fired));
+  }
+
+  /**
+   * 送信先群への送信要求投入． ペイロードは形式毎に1度だけ構築し共有．
+   *
+   * @param selected 送信先
+   * @param renderer 形式毎のペイロード構築処理
+   * @return 1件以上投入できた場合true
+   */
+  private static boolean submitAll(
+      List<WebhookTarget> selected, Function<WebhookTemplate, JsonObject> renderer) {
+    Map<WebhookTemplate, JsonObject> rendered = new EnumMap<>(WebhookTemplate.class);
+    Map<WebhookTemplate, String> serialized = new EnumMap<>(WebhookTemplate.class);
+    Map<String, WebhookDispatcher> current = dispatchers;
+    boolean submitted = false;
+
+    for (WebhookTarget target : selected) {
+      WebhookDispatcher dispatcher = current.get(target.name());
+      if (dispatcher == null) {
+        continue;
+      }
+      JsonObject payload = rendered.computeIfAbsent(target.template(), renderer);
+      WebhookDispatcher.Delivery delivery =
+          switch (target.template()) {
+            case EMBED -> WebhookDispatcher.Delivery.embeds(target.uri(), payload);
+            case JSON ->
+                WebhookDispatcher.Delivery.json(
+                    target.uri(),
+                    "POST",
+                    serialized.computeIfAbsent(target.template(), key -> payload.toString()));
+          };
+      submitted |= submit(target, dispatcher, delivery);
+    }
+    return submitted;
+  }
+
+  /**
+   * 1送信先への送信要求投入． アウトボックスで永続化してから配送．
+   *
+   * @param target 送信先
+   * @param dispatcher 送信先の配送パイプライン
+   * @param delivery 送信要求
+   * @return 受付けた場合true
+   */
+  private static boolean submit(
+      WebhookTarget target, WebhookDispatcher dispatcher, WebhookDispatcher.Delivery delivery) {
+    delivery
+        .result()
+        .whenComplete(
+            (response, error) -> {
+              if (error == null && response.statusCode() / 100 == 2) {
+                ServerUtils.LOGGER.info("Webhook sent successfully to '{}'", target.name());
+              }
+            });
+    return WebhookOutbox.submit(target.name(), dispatcher, delivery);
+  }
+
+  /**
+   * 設定からの送信先一覧構築． {@link ServerUtilsMidnightConfig#webhookUrl} は定期レポート・アラート両方の送信先として扱う．
+   *
+   * @return 送信先一覧
+   */
+  private static List<WebhookTarget> resolveTargets() {
+    Map<String, WebhookTarget> resolved = new LinkedHashMap<>();
+    if (!ServerUtilsMidnightConfig.webhookUrl.isEmpty()) {
+      resolved.put(
+          DEFAULT_TARGET_NAME,
+          new WebhookTarget(
+              DEFAULT_TARGET_NAME,
+              URI.create(ServerUtilsMidnightConfig.webhookUrl),
+              ServerUtilsMidnightConfig.webhookCronExpression,
+              true,
+              0,
+              WebhookTemplate.EMBED));
+    }
+    for (String value : ServerUtilsMidnightConfig.webhookTargets) {
+      try {
+        WebhookTarget target = WebhookTarget.parse(value);
+        if (resolved.putIfAbsent(target.name(), target) != null) {
+          ServerUtils.LOGGER.warn("Duplicate webhook target name '{}' ignored", target.name());
+        }
+      } catch (IllegalArgumentException e) {
+        ServerUtils.LOGGER.warn("Invalid webhook target '{}': {}", value, e.getMessage());
+      }
+    }
+    return List.copyOf(resolved.values());
+  }
+
+  /**
+   * 送信先一覧と配送パイプラインの更新． 同名の送信先はパイプライン（送信待ち要求・統計）を引き継ぎ， 削除された送信先のパイプラインは別スレッドで停止．
+   *
+   * @param newTargets 新しい送信先一覧
+   */
+  private static void updateTargets(List<WebhookTarget> newTargets) {
+    Map<String, WebhookDispatcher> previous = dispatchers;
+    Map<String, WebhookDispatcher> next = new LinkedHashMap<>();
+    for (WebhookTarget target : newTargets) {
+      WebhookDispatcher dispatcher = previous.get(target.name());
+      next.put(
+          target.name(),
+          dispatcher != null
+              ? dispatcher
+              : new WebhookDispatcher(target.name(), WebhookDispatcher.DEFAULT_QUEUE_CAPACITY));
+    }
+    targets = newTargets;
+    dispatchers = next;
+
+    for (Map.Entry<String, WebhookDispatcher> entry : previous.entrySet()) {
+      if (!next.containsKey(entry.getKey())) {
+        // キュー消化待ちで呼出元を止めないよう別スレッドで停止
+        Thread.ofVirtual().start(entry.getValue()::stop);
+      }
+    }
+  }
+
+  /**
+   * 形式毎の定期レポートペイロード構築．
+   *
+   * @param template ペイロード形式
+   * @return ペイロード
+   */
+  private static JsonObject buildReport(WebhookTemplate template) {
+    return switch (template) {
+      case EMBED -> buildWebhookPayload();
+      case JSON -> buildJsonPayload();
+    };
+  }
+
+  /**
+   * 形式毎のアラートペイロード構築．
+   *
+   * @param template ペイロード形式
+   * @param name アラート名
+   * @param description アラート詳細
+   * @param fired 発火の場合true，解消の場合false
+   * @return ペイロード
+   */
+  private static JsonObject buildAlert(
+      WebhookTemplate template, String name, String description, boolean fired) {
+    if (template == WebhookTemplate.JSON) {
+      JsonObject payload = new JsonObject();
+      payload.addProperty("type", "alert");
+      payload.addProperty("state", fired ? "fired" : "resolved");
+      payload.addProperty("name", name);
+      payload.addProperty("description", description);
+      payload.addProperty("timestamp", java.time.Instant.now().toString());
+      return payload;
+    }
+
+    JsonObject embed = new JsonObject();
+    embed.addProperty(
+        "title",
+        ServerUtils.LANG.get(fired ? "alert.webhook.fired" : "alert.webhook.resolved", name));
+    embed.addProperty("description", description);
+    embed.addProperty("color", fired ? 15158332 : 3066993); // 赤色・緑色
+    JsonObject footer = new JsonObject();
+    footer.addProperty("text", ServerUtils.MOD_ID);
+    embed.add("footer", footer);
+    embed.addProperty("timestamp", java.time.Instant.now().toString());
+
+    JsonArray embeds = new JsonArray();
+    embeds.add(embed);
+    JsonObject payload = new JsonObject();
+    payload.addProperty("username", MOD_NAME);
+    payload.add("embeds", embeds);
+    return payload;
+  }
+
+  /**
+   * 生JSON形式のメトリクスペイロード構築． 外部ボット等での機械処理用．
+   *
+   * @return ペイロード
+   */
+  private static JsonObject buildJsonPayload() {
+    JsonObject payload = new JsonObject();
+    payload.addProperty("type", "report");
+    payload.addProperty("timestamp", java.time.Instant.now().toString());
+    payload.addProperty(
+        "uptimeSeconds",
+        TimeUnit.MILLISECONDS.toSeconds(
+            System.currentTimeMillis() - ServerUtils.serverStartTimeMillis));
+
+    MetricsSnapshot snapshot = MetricsSnapshotPublisher.getCurrent();
+    if (snapshot == null) {
+      return payload;
+    }
+
+    payload.addProperty("tps", snapshot.getTps());
+    payload.addProperty("targetTickRate", snapshot.getTargetTickRate());
+    payload.addProperty("mspt", snapshot.getMspt());
+    payload.addProperty("frozen", snapshot.isFrozen());
+    payload.addProperty("sprinting", snapshot.isSprinting());
+
+    JsonObject windows = new JsonObject();
+    for (TickWindow window : TickWindow.values()) {
+      JsonObject values = new JsonObject();
+      values.addProperty("tps", snapshot.getTps(window));
+      values.addProperty("mspt", snapshot.getMspt(window));
+      windows.add(window.getLabel(), values);
+    }
+    payload.add("windows", windows);
+
+    JsonObject players = new JsonObject();
+    players.addProperty("current", snapshot.getPlayerCount());
+    players.addProperty("max", snapshot.getMaxPlayerCount());
+    payload.add("players", players);
+
+    JsonArray dimensions = new JsonArray();
+    for (MetricsSnapshot.DimensionSnapshot dimension : snapshot.getDimensions()) {
+      JsonObject entry = new JsonObject();
+      entry.addProperty("id", dimension.getWorldKey().getValue().toString());
+      MobCapProcessor.MobCapInfo info = dimension.getMobCapInfo();
+      if (info.hasValidInfo()) {
+        entry.addProperty("monsters", info.getCurrentMonsterCount());
+        entry.addProperty("mobCap", info.getMobCap());
+        entry.addProperty("spawnChunks", info.getSpawnChunkCount());
+        JsonObject mobCaps = new JsonObject();
+        for (SpawnGroup group : MobCapProcessor.getCappedGroups()) {
+          JsonObject groupEntry = new JsonObject();
+          groupEntry.addProperty("count", info.getCount(group));
+          groupEntry.addProperty("cap", info.getMobCap(group));
+          mobCaps.add(group.getName(), groupEntry);
+        }
+        entry.add("mobCaps", mobCaps);
+      }
+      if (dimension.hasTickData()) {
+        entry.addProperty("mspt", dimension.getMspt(TickWindow.MINUTES_1));
+        entry.addProperty("tps", dimension.getTps(TickWindow.MINUTES_1));
+      }
+      JsonObject entities = new JsonObject();
+      entities.addProperty("total", dimension.getEntityTotal());
+      JsonObject entityTypes = new JsonObject();
+      for (int rawId : dimension.getTopEntityTypes(Integer.MAX_VALUE)) {
+        entityTypes.addProperty(
+            EntityPopulationCounter.getTypeId(rawId).toString(), dimension.getEntityCount(rawId));
+      }
+      entities.add("types", entityTypes);
+      entry.add("entities", entities);
+      dimensions.add(entry);
+    }
+    payload.add("dimensions", dimensions);
+
+    return payload;
   }
 
   /**
    * Discord Webhook送信用JSONペイロード構築．
    *
-   * <p>サーバー稼働時間、プレイヤー数、パフォーマンス、MobCap情報等を含むembedメッセージ作成．
+   * <p>サーバー稼働時間、プレイヤー数、パフォーマンス、MobCap情報等を含むembedメッセージ作成． ゲーム状態へは直接アクセスせず，{@link
+   * MetricsSnapshotPublisher} が公開したスナップショットを参照．
    *
-   * @return Webhook送信用構築済みJSON文字列
+   * @return Webhook送信用構築済みペイロード
    */
-  private static String buildWebhookPayload() {
+  private static JsonObject buildWebhookPayload() {
+    return buildWebhookPayload(false);
+  }
+
+  /**
+   * Discord Webhook送信用JSONペイロード構築．
+   *
+   * <p>ライブステータス用の場合，内容比較のため時間経過のみで変化する稼働時間・タイムスタンプを含めない．
+   *
+   * @param liveStatus ライブステータス用の場合true
+   * @return Webhook送信用構築済みペイロード
+   */
+  static JsonObject buildWebhookPayload(boolean liveStatus) {
     JsonObject payload = new JsonObject();
 
     // Webhook送信者名とアイコン設定
@@ -182,72 +642,149 @@ public class WebhookSender {
     // fields配列作成
     JsonArray fields = new JsonArray();
 
-    // サーバーインスタンス取得
-    MinecraftServer server = serverInstance;
+    // 公開済みスナップショット取得（サーバースレッドへはアクセスしない）
+    MetricsSnapshot snapshot = MetricsSnapshotPublisher.getCurrent();
 
-    if (server != null) {
+    if (snapshot != null) {
       // プレイヤー数フィールド追加
       JsonObject playersField = new JsonObject();
       playersField.addProperty("name", ServerUtils.LANG.get("webhook.players.title"));
-      int currentPlayers = server.getCurrentPlayerCount();
-      int maxPlayers = server.getMaxPlayerCount();
       playersField.addProperty(
-          "value", ServerUtils.LANG.get("webhook.players.value", currentPlayers, maxPlayers));
+          "value",
+          ServerUtils.LANG.get(
+              "webhook.players.value", snapshot.getPlayerCount(), snapshot.getMaxPlayerCount()));
       playersField.addProperty("inline", true);
       fields.add(playersField);
 
       // パフォーマンスフィールド追加
       JsonObject performanceField = new JsonObject();
       performanceField.addProperty("name", ServerUtils.LANG.get("webhook.performance.title"));
-      double tps = TickTimeUtil.calculateTPS();
-      double mspt = TickTimeUtil.getMeanTickTime();
       String performanceValue =
           "TPS: `"
-              + String.format("%.2f", tps)
+              + String.format("%.2f", snapshot.getTps())
+              + " / "
+              + String.format("%.1f", snapshot.getTargetTickRate())
               + "`\n"
               + "MSPT: `"
-              + String.format("%.2f", mspt)
-              + " ms`";
+              + String.format("%.2f", snapshot.getMspt())
+              + " ms`\n"
+              + TickWindow.joinLabels()
+              + "\nTPS: `"
+              + TickWindow.joinValues(snapshot::getTps)
+              + "`\nMSPT: `"
+              + TickWindow.joinValues(snapshot::getMspt)
+              + "`";
       performanceField.addProperty("value", performanceValue);
       performanceField.addProperty("inline", true);
       fields.add(performanceField);
 
+      // ディメンション別パフォーマンスフィールド追加
+      JsonObject dimensionsField = new JsonObject();
+      dimensionsField.addProperty(
+          "name",
+          ServerUtils.LANG.get("webhook.dimensions.title", TickWindow.MINUTES_1.getLabel()));
+      StringBuilder dimensionsValue = new StringBuilder();
+
+      for (MetricsSnapshot.DimensionSnapshot dimension : snapshot.getDimensions()) {
+        if (!dimension.hasTickData()) {
+          continue;
+        }
+        if (dimensionsValue.length() > 0) {
+          dimensionsValue.append("\n");
+        }
+        dimensionsValue.append(
+            ServerUtils.LANG.get(
+                "webhook.dimensions.row",
+                dimension.getDisplayName(),
+                String.format("%.2f", dimension.getMspt(TickWindow.MINUTES_1)),
+                String.format("%.2f", dimension.getTps(TickWindow.MINUTES_1))));
+      }
+
+      if (dimensionsValue.length() > 0) {
+        dimensionsField.addProperty("value", dimensionsValue.toString());
+        dimensionsField.addProperty("inline", false);
+        fields.add(dimensionsField);
+      }
+
       // MobCap情報フィールド追加
       JsonObject mobCapField = new JsonObject();
       mobCapField.addProperty("name", ServerUtils.LANG.get("webhook.mobcap.title"));
       StringBuilder mobCapValue = new StringBuilder();
 
-      for (ServerWorld world : server.getWorlds()) {
-        String dimensionName = MobCapProcessor.getDisplayDimensionName(world);
-        MobCapProcessor.MobCapInfo info = MobCapProcessor.getMobCapInfo(world);
+      for (MetricsSnapshot.DimensionSnapshot dimension : snapshot.getDimensions()) {
+        MobCapProcessor.MobCapInfo info = dimension.getMobCapInfo();
         if (info.hasValidInfo()) {
           if (mobCapValue.length() > 0) {
             mobCapValue.append("\n");
           }
-          mobCapValue
-              .append(dimensionName)
-              .append(": ")
-              .append(info.getCurrentMonsterCount())
-              .append("/")
-              .append(info.getMobCap());
+          mobCapValue.append(dimension.getDisplayName()).append(":");
+          // モンスター以外は上限に影響するMobが存在するグループのみ表示
+          String separator = " ";
+          for (SpawnGroup group : MobCapProcessor.getCappedGroups()) {
+            if (group != SpawnGroup.MONSTER && info.getCount(group) == 0) {
+              continue;
+            }
+            mobCapValue
+                .append(separator)
+                .append(
+                    ServerUtils.LANG.get(
+                        "webhook.mobcap.group",
+                        group.getName(),
+                        info.getCount(group),
+                        info.getMobCap(group)));
+            separator = ", ";
+          }
         }
       }
 
       mobCapField.addProperty("value", mobCapValue.toString());
       mobCapField.addProperty("inline", true);
       fields.add(mobCapField);
-    }
 
-    // サーバー稼働時間情報取得（既存の処理を最後に配置）
-    List<Long> uptimeList = UptimeCommand.calculateUptime();
-    String uptimeValue = UptimeCommand.formatUptimeValue(uptimeList);
+      // エンティティ数フィールド追加
+      StringBuilder entitiesValue = new StringBuilder();
+      for (MetricsSnapshot.DimensionSnapshot dimension : snapshot.getDimensions()) {
+        if (entitiesValue.length() > 0) {
+          entitiesValue.append("\n");
+        }
+        StringBuilder topTypes = new StringBuilder();
+        for (int rawId : dimension.getTopEntityTypes(WEBHOOK_ENTITY_TYPES)) {
+          if (topTypes.length() > 0) {
+            topTypes.append(", ");
+          }
+          topTypes
+              .append(EntityPopulationCounter.getDisplayTypeName(rawId))
+              .append(" ")
+              .append(dimension.getEntityCount(rawId));
+        }
+        entitiesValue.append(
+            ServerUtils.LANG.get(
+                "webhook.entities.row",
+                dimension.getDisplayName(),
+                dimension.getEntityTotal(),
+                topTypes.toString()));
+      }
+      if (entitiesValue.length() > 0) {
+        JsonObject entitiesField = new JsonObject();
+        entitiesField.addProperty("name", ServerUtils.LANG.get("webhook.entities.title"));
+        entitiesField.addProperty("value", entitiesValue.toString());
+        entitiesField.addProperty("inline", false);
+        fields.add(entitiesField);
+      }
+    }
 
-    // 稼働時間フィールド追加
-    JsonObject uptimeField = new JsonObject();
-    uptimeField.addProperty("name", ServerUtils.LANG.get("webhook.uptime.title"));
-    uptimeField.addProperty("value", uptimeValue);
-    uptimeField.addProperty("inline", true);
-    fields.add(uptimeField);
+    if (!liveStatus) {
+      // サーバー稼働時間情報取得（既存の処理を最後に配置）
+      List<Long> uptimeList = UptimeCommand.calculateUptime();
+      String uptimeValue = UptimeCommand.formatUptimeValue(uptimeList);
+
+      // 稼働時間フィールド追加
+      JsonObject uptimeField = new JsonObject();
+      uptimeField.addProperty("name", ServerUtils.LANG.get("webhook.uptime.title"));
+      uptimeField.addProperty("value", uptimeValue);
+      uptimeField.addProperty("inline", true);
+      fields.add(uptimeField);
+    }
 
     // fieldsをembedに追加
     embed.add("fields", fields);
@@ -258,34 +795,14 @@ public class WebhookSender {
     embed.add("footer", footer);
 
     // 現在時刻ISO形式追加
-    embed.addProperty("timestamp", java.time.Instant.now().toString());
+    if (!liveStatus) {
+      embed.addProperty("timestamp", java.time.Instant.now().toString());
+    }
 
     // embedをembedsに追加し，payloadに設定
     embeds.add(embed);
     payload.add("embeds", embeds);
 
-    return payload.toString();
-  }
-
-  /**
-   * Quartzスケジューラーによる定期的Webhook送信ジョブ．
-   *
-   * <p>ジョブ実行時，{@link WebhookSender#sendWebhook()} メソッド呼出によるWebhookメッセージ送信．
-   */
-  public static class WebhookJob implements Job {
-    /**
-     * ジョブ実行ロジック．Webhook送信．
-     *
-     * @param context ジョブ実行コンテキスト
-     */
-    @Override
-    public void execute(JobExecutionContext context) {
-      try {
-        sendWebhook();
-        ServerUtils.LOGGER.info("Webhook sent successfully");
-      } catch (Exception e) {
-        ServerUtils.LOGGER.error("Failed to send webhook", e);
-      }
-    }
+    return payload;
   }
 }
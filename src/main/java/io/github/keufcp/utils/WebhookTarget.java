@@ -0,0 +1,104 @@
+package io.github.keufcp.utils;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Webhook送信先定義．
+ *
+ * <p>設定値 {@code 名前|URL|トリガー|形式} から作成． トリガーは {@code cron:<cron式>}（定期レポート），{@code
+ * alerts}（アラート通知），{@code live:<秒>}（ライブステータスメッセージの定期編集）のいずれか． 形式は {@link WebhookTemplate} の名前で省略時は
+ * {@code embed}．
+ *
+ * @param name 送信先名（配送パイプラインの識別子）
+ * @param uri 送信先URL
+ * @param cronExpression 定期レポートのcron式．定期レポート対象外の場合null
+ * @param receivesAlerts アラート通知対象の場合true
+ * @param liveIntervalSeconds ライブステータスの更新間隔（秒）．ライブステータス対象外の場合0
+ * @param template ペイロード形式
+ */
+public record WebhookTarget(
+    String name,
+    URI uri,
+    String cronExpression,
+    boolean receivesAlerts,
+    int liveIntervalSeconds,
+    WebhookTemplate template) {
+
+  /** 設定値の区切り文字 */
+  private static final String SEPARATOR = "\\|";
+
+  /** cronトリガーの接頭辞 */
+  private static final String CRON_PREFIX = "cron:";
+
+  /** アラートトリガー名 */
+  private static final String ALERTS_TRIGGER = "alerts";
+
+  /** ライブステータストリガーの接頭辞 */
+  private static final String LIVE_PREFIX = "live:";
+
+  /** ライブステータス更新間隔下限（秒） */
+  public static final int MIN_LIVE_INTERVAL_SECONDS = 5;
+
+  /**
+   * 設定値からの作成．
+   *
+   * @param value 設定値（{@code 名前|URL|トリガー|形式}）
+   * @return 送信先定義
+   * @throws IllegalArgumentException 書式不正の場合
+   */
+  public static WebhookTarget parse(String value) {
+    String[] parts = value.split(SEPARATOR, -1);
+    if (parts.length < 3 || parts.length > 4) {
+      throw new IllegalArgumentException("expected name|url|trigger[|template]");
+    }
+
+    String name = parts[0].trim();
+    if (name.isEmpty()) {
+      throw new IllegalArgumentException("empty target name");
+    }
+
+    URI uri = URI.create(parts[1].trim());
+    String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+    if (!scheme.equals("https") && !scheme.equals("http")) {
+      throw new IllegalArgumentException("URL must be http(s)");
+    }
+
+    String trigger = parts[2].trim();
+    String cronExpression = null;
+    boolean receivesAlerts = false;
+    int liveIntervalSeconds = 0;
+    if (trigger.regionMatches(true, 0, CRON_PREFIX, 0, CRON_PREFIX.length())) {
+      cronExpression = trigger.substring(CRON_PREFIX.length()).trim();
+      if (cronExpression.isEmpty()) {
+        throw new IllegalArgumentException("empty cron expression");
+      }
+      CronExpression.parse(cronExpression);
+    } else if (trigger.equalsIgnoreCase(ALERTS_TRIGGER)) {
+      receivesAlerts = true;
+    } else if (trigger.regionMatches(true, 0, LIVE_PREFIX, 0, LIVE_PREFIX.length())) {
+      try {
+        liveIntervalSeconds = Integer.parseInt(trigger.substring(LIVE_PREFIX.length()).trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("invalid live interval: " + trigger);
+      }
+      if (liveIntervalSeconds < MIN_LIVE_INTERVAL_SECONDS) {
+        throw new IllegalArgumentException(
+            "live interval must be at least " + MIN_LIVE_INTERVAL_SECONDS + " seconds");
+      }
+    } else {
+      throw new IllegalArgumentException("unknown trigger: " + trigger);
+    }
+
+    WebhookTemplate template =
+        parts.length == 4 && !parts[3].isBlank()
+            ? WebhookTemplate.parse(parts[3])
+            : WebhookTemplate.EMBED;
+    if (liveIntervalSeconds > 0 && template != WebhookTemplate.EMBED) {
+      throw new IllegalArgumentException("live status requires the embed template");
+    }
+
+    return new WebhookTarget(
+        name, uri, cronExpression, receivesAlerts, liveIntervalSeconds, template);
+  }
+}
@@ -0,0 +1,22 @@
+package io.github.keufcp.utils;
+
+import java.util.Locale;
+
+/** Webhookペイロード形式． */
+public enum WebhookTemplate {
+  /** Discord埋め込みメッセージ（同一宛先への複数メッセージは1リクエストへ結合） */
+  EMBED,
+  /** 生JSONメトリクス（外部ボット等への連携用） */
+  JSON;
+
+  /**
+   * 設定値からの解決．
+   *
+   * @param value 設定値（{@code embed} / {@code json}，大文字小文字不問）
+   * @return ペイロード形式
+   * @throws IllegalArgumentException 未知の形式の場合
+   */
+  public static WebhookTemplate parse(String value) {
+    return valueOf(value.trim().toUpperCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,111 @@
+package io.github.keufcp.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 時間窓付きTick時間ヒストグラム．
+ *
+ * <p>{@value #SLOT_SECONDS} 秒毎のスロットヒストグラムをリング状に保持し，窓問い合わせ時に該当スロットを合算． 記録側（サーバースレッド）は現在スロットへの加算と，
+ * スロット切替時の消去のみを行うためアロケーション無し．
+ *
+ * <p>他スレッドからの問い合わせは記録中スロットを含むベストエフォートな値．
+ */
+public final class WindowedTickHistogram {
+
+  /** スロット幅（秒） */
+  public static final int SLOT_SECONDS = 5;
+
+  /** スロット幅（ナノ秒） */
+  private static final long SLOT_NANOS = TimeUnit.SECONDS.toNanos(SLOT_SECONDS);
+
+  /** スロット毎ヒストグラム */
+  private final TickHistogram[] slots;
+
+  /** 現在スロットの通し番号（{@code nanoTime / SLOT_NANOS}） */
+  private volatile long currentEpoch = Long.MIN_VALUE;
+
+  /**
+   * 指定最大窓幅を賄うスロット数で作成．
+   *
+   * @param maxWindowNanos 問い合わせ可能な最大窓幅（ナノ秒）
+   */
+  public WindowedTickHistogram(long maxWindowNanos) {
+    // 最大窓幅 + 記録中スロット分
+    int slotCount = (int) ((maxWindowNanos + SLOT_NANOS - 1) / SLOT_NANOS) + 1;
+    this.slots = new TickHistogram[slotCount];
+    for (int i = 0; i < slotCount; i++) {
+      slots[i] = new TickHistogram();
+    }
+  }
+
+  /**
+   * 値記録．
+   *
+   * <p>サーバースレッドからのみ呼出可．
+   *
+   * @param valueMicros 値（マイクロ秒）
+   * @param nowNanos 記録時刻（{@link System#nanoTime()} 基準）
+   */
+  public void record(long valueMicros, long nowNanos) {
+    long epoch = Math.floorDiv(nowNanos, SLOT_NANOS);
+    long current = currentEpoch;
+    if (epoch != current) {
+      advance(current, epoch);
+    }
+    slots[slotIndex(epoch)].record(valueMicros);
+  }
+
+  /**
+   * 指定窓幅に該当するスロットを合算したヒストグラム作成．
+   *
+   * <p>窓幅はスロット幅単位に切り上げ，記録中スロットを加えた範囲を対象とする．
+   *
+   * @param windowNanos 窓幅（ナノ秒）
+   * @return 合算済みヒストグラム
+   */
+  public TickHistogram query(long windowNanos) {
+    TickHistogram merged = new TickHistogram();
+    long epoch = currentEpoch;
+    if (epoch == Long.MIN_VALUE) {
+      return merged;
+    }
+    long nowEpoch = Math.floorDiv(System.nanoTime(), SLOT_NANOS);
+    int slotCount =
+        (int) Math.min((windowNanos + SLOT_NANOS - 1) / SLOT_NANOS + 1, (long) slots.length);
+    for (int i = 0; i < slotCount; i++) {
+      long target = epoch - i;
+      // 記録が途絶えている間に窓外へ出たスロットは除外
+      if (nowEpoch - target >= slotCount) {
+        break;
+      }
+      merged.add(slots[slotIndex(target)]);
+    }
+    return merged;
+  }
+
+  /** 全スロット消去． */
+  public void reset() {
+    for (TickHistogram slot : slots) {
+      slot.reset();
+    }
+    currentEpoch = Long.MIN_VALUE;
+  }
+
+  private void advance(long current, long epoch) {
+    if (current == Long.MIN_VALUE || epoch - current >= slots.length || epoch < current) {
+      for (TickHistogram slot : slots) {
+        slot.reset();
+      }
+    } else {
+      // 記録の無かったスロットも含めて消去
+      for (long e = current + 1; e <= epoch; e++) {
+        slots[slotIndex(e)].reset();
+      }
+    }
+    currentEpoch = epoch;
+  }
+
+  private int slotIndex(long epoch) {
+    return (int) Math.floorMod(epoch, (long) slots.length);
+  }
+}